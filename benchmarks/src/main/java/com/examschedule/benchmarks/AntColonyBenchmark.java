@@ -0,0 +1,67 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.utils.ScheduleFitness;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Các bước nóng của {@link AntColonyOptimization}, gọi riêng qua
+ * {@link AntColonyOptimization#hotPaths()}: một con kiến xây dựng lịch (gồm
+ * selectAssignment và chia phòng) và một lần cập nhật pheromone từ ANTS lời giải.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntColonyBenchmark {
+    private static final int ANTS = 10;
+
+    private AntColonyOptimization.HotPaths aco;
+    private Random random;
+    private CompactSchedule schedule;
+    private CompactSchedule[] antSchedules;
+    private double[] antFitness;
+
+    @Setup(Level.Trial)
+    public void setUp(InstanceState state) {
+        aco = InstanceState.quietly(() -> new AntColonyOptimization(state.data, ANTS, 1, 42)).hotPaths();
+        random = new Random(42);
+        schedule = new CompactSchedule(state.instance.getNumExams());
+
+        ScheduleFitness fitness = new ScheduleFitness(state.data);
+        antSchedules = new CompactSchedule[ANTS];
+        antFitness = new double[ANTS];
+        for (int ant = 0; ant < ANTS; ant++) {
+            antSchedules[ant] = new CompactSchedule(state.instance.getNumExams());
+            aco.constructSchedule(random, antSchedules[ant]);
+            antFitness[ant] = fitness.calculateFitness(antSchedules[ant]);
+        }
+    }
+
+    @Benchmark
+    public CompactSchedule constructSchedule() {
+        aco.constructSchedule(random, schedule);
+        return schedule;
+    }
+
+    @Benchmark
+    public AntColonyOptimization.HotPaths updatePheromone() {
+        aco.updatePheromone(antSchedules, antFitness);
+        return aco;
+    }
+}
@@ -0,0 +1,207 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.InstanceGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Phần dùng chung của các benchmark chạy bằng main: đọc tuỳ chọn "--tên giá trị",
+ * tắt log của bộ giải khi đo, và bảng kết quả in dần từng dòng rồi in lại đầy đủ
+ * kèm tiêu đề ở cuối.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Tuỳ chọn dòng lệnh dạng cặp "--tên giá trị". Giá trị có thể bắt đầu bằng
+     * "-" (số âm) vì luôn là phần tử ngay sau tên.
+     */
+    static final class Options {
+        private final Map<String, String> values = new HashMap<>();
+
+        Options(String[] args) {
+            for (int i = 0; i < args.length; i += 2) {
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+                }
+                values.put(args[i], args[i + 1]);
+            }
+        }
+
+        boolean has(String name) {
+            return values.containsKey(name);
+        }
+
+        String string(String name, String defaultValue) {
+            return values.getOrDefault(name, defaultValue);
+        }
+
+        int integer(String name, int defaultValue) {
+            return has(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+        }
+
+        long longValue(String name, long defaultValue) {
+            return has(name) ? Long.parseLong(values.get(name)) : defaultValue;
+        }
+
+        double decimal(String name, double defaultValue) {
+            return has(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+        }
+
+        boolean bool(String name, boolean defaultValue) {
+            return has(name) ? Boolean.parseBoolean(values.get(name)) : defaultValue;
+        }
+
+        /**
+         * @return Các phần tử của danh sách cách nhau bởi dấu phẩy, đã bỏ khoảng trắng
+         */
+        String[] list(String name, String defaultValue) {
+            String[] items = string(name, defaultValue).split(",");
+            for (int i = 0; i < items.length; i++) {
+                items[i] = items[i].trim();
+            }
+            return items;
+        }
+
+        /**
+         * Bộ dữ liệu theo --tier (1k|10k|100k, sinh với hạt giống 1) hoặc đọc từ --input.
+         */
+        ScheduleData instance(String defaultInput) throws IOException {
+            if (has("--tier")) {
+                return InstanceGenerator.forTier(tier(string("--tier", null)), 1).generate();
+            }
+            return DataLoader.read(Paths.get(string("--input", defaultInput)));
+        }
+
+        /**
+         * @return "tier 10k" hoặc tên file của --input
+         */
+        String instanceName(String defaultInput) {
+            if (has("--tier")) {
+                return "tier " + tier(string("--tier", null)).getLabel();
+            }
+            return Paths.get(string("--input", defaultInput)).getFileName().toString();
+        }
+
+        private static InstanceGenerator.Tier tier(String label) {
+            for (InstanceGenerator.Tier candidate : InstanceGenerator.Tier.values()) {
+                if (candidate.getLabel().equalsIgnoreCase(label)) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown tier: " + label);
+        }
+    }
+
+    /**
+     * Công việc được đo, có thể ném ngoại lệ.
+     */
+    interface Task<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Chạy task với System.out bị bỏ qua (log của bộ giải), rồi khôi phục.
+     */
+    static <T> T quietly(Task<T> task) throws Exception {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return task.run();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Bảng kết quả: mỗi dòng được in ngay khi có (để theo dõi lần chạy dài), rồi
+     * {@link #print(String, Object...)} in phần mô tả, tiêu đề và mọi dòng.
+     */
+    static final class Table {
+        private final PrintStream out;
+        private final List<String> headers = new ArrayList<>();
+        private final List<String> rows = new ArrayList<>();
+
+        Table(PrintStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Thêm một dòng tiêu đề; format thường chỉ gồm %s với độ rộng của cột.
+         */
+        Table header(String format, Object... names) {
+            headers.add(String.format(format, names));
+            return this;
+        }
+
+        /**
+         * Thêm một dòng và in ngay.
+         */
+        void row(String format, Object... values) {
+            out.println(add(format, values));
+        }
+
+        /**
+         * Thêm một dòng, chỉ in trong {@link #print(String, Object...)}.
+         */
+        String add(String format, Object... values) {
+            String row = String.format(format, values);
+            rows.add(row);
+            return row;
+        }
+
+        /**
+         * In một dòng trống, mô tả (theo format), tiêu đề và mọi dòng đã thêm.
+         */
+        void print(String titleFormat, Object... args) {
+            out.printf("%n" + titleFormat + "%n", args);
+            for (String header : headers) {
+                out.println(header);
+            }
+            for (String row : rows) {
+                out.println(row);
+            }
+        }
+    }
+
+    /**
+     * @return Số lần chạy đạt mục tiêu (giá trị ≥ 0)
+     */
+    static int reached(long[] values) {
+        return (int) Arrays.stream(values).filter(v -> v >= 0).count();
+    }
+
+    /**
+     * Trung vị, coi lần không đạt mục tiêu (giá trị âm) là chậm nhất; -1 nếu quá nửa
+     * số lần không đạt.
+     */
+    static long median(long[] values) {
+        long[] sorted = Arrays.stream(values).map(v -> v < 0 ? Long.MAX_VALUE : v).sorted().toArray();
+        long value = sorted[(sorted.length - 1) / 2];
+        return value == Long.MAX_VALUE ? -1 : value;
+    }
+
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * @return Giá trị, hoặc "-" nếu âm (không đạt)
+     */
+    static String orDash(long value) {
+        return value < 0 ? "-" : String.valueOf(value);
+    }
+}
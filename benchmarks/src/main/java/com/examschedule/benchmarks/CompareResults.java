@@ -0,0 +1,81 @@
+package com.examschedule.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * So sánh hai file kết quả JMH (-rf json): in thông lượng, lượng cấp phát mỗi
+ * phép đo (gc.alloc.rate.norm) và đánh dấu các benchmark chậm đi quá ngưỡng.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.CompareResults
+ *            baseline.json current.json [ngưỡng %, mặc định 10]
+ */
+public class CompareResults {
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JSONObject> baseline = load(args[0]);
+        Map<String, JSONObject> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n", "Benchmark", "base ops/s",
+                "current ops/s", "change", "base B/op", "current B/op");
+        for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            JSONObject before = baseline.get(entry.getKey());
+            double score = entry.getValue().getJSONObject("primaryMetric").getDouble("score");
+            double alloc = allocation(entry.getValue());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.1f %8s %12s %12.0f%n", entry.getKey(), "-",
+                        score, "new", "-", alloc);
+                continue;
+            }
+            double baseScore = before.getJSONObject("primaryMetric").getDouble("score");
+            double change = (score - baseScore) / baseScore * 100.0;
+            boolean regressed = change < -threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.1f %14.1f %+7.1f%% %12.0f %12.0f%s%n", entry.getKey(),
+                    baseScore, score, change, allocation(before), alloc,
+                    regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions + " regression(s) beyond " + threshold + "%");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JSONObject> load(String file) throws Exception {
+        String content = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        JSONArray results = new JSONArray(content);
+        Map<String, JSONObject> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            String key = result.getString("benchmark");
+            JSONObject params = result.optJSONObject("params");
+            if (params != null) {
+                key += params.keySet().stream().sorted()
+                        .map(name -> name + "=" + params.get(name))
+                        .reduce("", (a, b) -> a + " " + b);
+            }
+            byKey.put(key.replace("com.examschedule.", ""), result);
+        }
+        return byKey;
+    }
+
+    private static double allocation(JSONObject result) {
+        JSONObject secondary = result.optJSONObject("secondaryMetrics");
+        if (secondary == null || !secondary.has(ALLOC_NORM)) {
+            return Double.NaN;
+        }
+        return secondary.getJSONObject(ALLOC_NORM).getDouble("score");
+    }
+}
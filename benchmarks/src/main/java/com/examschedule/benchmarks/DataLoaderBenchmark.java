@@ -0,0 +1,76 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.ScheduleSnapshot;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DataLoader#loadFromJSON(String)} trên từng bộ test (đọc file, phân tích JSON,
+ * dựng các đối tượng mô hình). loadFromJSONCompiled và loadFromSnapshot cùng tính tới
+ * lúc có mô hình biên dịch và đồ thị xung đột, tức là trạng thái sẵn sàng giải.
+ * Log của DataLoader bị bỏ qua trong khi đo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataLoaderBenchmark {
+
+    private String path;
+    private Path snapshot;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp(InstanceState state) throws IOException {
+        path = state.inputFile.toString();
+        snapshot = Files.createTempFile("schedule", ".snap");
+        ScheduleSnapshot.write(state.data, snapshot);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public ScheduleData loadFromJSON() {
+        return DataLoader.loadFromJSON(path);
+    }
+
+    @Benchmark
+    public ScheduleData loadFromJSONCompiled() {
+        ScheduleData data = DataLoader.loadFromJSON(path);
+        data.getCompiled().getConflictGraph();
+        return data;
+    }
+
+    @Benchmark
+    public ScheduleData loadFromSnapshot() {
+        ScheduleData data = DataLoader.loadFromSnapshot(snapshot.toString());
+        data.getCompiled().getConflictGraph();
+        return data;
+    }
+}
@@ -0,0 +1,95 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.DecomposedSolver;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.utils.InstanceGenerator;
+
+/**
+ * Đo tốc độ của {@link DecomposedSolver} so với một đàn kiến trên cả bài toán,
+ * trên các bộ dữ liệu nhiều khoa sinh bởi {@link InstanceGenerator}. Với mỗi tỉ lệ
+ * đăng ký chéo khoa trong --cross-rates, sinh một bộ dữ liệu rồi giải cả hai cách
+ * với cùng số kiến, số vòng và số luồng, in thời gian, fitness, số thành phần,
+ * số bài toán con và số môn phải xếp lại sau khi ghép.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.DecompositionSpeedup
+ *            [--students 10000] [--exams 1000] [--rooms 60] [--timeslots 24] [--departments 10]
+ *            [--cross-rates 0,0.001,0.01] [--cut-weight 0] [--subproblems 16] [--ants 10]
+ *            [--iterations 20] [--threads N] [--repair 0] [--seed 1]
+ */
+public class DecompositionSpeedup {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        int students = options.integer("--students", 10000);
+        int exams = options.integer("--exams", 1000);
+        int rooms = options.integer("--rooms", 60);
+        int timeslots = options.integer("--timeslots", 24);
+        int departments = options.integer("--departments", 10);
+        String[] crossRates = options.list("--cross-rates", "0,0.001,0.01");
+        int cutWeight = options.integer("--cut-weight", 0);
+        int subproblems = options.integer("--subproblems", 16);
+        int ants = options.integer("--ants", 10);
+        int iterations = options.integer("--iterations", 20);
+        int threads = options.integer("--threads", Runtime.getRuntime().availableProcessors());
+        int repair = options.integer("--repair", 0);
+        long seed = options.longValue("--seed", 1);
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%6s %10s %6s %6s %8s %8s %12s %8s %12s %8s", "Cross", "Components", "Parts",
+                        "Repair", "Unplaced", "Whole ms", "Whole fit", "Split ms", "Split fit", "Speedup");
+        for (int r = -1; r < crossRates.length; r++) {
+            // r = -1: lượt khởi động JIT trên bộ dữ liệu đầu tiên, không in
+            String rate = crossRates[Math.max(r, 0)];
+            InstanceGenerator generator = new InstanceGenerator();
+            generator.setSeed(seed);
+            generator.setNumStudents(students);
+            generator.setNumExams(exams);
+            generator.setNumRooms(rooms);
+            generator.setNumTimeslots(timeslots);
+            generator.setDepartments(departments);
+            generator.setCrossDepartmentRate(Double.parseDouble(rate));
+            ScheduleData data = generator.generate();
+            data.getCompiled().getConflictGraph();
+
+            long[] millis = new long[2];
+            ScheduleOutput whole = quietly(() -> {
+                long start = System.nanoTime();
+                AntColonyOptimization colony = new AntColonyOptimization(data, ants, iterations, seed);
+                colony.setParallelism(threads);
+                ScheduleOutput result = colony.solve();
+                millis[0] = (System.nanoTime() - start) / 1_000_000L;
+                return result;
+            });
+            DecomposedSolver[] solver = new DecomposedSolver[1];
+            ScheduleOutput split = quietly(() -> {
+                long start = System.nanoTime();
+                DecomposedSolver decomposed = new DecomposedSolver(data, ants, iterations, seed);
+                decomposed.setParallelism(threads);
+                decomposed.setCutWeight(cutWeight);
+                decomposed.setMaxSubproblems(subproblems);
+                decomposed.setRepairBudget(repair);
+                solver[0] = decomposed;
+                ScheduleOutput result = decomposed.solve();
+                millis[1] = (System.nanoTime() - start) / 1_000_000L;
+                return result;
+            });
+
+            if (r < 0) {
+                continue;
+            }
+            DecomposedSolver decomposed = solver[0];
+            table.row("%6s %10d %6d %6d %8d %8d %12.1f %8d %12.1f %8.2f", rate,
+                    decomposed.getNumComponents(), decomposed.getSubproblemExams().length,
+                    decomposed.getRepairedExams(), decomposed.getUnplacedExams(), millis[0], whole.getFitness(), millis[1],
+                    split.getFitness(), millis[1] > 0 ? (double) millis[0] / millis[1] : 0);
+        }
+
+        table.print("%d students, %d exams, %d rooms, %d timeslots, %d departments; %d ants x %d iterations, "
+                + "%d threads, cut weight %d", students, exams, rooms, timeslots, departments, ants,
+                iterations, threads, cutWeight);
+    }
+}
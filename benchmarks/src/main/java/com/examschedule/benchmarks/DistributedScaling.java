@@ -0,0 +1,96 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+
+import com.examschedule.distributed.ColonyCoordinator;
+import com.examschedule.models.ScheduleOutput;
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo thông lượng của các đàn kiến phân tán khi tăng số worker: với mỗi giá trị trong
+ * --workers, chạy một {@link ColonyCoordinator} trong tiến trình này và khởi động
+ * N tiến trình JVM "Main worker" trên localhost, rồi in số lần đánh giá mỗi giây,
+ * fitness tốt nhất và lưu lượng trao đổi.
+ * Với --kill-after MS, worker đầu tiên bị kill -9 sau MS mili giây để kiểm tra
+ * khả năng chịu lỗi.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.DistributedScaling
+ *            [--input test_inputs/input_test10.json] [--workers 1,2,4] [--ants 10] [--iterations 500]
+ *            [--epoch 10] [--blend 0.2] [--kill-after 0] [--seed 1]
+ */
+public class DistributedScaling {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String input = options.string("--input", "test_inputs/input_test10.json");
+        String[] workerCounts = options.list("--workers", "1,2,4");
+        int ants = options.integer("--ants", 10);
+        int iterations = options.integer("--iterations", 500);
+        int epoch = options.integer("--epoch", 10);
+        double blend = options.decimal("--blend", 0.2);
+        long killAfter = options.longValue("--kill-after", 0);
+        long seed = options.longValue("--seed", 1);
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%7s %7s %9s %12s %12s %12s %10s %10s", "Workers", "Failed", "Wall ms",
+                        "Evaluations", "Evals/s", "Best", "Bytes in", "Bytes out");
+        for (String count : workerCounts) {
+            int workers = Integer.parseInt(count);
+            ColonyCoordinator coordinator = new ColonyCoordinator(Paths.get(input), workers, ants,
+                    iterations, seed);
+            coordinator.setEpochInterval(epoch);
+            coordinator.setPheromoneBlend(blend);
+            InetSocketAddress address = coordinator.bind(new InetSocketAddress("127.0.0.1", 0));
+
+            List<Process> processes = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                processes.add(new ProcessBuilder(
+                        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"), "Main", "worker",
+                        "--connect", "127.0.0.1:" + address.getPort())
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+            Thread killer = null;
+            if (killAfter > 0) {
+                Process victim = processes.get(0);
+                killer = new Thread(() -> {
+                    try {
+                        Thread.sleep(killAfter);
+                        victim.destroyForcibly();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                killer.setDaemon(true);
+                killer.start();
+            }
+
+            ScheduleOutput result = quietly(coordinator::run);
+            for (Process process : processes) {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            if (killer != null) {
+                killer.interrupt();
+            }
+
+            long wall = coordinator.getWallMillis();
+            table.row("%7d %7d %9d %12d %12.0f %12.1f %10d %10d", workers,
+                    coordinator.getFailedWorkers(), wall, coordinator.getEvaluations(),
+                    wall > 0 ? coordinator.getEvaluations() * 1000.0 / wall : 0, result.getFitness(),
+                    coordinator.getBytesReceived(), coordinator.getBytesSent());
+        }
+
+        table.print("%s, %d ants x %d iterations per worker, exchange every %d iterations, blend %s%s",
+                new File(input).getName(), ants, iterations, epoch, blend,
+                killAfter > 0 ? ", first worker killed after " + killAfter + " ms" : "");
+    }
+}
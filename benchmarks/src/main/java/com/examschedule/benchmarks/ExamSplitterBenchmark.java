@@ -0,0 +1,59 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.RoomAvailability;
+import com.examschedule.utils.ExamSplitter;
+import com.examschedule.utils.SplitPlanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ExamSplitter#splitExamIntoRooms} cho môn đông nhất của từng bộ test,
+ * với mọi phòng đều trống (gồm cả reset() chỉ mục phòng trống), theo đường mà bộ
+ * giải dùng: {@link RoomAvailability} + {@link SplitPlanner}. Từ lần gọi thứ hai
+ * kết quả lấy từ bộ nhớ đệm nếu bộ test có tối đa 64 phòng.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExamSplitterBenchmark {
+
+    private int largestExam;
+    private RoomAvailability availability;
+    private SplitPlanner planner;
+    private CompactSchedule out;
+
+    @Setup(Level.Trial)
+    public void setUp(InstanceState state) {
+        for (int e = 1; e < state.instance.getNumExams(); e++) {
+            if (state.instance.getExamSize(e) > state.instance.getExamSize(largestExam)) {
+                largestExam = e;
+            }
+        }
+        availability = new RoomAvailability(state.instance);
+        planner = new SplitPlanner(state.instance);
+        out = new CompactSchedule(state.instance.getNumRooms());
+    }
+
+    @Benchmark
+    public CompactSchedule splitAvailability(InstanceState state) {
+        out.clear();
+        availability.reset();
+        ExamSplitter.splitExamIntoRooms(state.instance, largestExam, 0, availability,
+                planner, out);
+        return out;
+    }
+}
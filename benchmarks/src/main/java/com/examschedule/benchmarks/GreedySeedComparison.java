@@ -0,0 +1,140 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.median;
+import static com.examschedule.benchmarks.BenchmarkSupport.orDash;
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.DSaturConstructor;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.models.ScheduleData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * So sánh đàn kiến khởi đầu ngẫu nhiên với đàn kiến được gieo bằng tô màu tham
+ * lam đồ thị xung đột ({@link DSaturConstructor}).
+ *
+ * Với mỗi hạt giống, chạy bốn cấu hình cùng số kiến và số vòng:
+ * <ul>
+ *   <li>random: xáo trộn ngẫu nhiên, pheromone đều (cấu hình gốc). Fitness cuối của
+ *       lần chạy này là mục tiêu của hạt giống đó.</li>
+ *   <li>seed: lịch tham lam làm lời giải ban đầu và lệch pheromone (--bias).</li>
+ *   <li>order: các con kiến xếp môn theo thứ tự DSatur thay vì xáo trộn.</li>
+ *   <li>seed+order: cả hai.</li>
+ * </ul>
+ * In fitness tốt nhất sau vòng lặp đầu, số vòng và thời gian (kể cả thời gian
+ * dựng lịch tham lam) để đạt mục tiêu, và fitness cuối.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.GreedySeedComparison
+ *            [--input test_inputs/input_test10.json | --tier 1k|10k|100k] [--ants 20] [--iterations 100]
+ *            [--bias 4] [--ordering DSATUR|LARGEST_DEGREE] [--max-min false] [--local-search 0] [--runs 5]
+ */
+public class GreedySeedComparison {
+
+    private static final String[] VARIANTS = {"random", "seed", "order", "seed+order"};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String defaultInput = "test_inputs/input_test10.json";
+        int ants = options.integer("--ants", 20);
+        int iterations = options.integer("--iterations", 100);
+        double bias = options.decimal("--bias", 4);
+        DSaturConstructor.Ordering ordering = DSaturConstructor.Ordering.valueOf(
+                options.string("--ordering", "DSATUR"));
+        boolean maxMin = options.bool("--max-min", false);
+        int localSearch = options.integer("--local-search", 0);
+        int runs = options.integer("--runs", 5);
+
+        ScheduleData data = options.instance(defaultInput);
+        String name = options.instanceName(defaultInput);
+        data.getCompiled().getConflictGraph();
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%4s %-10s %12s %12s %6s %8s %12s %8s", "Seed", "Variant", "Seed fit", "Iter 1 best",
+                        "Iters", "ms", "Final", "Total ms");
+        // [biến thể][lần chạy]: fitness sau vòng đầu, số vòng đạt mục tiêu (-1 nếu không đạt)
+        double[][] firstFitness = new double[VARIANTS.length][runs];
+        long[][] reachedIterations = new long[VARIANTS.length][runs];
+        long[][] reachedMillis = new long[VARIANTS.length][runs];
+        for (int run = 0; run < runs; run++) {
+            long seed = run + 1;
+            double[] target = {Double.MAX_VALUE};
+            for (int variant = 0; variant < VARIANTS.length; variant++) {
+                int v = variant;
+                int r = run;
+                quietly(() -> {
+                    AntColonyOptimization colony = new AntColonyOptimization(data, ants, iterations, seed,
+                            maxMin ? AcoParameters.maxMin() : new AcoParameters());
+                    if (localSearch > 0) {
+                        colony.setImprover(new LocalSearchImprover(data.getCompiled(), localSearch), 5);
+                    }
+                    long start = System.nanoTime();
+                    double seedFitness = Double.NaN;
+                    if (v == 1 || v == 3) {
+                        seedFitness = colony.seedFromGraphColoring(ordering, bias);
+                    }
+                    if (v >= 2) {
+                        colony.setExamOrder(AntColonyOptimization.ExamOrder.SATURATION);
+                    }
+                    double goal = target[0];
+                    double[] first = {Double.NaN};
+                    // Lần chạy random: vòng của lần cải thiện cuối (fitness cuối là mục tiêu)
+                    long[] reached = {-1, 0};
+                    if (v > 0 && colony.getBestFitness() <= goal) {
+                        reached[0] = 0;
+                        reached[1] = (System.nanoTime() - start) / 1_000_000L;
+                    }
+                    double[] previousBest = {colony.getBestFitness()};
+                    colony.addMetricsListener(metrics -> {
+                        if (metrics.getIteration() == 1) {
+                            first[0] = metrics.getBestFitness();
+                        }
+                        boolean hit = v == 0 ? metrics.getBestFitness() < previousBest[0]
+                                : reached[0] < 0 && metrics.getBestFitness() <= goal;
+                        if (hit) {
+                            reached[0] = metrics.getIteration();
+                            reached[1] = (System.nanoTime() - start) / 1_000_000L;
+                        }
+                        previousBest[0] = metrics.getBestFitness();
+                    });
+                    double finalFitness = colony.solve().getFitness();
+                    long totalMillis = (System.nanoTime() - start) / 1_000_000L;
+                    if (v == 0) {
+                        target[0] = finalFitness;
+                    }
+
+                    firstFitness[v][r] = first[0];
+                    reachedIterations[v][r] = reached[0];
+                    reachedMillis[v][r] = reached[1];
+                    table.row("%4d %-10s %12s %12.1f %6s %8s %12.1f %8d", seed, VARIANTS[v],
+                            Double.isNaN(seedFitness) ? "-" : String.format("%.1f", seedFitness), first[0],
+                            orDash(reached[0]), reached[0] < 0 ? "-" : String.valueOf(reached[1]),
+                            finalFitness, totalMillis);
+                    return null;
+                });
+            }
+        }
+
+        table.print("%s, %d ants x %d iterations, %s, local search %d; seed %s, pheromone bias %s", name,
+                ants, iterations, maxMin ? "MAX-MIN" : "Ant System", localSearch, ordering, bias);
+        System.out.printf("%n%-10s %14s %8s %16s %16s%n", "Variant", "Median iter 1", "Reached", "Median iters",
+                "Median ms");
+        for (int v = 0; v < VARIANTS.length; v++) {
+            List<Long> iters = new ArrayList<>();
+            List<Long> millis = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                if (reachedIterations[v][run] >= 0) {
+                    iters.add(reachedIterations[v][run]);
+                    millis.add(reachedMillis[v][run]);
+                }
+            }
+            iters.sort(null);
+            millis.sort(null);
+            System.out.printf("%-10s %14.1f %5d/%-2d %16s %16s%n", VARIANTS[v], median(firstFitness[v]),
+                    iters.size(), runs, iters.isEmpty() ? "-" : String.valueOf(iters.get(iters.size() / 2)),
+                    millis.isEmpty() ? "-" : String.valueOf(millis.get(millis.size() / 2)));
+        }
+    }
+}
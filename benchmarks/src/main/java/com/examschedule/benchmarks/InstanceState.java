@@ -0,0 +1,74 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.models.Assignment;
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Một bộ test trong test_inputs cùng một lịch thi mẫu (1 kiến x 1 vòng lặp, hạt giống cố định),
+ * dùng chung cho các benchmark.
+ * Thư mục dữ liệu lấy từ -Dbenchmark.inputs, mặc định test_inputs hoặc ../test_inputs.
+ */
+@State(Scope.Benchmark)
+public class InstanceState {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public String testNumber;
+
+    public Path inputFile;
+    public ScheduleData data;
+    public CompiledInstance instance;
+    public CompactSchedule schedule;
+    public List<Assignment> assignments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        inputFile = resolveInput(testNumber);
+        data = quietly(() -> DataLoader.loadFromJSON(inputFile.toString()));
+        if (data == null) {
+            throw new IllegalStateException("Cannot load " + inputFile);
+        }
+        instance = data.getCompiled();
+        assignments = quietly(() -> new AntColonyOptimization(data, 1, 1, 42).solve())
+                .getSchedule();
+        schedule = CompactSchedule.fromAssignments(assignments, instance);
+    }
+
+    public static Path resolveInput(String testNumber) {
+        String fileName = "input_test" + testNumber + ".json";
+        String configured = System.getProperty("benchmark.inputs");
+        if (configured != null) {
+            return Paths.get(configured, fileName);
+        }
+        Path local = Paths.get("test_inputs", fileName);
+        return Files.exists(local) ? local : Paths.get("..", "test_inputs", fileName);
+    }
+
+    /**
+     * Chạy action và bỏ qua mọi dòng log ra System.out của bộ giải.
+     */
+    public static <T> T quietly(Supplier<T> action) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return action.get();
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
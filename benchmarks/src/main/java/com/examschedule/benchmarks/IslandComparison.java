@@ -0,0 +1,97 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.median;
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+import static com.examschedule.benchmarks.BenchmarkSupport.reached;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.IslandModel;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import java.nio.file.Paths;
+
+/**
+ * So sánh thời gian thực để đạt một fitness mục tiêu giữa:
+ * <ul>
+ *   <li>một đàn kiến với N x --ants con kiến, xây dựng song song trên N luồng;</li>
+ *   <li>mô hình đảo: N đàn x --ants con kiến, mỗi đàn một luồng, trao đổi lời giải
+ *       mỗi --migration vòng lặp.</li>
+ * </ul>
+ * Cả hai có cùng số con kiến mỗi vòng và cùng số luồng. Mỗi cấu hình chạy --runs lần
+ * với các hạt giống 1..runs; lần chạy dừng khi đạt --target hoặc hết --time-limit.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.IslandComparison
+ *            [--input test_inputs/input_test10.json] [--islands 4] [--ants 10] [--iterations 200]
+ *            [--migration 10] [--blend 0] [--mixed false] [--target 0] [--time-limit 30000] [--runs 5]
+ */
+public class IslandComparison {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String input = options.string("--input", "test_inputs/input_test10.json");
+        int islands = options.integer("--islands", 4);
+        int ants = options.integer("--ants", 10);
+        int iterations = options.integer("--iterations", 200);
+        int migration = options.integer("--migration", 10);
+        double blend = options.decimal("--blend", 0);
+        boolean mixed = options.bool("--mixed", false);
+        double target = options.decimal("--target", 0);
+        long timeLimit = options.longValue("--time-limit", 30000);
+        int runs = options.integer("--runs", 5);
+
+        ScheduleData data = DataLoader.read(Paths.get(input));
+        data.getCompiled().getConflictGraph();
+
+        long[] single = new long[runs];
+        long[] island = new long[runs];
+        double[] singleBest = new double[runs];
+        double[] islandBest = new double[runs];
+        for (int run = 0; run < runs; run++) {
+            long seed = run + 1;
+            int r = run;
+            quietly(() -> {
+                AntColonyOptimization colony = new AntColonyOptimization(data, islands * ants,
+                        iterations, seed);
+                colony.setParallelism(islands);
+                colony.setTimeLimit(timeLimit);
+                long[] reached = {-1};
+                colony.setIncumbentListener((incumbent, iteration, elapsedMillis) -> {
+                    if (incumbent.getFitness() <= target && reached[0] < 0) {
+                        reached[0] = elapsedMillis;
+                        colony.cancel();
+                    }
+                });
+                singleBest[r] = colony.solve().getFitness();
+                single[r] = reached[0];
+
+                IslandModel model = new IslandModel(data, islands, ants, iterations, seed);
+                if (mixed) {
+                    model.useMixedParameters();
+                }
+                model.setMigrationInterval(migration);
+                model.setPheromoneBlend(blend);
+                model.setTimeLimit(timeLimit);
+                model.setTargetFitness(target);
+                islandBest[r] = model.solve().getFitness();
+                island[r] = model.getTimeToTargetMillis();
+                return null;
+            });
+
+            System.out.printf("run %d: single colony %s (best %.1f), islands %s (best %.1f)%n", seed,
+                    format(single[run]), singleBest[run], format(island[run]), islandBest[run]);
+        }
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%-34s %8s %12s", "Configuration", "Reached", "Median ms");
+        table.add("%-34s %5d/%-2d %12s", "1 colony x " + (islands * ants) + " ants",
+                reached(single), runs, format(median(single)));
+        table.add("%-34s %5d/%-2d %12s", islands + " islands x " + ants + " ants"
+                + (mixed ? " (mixed)" : ""), reached(island), runs, format(median(island)));
+        table.print("%s, target fitness %s, %d ants per iteration on %d threads, time limit %d ms",
+                input, target, islands * ants, islands, timeLimit);
+    }
+
+    private static String format(long millis) {
+        return millis < 0 ? "not reached" : millis + " ms";
+    }
+}
@@ -0,0 +1,104 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.median;
+import static com.examschedule.benchmarks.BenchmarkSupport.orDash;
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+import static com.examschedule.benchmarks.BenchmarkSupport.reached;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thời gian để đạt fitness mục tiêu của Ant System (cấu hình mặc định) so với
+ * MAX-MIN Ant System ({@link AcoParameters#maxMin()}) trên test_inputs 1..10.
+ *
+ * Mỗi cập nhật pheromone chạy --runs lần (hạt giống 1..runs) với cùng số kiến và
+ * số vòng, ghi lại fitness tốt nhất sau từng vòng. Mục tiêu chung của một bộ test
+ * là --target nếu có, ngược lại là trung vị fitness cuối lớn hơn trong hai cách
+ * cập nhật: mức mà cả hai thường đạt được. In số lần đạt, trung vị số vòng và
+ * mili giây để đạt mục tiêu (lần không đạt tính là chậm nhất).
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.PheromoneUpdateComparison
+ *            [--inputs 1,2,...,10] [--ants 50] [--iterations 40] [--runs 5] [--target T]
+ */
+public class PheromoneUpdateComparison {
+
+    private static final String[] VARIANTS = {"Ant System", "MAX-MIN"};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String[] inputs = options.list("--inputs", "1,2,3,4,5,6,7,8,9,10");
+        int ants = options.integer("--ants", 50);
+        int iterations = options.integer("--iterations", 40);
+        int runs = options.integer("--runs", 5);
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%-19s | %-34s | %-34s", "", VARIANTS[0], VARIANTS[1])
+                .header("%-8s %10s | %7s %6s %8s %10s | %7s %6s %8s %10s", "Input", "Target",
+                        "Reached", "Iters", "ms", "Final", "Reached", "Iters", "ms", "Final");
+        for (String input : inputs) {
+            ScheduleData data = DataLoader.read(Paths.get("test_inputs/input_test" + input + ".json"));
+            data.getCompiled().getConflictGraph();
+
+            // [cách cập nhật][lần chạy]: fitness tốt nhất và thời điểm sau từng vòng
+            List<List<double[]>> traces = new ArrayList<>();
+            double[][] finals = new double[VARIANTS.length][runs];
+            for (int v = 0; v < VARIANTS.length; v++) {
+                List<double[]> variantTraces = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    long seed = run + 1;
+                    AcoParameters params = v == 0 ? new AcoParameters() : AcoParameters.maxMin();
+                    double[] trace = new double[2 * iterations];
+                    finals[v][run] = quietly(() -> {
+                        AntColonyOptimization colony = new AntColonyOptimization(data, ants, iterations,
+                                seed, params);
+                        long start = System.nanoTime();
+                        colony.addMetricsListener(metrics -> {
+                            int i = metrics.getIteration() - 1;
+                            trace[2 * i] = metrics.getBestFitness();
+                            trace[2 * i + 1] = (System.nanoTime() - start) / 1e6;
+                        });
+                        return colony.solve().getFitness();
+                    });
+                    variantTraces.add(trace);
+                }
+                traces.add(variantTraces);
+            }
+
+            double target = options.decimal("--target",
+                    Math.max(median(finals[0]), median(finals[1])));
+            Object[] row = new Object[10];
+            row[0] = "test" + input;
+            row[1] = target;
+            for (int v = 0; v < VARIANTS.length; v++) {
+                long[] iters = new long[runs];
+                long[] millis = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    double[] trace = traces.get(v).get(run);
+                    iters[run] = -1;
+                    millis[run] = -1;
+                    for (int i = 0; i < iterations; i++) {
+                        if (trace[2 * i] <= target) {
+                            iters[run] = i + 1;
+                            millis[run] = Math.round(trace[2 * i + 1]);
+                            break;
+                        }
+                    }
+                }
+                row[2 + 4 * v] = reached(iters) + "/" + runs;
+                row[3 + 4 * v] = orDash(median(iters));
+                row[4 + 4 * v] = orDash(median(millis));
+                row[5 + 4 * v] = median(finals[v]);
+            }
+            table.row("%-8s %10.1f | %7s %6s %8s %10.1f | %7s %6s %8s %10.1f", row);
+        }
+
+        table.print("%d ants x %d iterations, %d seeds per update; Iters, ms and Final are medians", ants,
+                iterations, runs);
+    }
+}
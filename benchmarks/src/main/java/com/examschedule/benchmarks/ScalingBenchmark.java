@@ -0,0 +1,74 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.InstanceGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Đo đầu-cuối trên các bộ dữ liệu tổng hợp của {@link InstanceGenerator}
+ * (1k / 10k / 100k sinh viên): nạp file JSON, biên dịch, khởi tạo ma trận
+ * và chạy ACO ANTS kiến x ITERATIONS vòng. Mỗi lần đo là một lần chạy
+ * (SingleShotTime); dùng -prof gc để xem lượng cấp phát.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class ScalingBenchmark {
+    private static final int ANTS = 10;
+    private static final int ITERATIONS = 5;
+
+    @Param({"1k", "10k", "100k"})
+    public String tier;
+
+    private Path inputFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InstanceGenerator.Tier selected = null;
+        for (InstanceGenerator.Tier candidate : InstanceGenerator.Tier.values()) {
+            if (candidate.getLabel().equals(tier)) {
+                selected = candidate;
+            }
+        }
+        if (selected == null) {
+            throw new IllegalArgumentException("Unknown tier: " + tier);
+        }
+        inputFile = Files.createTempFile("scale_" + tier + "_", ".json");
+        InstanceGenerator.writeJSON(InstanceGenerator.forTier(selected, 1).generate(), inputFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+    }
+
+    @Benchmark
+    public ScheduleOutput loadAndSolve() {
+        return InstanceState.quietly(() -> {
+            ScheduleData data = DataLoader.loadFromJSON(inputFile.toString());
+            return new AntColonyOptimization(data, ANTS, ITERATIONS, 1).solve();
+        });
+    }
+}
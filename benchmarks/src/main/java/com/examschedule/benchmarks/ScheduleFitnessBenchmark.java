@@ -0,0 +1,45 @@
+package com.examschedule.benchmarks;
+
+import com.examschedule.utils.ScheduleFitness;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ScheduleFitness#calculateFitness} trên lịch mẫu của từng bộ test,
+ * ở dạng chỉ số (đường nóng của ACO) và dạng danh sách Assignment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleFitnessBenchmark {
+
+    private ScheduleFitness fitness;
+
+    @Setup(Level.Trial)
+    public void setUp(InstanceState state) {
+        fitness = new ScheduleFitness(state.data);
+    }
+
+    @Benchmark
+    public double calculateFitnessCompact(InstanceState state) {
+        return fitness.calculateFitness(state.schedule);
+    }
+
+    @Benchmark
+    public double calculateFitnessAssignments(InstanceState state) {
+        return fitness.calculateFitness(state.assignments);
+    }
+}
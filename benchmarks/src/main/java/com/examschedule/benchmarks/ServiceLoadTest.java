@@ -0,0 +1,194 @@
+package com.examschedule.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
+
+/**
+ * Kiểm thử tải cho dịch vụ giải (Main serve) chạy cục bộ.
+ *
+ * Pha 1: --clients luồng cùng gửi tổng cộng --jobs job (POST /jobs), thăm dò trạng thái
+ * tới khi xong rồi tải lịch thi; đo độ trễ từng loại yêu cầu và độ trễ trọn vẹn của job.
+ * Pha 2: trong --status-seconds giây, mọi luồng liên tục gọi GET /jobs/{id} để đo
+ * thông lượng HTTP thuần.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.ServiceLoadTest
+ *            [--url http://127.0.0.1:8080] [--input test_inputs/input_test3.json]
+ *            [--clients 8] [--jobs 200] [--ants 10] [--iterations 10] [--poll 20] [--status-seconds 5]
+ */
+public class ServiceLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String url = options.string("--url", "http://127.0.0.1:8080");
+        byte[] body = Files.readAllBytes(Paths.get(options.string("--input", "test_inputs/input_test3.json")));
+        int clients = options.integer("--clients", 8);
+        int totalJobs = options.integer("--jobs", 200);
+        String query = "?ants=" + options.integer("--ants", 10)
+                + "&iterations=" + options.integer("--iterations", 10);
+        long pollMillis = options.longValue("--poll", 20);
+        int statusSeconds = options.integer("--status-seconds", 5);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+
+        // Pha 1: vòng đời đầy đủ của job
+        AtomicInteger remaining = new AtomicInteger(totalJobs);
+        List<Future<Recorder>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                Recorder recorder = new Recorder();
+                while (remaining.getAndDecrement() > 0) {
+                    long jobStart = System.nanoTime();
+                    HttpResponse<String> submitted = recorder.time("POST /jobs", () -> client.send(
+                            HttpRequest.newBuilder(URI.create(url + "/jobs" + query))
+                                    .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(),
+                            HttpResponse.BodyHandlers.ofString()));
+                    if (submitted.statusCode() != 202) {
+                        recorder.errors++;
+                        continue;
+                    }
+                    String id = new JSONObject(submitted.body()).getString("id");
+                    URI statusUri = URI.create(url + "/jobs/" + id);
+                    String status;
+                    do {
+                        Thread.sleep(pollMillis);
+                        HttpResponse<String> polled = recorder.time("GET /jobs/{id}", () -> client.send(
+                                HttpRequest.newBuilder(statusUri).GET().build(),
+                                HttpResponse.BodyHandlers.ofString()));
+                        status = new JSONObject(polled.body()).getString("status");
+                    } while (status.equals("QUEUED") || status.equals("RUNNING"));
+                    HttpResponse<String> schedule = recorder.time("GET /jobs/{id}/schedule", () -> client.send(
+                            HttpRequest.newBuilder(URI.create(url + "/jobs/" + id + "/schedule")).GET().build(),
+                            HttpResponse.BodyHandlers.ofString()));
+                    if (schedule.statusCode() != 200) {
+                        recorder.errors++;
+                    }
+                    recorder.record("job end-to-end", System.nanoTime() - jobStart);
+                    recorder.lastJob = id;
+                }
+                return recorder;
+            }));
+        }
+        Recorder jobs = Recorder.merge(futures);
+        long jobMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%nPhase 1: %d jobs, %d clients, %d ms, %.1f jobs/s, %d errors%n",
+                totalJobs, clients, jobMillis, totalJobs * 1000.0 / jobMillis, jobs.errors);
+        jobs.print(jobMillis);
+
+        // Pha 2: chỉ thăm dò trạng thái
+        if (statusSeconds > 0 && jobs.lastJob != null) {
+            URI statusUri = URI.create(url + "/jobs/" + jobs.lastJob);
+            long deadline = System.nanoTime() + statusSeconds * 1_000_000_000L;
+            futures.clear();
+            start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    while (System.nanoTime() < deadline) {
+                        HttpResponse<String> polled = recorder.time("GET /jobs/{id}", () -> client.send(
+                                HttpRequest.newBuilder(statusUri).GET().build(),
+                                HttpResponse.BodyHandlers.ofString()));
+                        if (polled.statusCode() != 200) {
+                            recorder.errors++;
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+            Recorder status = Recorder.merge(futures);
+            long statusMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%nPhase 2: status polling, %d clients, %d ms, %d errors%n",
+                    clients, statusMillis, status.errors);
+            status.print(statusMillis);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Độ trễ (ns) theo loại yêu cầu của một luồng.
+     */
+    private static class Recorder {
+        private final Map<String, long[]> samples = new LinkedHashMap<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int errors;
+        private String lastJob;
+
+        interface Call<T> {
+            T run() throws Exception;
+        }
+
+        <T> T time(String name, Call<T> call) throws Exception {
+            long start = System.nanoTime();
+            T result = call.run();
+            record(name, System.nanoTime() - start);
+            return result;
+        }
+
+        void record(String name, long nanos) {
+            long[] values = samples.computeIfAbsent(name, key -> new long[64]);
+            int count = counts.getOrDefault(name, 0);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                samples.put(name, values);
+            }
+            values[count] = nanos;
+            counts.put(name, count + 1);
+        }
+
+        static Recorder merge(List<Future<Recorder>> futures) throws Exception {
+            Recorder merged = new Recorder();
+            for (Future<Recorder> future : futures) {
+                Recorder part = future.get();
+                merged.errors += part.errors;
+                if (part.lastJob != null) {
+                    merged.lastJob = part.lastJob;
+                }
+                for (Map.Entry<String, long[]> entry : part.samples.entrySet()) {
+                    int count = part.counts.get(entry.getKey());
+                    for (int i = 0; i < count; i++) {
+                        merged.record(entry.getKey(), entry.getValue()[i]);
+                    }
+                }
+            }
+            return merged;
+        }
+
+        void print(long elapsedMillis) {
+            System.out.printf("%-26s %8s %10s %9s %9s %9s%n", "Request", "count", "req/s", "p50 ms", "p99 ms", "max ms");
+            for (Map.Entry<String, long[]> entry : samples.entrySet()) {
+                int count = counts.get(entry.getKey());
+                long[] values = Arrays.copyOf(entry.getValue(), count);
+                Arrays.sort(values);
+                System.out.printf("%-26s %8d %10.1f %9.2f %9.2f %9.2f%n", entry.getKey(), count,
+                        count * 1000.0 / elapsedMillis, percentile(values, 0.50) / 1e6,
+                        percentile(values, 0.99) / 1e6, values[count - 1] / 1e6);
+            }
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.examschedule.benchmarks;
+
+import static com.examschedule.benchmarks.BenchmarkSupport.orDash;
+import static com.examschedule.benchmarks.BenchmarkSupport.quietly;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.algorithms.WarmStart;
+import com.examschedule.models.Exam;
+import com.examschedule.models.Room;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.models.Student;
+import com.examschedule.utils.DataLoader;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * So sánh khởi động lạnh và khởi động ấm khi dữ liệu thay đổi sau một lần giải.
+ *
+ * Với mỗi hạt giống: giải bài toán gốc, lưu trạng thái ra file và đọc lại
+ * ({@link WarmStart}), rồi sửa dữ liệu như khi sắp lịch lại giữa kỳ: --enroll sinh
+ * viên đăng ký muộn vào các môn ngẫu nhiên, --remove-rooms phòng ngừng sử dụng và
+ * --new-exams môn mới. Bài toán đã sửa được giải lạnh một lần; fitness cuối của
+ * lần đó là mục tiêu. Sau đó giải ấm cùng hạt giống và so sánh số vòng lặp để đạt
+ * mục tiêu (0 nếu lịch dựng lại từ trạng thái cũ đã đạt) và số môn bị đổi ca /
+ * phòng so với lịch gốc. Mặc định dùng MAX-MIN như Main khi lưu / nạp trạng thái,
+ * vì Ant System (bay hơi 1) xoá pheromone mang sang ngay sau vòng đầu.
+ *
+ * Cách dùng: java -cp target/benchmarks.jar com.examschedule.benchmarks.WarmStartComparison
+ *            [--input test_inputs/input_test10.json] [--ants 20] [--iterations 100]
+ *            [--enroll 20] [--remove-rooms 1] [--new-exams 1] [--bias 4] [--max-min true] [--local-search 0] [--runs 5]
+ */
+public class WarmStartComparison {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = new BenchmarkSupport.Options(args);
+        String input = options.string("--input", "test_inputs/input_test10.json");
+        int ants = options.integer("--ants", 20);
+        int iterations = options.integer("--iterations", 100);
+        int enroll = options.integer("--enroll", 20);
+        int removeRooms = options.integer("--remove-rooms", 1);
+        int newExams = options.integer("--new-exams", 1);
+        double bias = options.decimal("--bias", 4);
+        int runs = options.integer("--runs", 5);
+        boolean maxMin = options.bool("--max-min", true);
+        int localSearch = options.integer("--local-search", 0);
+
+        ScheduleData original = DataLoader.read(Paths.get(input));
+        Path stateFile = Files.createTempFile("warm-start-", ".state");
+
+        BenchmarkSupport.Table table = new BenchmarkSupport.Table(System.out)
+                .header("%4s %10s %10s %10s %6s %8s %6s %8s %7s %8s %7s %7s", "Seed", "Target", "Warm seed",
+                        "Warm best", "Cold", "Cold ms", "Warm", "Warm ms", "Kept", "Unplaced", "Moved", "Moved")
+                .header("%4s %10s %10s %10s %6s %8s %6s %8s %7s %8s %7s %7s", "", "", "fitness", "fitness",
+                        "iters", "", "iters", "", "", "", "cold", "warm");
+        long[] stateBytes = {0};
+        try {
+            for (int run = 0; run < runs; run++) {
+                long seed = run + 1;
+                quietly(() -> {
+                    AntColonyOptimization first = new AntColonyOptimization(original, ants, iterations, seed,
+                            parameters(maxMin));
+                    configure(first, original, localSearch);
+                    first.solve();
+                    first.toWarmStart().write(stateFile);
+                    stateBytes[0] = Files.size(stateFile);
+                    WarmStart state = WarmStart.read(stateFile);
+
+                    ScheduleData modified = perturb(original, new Random(seed), enroll, removeRooms, newExams);
+                    // Mục tiêu là fitness cuối của lần giải lạnh, đạt được ở lần cải thiện cuối cùng
+                    AntColonyOptimization cold = new AntColonyOptimization(modified, ants, iterations, seed,
+                            parameters(maxMin));
+                    configure(cold, modified, localSearch);
+                    long[] coldReached = {-1, 0};
+                    cold.setIncumbentListener((incumbent, iteration, elapsedMillis) -> {
+                        coldReached[0] = iteration;
+                        coldReached[1] = elapsedMillis;
+                    });
+                    ScheduleOutput coldResult = cold.solve();
+                    double target = coldResult.getFitness();
+
+                    AntColonyOptimization warm = new AntColonyOptimization(modified, ants, iterations, seed,
+                            parameters(maxMin));
+                    configure(warm, modified, localSearch);
+                    long warmStart = System.nanoTime();
+                    int kept = warm.warmStart(state, bias);
+                    double seedFitness = warm.getBestFitness();
+                    int[] warmReached = {seedFitness <= target ? 0 : -1};
+                    if (warmReached[0] < 0) {
+                        warm.setIncumbentListener((incumbent, iteration, elapsedMillis) -> {
+                            if (incumbent.getFitness() <= target && warmReached[0] < 0) {
+                                warmReached[0] = iteration;
+                                warm.cancel();
+                            }
+                        });
+                        warm.solve();
+                    }
+                    long warmMillis = (System.nanoTime() - warmStart) / 1_000_000L;
+
+                    table.row("%4d %10.1f %10.1f %10.1f %6s %8d %6s %8d %7d %8d %7d %7d",
+                            seed, target, seedFitness, warm.getBestFitness(), orDash(coldReached[0]),
+                            coldReached[1], orDash(warmReached[0]), warmMillis, kept,
+                            warm.getWarmStartUnplacedExams(),
+                            state.countChangedExams(coldResult.getSchedule()),
+                            state.countChangedExams(warm.getBestSchedule()));
+                    return null;
+                });
+            }
+        } finally {
+            Files.deleteIfExists(stateFile);
+        }
+
+        table.print("%s, %d ants x %d iterations; %d late enrollments, %d rooms removed, %d new exams; "
+                + "stability bias %s; %s; local search %d; state file %d bytes", new File(input).getName(), ants,
+                iterations, enroll, removeRooms, newExams, bias, maxMin ? "MAX-MIN" : "Ant System",
+                localSearch, stateBytes[0]);
+    }
+
+    /**
+     * Tìm kiếm cục bộ trên 5 con kiến tốt nhất mỗi vòng, như cấu hình mặc định của Main.
+     */
+    private static void configure(AntColonyOptimization colony, ScheduleData data, int localSearch) {
+        if (localSearch > 0) {
+            colony.setImprover(new LocalSearchImprover(data.getCompiled(), localSearch), 5);
+        }
+    }
+
+    private static AcoParameters parameters(boolean maxMin) {
+        return maxMin ? AcoParameters.maxMin() : new AcoParameters();
+    }
+
+    /**
+     * Bản sao của data với các thay đổi giữa kỳ: sinh viên đăng ký muộn (có thể tạo
+     * xung đột mới), phòng bị bỏ (ngẫu nhiên) và môn mới với sinh viên ngẫu nhiên.
+     */
+    static ScheduleData perturb(ScheduleData data, Random random, int enroll, int removeRooms,
+            int newExams) {
+        List<Student> students = data.getStudents();
+        List<Exam> exams = new ArrayList<>();
+        for (Exam exam : data.getExams()) {
+            exams.add(new Exam(exam.getId(), new ArrayList<>(exam.getStudents())));
+        }
+        for (int i = 0; i < enroll && !students.isEmpty(); i++) {
+            Exam exam = exams.get(random.nextInt(exams.size()));
+            String student = students.get(random.nextInt(students.size())).getId();
+            if (!exam.getStudents().contains(student)) {
+                exam.getStudents().add(student);
+            }
+        }
+
+        List<Room> rooms = new ArrayList<>(data.getRooms());
+        for (int i = 0; i < removeRooms && rooms.size() > 1; i++) {
+            rooms.remove(random.nextInt(rooms.size()));
+        }
+
+        int averageSize = 0;
+        for (Exam exam : exams) {
+            averageSize += exam.getStudentCount();
+        }
+        averageSize = Math.max(1, averageSize / Math.max(1, exams.size()));
+        for (int i = 0; i < newExams; i++) {
+            Set<String> enrolled = new LinkedHashSet<>();
+            for (int s = 0; s < averageSize && enrolled.size() < students.size(); s++) {
+                enrolled.add(students.get(random.nextInt(students.size())).getId());
+            }
+            exams.add(new Exam("NEW_" + (i + 1), new ArrayList<>(enrolled)));
+        }
+        return new ScheduleData(exams, students, rooms, data.getTimeslots());
+    }
+}
@@ -1,20 +1,76 @@
 import com.examschedule.models.*;
 import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.InstanceGenerator;
+import com.examschedule.utils.ScheduleSnapshot;
+import com.examschedule.utils.ScheduleWriter;
 import com.examschedule.utils.ScheduleFitness;
 import com.examschedule.utils.SchedulePrinter;
+import com.examschedule.algorithms.AcoParameters;
 import com.examschedule.algorithms.AntColonyOptimization;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.examschedule.algorithms.DSaturConstructor;
+import com.examschedule.algorithms.JfrMetricsListener;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.algorithms.WarmStart;
+import com.examschedule.utils.MetricsTraceWriter;
+import com.examschedule.distributed.ColonyCoordinator;
+import com.examschedule.distributed.ColonyWorker;
+import com.examschedule.runner.BatchRunner;
+import com.examschedule.service.SolverService;
 
-import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 public class Main {
+    // Hệ số ưu tiên giữ nguyên ca / phòng cũ khi khởi động ấm
+    private static final double WARM_START_STABILITY_BIAS = 4.0;
+    // Tỉ lệ τ giữa ô của lịch tô màu tham lam và ô khác khi gieo lời giải ban đầu
+    private static final double GREEDY_SEED_PHEROMONE_BIAS = 4.0;
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("generate")) {
+            generateInstances(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("convert")) {
+            convertToSnapshot(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("coordinate")) {
+            coordinate(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("worker")) {
+            runWorker(args);
+            return;
+        }
+
+        // Tuỳ chọn số đo: --trace file.csv|file.jsonl (số đo từng vòng lặp), --jfr (sự kiện JFR)
+        // Khởi động ấm: --warm-start file (trạng thái lần giải trước), --save-state file
+        // Tô màu tham lam: --greedy-seed (lời giải ban đầu DSatur), --saturation-order (thứ tự xếp môn DSatur)
+        Map<String, String> options;
+        try {
+            options = parseOptions(args, 0, "--trace", "--jfr", "--warm-start", "--save-state",
+                    "--greedy-seed", "--saturation-order");
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid option: " + e.getMessage());
+            return;
+        }
+
         System.out.println("========== EXAM SCHEDULING WITH ACO ==========\n");
         
         // Bước 1: Xác định bộ test (Chỉ cần đổi số này để chạy bộ khác)
@@ -25,7 +81,7 @@ public class Main {
         System.out.println("========== RUNNING TEST CASE: " + testNumber + " ==========");
         
         // Nạp dữ liệu
-        ScheduleData data = DataLoader.loadFromJSON(inputFileName);
+        ScheduleData data = DataLoader.load(inputFileName);
         if (data == null) {
             System.err.println("[Main] Failed to load data from: " + inputFileName);
             return;
@@ -33,62 +89,361 @@ public class Main {
         System.out.println("[Main] Data loaded successfully.\n");
 
         // Bước 2: Khởi tạo ACO
-        int numAnts = 500;
-        int maxIterations = 200;
-        AntColonyOptimization aco = new AntColonyOptimization(data, numAnts, maxIterations);
-        System.out.println("[Main] ACO configured: " + numAnts + " ants, " + maxIterations + " iterations\n");
+        // Tìm kiếm cục bộ trên 5 con kiến tốt nhất mỗi vòng thay cho 500 kiến x 200 vòng
+        int numAnts = 30;
+        int maxIterations = 30;
+        int antsToImprove = 5;
+        int localSearchBudget = 5000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        // Khởi động ấm cần pheromone sống qua các vòng: Ant System mặc định bay hơi hết
+        // sau mỗi vòng nên lần chạy lưu / nạp trạng thái dùng MAX-MIN
+        boolean keepsPheromone = options.containsKey("--warm-start") || options.containsKey("--save-state");
+        AcoParameters params = keepsPheromone ? AcoParameters.maxMin() : new AcoParameters();
+        AntColonyOptimization aco = new AntColonyOptimization(data, numAnts, maxIterations,
+                new SplittableRandom().nextLong(), params);
+        aco.setParallelism(threads);
+        aco.setImprover(new LocalSearchImprover(data.getCompiled(), localSearchBudget), antsToImprove);
+        aco.setProgressInterval(10);
+        if (options.containsKey("--jfr")) {
+            aco.addMetricsListener(new JfrMetricsListener());
+        }
+        String warmStartFile = options.get("--warm-start");
+        if (warmStartFile != null && !warmStartFile.isEmpty()) {
+            try {
+                aco.warmStart(WarmStart.read(Paths.get(warmStartFile)), WARM_START_STABILITY_BIAS);
+            } catch (Exception e) {
+                System.err.println("[Main] Error reading warm start " + warmStartFile + ": " + e.getMessage());
+                return;
+            }
+        }
+        if (options.containsKey("--greedy-seed")) {
+            aco.seedFromGraphColoring(DSaturConstructor.Ordering.DSATUR, GREEDY_SEED_PHEROMONE_BIAS);
+        }
+        if (options.containsKey("--saturation-order")) {
+            aco.setExamOrder(AntColonyOptimization.ExamOrder.SATURATION);
+        }
+        System.out.println("[Main] ACO configured: " + numAnts + " ants, " + maxIterations + " iterations, "
+                + threads + " threads, seed " + aco.getSeed() + ", "
+                + (keepsPheromone ? "MAX-MIN" : "Ant System") + ", local search on best "
+                + antsToImprove + " ants\n");
 
         // Bước 3: Tối ưu hoá
-        ScheduleOutput result = aco.solve();
+        ScheduleOutput result;
+        String traceFile = options.get("--trace");
+        if (traceFile == null || traceFile.isEmpty()) {
+            result = aco.solve();
+        } else {
+            try (MetricsTraceWriter trace = new MetricsTraceWriter(Paths.get(traceFile))) {
+                aco.addMetricsListener(trace);
+                result = aco.solve();
+            } catch (Exception e) {
+                System.err.println("[Main] Error writing trace " + traceFile + ": " + e.getMessage());
+                return;
+            }
+            System.out.println("[Main] Iteration metrics written to: " + traceFile);
+        }
         System.out.println("[Main] Optimization complete\n");
 
+        String stateFile = options.get("--save-state");
+        if (stateFile != null && !stateFile.isEmpty()) {
+            try {
+                aco.toWarmStart().write(Paths.get(stateFile));
+                System.out.println("[Main] Solver state written to: " + stateFile + "\n");
+            } catch (Exception e) {
+                System.err.println("[Main] Error writing solver state " + stateFile + ": " + e.getMessage());
+            }
+        }
+
         // Bước 4: Phân tích và Hiển thị kết quả
         ScheduleFitness fitnessTool = new ScheduleFitness(data);
         fitnessTool.printScheduleAnalysis(result.getSchedule(), result.getFitness());
         
-        SchedulePrinter.printScheduleTable(result.getSchedule(), data);
+        // Bảng trên console chỉ in tối đa consoleRows dòng (0 = chỉ thống kê)
+        int consoleRows = SchedulePrinter.DEFAULT_MAX_ROWS;
+        SchedulePrinter.printScheduleTable(result.getSchedule(), data, consoleRows);
 
-        // Bước 5: Ghi ra file JSON (Truyền thêm tham số outputFileName)
-        writeOutputJSON(result.getSchedule(), result.getFitness(), outputFileName);
+        // Bước 5: Ghi ra file JSON + CSV (Truyền thêm tham số outputFileName)
+        writeOutput(result.getSchedule(), result.getFitness(), data, outputFileName);
         
         System.out.println("\n[Main] Done!");
     }
 
     /**
-     * Hàm ghi kết quả ra file JSON
-     * @param schedule Danh sách phân bổ
-     * @param fitness Điểm tối ưu
-     * @param fileName Đường dẫn file đầu ra
+     * Sinh dữ liệu tổng hợp:
+     *   generate --tiers [thư mục]        sinh bộ 1k / 10k / 100k sinh viên (mặc định test_inputs/generated)
+     *   generate --tier 10k --out file    sinh một tier
+     *   generate --students N --exams N --rooms N --timeslots N [--exams-per-student X]
+     *            [--zipf X] [--departments N] [--cross-rate X] [--max-exam-size N] --out file
+     * Mọi dạng đều nhận --seed N (mặc định 1).
      */
-    private static void writeOutputJSON(List<Assignment> schedule, double fitness, String fileName) {
+    private static void generateInstances(String[] args) {
         try {
-            // 1. Đảm bảo thư mục đích tồn tại
-            Path path = Paths.get(fileName);
-            if (path.getParent() != null) {
-                Files.createDirectories(path.getParent());
+            Map<String, String> options = parseOptions(args, 1, "--tiers", "--tier", "--out", "--seed",
+                    "--students", "--exams", "--rooms", "--timeslots", "--exams-per-student", "--zipf",
+                    "--departments", "--cross-rate", "--max-exam-size");
+            long seed = Long.parseLong(options.getOrDefault("--seed", "1"));
+            if (options.containsKey("--tiers")) {
+                String dir = options.get("--tiers").isEmpty() ? "test_inputs/generated" : options.get("--tiers");
+                for (InstanceGenerator.Tier tier : InstanceGenerator.Tier.values()) {
+                    writeGenerated(InstanceGenerator.forTier(tier, seed),
+                            Paths.get(dir, "scale_" + tier.getLabel() + ".json"));
+                }
+                return;
             }
 
-            // 2. Tạo cấu trúc JSON
-            JSONObject output = new JSONObject();
-            JSONArray scheduleArray = new JSONArray();
-            
-            for (Assignment assignment : schedule) {
-                JSONObject assignmentObj = new JSONObject();
-                assignmentObj.put("exam", assignment.getExamId());
-                assignmentObj.put("room", assignment.getRoom());
-                assignmentObj.put("timeslot", assignment.getTimeslot());
-                assignmentObj.put("students", assignment.getStudentCount());
-                scheduleArray.put(assignmentObj);
+            InstanceGenerator generator;
+            if (options.containsKey("--tier")) {
+                generator = null;
+                for (InstanceGenerator.Tier tier : InstanceGenerator.Tier.values()) {
+                    if (tier.getLabel().equalsIgnoreCase(options.get("--tier"))) {
+                        generator = InstanceGenerator.forTier(tier, seed);
+                    }
+                }
+                if (generator == null) {
+                    System.err.println("[Main] Unknown tier: " + options.get("--tier") + " (expected 1k, 10k or 100k)");
+                    return;
+                }
+            } else {
+                generator = new InstanceGenerator();
+                generator.setSeed(seed);
+                if (options.containsKey("--students")) generator.setNumStudents(Integer.parseInt(options.get("--students")));
+                if (options.containsKey("--exams")) generator.setNumExams(Integer.parseInt(options.get("--exams")));
+                if (options.containsKey("--rooms")) generator.setNumRooms(Integer.parseInt(options.get("--rooms")));
+                if (options.containsKey("--timeslots")) generator.setNumTimeslots(Integer.parseInt(options.get("--timeslots")));
+                if (options.containsKey("--exams-per-student")) generator.setExamsPerStudent(Double.parseDouble(options.get("--exams-per-student")));
+                if (options.containsKey("--zipf")) generator.setZipfExponent(Double.parseDouble(options.get("--zipf")));
+                if (options.containsKey("--departments")) generator.setDepartments(Integer.parseInt(options.get("--departments")));
+                if (options.containsKey("--cross-rate")) generator.setCrossDepartmentRate(Double.parseDouble(options.get("--cross-rate")));
+                if (options.containsKey("--max-exam-size")) generator.setMaxExamSize(Integer.parseInt(options.get("--max-exam-size")));
+            }
+            String out = options.get("--out");
+            if (out == null || out.isEmpty()) {
+                System.err.println("[Main] Missing --out <file>");
+                return;
+            }
+            writeGenerated(generator, Paths.get(out));
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid generator option: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("[Main] Error generating instance: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Đọc các tuỳ chọn "--tên [giá trị]" từ args[from..]. Phần tử ngay sau tên là giá trị
+     * của nó trừ khi bản thân phần tử đó là một tên tuỳ chọn, nên giá trị âm như "-1",
+     * "-0.5" hay "-1e-3" luôn được nhận; tuỳ chọn cờ (--tiers, --mixed) có giá trị "".
+     *
+     * @param known Các tên tuỳ chọn lệnh chấp nhận
+     * @throws IllegalArgumentException nếu gặp phần tử không phải tên tuỳ chọn ở chỗ cần tên,
+     *                                  hoặc tên không nằm trong known
+     */
+    private static Map<String, String> parseOptions(String[] args, int from, String... known) {
+        List<String> names = Arrays.asList(known);
+        Map<String, String> options = new HashMap<>();
+        for (int i = from; i < args.length; i++) {
+            if (!isOptionName(args[i])) {
+                throw new IllegalArgumentException("expected --name, got: " + args[i]);
+            }
+            if (!names.contains(args[i])) {
+                throw new IllegalArgumentException("unknown option " + args[i] + " (expected one of "
+                        + String.join(", ", names) + ")");
             }
+            boolean hasValue = i + 1 < args.length && !isOptionName(args[i + 1]);
+            options.put(args[i], hasValue ? args[++i] : "");
+        }
+        return options;
+    }
 
-            output.put("schedule", scheduleArray);
-            output.put("fitness", fitness);
+    /**
+     * Tên tuỳ chọn là "--" theo sau bởi một chữ cái; "-5" hay "--5" là giá trị.
+     */
+    private static boolean isOptionName(String token) {
+        return token.length() > 2 && token.startsWith("--") && Character.isLetter(token.charAt(2));
+    }
 
-            // 3. Ghi file với định dạng UTF-8
-            String jsonString = output.toString(2);
-            Files.write(path, jsonString.getBytes(StandardCharsets.UTF_8));
-            
-            System.out.println("[Main] Success! Output written to: " + fileName);
+    private static void writeGenerated(InstanceGenerator generator, Path path) throws Exception {
+        long start = System.nanoTime();
+        ScheduleData data = generator.generate();
+        InstanceGenerator.writeJSON(data, path);
+        int enrollments = 0;
+        for (Exam exam : data.getExams()) {
+            enrollments += exam.getStudentCount();
+        }
+        System.out.printf("[Main] %s: %d exams, %d students, %d enrollments, %d rooms, %d timeslots, "
+                        + "conflict density %.4f, %.1f MB (%d ms)%n",
+                path, data.getExams().size(), data.getStudents().size(), enrollments,
+                data.getRooms().size(), data.getTimeslots().size(),
+                InstanceGenerator.conflictDensity(data), Files.size(path) / (1024.0 * 1024.0),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Giải nhiều bộ dữ liệu đồng thời, xem {@link BatchRunner#runFromArgs(String[])}:
+     *   batch "test_inputs/*.json" [--ants N] [--iterations N] [--time-limit MS] [--workers N] ...
+     */
+    private static void runBatch(String[] args) {
+        try {
+            int failed = BatchRunner.runFromArgs(Arrays.copyOfRange(args, 1, args.length));
+            if (failed > 0) {
+                System.exit(1);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid batch option: " + e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("[Main] Batch failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Chạy dịch vụ giải HTTP cục bộ, xem {@link SolverService}:
+     *   serve [--host 127.0.0.1] [--port 8080] [--workers N] [--threads N] [--queue 64] [--cache 16]
+     */
+    private static void serve(String[] args) {
+        try {
+            Map<String, String> options = parseOptions(args, 1, "--host", "--port", "--workers", "--threads",
+                    "--queue", "--cache");
+            int cpus = Runtime.getRuntime().availableProcessors();
+            SolverService service = new SolverService(
+                    Integer.parseInt(options.getOrDefault("--workers", String.valueOf(Math.max(1, cpus / 2)))),
+                    Integer.parseInt(options.getOrDefault("--threads", String.valueOf(cpus))),
+                    Integer.parseInt(options.getOrDefault("--queue", "64")),
+                    Integer.parseInt(options.getOrDefault("--cache", "16")));
+            service.start(new InetSocketAddress(options.getOrDefault("--host", "127.0.0.1"),
+                    Integer.parseInt(options.getOrDefault("--port", "8080"))));
+            Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid service option: " + e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("[Main] Cannot start service: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Điều phối các đàn kiến phân tán, xem {@link ColonyCoordinator}:
+     *   coordinate input.json [--workers 4] [--host 127.0.0.1] [--port 9090] [--ants 10] [--iterations 200]
+     *              [--epoch 10] [--blend 0] [--mixed] [--time-limit MS] [--target F] [--seed 1]
+     *              [--read-timeout 60000]   (0 = chờ worker mãi; bắt buộc khi --epoch 0)
+     *              [--local-search B --improve K] [--out file.json]
+     */
+    private static void coordinate(String[] args) {
+        if (args.length < 2 || isOptionName(args[1])) {
+            System.err.println("[Main] Usage: coordinate <input> [--workers N] [--port P] ...");
+            System.exit(2);
+        }
+        try {
+            Map<String, String> options = parseOptions(args, 2, "--workers", "--host", "--port", "--ants",
+                    "--iterations", "--epoch", "--blend", "--mixed", "--time-limit", "--target", "--seed",
+                    "--read-timeout", "--local-search", "--improve", "--out");
+            ColonyCoordinator coordinator = new ColonyCoordinator(Paths.get(args[1]),
+                    Integer.parseInt(options.getOrDefault("--workers", "4")),
+                    Integer.parseInt(options.getOrDefault("--ants", "10")),
+                    Integer.parseInt(options.getOrDefault("--iterations", "200")),
+                    Long.parseLong(options.getOrDefault("--seed", "1")));
+            // Thời gian chờ trước: --epoch 0 chỉ hợp lệ khi --read-timeout 0
+            coordinator.setReadTimeout(Long.parseLong(options.getOrDefault("--read-timeout", "60000")));
+            coordinator.setEpochInterval(Integer.parseInt(options.getOrDefault("--epoch", "10")));
+            coordinator.setPheromoneBlend(Double.parseDouble(options.getOrDefault("--blend", "0")));
+            coordinator.setMixedParameters(options.containsKey("--mixed"));
+            coordinator.setTimeLimit(Long.parseLong(options.getOrDefault("--time-limit", "0")));
+            coordinator.setLocalSearch(Integer.parseInt(options.getOrDefault("--improve", "0")),
+                    Integer.parseInt(options.getOrDefault("--local-search", "0")));
+            if (options.containsKey("--target")) {
+                coordinator.setTargetFitness(Double.parseDouble(options.get("--target")));
+            }
+            InetSocketAddress address = coordinator.bind(new InetSocketAddress(
+                    options.getOrDefault("--host", "127.0.0.1"),
+                    Integer.parseInt(options.getOrDefault("--port", "9090"))));
+            System.out.println("[Main] Coordinator listening on " + address);
+            ScheduleOutput result = coordinator.run();
+            System.out.printf("[Main] %d workers (%d failed), %d ms, %d evaluations, %.0f evaluations/s, "
+                            + "best fitness %s, %d bytes received, %d bytes sent%n",
+                    coordinator.getConnectedWorkers(), coordinator.getFailedWorkers(),
+                    coordinator.getWallMillis(), coordinator.getEvaluations(),
+                    coordinator.getWallMillis() > 0
+                            ? coordinator.getEvaluations() * 1000.0 / coordinator.getWallMillis() : 0,
+                    result.getFitness(), coordinator.getBytesReceived(), coordinator.getBytesSent());
+            if (options.containsKey("--out")) {
+                ScheduleWriter.writeJSON(result.getSchedule(), result.getFitness(), Paths.get(options.get("--out")));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid coordinator option: " + e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("[Main] Coordinator failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Chạy một worker cho {@link ColonyCoordinator}:
+     *   worker [--connect 127.0.0.1:9090]
+     */
+    private static void runWorker(String[] args) {
+        try {
+            Map<String, String> options = parseOptions(args, 1, "--connect");
+            String target = options.getOrDefault("--connect", "127.0.0.1:9090");
+            int colon = target.lastIndexOf(':');
+            if (colon < 1) {
+                throw new IllegalArgumentException("expected --connect host:port, got: \"" + target + "\"");
+            }
+            new ColonyWorker(new InetSocketAddress(target.substring(0, colon),
+                    Integer.parseInt(target.substring(colon + 1)))).run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Main] Invalid worker option: " + e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("[Main] Worker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Chuyển file JSON sang snapshot nhị phân:
+     *   convert input.json [output.snap]   (mặc định thay đuôi .json bằng .snap)
+     */
+    private static void convertToSnapshot(String[] args) {
+        if (args.length < 2) {
+            System.err.println("[Main] Usage: convert <input.json> [output.snap]");
+            return;
+        }
+        String input = args[1];
+        String output = args.length > 2 ? args[2] : input.replaceFirst("\\.json$", "") + ".snap";
+        try {
+            long start = System.nanoTime();
+            ScheduleData data = DataLoader.readJSON(Paths.get(input));
+            long parsed = System.nanoTime();
+            ScheduleSnapshot.write(data, Paths.get(output));
+            long written = System.nanoTime();
+            System.out.printf("[Main] %s -> %s: %s, %.1f MB -> %.1f MB (parse %d ms, compile + write %d ms)%n",
+                    input, output, data.getCompiled(), Files.size(Paths.get(input)) / (1024.0 * 1024.0),
+                    Files.size(Paths.get(output)) / (1024.0 * 1024.0),
+                    (parsed - start) / 1_000_000, (written - parsed) / 1_000_000);
+        } catch (Exception e) {
+            System.err.println("[Main] Error converting " + input + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hàm ghi kết quả ra file JSON và file CSV cùng tên (sắp theo ca thi, phòng)
+     * @param schedule Danh sách phân bổ
+     * @param fitness Điểm tối ưu
+     * @param fileName Đường dẫn file đầu ra
+     */
+    private static void writeOutput(List<Assignment> schedule, double fitness, ScheduleData data, String fileName) {
+        try {
+            Path path = Paths.get(fileName);
+            ScheduleWriter.writeJSON(schedule, fitness, path);
+            Path csvPath = Paths.get(fileName.replaceFirst("\\.json$", "") + ".csv");
+            ScheduleWriter.writeCSV(schedule, data, ScheduleWriter.CsvOrder.BY_TIMESLOT, csvPath);
+
+            System.out.println("[Main] Success! Output written to: " + fileName + " and " + csvPath);
             
         } catch (Exception e) {
             System.err.println("[Main] Error writing output: " + e.getMessage());
@@ -0,0 +1,184 @@
+package com.examschedule.algorithms;
+
+import java.util.Objects;
+
+/**
+ * Siêu tham số của {@link AntColonyOptimization}.
+ * Giá trị mặc định giữ nguyên cấu hình Ant System ban đầu của bộ giải.
+ * Các setter từ chối giá trị vô nghĩa bằng IllegalArgumentException.
+ */
+public class AcoParameters {
+
+    /**
+     * Cách cập nhật pheromone sau mỗi vòng lặp.
+     */
+    public enum PheromoneUpdate {
+        /** Bay hơi rồi bồi đắp từ mọi con kiến có fitness < 1.5 * tốt nhất. */
+        ANT_SYSTEM,
+        /** MAX-MIN Ant System: chỉ một lời giải bồi đắp, τ bị chặn trong [τmin, τmax]. */
+        MAX_MIN
+    }
+
+    /**
+     * Lời giải được phép bồi đắp pheromone trong chế độ MAX-MIN.
+     */
+    public enum DepositSource { ITERATION_BEST, GLOBAL_BEST }
+
+    private double alpha = 0.5;            // Mức độ ảnh hưởng của pheromone
+    private double beta = 1;               // Mức độ ảnh hưởng của heuristic
+    private double evaporation = 1;        // Tỷ lệ bay hơi pheromone
+    private double pheromoneDeposit = 0.1;
+    private double initialPheromone = 1.0;
+
+    private PheromoneUpdate pheromoneUpdate = PheromoneUpdate.ANT_SYSTEM;
+    private DepositSource depositSource = DepositSource.ITERATION_BEST;
+    private double tauMin = 0.01;
+    private double tauMax = 1.0;
+    // Số vòng lặp không cải thiện trước khi khởi tạo lại pheromone (0 = tắt)
+    private int stagnationLimit = 0;
+
+    /**
+     * Cấu hình MAX-MIN Ant System khuyến nghị: α = 2, bay hơi 0.3, τ trong [0.001, 1],
+     * bồi đắp từ lời giải tốt nhất của vòng lặp, khởi tạo lại sau 25 vòng không cải thiện.
+     * α lớn để tỉ lệ τmax/τmin đủ thắng độ ưu tiên ca sớm 10^-Δt khi chọn ca.
+     */
+    public static AcoParameters maxMin() {
+        AcoParameters params = new AcoParameters();
+        params.setPheromoneUpdate(PheromoneUpdate.MAX_MIN);
+        params.setAlpha(2);
+        params.setEvaporation(0.3);
+        params.setTauBounds(0.001, 1.0);
+        params.setInitialPheromone(1.0);
+        params.setStagnationLimit(25);
+        return params;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public void setAlpha(double alpha) {
+        if (!(alpha >= 0) || Double.isInfinite(alpha)) {
+            throw new IllegalArgumentException("alpha must be finite and >= 0: " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(double beta) {
+        if (!(beta >= 0) || Double.isInfinite(beta)) {
+            throw new IllegalArgumentException("beta must be finite and >= 0: " + beta);
+        }
+        this.beta = beta;
+    }
+
+    public double getEvaporation() {
+        return evaporation;
+    }
+
+    public void setEvaporation(double evaporation) {
+        // ρ = 0 không bao giờ quên pheromone, còn τ·(1 - ρ) < 0 khi ρ > 1
+        if (!(evaporation > 0 && evaporation <= 1)) {
+            throw new IllegalArgumentException("evaporation must be in (0, 1]: " + evaporation);
+        }
+        this.evaporation = evaporation;
+    }
+
+    public double getPheromoneDeposit() {
+        return pheromoneDeposit;
+    }
+
+    public void setPheromoneDeposit(double pheromoneDeposit) {
+        if (!(pheromoneDeposit > 0) || Double.isInfinite(pheromoneDeposit)) {
+            throw new IllegalArgumentException("pheromoneDeposit must be finite and > 0: " + pheromoneDeposit);
+        }
+        this.pheromoneDeposit = pheromoneDeposit;
+    }
+
+    public double getInitialPheromone() {
+        return initialPheromone;
+    }
+
+    public void setInitialPheromone(double initialPheromone) {
+        if (!(initialPheromone > 0) || Double.isInfinite(initialPheromone)) {
+            throw new IllegalArgumentException("initialPheromone must be finite and > 0: " + initialPheromone);
+        }
+        this.initialPheromone = initialPheromone;
+    }
+
+    public PheromoneUpdate getPheromoneUpdate() {
+        return pheromoneUpdate;
+    }
+
+    public void setPheromoneUpdate(PheromoneUpdate pheromoneUpdate) {
+        this.pheromoneUpdate = Objects.requireNonNull(pheromoneUpdate);
+    }
+
+    public DepositSource getDepositSource() {
+        return depositSource;
+    }
+
+    public void setDepositSource(DepositSource depositSource) {
+        this.depositSource = Objects.requireNonNull(depositSource);
+    }
+
+    public double getTauMin() {
+        return tauMin;
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu tauMin ≤ 0 hoặc lớn hơn tauMax hiện tại;
+     *         dùng {@link #setTauBounds} để đổi cả hai cùng lúc
+     */
+    public void setTauMin(double tauMin) {
+        setTauBounds(tauMin, tauMax);
+    }
+
+    public double getTauMax() {
+        return tauMax;
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu tauMax nhỏ hơn tauMin hiện tại
+     */
+    public void setTauMax(double tauMax) {
+        setTauBounds(tauMin, tauMax);
+    }
+
+    /**
+     * Đặt khoảng chặn [τmin, τmax] của MAX-MIN; cần 0 < τmin ≤ τmax, hữu hạn.
+     */
+    public void setTauBounds(double tauMin, double tauMax) {
+        if (!(tauMin > 0 && tauMin <= tauMax) || Double.isInfinite(tauMax)) {
+            throw new IllegalArgumentException("tau bounds must satisfy 0 < tauMin <= tauMax < inf: ["
+                    + tauMin + ", " + tauMax + "]");
+        }
+        this.tauMin = tauMin;
+        this.tauMax = tauMax;
+    }
+
+    public int getStagnationLimit() {
+        return stagnationLimit;
+    }
+
+    public void setStagnationLimit(int stagnationLimit) {
+        if (stagnationLimit < 0) {
+            throw new IllegalArgumentException("stagnationLimit must be >= 0: " + stagnationLimit);
+        }
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "AcoParameters{" + "alpha=" + alpha + ", beta=" + beta + ", evaporation=" + evaporation
+                + ", pheromoneDeposit=" + pheromoneDeposit + ", update=" + pheromoneUpdate
+                + (pheromoneUpdate == PheromoneUpdate.MAX_MIN
+                        ? ", deposit=" + depositSource + ", tau=[" + tauMin + ", " + tauMax + "]"
+                        + ", stagnationLimit=" + stagnationLimit
+                        : "")
+                + '}';
+    }
+}
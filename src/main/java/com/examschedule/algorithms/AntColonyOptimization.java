@@ -3,50 +3,167 @@ package com.examschedule.algorithms;
 import com.examschedule.models.*;
 import com.examschedule.utils.ScheduleFitness;
 import com.examschedule.utils.ExamSplitter;
+import com.examschedule.utils.SplitPlanner;
+import com.examschedule.utils.WorkspacePool;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Thuật toán Ant Colony Optimization (ACO) cho bài toán lập lịch thi.
  */
 public class AntColonyOptimization {
+
+    /**
+     * Lý do solve() kết thúc.
+     */
+    public enum StopReason { MAX_ITERATIONS, TIME_LIMIT, STAGNATION, CANCELLED }
+
+    /**
+     * Thứ tự các con kiến xếp môn khi xây dựng lời giải.
+     */
+    public enum ExamOrder {
+        /** Mỗi con kiến xáo trộn ngẫu nhiên. */
+        RANDOM,
+        /** Mọi con kiến dùng thứ tự DSatur cố định ({@link DSaturConstructor}). */
+        SATURATION
+    }
+
     private ScheduleData data;
+    private CompiledInstance instance;
     private ScheduleFitness fitness;
-    private Random random;
+
+    // Hạt giống của lần chạy: mỗi con kiến nhận một luồng ngẫu nhiên riêng
+    // được tách ra từ hạt giống này, nên kết quả không phụ thuộc số luồng.
+    private long seed;
+
+    // Số luồng xây dựng lời giải (1 = chạy tuần tự trên luồng gọi solve())
+    private int parallelism;
+    private ForkJoinPool pool;
 
     // Các tham số của ACO
     private int numAnts;
     private int maxIterations;
-    private double alpha;       // Mức độ ảnh hưởng của pheromone
-    private double beta;        // Mức độ ảnh hưởng của heuristic
-    private double evaporation; // Tỷ lệ bay hơi pheromone
-    private double pheromoneDeposit;
+    private AcoParameters params;
 
     // Ma trận pheromone: τ[exam_index][timeslot_index][room_index]
-    private double[][][] pheromone;
+    private PheromoneStore pheromone;
+
+    // Heuristic tách được: η[e][t][r] = roomHeuristic[e * numRooms + r] * timeslotPreference[t]
+    private double[] roomHeuristic;
+    private double[] timeslotPreference;
+
+    // Danh sách ứng viên (ca, phòng đủ sức chứa) của từng môn theo kiểu CSR,
+    // sắp theo ca rồi theo phòng: ứng viên của môn e nằm trong
+    // [candidateOffsets[e], candidateOffsets[e + 1]). Ứng viên thứ j của môn e là
+    // ca j / F, phòng candidateRooms[candidateRoomOffsets[e] + j % F] với F là số
+    // phòng đủ chỗ của môn, nên chỉ trọng số được lưu theo ô.
+    private int[] candidateOffsets;
+    private int[] candidateRoomOffsets;
+    private int[] candidateRooms;         // phòng đủ chỗ của từng môn, chỉ số tăng dần
+    private double[] roomHeuristicBeta;   // (phần phòng của η)^β, song song candidateRooms
+    private double[] timeslotHeuristicBeta; // (phần ca của η)^β
+    private double[] candidateWeight;    // τ^α * η^β, làm mới khi pheromone đổi
+    // Ô ưu tiên giữ nguyên sau khởi động ấm (null nếu môn không có), η nhân stabilityBias
+    private int[][] stableCells;
+    private double stabilityBias = 1.0;
+
+    // decimalBias[d] = 10^-d: độ ưu tiên ca sớm tương đối so với ca trống sớm nhất
+    private double[] decimalBias;
 
-    // Ma trận heuristic: η[exam_index][timeslot_index][room_index]
-    private double[][][] heuristic;
+    // Bản chụp τ của chính bộ giải trong blendPheromone, tái sử dụng qua các lần trộn
+    private double[] blendScratch;
 
-    private List<Assignment> bestSchedule;
+    private CompactSchedule bestSchedule;
     private double bestFitness;
+    // Lời giải tốt nhất được gieo trước solve() (khởi động ấm, tô màu tham lam):
+    // lần solve() kế tiếp bắt đầu từ nó thay vì từ lịch rỗng
+    private boolean incumbentSeeded;
+    // Số môn khởi động ấm không xếp lại được (không ca nào còn đủ chỗ)
+    private int warmStartUnplaced;
+
+    // Số vòng lặp liên tiếp lời giải tốt nhất không được cải thiện (kể cả bởi lời giải
+    // di cư); dùng cho cả khởi tạo lại pheromone lẫn điều kiện dừng maxStagnantIterations
+    private int stagnantIterations;
+
+    // Bước cải thiện cục bộ cho antsToImprove con kiến tốt nhất mỗi vòng (null = tắt)
+    private ScheduleImprover improver;
+    private int antsToImprove;
+
+    // Điều kiện dừng sớm (0 = không giới hạn)
+    private long timeLimitMillis;
+    private int maxStagnantIterations;
+    private volatile boolean cancelled;
+    // Mốc System.nanoTime() phải dừng của lần solve() hiện tại (chỉ dùng khi hasDeadline)
+    private long deadlineNanos;
+    private boolean hasDeadline;
+
+    private IncumbentListener incumbentListener;
+    private StopReason stopReason;
+    // volatile: có thể được đọc từ luồng khác để theo dõi tiến độ
+    private volatile int iterationsCompleted;
+    // Số lần đánh giá đầy đủ một lịch do con kiến xây dựng (cộng từ nhiều luồng)
+    private final LongAdder evaluations = new LongAdder();
+
+    // Nhận số đo từng vòng lặp; khi rỗng, các giai đoạn không được đo
+    private final List<SolverMetricsListener> metricsListeners = new ArrayList<>();
+    private boolean collectMetrics;
+    // Tổng thời gian theo giai đoạn của các con kiến trong vòng hiện tại (cộng từ nhiều luồng)
+    private final LongAdder constructionNanos = new LongAdder();
+    private final LongAdder selectionNanos = new LongAdder();
+    private final LongAdder splittingNanos = new LongAdder();
+    private final LongAdder fitnessNanos = new LongAdder();
+    private final LongAdder fallbackSelections = new LongAdder();
+    private final LongAdder splitFailures = new LongAdder();
+    // In tiến độ ra console mỗi progressInterval vòng lặp (0 = không in)
+    private int progressInterval;
+
+    // Thứ tự xếp môn cố định của mọi con kiến (null = xáo trộn ngẫu nhiên)
+    private int[] fixedExamOrder;
+
+    // Gọi sau mỗi epochInterval vòng lặp (mô hình đảo dùng để trao đổi lời giải)
+    private IntConsumer epochHook;
+    private int epochInterval;
+
+    // Bộ đệm tạm của các con kiến, mỗi con kiến mượn một bộ. Không dùng ThreadLocal để
+    // luồng của pool dùng chung (setPool) không giữ lại bộ đệm sau khi solve() kết thúc
+    private final WorkspacePool<AntWorkspace> workspaces =
+            new WorkspacePool<>(() -> new AntWorkspace(instance, maxCandidates()));
 
     /**
      * Khởi tạo bộ giải ACO.
      */
     public AntColonyOptimization(ScheduleData data, int numAnts, int maxIterations) {
+        this(data, numAnts, maxIterations, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Khởi tạo bộ giải ACO với hạt giống cố định để có thể tái lập kết quả.
+     */
+    public AntColonyOptimization(ScheduleData data, int numAnts, int maxIterations,
+            long seed) {
+        this(data, numAnts, maxIterations, seed, new AcoParameters());
+    }
+
+    /**
+     * Khởi tạo bộ giải ACO với hạt giống và siêu tham số cho trước.
+     */
+    public AntColonyOptimization(ScheduleData data, int numAnts, int maxIterations,
+            long seed, AcoParameters params) {
         this.data = data;
+        this.instance = data.getCompiled();
         this.fitness = new ScheduleFitness(data);
-        this.random = new Random();
+        this.seed = seed;
+        this.parallelism = 1;
         this.numAnts = numAnts;
         this.maxIterations = maxIterations;
 
         // Các tham số ACO
-        this.alpha = 0.5;
-        this.beta = 1;
-        this.evaporation = 1;
-        this.pheromoneDeposit = 0.1;
+        this.params = params;
 
-        this.bestSchedule = new ArrayList<>();
+        this.bestSchedule = new CompactSchedule();
         this.bestFitness = Double.MAX_VALUE;
 
         initializeMatrices();
@@ -54,73 +171,639 @@ public class AntColonyOptimization {
 
     /**
      * Khởi tạo ma trận pheromone và heuristic.
+     * Mặc định pheromone chỉ lưu các cặp (môn, phòng) đủ sức chứa, bằng double trên heap.
      */
     private void initializeMatrices() {
-        int numExams = data.getExams().size();
-        int numTimeslots = data.getTimeslots().size();
-        int numRooms = data.getRooms().size();
+        int numExams = instance.getNumExams();
+        int numTimeslots = instance.getNumTimeslots();
+        int numRooms = instance.getNumRooms();
 
-        pheromone = new double[numExams][numTimeslots][numRooms];
-        heuristic = new double[numExams][numTimeslots][numRooms];
+        roomHeuristic = new double[numExams * numRooms];
+        timeslotPreference = new double[numTimeslots];
 
-        // Khởi tạo pheromone với giá trị nhỏ ban đầu
+        for (int j = 0; j < numTimeslots; j++) {
+            timeslotPreference[j] = (double)(numTimeslots - j) / numTimeslots * 2.0;
+        }
         for (int i = 0; i < numExams; i++) {
-            for (int j = 0; j < numTimeslots; j++) {
-                for (int k = 0; k < numRooms; k++) {
-                    pheromone[i][j][k] = 1.0;
-                    Exam exam = data.getExams().get(i);
-                    Room room = data.getRooms().get(k);
-                    
-                    double timeslotPreference =
-                            (double)(numTimeslots - j) / numTimeslots * 2.0;
-                    
-                    if (exam.getStudentCount() <= room.getCapacity()) {
-                        // Heuristic tốt hơn cho các phòng phù hợp
-                        double utilization =
-                                (double) exam.getStudentCount() / room.getCapacity();
-                        heuristic[i][j][k] = utilization * timeslotPreference;
-                    } else {
-                        heuristic[i][j][k] = 0.0; // Phương án không hợp lệ
+            for (int k = 0; k < numRooms; k++) {
+                int examSize = instance.getExamSize(i);
+                int capacity = instance.getRoomCapacity(k);
+                if (examSize <= capacity) {
+                    // Heuristic tốt hơn cho các phòng phù hợp
+                    roomHeuristic[i * numRooms + k] = (double) examSize / capacity;
+                } else {
+                    roomHeuristic[i * numRooms + k] = 0.0; // Phương án không hợp lệ
+                }
+            }
+        }
+
+        buildCandidateLists();
+        setPheromoneStore(PheromoneStore.Layout.SPARSE,
+                PheromoneStore.Precision.DOUBLE, false);
+    }
+
+    /**
+     * Lập danh sách ứng viên (ca, phòng) hợp lệ cho từng môn và phần heuristic
+     * cố định của trọng số roulette.
+     */
+    private void buildCandidateLists() {
+        int numExams = instance.getNumExams();
+        int numTimeslots = instance.getNumTimeslots();
+        int numRooms = instance.getNumRooms();
+
+        candidateOffsets = new int[numExams + 1];
+        candidateRoomOffsets = new int[numExams + 1];
+        for (int e = 0; e < numExams; e++) {
+            int feasibleRooms = 0;
+            for (int r = 0; r < numRooms; r++) {
+                if (instance.getExamSize(e) <= instance.getRoomCapacity(r)) {
+                    feasibleRooms++;
+                }
+            }
+            candidateRoomOffsets[e + 1] = candidateRoomOffsets[e] + feasibleRooms;
+            candidateOffsets[e + 1] = candidateOffsets[e] + feasibleRooms * numTimeslots;
+        }
+
+        // η tách được thành phần phòng × phần ca nên η^β cũng vậy
+        candidateRooms = new int[candidateRoomOffsets[numExams]];
+        roomHeuristicBeta = new double[candidateRooms.length];
+        int i = 0;
+        for (int e = 0; e < numExams; e++) {
+            for (int r = 0; r < numRooms; r++) {
+                if (instance.getExamSize(e) <= instance.getRoomCapacity(r)) {
+                    candidateRooms[i] = r;
+                    roomHeuristicBeta[i] = Math.pow(roomHeuristic[e * numRooms + r], params.getBeta());
+                    i++;
+                }
+            }
+        }
+        timeslotHeuristicBeta = new double[numTimeslots];
+        for (int t = 0; t < numTimeslots; t++) {
+            timeslotHeuristicBeta[t] = Math.pow(timeslotPreference[t], params.getBeta());
+        }
+        candidateWeight = new double[candidateOffsets[numExams]];
+
+        decimalBias = new double[numTimeslots];
+        for (int d = 0; d < numTimeslots; d++) {
+            decimalBias[d] = Math.pow(10.0, -d);
+        }
+    }
+
+    /**
+     * Tính lại τ^α * η^β cho mọi ứng viên; gọi sau mỗi lần pheromone thay đổi.
+     */
+    private void refreshCandidateWeights() {
+        int numTimeslots = instance.getNumTimeslots();
+        double alpha = params.getAlpha();
+        // 0^α: 0 khi α > 0 nhưng 1 khi α = 0 (bỏ qua pheromone, kể cả ô có τ = 0)
+        double zeroTauAlpha = Math.pow(0.0, alpha);
+        for (int e = 0; e < instance.getNumExams(); e++) {
+            int roomFrom = candidateRoomOffsets[e];
+            int roomTo = candidateRoomOffsets[e + 1];
+            int k = candidateOffsets[e];
+            for (int t = 0; t < numTimeslots; t++) {
+                double slotTerm = timeslotHeuristicBeta[t];
+                for (int i = roomFrom; i < roomTo; i++) {
+                    double tau = pheromone.get(e, t, candidateRooms[i]);
+                    // τ^1 = τ, 1^α = 1 và 0^α đã tính sẵn: bỏ qua phép tính tốn kém (sau bay
+                    // hơi hoàn toàn phần lớn τ bằng 0)
+                    double tauAlpha = (alpha == 1.0 || tau == 1.0) ? tau
+                            : tau == 0.0 ? zeroTauAlpha : Math.pow(tau, alpha);
+                    candidateWeight[k++] = tauAlpha * roomHeuristicBeta[i] * slotTerm;
+                }
+            }
+            if (stableCells != null && stableCells[e] != null) {
+                for (int cell : stableCells[e]) {
+                    int k2 = candidateIndex(e, cell);
+                    if (k2 >= 0) {
+                        candidateWeight[k2] *= stabilityBias;
                     }
                 }
             }
         }
-        System.out.println("[ACO] Matrices initialized");
     }
 
     /**
-     * Thực thi thuật toán ACO.
+     * @return Ca của ứng viên k (trong danh sách của môn e)
+     */
+    private int candidateTimeslot(int e, int k) {
+        return (k - candidateOffsets[e]) / (candidateRoomOffsets[e + 1] - candidateRoomOffsets[e]);
+    }
+
+    /**
+     * @return Phòng của ứng viên k (trong danh sách của môn e)
+     */
+    private int candidateRoom(int e, int k) {
+        int feasible = candidateRoomOffsets[e + 1] - candidateRoomOffsets[e];
+        return candidateRooms[candidateRoomOffsets[e] + (k - candidateOffsets[e]) % feasible];
+    }
+
+    /**
+     * @return Chỉ số ứng viên của ô (timeslot * numRooms + room) cho môn e, hoặc -1
+     *         nếu phòng không đủ chỗ cho môn
+     */
+    private int candidateIndex(int e, int cell) {
+        int numRooms = instance.getNumRooms();
+        int from = candidateRoomOffsets[e];
+        int feasible = candidateRoomOffsets[e + 1] - from;
+        int i = Arrays.binarySearch(candidateRooms, from, from + feasible, cell % numRooms);
+        return i < 0 ? -1 : candidateOffsets[e] + (cell / numRooms) * feasible + (i - from);
+    }
+
+    /**
+     * Chọn cách lưu ma trận pheromone và khởi tạo lại mọi ô về 1.0.
+     * @param offHeap true để lưu ngoài heap (direct ByteBuffer)
+     */
+    public void setPheromoneStore(PheromoneStore.Layout layout,
+            PheromoneStore.Precision precision, boolean offHeap) {
+        pheromone = PheromoneStore.create(instance, layout, precision, offHeap);
+
+        // Khởi tạo pheromone với giá trị nhỏ ban đầu
+        pheromone.fill(initialPheromone());
+        refreshCandidateWeights();
+
+        long heuristicBytes = (long) (roomHeuristic.length + timeslotPreference.length
+                + roomHeuristicBeta.length + timeslotHeuristicBeta.length) * Double.BYTES;
+        // Theo ô chỉ còn trọng số; phần còn lại tỉ lệ với số môn × số phòng
+        long candidateBytes = (long) candidateWeight.length * Double.BYTES
+                + (long) (candidateOffsets.length + candidateRoomOffsets.length + candidateRooms.length)
+                * Integer.BYTES;
+        System.out.println("[ACO] Matrices initialized: pheromone " + layout + "/"
+                + precision + (offHeap ? " off-heap" : " heap") + ", "
+                + pheromone.getCellCount() + " cells, "
+                + formatBytes(pheromone.getMemoryBytes()) + "; heuristic "
+                + formatBytes(heuristicBytes) + "; candidates " + formatBytes(candidateBytes));
+    }
+
+    private double initialPheromone() {
+        return params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN
+                ? params.getTauMax() : params.getInitialPheromone();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Đặt số luồng dùng để xây dựng lời giải của các con kiến.
+     * Bộ giải sẽ tự tạo và giải phóng ForkJoinPool trong mỗi lần solve().
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "parallelism must be >= 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Dùng một ForkJoinPool có sẵn (do bên gọi quản lý vòng đời)
+     * thay vì tự tạo pool theo {@link #setParallelism(int)}.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Bật bước cải thiện sau xây dựng: mỗi vòng lặp, antsToImprove con kiến
+     * tốt nhất được đưa qua improver trước khi cập nhật pheromone.
+     * @param improver Bộ cải thiện, hoặc null để tắt
+     */
+    public void setImprover(ScheduleImprover improver, int antsToImprove) {
+        if (improver != null && antsToImprove < 1) {
+            throw new IllegalArgumentException("antsToImprove must be >= 1: " + antsToImprove);
+        }
+        this.improver = improver;
+        this.antsToImprove = improver == null ? 0 : Math.min(antsToImprove, numAnts);
+    }
+
+    /**
+     * Giới hạn thời gian chạy của solve(); khi hết giờ, các con kiến chưa xây dựng
+     * bị bỏ qua và solve() trả về lời giải tốt nhất đã có.
+     * @param timeLimitMillis Số mili giây tối đa, 0 để không giới hạn
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("timeLimitMillis must be >= 0: " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Dừng sớm khi lời giải tốt nhất không cải thiện sau số vòng lặp cho trước.
+     * Khác với {@link AcoParameters#getStagnationLimit()} (khởi tạo lại pheromone).
+     * @param maxStagnantIterations Số vòng lặp, 0 để tắt
+     */
+    public void setMaxStagnantIterations(int maxStagnantIterations) {
+        if (maxStagnantIterations < 0) {
+            throw new IllegalArgumentException(
+                    "maxStagnantIterations must be >= 0: " + maxStagnantIterations);
+        }
+        this.maxStagnantIterations = maxStagnantIterations;
+    }
+
+    /**
+     * Đăng ký nhận các lời giải tốt nhất mới trong khi solve() đang chạy.
+     */
+    public void setIncumbentListener(IncumbentListener incumbentListener) {
+        this.incumbentListener = incumbentListener;
+    }
+
+    /**
+     * Đăng ký nhận số đo của từng vòng lặp: thời gian theo giai đoạn, số kiến và
+     * số lần đánh giá mỗi giây, fitness tốt nhất / trung bình và entropy pheromone.
+     * Chỉ khi có ít nhất một listener, bộ giải mới đo thời gian trong lúc xây dựng.
+     */
+    public void addMetricsListener(SolverMetricsListener listener) {
+        metricsListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeMetricsListener(SolverMetricsListener listener) {
+        metricsListeners.remove(listener);
+    }
+
+    /**
+     * In fitness tốt nhất ra console sau mỗi progressInterval vòng lặp.
+     * Mặc định là 0: vòng lặp chính không ghi gì ra console.
+     */
+    public void setProgressInterval(int progressInterval) {
+        if (progressInterval < 0) {
+            throw new IllegalArgumentException(
+                    "progressInterval must be >= 0: " + progressInterval);
+        }
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * @return Bộ đánh giá fitness của bộ giải, ví dụ để đăng ký
+     *         {@link ScheduleFitness#setRoomConflictListener}
+     */
+    public ScheduleFitness getFitness() {
+        return fitness;
+    }
+
+    /**
+     * Chọn thứ tự xếp môn khi xây dựng lời giải. SATURATION tính thứ tự DSatur một
+     * lần trên đồ thị xung đột: môn khó xếp đi trước khi còn nhiều ca trống, còn sự
+     * đa dạng giữa các con kiến chỉ đến từ bước chọn roulette.
+     */
+    public void setExamOrder(ExamOrder order) {
+        if (order == ExamOrder.RANDOM) {
+            fixedExamOrder = null;
+        } else if (fixedExamOrder == null) {
+            DSaturConstructor constructor = new DSaturConstructor(instance);
+            constructor.construct(DSaturConstructor.Ordering.DSATUR);
+            fixedExamOrder = constructor.getOrder();
+        }
+    }
+
+    /**
+     * Yêu cầu dừng solve() đang chạy; an toàn khi gọi từ luồng khác.
+     * Bộ giải dừng sau khi các con kiến đang xây dựng hoàn tất và trả về lời giải
+     * tốt nhất đã có. Nếu gọi trước solve(), lần solve() kế tiếp kết thúc ngay. Cờ
+     * huỷ được xoá khi solve() trả về nên bộ giải có thể chạy lại.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return Lý do lần solve() gần nhất kết thúc, hoặc null nếu chưa chạy
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return Số vòng lặp đã chạy (kể cả vòng bị cắt ngang) trong lần solve() gần nhất
+     */
+    public int getIterationsCompleted() {
+        return iterationsCompleted;
+    }
+
+    /**
+     * @return Số lịch được xây dựng và đánh giá fitness đầy đủ trong lần solve()
+     *         gần nhất (không tính các bước đánh giá gia tăng của bộ cải thiện)
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Thực thi thuật toán ACO cho đến khi hết maxIterations vòng lặp, hết thời gian,
+     * không còn cải thiện hoặc bị huỷ (điều kiện nào đến trước).
+     * Mỗi lần gọi bắt đầu lại lời giải tốt nhất (trừ lời giải được gieo bằng
+     * {@link #warmStart} hoặc {@link #seedFromGraphColoring} ngay trước đó), bộ đếm
+     * trì trệ và dãy hạt giống của các con kiến; pheromone của lần trước được giữ lại.
+     * @return Lời giải tốt nhất tìm được; fitness là Double.MAX_VALUE nếu chưa
+     *         con kiến nào kịp hoàn thành
      */
     public ScheduleOutput solve() {
         System.out.println("[ACO] Starting optimization with " + numAnts +
                 " ants, " + maxIterations + " iterations");
 
+        if (!incumbentSeeded) {
+            bestSchedule.clear();
+            bestFitness = Double.MAX_VALUE;
+        }
+        stagnantIterations = 0;
+
+        ForkJoinPool workers = pool;
+        boolean ownsPool = false;
+        if (workers == null && parallelism > 1) {
+            workers = new ForkJoinPool(parallelism);
+            ownsPool = true;
+        }
+
+        try {
+            runIterations(workers);
+        } finally {
+            if (ownsPool) {
+                workers.shutdown();
+            }
+            incumbentSeeded = false;
+            cancelled = false;
+            // Bộ đệm chỉ sống trong một lần solve()
+            workspaces.clear();
+        }
+
+        System.out.println("[ACO] Optimization completed after " + iterationsCompleted
+                + " iterations (" + stopReason + ")");
+        return new ScheduleOutput(bestSchedule.toAssignments(instance), bestFitness);
+    }
+
+    /**
+     * Vòng lặp chính của ACO. Trong mỗi vòng lặp các con kiến được xây dựng
+     * độc lập (có thể song song), sau đó lời giải tốt nhất và pheromone
+     * được cập nhật tuần tự theo thứ tự con kiến để kết quả luôn xác định.
+     */
+    private void runIterations(ForkJoinPool workers) {
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] antSeeds = new long[numAnts];
+        // Lời giải của mỗi con kiến được giữ ở dạng mảng số nguyên cùng fitness
+        // đã tính, và các mảng này được tái sử dụng qua mọi vòng lặp
+        CompactSchedule[] antSchedules = new CompactSchedule[numAnts];
+        for (int ant = 0; ant < numAnts; ant++) {
+            antSchedules[ant] = new CompactSchedule(instance.getNumExams());
+        }
+        double[] antFitness = new double[numAnts];
+
+        long startNanos = System.nanoTime();
+        hasDeadline = timeLimitMillis > 0;
+        deadlineNanos = startNanos + timeLimitMillis * 1_000_000L;
+        stopReason = StopReason.MAX_ITERATIONS;
+        iterationsCompleted = 0;
+        evaluations.reset();
+        collectMetrics = !metricsListeners.isEmpty();
+
         for (int iteration = 0; iteration < maxIterations; iteration++) {
-            List<List<Assignment>> antSolutions = new ArrayList<>();
+            if (shouldStop()) {
+                stopReason = cancelled ? StopReason.CANCELLED : StopReason.TIME_LIMIT;
+                break;
+            }
+            long iterationStart = System.nanoTime();
+            long evaluationsBefore = evaluations.sum();
+            long fitnessCallsBefore = fitness.getEvaluationCount();
+            for (int ant = 0; ant < numAnts; ant++) {
+                antSeeds[ant] = master.split().nextLong();
+            }
 
             // Mỗi con kiến xây dựng một lời giải
+            if (workers == null) {
+                for (int ant = 0; ant < numAnts; ant++) {
+                    runAnt(ant, antSeeds, antSchedules, antFitness);
+                }
+            } else {
+                workers.submit(() -> IntStream.range(0, numAnts).parallel()
+                        .forEach(ant -> runAnt(ant, antSeeds, antSchedules,
+                                antFitness)))
+                        .join();
+            }
+
+            // Hết giờ hoặc bị huỷ giữa vòng: chỉ ghi nhận các con kiến đã xong
+            boolean interrupted = shouldStop();
+            long antsDone = System.nanoTime();
+            if (improver != null && !interrupted) {
+                improveBestAnts(workers, antSeeds, antSchedules, antFitness);
+            }
+            long improvementDone = System.nanoTime();
+            iterationsCompleted = iteration + 1;
+
+            int iterationBest = 0;
+            boolean improved = false;
             for (int ant = 0; ant < numAnts; ant++) {
-                List<Assignment> schedule = constructSchedule();
-                antSolutions.add(schedule);
+                if (antFitness[ant] < antFitness[iterationBest]) {
+                    iterationBest = ant;
+                }
+                if (antFitness[ant] < bestFitness) {
+                    bestFitness = antFitness[ant];
+                    bestSchedule.copyFrom(antSchedules[ant]);
+                    improved = true;
+                }
+            }
+            stagnantIterations = improved ? 0 : stagnantIterations + 1;
 
-                double schedulesFitness = fitness.calculateFitness(schedule);
-                if (schedulesFitness < bestFitness) {
-                    bestFitness = schedulesFitness;
-                    bestSchedule = new ArrayList<>(schedule);
+            if (improved && incumbentListener != null) {
+                incumbentListener.onIncumbent(
+                        new ScheduleOutput(bestSchedule.toAssignments(instance), bestFitness),
+                        iteration + 1, (System.nanoTime() - startNanos) / 1_000_000L);
+            }
+            if (interrupted) {
+                if (collectMetrics) {
+                    publishMetrics(iteration + 1, startNanos, iterationStart, antsDone,
+                            improvementDone, improvementDone, evaluationsBefore,
+                            fitnessCallsBefore, antFitness);
                 }
+                stopReason = cancelled ? StopReason.CANCELLED : StopReason.TIME_LIMIT;
+                break;
             }
 
             // Cập nhật pheromone
-            updatePheromone(antSolutions);
+            if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+                updatePheromoneMaxMin(antSchedules[iterationBest]);
+            } else {
+                updatePheromone(antSchedules, antFitness);
+            }
 
-            if ((iteration + 1) % 10 == 0) {
+            if (collectMetrics) {
+                publishMetrics(iteration + 1, startNanos, iterationStart, antsDone,
+                        improvementDone, System.nanoTime(), evaluationsBefore,
+                        fitnessCallsBefore, antFitness);
+            }
+            if (progressInterval > 0 && (iteration + 1) % progressInterval == 0) {
                 System.out.println("[ACO] Iteration " + (iteration + 1) + "/" +
                         maxIterations + " - Best fitness: " + bestFitness);
             }
+
+            if (epochHook != null && (iteration + 1) % epochInterval == 0
+                    && iteration + 1 < maxIterations) {
+                epochHook.accept(iteration + 1);
+            }
+
+            if (maxStagnantIterations > 0
+                    && stagnantIterations >= maxStagnantIterations) {
+                stopReason = StopReason.STAGNATION;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gom số đo của vòng lặp vừa xong, gửi tới các listener rồi đặt lại bộ đếm giai đoạn.
+     */
+    private void publishMetrics(int iteration, long startNanos, long iterationStart,
+            long antsDone, long improvementDone, long pheromoneDone,
+            long evaluationsBefore, long fitnessCallsBefore, double[] antFitness) {
+        double iterationBestFitness = Double.MAX_VALUE;
+        double fitnessSum = 0;
+        int finished = 0;
+        for (double value : antFitness) {
+            if (value != Double.MAX_VALUE) {
+                iterationBestFitness = Math.min(iterationBestFitness, value);
+                fitnessSum += value;
+                finished++;
+            }
+        }
+
+        IterationMetrics metrics = new IterationMetrics(iteration,
+                pheromoneDone - startNanos, pheromoneDone - iterationStart,
+                antsDone - iterationStart, constructionNanos.sumThenReset(),
+                selectionNanos.sumThenReset(), splittingNanos.sumThenReset(),
+                fitnessNanos.sumThenReset(), improvementDone - antsDone,
+                pheromoneDone - improvementDone,
+                (int) (evaluations.sum() - evaluationsBefore),
+                fitness.getEvaluationCount() - fitnessCallsBefore,
+                fallbackSelections.sumThenReset(), splitFailures.sumThenReset(), bestFitness, iterationBestFitness,
+                finished > 0 ? fitnessSum / finished : Double.NaN, pheromoneEntropy());
+        for (SolverMetricsListener listener : metricsListeners) {
+            listener.onIteration(metrics);
+        }
+    }
+
+    /**
+     * Entropy chuẩn hoá của pheromone trên danh sách ứng viên, trung bình theo môn
+     * (xem {@link IterationMetrics#getPheromoneEntropy()}).
+     */
+    private double pheromoneEntropy() {
+        double total = 0;
+        int counted = 0;
+        for (int e = 0; e < instance.getNumExams(); e++) {
+            int from = candidateOffsets[e];
+            int to = candidateOffsets[e + 1];
+            if (to - from < 2) {
+                continue;
+            }
+            double sum = 0;
+            for (int k = from; k < to; k++) {
+                sum += pheromone.get(e, candidateTimeslot(e, k), candidateRoom(e, k));
+            }
+            if (sum <= 0) {
+                continue;
+            }
+            double entropy = 0;
+            for (int k = from; k < to; k++) {
+                double p = pheromone.get(e, candidateTimeslot(e, k), candidateRoom(e, k)) / sum;
+                if (p > 0) {
+                    entropy -= p * Math.log(p);
+                }
+            }
+            total += entropy / Math.log(to - from);
+            counted++;
+        }
+        return counted == 0 ? 0 : total / counted;
+    }
+
+    private boolean shouldStop() {
+        return cancelled || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * Xây dựng và đánh giá lời giải của một con kiến.
+     * Pheromone chỉ được đọc trong giai đoạn này nên an toàn khi chạy song song.
+     */
+    private void runAnt(int ant, long[] antSeeds,
+            CompactSchedule[] antSchedules, double[] antFitness) {
+        if (shouldStop()) {
+            antSchedules[ant].clear();
+            antFitness[ant] = Double.MAX_VALUE;
+            return;
+        }
+        Random random = new Random(antSeeds[ant]);
+        AntWorkspace w = workspaces.acquire();
+        try {
+            if (!collectMetrics) {
+                constructSchedule(random, antSchedules[ant], w);
+                antFitness[ant] = fitness.calculateFitness(antSchedules[ant]);
+            } else {
+                long start = System.nanoTime();
+                constructSchedule(random, antSchedules[ant], w);
+                long built = System.nanoTime();
+                antFitness[ant] = fitness.calculateFitness(antSchedules[ant]);
+                fitnessNanos.add(System.nanoTime() - built);
+                constructionNanos.add(built - start);
+
+                selectionNanos.add(w.selectionNanos);
+                splittingNanos.add(w.splittingNanos);
+                fallbackSelections.add(w.fallbacks);
+                splitFailures.add(w.splitFailures);
+                w.selectionNanos = 0;
+                w.splittingNanos = 0;
+                w.fallbacks = 0;
+                w.splitFailures = 0;
+            }
+        } finally {
+            workspaces.release(w);
+        }
+        evaluations.increment();
+    }
+
+    /**
+     * Chạy bộ cải thiện trên antsToImprove con kiến có fitness thấp nhất
+     * (hoà thì ưu tiên chỉ số nhỏ). Nguồn ngẫu nhiên của mỗi con kiến được
+     * suy ra từ hạt giống của nó nên kết quả vẫn không phụ thuộc số luồng.
+     */
+    private void improveBestAnts(ForkJoinPool workers, long[] antSeeds,
+            CompactSchedule[] antSchedules, double[] antFitness) {
+        int[] selected = new int[antsToImprove];
+        boolean[] taken = new boolean[numAnts];
+        for (int i = 0; i < antsToImprove; i++) {
+            int best = -1;
+            for (int ant = 0; ant < numAnts; ant++) {
+                if (!taken[ant] && (best < 0 || antFitness[ant] < antFitness[best])) {
+                    best = ant;
+                }
+            }
+            taken[best] = true;
+            selected[i] = best;
         }
 
-        System.out.println("[ACO] Optimization completed");
-        return new ScheduleOutput(bestSchedule, bestFitness);
+        IntConsumer improveAnt = i -> {
+            int ant = selected[i];
+            antFitness[ant] = improver.improve(antSchedules[ant], antFitness[ant],
+                    new Random(~antSeeds[ant]));
+        };
+        if (workers == null) {
+            for (int i = 0; i < antsToImprove; i++) {
+                improveAnt.accept(i);
+            }
+        } else {
+            workers.submit(() -> IntStream.range(0, antsToImprove).parallel()
+                    .forEach(improveAnt)).join();
+        }
     }
 
     /**
@@ -129,197 +812,642 @@ public class AntColonyOptimization {
      * Được chỉnh sửa để theo dõi việc sử dụng phòng theo từng ca
      * và tránh xung đột phòng.
      */
-    private List<Assignment> constructSchedule() {
-        List<Assignment> schedule = new ArrayList<>();
-        
-        Map<String, Set<String>> usedRoomsPerTimeslot = new HashMap<>();
-        for (String timeslot : data.getTimeslots()) {
-            usedRoomsPerTimeslot.put(timeslot, new HashSet<>());
-        }
-        
-        List<Integer> examOrder = new ArrayList<>();
-        for (int i = 0; i < data.getExams().size(); i++) {
-            examOrder.add(i);
+    private void constructSchedule(Random random, CompactSchedule schedule, AntWorkspace w) {
+        int numRooms = instance.getNumRooms();
+        schedule.clear();
+
+        // Phòng đã được dùng trong từng ca
+        RoomAvailability rooms = w.rooms;
+        rooms.reset();
+
+        int[] examOrder = w.examOrder;
+        if (fixedExamOrder != null) {
+            System.arraycopy(fixedExamOrder, 0, examOrder, 0, examOrder.length);
+        } else {
+            // Xáo trộn Fisher-Yates giống Collections.shuffle
+            for (int i = 0; i < examOrder.length; i++) {
+                examOrder[i] = i;
+            }
+            for (int i = examOrder.length; i > 1; i--) {
+                int j = random.nextInt(i);
+                int tmp = examOrder[i - 1];
+                examOrder[i - 1] = examOrder[j];
+                examOrder[j] = tmp;
+            }
         }
-        Collections.shuffle(examOrder);
 
         for (int examIdx : examOrder) {
-            Exam exam = data.getExams().get(examIdx);
-            
-            int[] assignment = selectAssignment(examIdx, usedRoomsPerTimeslot);
-            String timeslot = data.getTimeslots().get(assignment[0]);
+            int examSize = instance.getExamSize(examIdx);
             
-            Room selectedRoom = data.getRooms().get(assignment[1]);
-            if (exam.getStudentCount() <= selectedRoom.getCapacity()) {
+            long selectStart = collectMetrics ? System.nanoTime() : 0;
+            int cell = selectAssignment(examIdx, rooms, w, random);
+            if (collectMetrics) {
+                w.selectionNanos += System.nanoTime() - selectStart;
+            }
+            int timeslot = cell / numRooms;
+            int selectedRoom = cell % numRooms;
+
+            if (examSize <= instance.getRoomCapacity(selectedRoom)) {
                 // Môn thi phù hợp với một phòng duy nhất
-                schedule.add(new Assignment(exam.getId(), timeslot,
-                        selectedRoom.getId(), exam.getStudentCount()));
-                usedRoomsPerTimeslot.get(timeslot)
-                        .add(selectedRoom.getId());
+                schedule.add(examIdx, timeslot, selectedRoom, examSize);
+                rooms.markUsed(timeslot, selectedRoom);
             } else {
-                Set<String> usedRooms = usedRoomsPerTimeslot.get(timeslot);
-                List<Room> availableRooms = new ArrayList<>();
-                for (Room room : data.getRooms()) {
-                    if (!usedRooms.contains(room.getId())) {
-                        availableRooms.add(room);
+                long splitStart = collectMetrics ? System.nanoTime() : 0;
+                if (rooms.getFreeCapacity(timeslot) < examSize) {
+                    // Ca đã chọn không đủ chỗ cho cả môn: ca sớm nhất còn đủ
+                    int alternate = rooms.firstTimeslotWithFreeCapacity(examSize);
+                    if (alternate >= 0) {
+                        timeslot = alternate;
                     }
                 }
-                
-                if (availableRooms.isEmpty()) {
-                    // Tìm ca thi khác còn phòng trống
-                    for (String alternateTimeslot : data.getTimeslots()) {
-                        Set<String> altUsedRooms =
-                                usedRoomsPerTimeslot.get(alternateTimeslot);
-                        availableRooms.clear();
-                        for (Room room : data.getRooms()) {
-                            if (!altUsedRooms.contains(room.getId())) {
-                                availableRooms.add(room);
-                            }
-                        }
-                        if (!availableRooms.isEmpty()) {
-                            timeslot = alternateTimeslot;
-                            break;
-                        }
-                    }
+                // Không ca nào đủ chỗ: môn để trống (bị phạt như môn chưa xếp)
+                // thay vì xếp thiếu chỗ cho một phần sinh viên
+                if (ExamSplitter.splitExamIntoRooms(instance, examIdx, timeslot, rooms,
+                        w.splitPlanner, schedule) < 0) {
+                    w.splitFailures++;
+                }
+                if (collectMetrics) {
+                    w.splittingNanos += System.nanoTime() - splitStart;
                 }
-                
-                if (!availableRooms.isEmpty()) {
-                    List<Assignment> splitAssignments =
-                            ExamSplitter.splitExamIntoRooms(
-                                    exam, timeslot, availableRooms);
-                    schedule.addAll(splitAssignments);
-                    for (Assignment assign : splitAssignments) {
-                        usedRoomsPerTimeslot.get(timeslot)
-                                .add(assign.getRoom());
-                    }
-                } 
             }
         }
-
-        return schedule;
     }
 
     /**
      * Chọn ca thi và phòng bằng phương pháp roulette wheel.
      * Được chỉnh sửa để tránh các phòng đã được sử dụng
      * trong cùng một ca thi.
+     * Chỉ duyệt danh sách ứng viên của môn với trọng số đã tính sẵn, nhân độ
+     * ưu tiên ca sớm 10^(tMin - t) (tương đương 10^(T - t) sau khi chuẩn hoá,
+     * nhưng không tràn số khi có nhiều ca), rồi chọn bằng tìm kiếm nhị phân
+     * trên tổng tích luỹ.
+     * @return Ô được chọn, mã hoá thành timeslot * numRooms + room
      */
-    private int[] selectAssignment(int examIdx,
-            Map<String, Set<String>> usedRoomsPerTimeslot) {
+    private int selectAssignment(int examIdx, RoomAvailability rooms,
+            AntWorkspace w, Random random) {
 
-        int numTimeslots = data.getTimeslots().size();
-        int numRooms = data.getRooms().size();
-        Exam exam = data.getExams().get(examIdx);
+        int numTimeslots = instance.getNumTimeslots();
+        int numRooms = instance.getNumRooms();
+        double[] cumulative = w.cumulative;
+        int[] choices = w.choices;
 
-        double[] probabilities = new double[numTimeslots * numRooms];
+        int count = 0;
+        int firstSlot = -1;
         double totalProbability = 0;
-
+        int roomFrom = candidateRoomOffsets[examIdx];
+        int roomTo = candidateRoomOffsets[examIdx + 1];
+        int k = candidateOffsets[examIdx];
         for (int t = 0; t < numTimeslots; t++) {
-            String timeslot = data.getTimeslots().get(t);
-            Set<String> usedRooms = usedRoomsPerTimeslot.get(timeslot);
-            
-            for (int r = 0; r < numRooms; r++) {
-                Room room = data.getRooms().get(r);
-                
-                if (!usedRooms.contains(room.getId())
-                        && exam.getStudentCount() <= room.getCapacity()) {
-
-                    int idx = t * numRooms + r;
-                    double pheromoneValue =
-                            Math.pow(pheromone[examIdx][t][r], alpha);
-                    double heuristicValue =
-                            Math.pow(heuristic[examIdx][t][r], beta);
-                    
-                    double timeslotBias =
-                            Math.pow(10.0, numTimeslots - t);
-                    
-                    probabilities[idx] =
-                            pheromoneValue * heuristicValue * timeslotBias;
-                    totalProbability += probabilities[idx];
-                } else {
-                    probabilities[t * numRooms + r] = 0;
+            int base = t * numRooms;
+            for (int i = roomFrom; i < roomTo; i++, k++) {
+                int cell = base + candidateRooms[i];
+                if (rooms.isFreeCell(cell)) {
+                    if (firstSlot < 0) {
+                        firstSlot = t;
+                    }
+                    totalProbability += candidateWeight[k] * decimalBias[t - firstSlot];
+                    cumulative[count] = totalProbability;
+                    choices[count] = cell;
+                    count++;
                 }
             }
         }
 
         // Nếu không tồn tại phương án hợp lệ, tìm phòng trống bất kỳ
         if (totalProbability == 0) {
-            for (int t = 0; t < numTimeslots; t++) {
-                String timeslot = data.getTimeslots().get(t);
-                Set<String> usedRooms = usedRoomsPerTimeslot.get(timeslot);
-                
-                for (int r = 0; r < numRooms; r++) {
-                    Room room = data.getRooms().get(r);
-                    if (!usedRooms.contains(room.getId())) {
-                        return new int[]{t, r};
-                    }
-                }
+            w.fallbacks++;
+            int timeslot = rooms.firstTimeslotWithFreeRoom();
+            if (timeslot >= 0) {
+                // Phòng trống lớn nhất của ca trống sớm nhất (môn không vừa phòng ứng viên nào)
+                return timeslot * numRooms + rooms.largestFreeRoom(timeslot);
             }
-            
-            // Trường hợp cuối cùng: chọn ngẫu nhiên
-            System.out.println("[WARNING] All rooms busy, returning first available");
-            return new int[]{0, 0};
+
+
+            // Trường hợp cuối cùng: mọi phòng đều bận, trả về ô đầu tiên
+            return 0;
         }
 
-        // Thực hiện chọn theo roulette wheel
+        // Thực hiện chọn theo roulette wheel: ứng viên đầu tiên có tổng tích luỹ >= spin
         double spin = random.nextDouble() * totalProbability;
-        double accumulated = 0;
-        for (int i = 0; i < probabilities.length; i++) {
-            accumulated += probabilities[i];
-            if (spin <= accumulated) {
-                return new int[]{i / numRooms, i % numRooms};
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] >= spin) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
         }
+        if (spin <= cumulative[low]) {
+            return choices[low];
+        }
 
-        return new int[]{random.nextInt(numTimeslots),
-                         random.nextInt(numRooms)};
+        return random.nextInt(numTimeslots) * numRooms
+                + random.nextInt(numRooms);
     }
 
     /**
      * Cập nhật pheromone dựa trên các lời giải của đàn kiến
      * (bao gồm bay hơi và bồi đắp pheromone).
      */
-    private void updatePheromone(List<List<Assignment>> antSolutions) {
+    private void updatePheromone(CompactSchedule[] antSolutions,
+            double[] antFitness) {
         // Bay hơi pheromone
-        int numExams = data.getExams().size();
-        int numTimeslots = data.getTimeslots().size();
-        int numRooms = data.getRooms().size();
+        pheromone.scale(1 - params.getEvaporation());
 
-        for (int i = 0; i < numExams; i++) {
-            for (int j = 0; j < numTimeslots; j++) {
-                for (int k = 0; k < numRooms; k++) {
-                    pheromone[i][j][k] *= (1 - evaporation);
+        // Bồi đắp pheromone từ các lời giải tốt (dùng fitness đã tính khi xây dựng)
+        for (int ant = 0; ant < antSolutions.length; ant++) {
+            // Chỉ bồi đắp pheromone cho các lời giải đủ tốt
+            if (antFitness[ant] < bestFitness * 1.5) {
+                depositPheromone(antSolutions[ant],
+                        1.0 / (1 + antFitness[ant]));
+            }
+        }
+        refreshCandidateWeights();
+    }
+
+    /**
+     * Cập nhật pheromone kiểu MAX-MIN Ant System: bay hơi, chỉ lời giải tốt nhất
+     * của vòng lặp (hoặc toàn cục) bồi đắp ρ * τmax lên các ô của nó, rồi chặn
+     * τ trong [τmin, τmax]. Lượng bồi đắp không phụ thuộc độ lớn fitness nên các
+     * ô được chọn lặp lại hội tụ về τmax. Khi lời giải tốt nhất không cải thiện
+     * sau stagnationLimit vòng, pheromone được khởi tạo lại về τmax.
+     */
+    private void updatePheromoneMaxMin(CompactSchedule iterationBest) {
+        double rho = params.getEvaporation();
+        pheromone.scale(1 - rho);
+
+        CompactSchedule source =
+                params.getDepositSource() == AcoParameters.DepositSource.GLOBAL_BEST
+                        ? bestSchedule : iterationBest;
+        double amount = rho * params.getTauMax();
+        for (int row = 0; row < source.size(); row++) {
+            pheromone.add(source.getExam(row), source.getTimeslot(row),
+                    source.getRoom(row), amount);
+        }
+        pheromone.clamp(params.getTauMin(), params.getTauMax());
+
+        // Khởi tạo lại sau mỗi stagnationLimit vòng không cải thiện; bộ đếm không bị
+        // đặt lại để điều kiện dừng vẫn đếm từ lần cải thiện cuối
+        if (params.getStagnationLimit() > 0 && stagnantIterations > 0
+                && stagnantIterations % params.getStagnationLimit() == 0) {
+            pheromone.fill(params.getTauMax());
+        }
+        refreshCandidateWeights();
+    }
+
+    /**
+     * Bồi đắp pheromone cho một lời giải cụ thể.
+     */
+    private void depositPheromone(CompactSchedule solution, double amount) {
+        for (int row = 0; row < solution.size(); row++) {
+            pheromone.add(solution.getExam(row), solution.getTimeslot(row),
+                    solution.getRoom(row), amount * params.getPheromoneDeposit());
+        }
+    }
+
+    /**
+     * Đặt hàm được gọi trên luồng solve() sau mỗi interval vòng lặp (trừ vòng cuối),
+     * sau khi pheromone đã cập nhật. Hàm có thể gọi {@link #acceptMigrant} và
+     * {@link #blendPheromone}; dùng cho mô hình đảo và các đàn kiến phân tán.
+     */
+    public void setEpochHook(int interval, IntConsumer hook) {
+        if (hook != null && interval < 1) {
+            throw new IllegalArgumentException("interval must be >= 1: " + interval);
+        }
+        this.epochInterval = interval;
+        this.epochHook = hook;
+    }
+
+    /**
+     * Lời giải tốt nhất dạng chỉ số; chỉ đọc trên luồng solve() hoặc khi bộ giải đứng yên.
+     */
+    public CompactSchedule getBestCompact() {
+        return bestSchedule;
+    }
+
+    /**
+     * Nhận một lời giải từ bên ngoài (di cư từ đàn kiến khác). Nếu tốt hơn lời giải
+     * tốt nhất hiện tại, nó trở thành lời giải tốt nhất và được bồi đắp pheromone
+     * như lời giải tốt nhất của một vòng lặp.
+     * @return true nếu lời giải được nhận
+     */
+    public boolean acceptMigrant(CompactSchedule migrant, double migrantFitness) {
+        if (migrantFitness >= bestFitness) {
+            return false;
+        }
+        bestSchedule.copyFrom(migrant);
+        bestFitness = migrantFitness;
+        stagnantIterations = 0;
+        if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+            double amount = params.getEvaporation() * params.getTauMax();
+            for (int row = 0; row < migrant.size(); row++) {
+                pheromone.add(migrant.getExam(row), migrant.getTimeslot(row),
+                        migrant.getRoom(row), amount);
+            }
+            pheromone.clamp(params.getTauMin(), params.getTauMax());
+        } else {
+            depositPheromone(migrant, 1.0 / (1 + migrantFitness));
+        }
+        refreshCandidateWeights();
+        return true;
+    }
+
+    /**
+     * Chép τ của mọi ứng viên (theo thứ tự danh sách ứng viên, giống nhau với mọi
+     * bộ giải trên cùng một bài toán) vào target.
+     * @param target Mảng để tái sử dụng, hoặc null
+     */
+    public double[] snapshotPheromone(double[] target) {
+        int total = candidateOffsets[instance.getNumExams()];
+        double[] values = target != null && target.length == total ? target : new double[total];
+        for (int e = 0; e < instance.getNumExams(); e++) {
+            for (int k = candidateOffsets[e]; k < candidateOffsets[e + 1]; k++) {
+                values[k] = pheromone.get(e, candidateTimeslot(e, k), candidateRoom(e, k));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Trộn pheromone với bản chụp của bộ giải khác: τ = (1 - w)·τ + w·τ'·(m / m'),
+     * trong đó m, m' là τ trung bình của hai bên, để bộ giải có thang τ khác
+     * (ví dụ MAX-MIN so với Ant System) không làm lệch thang của bộ giải này.
+     * @param weight Tỉ lệ w trong [0, 1]
+     */
+    public void blendPheromone(double[] other, double weight) {
+        double[] own = snapshotPheromone(blendScratch);
+        blendScratch = own;
+        double ownSum = 0;
+        double otherSum = 0;
+        for (int k = 0; k < own.length; k++) {
+            ownSum += own[k];
+            otherSum += other[k];
+        }
+        if (otherSum <= 0) {
+            return;
+        }
+        double rescale = ownSum > 0 ? ownSum / otherSum : 1.0;
+        for (int e = 0; e < instance.getNumExams(); e++) {
+            for (int k = candidateOffsets[e]; k < candidateOffsets[e + 1]; k++) {
+                pheromone.set(e, candidateTimeslot(e, k), candidateRoom(e, k),
+                        (1 - weight) * own[k] + weight * other[k] * rescale);
+            }
+        }
+        if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+            pheromone.clamp(params.getTauMin(), params.getTauMax());
+        }
+        refreshCandidateWeights();
+    }
+
+    /**
+     * Chụp lại pheromone của mọi ứng viên và lời giải tốt nhất, theo ID, để khởi
+     * động ấm một lần giải sau (xem {@link #warmStart(WarmStart, double)}).
+     */
+    public WarmStart toWarmStart() {
+        int numExams = instance.getNumExams();
+        int numRooms = instance.getNumRooms();
+        String[] examIds = new String[numExams];
+        for (int e = 0; e < numExams; e++) {
+            examIds[e] = instance.getExamId(e);
+        }
+        String[] timeslots = new String[instance.getNumTimeslots()];
+        for (int t = 0; t < timeslots.length; t++) {
+            timeslots[t] = instance.getTimeslot(t);
+        }
+        String[] roomIds = new String[numRooms];
+        for (int r = 0; r < numRooms; r++) {
+            roomIds[r] = instance.getRoomId(r);
+        }
+
+        int rows = bestSchedule.size();
+        int[] rowExam = new int[rows];
+        int[] rowTimeslot = new int[rows];
+        int[] rowRoom = new int[rows];
+        int[] rowStudents = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            rowExam[row] = bestSchedule.getExam(row);
+            rowTimeslot[row] = bestSchedule.getTimeslot(row);
+            rowRoom[row] = bestSchedule.getRoom(row);
+            rowStudents[row] = bestSchedule.getStudentCount(row);
+        }
+
+        int total = candidateOffsets[numExams];
+        int[] cellExam = new int[total];
+        int[] cellTimeslot = new int[total];
+        int[] cellRoom = new int[total];
+        float[] cellPheromone = new float[total];
+        for (int e = 0; e < numExams; e++) {
+            for (int k = candidateOffsets[e]; k < candidateOffsets[e + 1]; k++) {
+                cellExam[k] = e;
+                cellTimeslot[k] = candidateTimeslot(e, k);
+                cellRoom[k] = candidateRoom(e, k);
+                cellPheromone[k] = (float) pheromone.get(e, cellTimeslot[k], cellRoom[k]);
+            }
+        }
+        return new WarmStart(examIds, timeslots, roomIds, bestFitness, rowExam, rowTimeslot,
+                rowRoom, rowStudents, cellExam, cellTimeslot, cellRoom, cellPheromone);
+    }
+
+    /**
+     * Khởi động ấm từ trạng thái của một lần giải trước trên dữ liệu cũ; gọi trước
+     * {@link #solve()}. Môn, ca và phòng được ánh xạ lại theo ID:
+     * <ul>
+     *   <li>τ của các ô còn tồn tại được chép sang; các ô mới của một môn cũ nhận τ
+     *       trung bình của môn đó, môn mới giữ τ khởi tạo.</li>
+     *   <li>Lịch cũ được dựng lại: môn giữ nguyên ca và phòng nếu các phòng đó vẫn còn,
+     *       với số sinh viên mới. Môn mới hoặc môn mất phòng / ca được xếp
+     *       tham lam vào ca sớm nhất không trùng sinh viên và còn phòng
+     *       ({@link GreedyPlacement}).</li>
+     *   <li>Lịch dựng lại (sau bộ cải thiện, nếu đã {@link #setImprover đặt}) trở thành
+     *       lời giải tốt nhất ban đầu, nên đàn kiến chỉ thay nó bằng lời giải tốt hơn hẳn.</li>
+     *   <li>Heuristic η^β của ô cũ của mỗi môn được nhân với stabilityBias, để các
+     *       con kiến ưu tiên giữ nguyên vị trí cũ (ít thay đổi nhất với người dự thi).</li>
+     * </ul>
+     * Với Ant System mặc định (bay hơi 1) τ mang sang bị xoá sau vòng đầu; dùng
+     * {@link AcoParameters#maxMin()} hoặc bay hơi &lt; 1 để pheromone cũ còn tác dụng.
+     * @param stabilityBias Hệ số ≥ 1 cho ô cũ; 1 để không ưu tiên
+     * @return Số môn được giữ nguyên ca và phòng
+     * @see #getWarmStartUnplacedExams()
+     */
+    public int warmStart(WarmStart state, double stabilityBias) {
+        if (stabilityBias < 1) {
+            throw new IllegalArgumentException("stabilityBias must be >= 1: " + stabilityBias);
+        }
+        int numExams = instance.getNumExams();
+        int numRooms = instance.getNumRooms();
+        int[] examMap = new int[state.examIds.length];
+        for (int e = 0; e < examMap.length; e++) {
+            examMap[e] = instance.indexOfExam(state.examIds[e]);
+        }
+        int[] slotMap = new int[state.timeslots.length];
+        for (int t = 0; t < slotMap.length; t++) {
+            slotMap[t] = instance.indexOfTimeslot(state.timeslots[t]);
+        }
+        int[] roomMap = new int[state.roomIds.length];
+        for (int r = 0; r < roomMap.length; r++) {
+            roomMap[r] = instance.indexOfRoom(state.roomIds[r]);
+        }
+
+        // Pheromone: τ trung bình các ô được chép của mỗi môn làm giá trị cho ô mới
+        double[] carriedSum = new double[numExams];
+        int[] carriedCount = new int[numExams];
+        for (int c = 0; c < state.cellPheromone.length; c++) {
+            int e = examMap[state.cellExam[c]];
+            int t = slotMap[state.cellTimeslot[c]];
+            int r = roomMap[state.cellRoom[c]];
+            if (e >= 0 && t >= 0 && r >= 0 && instance.getExamSize(e) <= instance.getRoomCapacity(r)) {
+                carriedSum[e] += state.cellPheromone[c];
+                carriedCount[e]++;
+            }
+        }
+        for (int e = 0; e < numExams; e++) {
+            if (carriedCount[e] > 0) {
+                double mean = carriedSum[e] / carriedCount[e];
+                for (int k = candidateOffsets[e]; k < candidateOffsets[e + 1]; k++) {
+                    pheromone.set(e, candidateTimeslot(e, k), candidateRoom(e, k), mean);
                 }
             }
         }
+        for (int c = 0; c < state.cellPheromone.length; c++) {
+            int e = examMap[state.cellExam[c]];
+            int t = slotMap[state.cellTimeslot[c]];
+            int r = roomMap[state.cellRoom[c]];
+            if (e >= 0 && t >= 0 && r >= 0) {
+                pheromone.set(e, t, r, state.cellPheromone[c]);
+            }
+        }
+        if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+            pheromone.clamp(params.getTauMin(), params.getTauMax());
+        }
 
-        // Bồi đắp pheromone từ các lời giải tốt
-        for (List<Assignment> solution : antSolutions) {
-            double solutionFitness = fitness.calculateFitness(solution);
-            // Chỉ bồi đắp pheromone cho các lời giải đủ tốt
-            if (solutionFitness < bestFitness * 1.5) {
-                depositPheromone(solution,
-                        1.0 / (1 + solutionFitness));
+        // Lịch cũ, gom các dòng theo môn mới
+        List<List<Integer>> previousRows = new ArrayList<>(numExams);
+        for (int e = 0; e < numExams; e++) {
+            previousRows.add(new ArrayList<>(1));
+        }
+        for (int row = 0; row < state.rowExam.length; row++) {
+            int e = examMap[state.rowExam[row]];
+            if (e >= 0) {
+                previousRows.get(e).add(row);
+            }
+        }
+
+        CompactSchedule seeded = new CompactSchedule(numExams);
+        GreedyPlacement placement = new GreedyPlacement(instance);
+        boolean[] kept = new boolean[numExams];
+        int keptCount = 0;
+        for (int e = 0; e < numExams; e++) {
+            int first = seeded.size();
+            if (keepPreviousPlacement(e, state, previousRows.get(e), slotMap, roomMap,
+                    placement, seeded)) {
+                placement.markPlaced(seeded, first, seeded.size());
+                kept[e] = true;
+                keptCount++;
+            }
+        }
+        warmStartUnplaced = 0;
+        for (int e = 0; e < numExams; e++) {
+            if (!kept[e] && placement.place(e, seeded) < 0) {
+                warmStartUnplaced++;
             }
         }
+
+        double seededFitness = fitness.calculateFitness(seeded);
+        if (improver != null) {
+            // Sửa lịch dựng lại (xung đột mới, môn xếp tham lam) trước khi dùng làm mồi
+            seededFitness = improver.improve(seeded, seededFitness, new Random(~seed));
+        }
+        bestSchedule.copyFrom(seeded);
+        bestFitness = seededFitness;
+        stagnantIterations = 0;
+        incumbentSeeded = true;
+        if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+            double amount = params.getEvaporation() * params.getTauMax();
+            for (int row = 0; row < seeded.size(); row++) {
+                pheromone.add(seeded.getExam(row), seeded.getTimeslot(row),
+                        seeded.getRoom(row), amount);
+            }
+            pheromone.clamp(params.getTauMin(), params.getTauMax());
+        } else {
+            depositPheromone(seeded, 1.0 / (1 + bestFitness));
+        }
+
+        // Ưu tiên giữ nguyên: nhân heuristic của ô cũ (chỉ ô một phòng là ứng viên)
+        stableCells = null;
+        if (stabilityBias > 1) {
+            stableCells = new int[numExams][];
+            this.stabilityBias = stabilityBias;
+            for (int row = 0; row < seeded.size(); row++) {
+                int e = seeded.getExam(row);
+                if (!kept[e]) {
+                    continue;
+                }
+                int cell = seeded.getTimeslot(row) * numRooms + seeded.getRoom(row);
+                int[] cells = stableCells[e] == null ? new int[1] : Arrays.copyOf(stableCells[e], stableCells[e].length + 1);
+                cells[cells.length - 1] = cell;
+                stableCells[e] = cells;
+            }
+        }
+        refreshCandidateWeights();
+
+        System.out.println("[ACO] Warm start: kept " + keptCount + "/" + numExams
+                + " exams in place, " + warmStartUnplaced + " could not be placed, "
+                + carriedPheromoneExams(carriedCount) + " exams with carried pheromone, "
+                + "seed fitness " + bestFitness + " (previous " + state.getFitness() + ")");
+        return keptCount;
+    }
+
+    private static int carriedPheromoneExams(int[] carriedCount) {
+        int count = 0;
+        for (int c : carriedCount) {
+            if (c > 0) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
-     * Bồi đắp pheromone cho một lời giải cụ thể.
+     * Giữ môn e ở đúng ca và các phòng cũ nếu chúng vẫn tồn tại, còn trống và đủ
+     * chỗ cho số sinh viên hiện tại.
+     * Số sinh viên hiện tại được chia lại giữa các phòng cũ, phòng nhỏ trước, mỗi
+     * phòng nhận phần đều của số còn lại (tối đa sức chứa).
+     * @return true nếu đã thêm các dòng của môn vào schedule
      */
-    private void depositPheromone(List<Assignment> solution, double amount) {
-        for (Assignment assignment : solution) {
-            Exam exam = data.getExamById(assignment.getExamId());
-            int examIdx = data.getExams().indexOf(exam);
-            int timeslotIdx =
-                    data.getTimeslots().indexOf(assignment.getTimeslot());
-            Room room = data.getRoomById(assignment.getRoom());
-            int roomIdx = data.getRooms().indexOf(room);
+    private boolean keepPreviousPlacement(int exam, WarmStart state, List<Integer> rows,
+            int[] slotMap, int[] roomMap, GreedyPlacement placement, CompactSchedule schedule) {
+        if (rows.isEmpty()) {
+            return false;
+        }
+        int timeslot = slotMap[state.rowTimeslot[rows.get(0)]];
+        if (timeslot < 0) {
+            return false;
+        }
+        int[] rooms = new int[rows.size()];
+        long capacity = 0;
+        for (int i = 0; i < rooms.length; i++) {
+            int row = rows.get(i);
+            int room = roomMap[state.rowRoom[row]];
+            if (room < 0 || slotMap[state.rowTimeslot[row]] != timeslot
+                    || placement.isRoomUsed(timeslot, room)) {
+                return false;
+            }
+            rooms[i] = room;
+            capacity += instance.getRoomCapacity(room);
+        }
+        // Các phòng cũ không còn đủ chỗ cho mọi sinh viên: xếp lại môn
+        if (capacity < instance.getExamSize(exam)) {
+            return false;
+        }
+        int remaining = instance.getExamSize(exam);
+        Integer[] order = new Integer[rooms.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = rooms[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(instance.getRoomCapacity(a),
+                instance.getRoomCapacity(b)));
+        for (int i = 0; i < order.length; i++) {
+            int room = order[i];
+            int share = Math.min(instance.getRoomCapacity(room),
+                    (remaining + order.length - i - 1) / (order.length - i));
+            if (share > 0) {
+                schedule.add(exam, timeslot, room, share);
+            }
+            remaining -= share;
+        }
+        return true;
+    }
 
-            if (examIdx >= 0 && timeslotIdx >= 0 && roomIdx >= 0) {
-                pheromone[examIdx][timeslotIdx][roomIdx]
-                        += amount * pheromoneDeposit;
+    /**
+     * Gieo lời giải ban đầu bằng tô màu tham lam đồ thị xung đột; gọi trước
+     * {@link #solve()}. Lịch dựng được (sau bộ cải thiện, nếu đã {@link #setImprover
+     * đặt}) trở thành lời giải tốt nhất nếu chưa có lời giải gieo nào tốt hơn. Pheromone của
+     * mọi ô được chia cho pheromoneBias, trừ các ô của lịch này giữ τ khởi tạo, nên
+     * ở vòng đầu các con kiến chọn ô của lịch tham lam với trọng số gấp pheromoneBias^α.
+     * @param pheromoneBias Tỉ lệ τ giữa ô của lịch tham lam và ô khác, ≥ 1; 1 để
+     *        chỉ dùng làm lời giải ban đầu
+     * @return Fitness của lịch tham lam
+     */
+    public double seedFromGraphColoring(DSaturConstructor.Ordering ordering,
+            double pheromoneBias) {
+        if (pheromoneBias < 1) {
+            throw new IllegalArgumentException("pheromoneBias must be >= 1: " + pheromoneBias);
+        }
+        long start = System.nanoTime();
+        DSaturConstructor constructor = new DSaturConstructor(instance);
+        CompactSchedule seeded = constructor.construct(ordering);
+        double seededFitness = fitness.calculateFitness(seeded);
+        if (improver != null) {
+            seededFitness = improver.improve(seeded, seededFitness, new Random(~seed));
+        }
+        if (!incumbentSeeded || seededFitness < bestFitness) {
+            bestSchedule.copyFrom(seeded);
+            bestFitness = seededFitness;
+            stagnantIterations = 0;
+            incumbentSeeded = true;
+        }
+
+        if (pheromoneBias > 1) {
+            pheromone.scale(1 / pheromoneBias);
+            for (int row = 0; row < seeded.size(); row++) {
+                pheromone.set(seeded.getExam(row), seeded.getTimeslot(row),
+                        seeded.getRoom(row), initialPheromone());
+            }
+            if (params.getPheromoneUpdate() == AcoParameters.PheromoneUpdate.MAX_MIN) {
+                pheromone.clamp(params.getTauMin(), params.getTauMax());
             }
+            refreshCandidateWeights();
+        }
+
+        System.out.println("[ACO] Graph colouring seed (" + ordering + "): fitness " + seededFitness
+                + ", " + constructor.getUnplacedExams() + " exams unplaced, in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+        return seededFitness;
+    }
+
+    /**
+     * @return Số môn lần {@link #warmStart} gần nhất không xếp lại được vì không ca nào
+     *         còn đủ chỗ; các môn này không có trong lời giải ban đầu
+     */
+    public int getWarmStartUnplacedExams() {
+        return warmStartUnplaced;
+    }
+
+    public AcoParameters getParameters() {
+        return params;
+    }
+
+    /**
+     * Điểm vào riêng cho module benchmarks: gọi từng bước nóng của một vòng lặp
+     * ngoài solve(), không tạo nhóm luồng, không in log và không tính fitness.
+     * Không dùng trong mã giải.
+     */
+    public HotPaths hotPaths() {
+        return new HotPaths();
+    }
+
+    /**
+     * Các bước nóng của một vòng lặp, xem {@link #hotPaths()}. Dùng trên một luồng.
+     */
+    public final class HotPaths {
+        private final AntWorkspace workspace = new AntWorkspace(instance, maxCandidates());
+
+        private HotPaths() {
+        }
+
+        /**
+         * Một con kiến xây dựng lịch vào schedule (gồm chọn ô và chia phòng).
+         */
+        public void constructSchedule(Random random, CompactSchedule schedule) {
+            AntColonyOptimization.this.constructSchedule(random, schedule, workspace);
+        }
+
+        /**
+         * Một lần bay hơi và bồi đắp pheromone từ các lời giải đã tính fitness.
+         */
+        public void updatePheromone(CompactSchedule[] antSolutions, double[] antFitness) {
+            AntColonyOptimization.this.updatePheromone(antSolutions, antFitness);
         }
     }
 
@@ -328,6 +1456,38 @@ public class AntColonyOptimization {
     }
 
     public List<Assignment> getBestSchedule() {
-        return bestSchedule;
+        return bestSchedule.toAssignments(instance);
+    }
+
+    private int maxCandidates() {
+        int max = 0;
+        for (int e = 0; e < instance.getNumExams(); e++) {
+            max = Math.max(max, candidateOffsets[e + 1] - candidateOffsets[e]);
+        }
+        return max;
+    }
+
+    /**
+     * Bộ đệm tạm của một con kiến, cấp phát một lần và dùng lại cho các con kiến sau.
+     */
+    private static final class AntWorkspace {
+        final RoomAvailability rooms;
+        final double[] cumulative;
+        final int[] choices;
+        final SplitPlanner splitPlanner;
+        final int[] examOrder;
+        // Số đo của con kiến đang xây dựng, được cộng vào bộ đếm của vòng lặp khi xong
+        long selectionNanos;
+        long splittingNanos;
+        long fallbacks;
+        long splitFailures;
+
+        AntWorkspace(CompiledInstance instance, int maxCandidates) {
+            rooms = new RoomAvailability(instance);
+            cumulative = new double[maxCandidates];
+            choices = new int[maxCandidates];
+            splitPlanner = new SplitPlanner(instance);
+            examOrder = new int[instance.getNumExams()];
+        }
     }
 }
@@ -0,0 +1,458 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.Exam;
+import com.examschedule.models.Room;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.models.Student;
+import com.examschedule.utils.ScheduleFitness;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Giải bài toán theo từng phần độc lập của đồ thị xung đột.
+ *
+ * Các môn không có sinh viên chung (thường là các khoa khác nhau) không ràng buộc
+ * nhau ngoài phòng và ca. Bộ giải:
+ * <ol>
+ *   <li>tách đồ thị xung đột thành các thành phần liên thông
+ *       ({@link com.examschedule.models.ConflictGraph#componentLabels(int)}), bỏ qua
+ *       các cạnh có trọng số ≤ cutWeight để tách cả các cụm liên kết yếu;</li>
+ *   <li>gom các thành phần thành tối đa maxSubproblems bài toán con cân bằng số môn
+ *       (thành phần lớn nhất trước, vào bài toán con đang nhẹ nhất);</li>
+ *   <li>chia phòng cho các bài toán con theo tổng sĩ số (mỗi bài toán con trước hết
+ *       nhận phòng nhỏ nhất vừa môn lớn nhất của nó), nên lịch ghép lại không tranh
+ *       phòng. Nếu số phòng ít hơn số bài toán con, mọi bài toán con dùng chung
+ *       mọi phòng;</li>
+ *   <li>giải các bài toán con đồng thời, mỗi bài toán một {@link AntColonyOptimization};</li>
+ *   <li>ghép lịch theo thứ tự bài toán con lớn trước. Môn tranh phòng với môn đã ghép
+ *       (phòng dùng chung) hoặc trùng ca với môn xung đột (cạnh đã bị cắt) được xếp lại
+ *       tham lam ({@link GreedyPlacement}), rồi tuỳ chọn chạy tìm kiếm cục bộ trên cả lịch.</li>
+ * </ol>
+ */
+public class DecomposedSolver {
+
+    private final ScheduleData data;
+    private final CompiledInstance instance;
+    private final int numAnts;
+    private final int maxIterations;
+    private final long seed;
+
+    private int cutWeight;
+    private int maxSubproblems = 16;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long timeLimitMillis;
+    private int antsToImprove;
+    private int localSearchBudget;
+    private int repairBudget;
+
+    // Kết quả của lần solve() gần nhất
+    private volatile AntColonyOptimization[] colonies;
+    private volatile boolean cancelled;
+    private int numComponents;
+    private int[] subproblemExams = new int[0];
+    private boolean roomsPartitioned;
+    private int repairedExams;
+    private int unplacedExams;
+
+    public DecomposedSolver(ScheduleData data, int numAnts, int maxIterations, long seed) {
+        this.data = data;
+        this.instance = data.getCompiled();
+        this.numAnts = numAnts;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    /**
+     * Bỏ qua các cạnh xung đột có ≤ cutWeight sinh viên chung khi tách (mặc định 0:
+     * chỉ tách các thành phần thực sự độc lập). Xung đột qua các cạnh bị cắt được
+     * xử lý ở bước sửa sau khi ghép.
+     */
+    public void setCutWeight(int cutWeight) {
+        if (cutWeight < 0) {
+            throw new IllegalArgumentException("cutWeight must be >= 0: " + cutWeight);
+        }
+        this.cutWeight = cutWeight;
+    }
+
+    public void setMaxSubproblems(int maxSubproblems) {
+        if (maxSubproblems < 1) {
+            throw new IllegalArgumentException("maxSubproblems must be >= 1: " + maxSubproblems);
+        }
+        this.maxSubproblems = maxSubproblems;
+    }
+
+    /**
+     * Số bài toán con được giải cùng lúc (mỗi bài toán con chạy tuần tự trên một luồng).
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @see AntColonyOptimization#setTimeLimit(long)
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("timeLimitMillis must be >= 0: " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Bật tìm kiếm cục bộ trong từng bài toán con (mỗi bài toán con một {@link LocalSearchImprover}).
+     * @param localSearchBudget Ngân sách đánh giá của mỗi lần cải thiện, 0 = tắt
+     */
+    public void setLocalSearch(int antsToImprove, int localSearchBudget) {
+        this.antsToImprove = antsToImprove;
+        this.localSearchBudget = localSearchBudget;
+    }
+
+    /**
+     * Ngân sách tìm kiếm cục bộ trên cả lịch sau khi ghép và sửa (0 = chỉ sửa tham lam).
+     */
+    public void setRepairBudget(int repairBudget) {
+        this.repairBudget = repairBudget;
+    }
+
+    /**
+     * Yêu cầu mọi bài toán con dừng; an toàn khi gọi từ luồng khác.
+     */
+    public void cancel() {
+        cancelled = true;
+        AntColonyOptimization[] running = colonies;
+        if (running != null) {
+            for (AntColonyOptimization colony : running) {
+                if (colony != null) {
+                    colony.cancel();
+                }
+            }
+        }
+    }
+
+    public ScheduleOutput solve() {
+        int numExams = instance.getNumExams();
+        int[] labels = instance.getConflictGraph().componentLabels(cutWeight);
+        numComponents = 0;
+        for (int label : labels) {
+            numComponents = Math.max(numComponents, label + 1);
+        }
+
+        List<List<Integer>> groups = packComponents(labels);
+        int numSubproblems = groups.size();
+        subproblemExams = new int[numSubproblems];
+        for (int i = 0; i < numSubproblems; i++) {
+            subproblemExams[i] = groups.get(i).size();
+        }
+        List<List<Room>> rooms = assignRooms(groups);
+        roomsPartitioned = rooms != null;
+        System.out.println("[Decompose] " + numComponents + " components"
+                + (cutWeight > 0 ? " (edges <= " + cutWeight + " cut)" : "") + " -> "
+                + numSubproblems + " subproblems " + Arrays.toString(subproblemExams) + ", rooms "
+                + (roomsPartitioned ? "partitioned" : "shared"));
+
+        ScheduleData[] subproblems = new ScheduleData[numSubproblems];
+        for (int i = 0; i < numSubproblems; i++) {
+            subproblems[i] = numSubproblems == 1 ? data
+                    : subproblem(groups.get(i), roomsPartitioned ? rooms.get(i) : data.getRooms());
+        }
+        SplittableRandom master = new SplittableRandom(seed);
+        AntColonyOptimization[] created = new AntColonyOptimization[numSubproblems];
+        for (int i = 0; i < numSubproblems; i++) {
+            created[i] = new AntColonyOptimization(subproblems[i], numAnts, maxIterations,
+                    master.split().nextLong());
+            created[i].setTimeLimit(timeLimitMillis);
+            if (antsToImprove > 0 && localSearchBudget > 0) {
+                created[i].setImprover(new LocalSearchImprover(subproblems[i].getCompiled(),
+                        localSearchBudget), antsToImprove);
+            }
+        }
+        if (numSubproblems == 1) {
+            created[0].setParallelism(parallelism);
+        }
+        colonies = created;
+        if (cancelled) {
+            cancel();
+        }
+
+        ScheduleOutput[] results = new ScheduleOutput[numSubproblems];
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, numSubproblems));
+        try {
+            List<Future<ScheduleOutput>> futures = new ArrayList<>(numSubproblems);
+            for (AntColonyOptimization colony : created) {
+                futures.add(executor.submit(colony::solve));
+            }
+            for (int i = 0; i < numSubproblems; i++) {
+                try {
+                    results[i] = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    cancel();
+                    throw new IllegalStateException("Subproblem " + i + " failed", e.getCause());
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Decomposed solve interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            cancelled = false;
+        }
+
+        CompactSchedule merged = merge(groups, results);
+        ScheduleFitness fitness = new ScheduleFitness(data);
+        double mergedFitness = fitness.calculateFitness(merged);
+        if (repairBudget > 0) {
+            mergedFitness = new LocalSearchImprover(instance, repairBudget)
+                    .improve(merged, mergedFitness, new Random(seed));
+        }
+        System.out.println("[Decompose] Merged " + numExams + " exams, " + repairedExams
+                + " re-placed by repair, " + unplacedExams + " unplaced, fitness " + mergedFitness);
+        return new ScheduleOutput(merged.toAssignments(instance), mergedFitness);
+    }
+
+    /**
+     * Gom các thành phần thành tối đa maxSubproblems nhóm: thành phần nhiều môn nhất
+     * trước, mỗi thành phần vào nhóm đang ít môn nhất (LPT). Nhóm trả về theo số môn
+     * giảm dần.
+     */
+    private List<List<Integer>> packComponents(int[] labels) {
+        List<List<Integer>> components = new ArrayList<>(numComponents);
+        for (int c = 0; c < numComponents; c++) {
+            components.add(new ArrayList<>());
+        }
+        for (int e = 0; e < labels.length; e++) {
+            components.get(labels[e]).add(e);
+        }
+        components.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+        int numGroups = Math.min(maxSubproblems, numComponents);
+        List<List<Integer>> groups = new ArrayList<>(numGroups);
+        for (int g = 0; g < numGroups; g++) {
+            groups.add(new ArrayList<>());
+        }
+        for (List<Integer> component : components) {
+            List<Integer> lightest = groups.get(0);
+            for (List<Integer> group : groups) {
+                if (group.size() < lightest.size()) {
+                    lightest = group;
+                }
+            }
+            lightest.addAll(component);
+        }
+        groups.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        for (List<Integer> group : groups) {
+            group.sort(null);
+        }
+        return groups;
+    }
+
+    /**
+     * Chia phòng cho các nhóm: mỗi nhóm (môn lớn nhất giảm dần) nhận phòng nhỏ nhất còn
+     * lại vừa môn lớn nhất của nó (hoặc phòng lớn nhất còn lại), rồi các phòng còn lại,
+     * lớn trước, vào nhóm có tỉ lệ tổng sĩ số / sức chứa đã nhận cao nhất.
+     * @return Phòng của từng nhóm, hoặc null nếu số phòng ít hơn số nhóm
+     */
+    private List<List<Room>> assignRooms(List<List<Integer>> groups) {
+        int numGroups = groups.size();
+        int numRooms = instance.getNumRooms();
+        if (numGroups == 1 || numRooms < numGroups) {
+            return null;
+        }
+        long[] demand = new long[numGroups];
+        int[] largest = new int[numGroups];
+        for (int g = 0; g < numGroups; g++) {
+            for (int exam : groups.get(g)) {
+                demand[g] += instance.getExamSize(exam);
+                largest[g] = Math.max(largest[g], instance.getExamSize(exam));
+            }
+        }
+        int[] byCapacityDesc = instance.getRoomsByCapacityDesc();
+        boolean[] taken = new boolean[numRooms];
+        long[] capacity = new long[numGroups];
+        List<List<Room>> rooms = new ArrayList<>(numGroups);
+        for (int g = 0; g < numGroups; g++) {
+            rooms.add(new ArrayList<>());
+        }
+
+        Integer[] order = new Integer[numGroups];
+        for (int g = 0; g < numGroups; g++) {
+            order[g] = g;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(largest[b], largest[a]));
+        for (int g : order) {
+            int chosen = -1;
+            for (int room : byCapacityDesc) {
+                if (!taken[room] && (chosen < 0 || instance.getRoomCapacity(room) >= largest[g])) {
+                    chosen = room;
+                }
+            }
+            taken[chosen] = true;
+            capacity[g] += instance.getRoomCapacity(chosen);
+            rooms.get(g).add(data.getRooms().get(chosen));
+        }
+        for (int room : byCapacityDesc) {
+            if (taken[room]) {
+                continue;
+            }
+            int neediest = 0;
+            for (int g = 1; g < numGroups; g++) {
+                if (demand[g] * capacity[neediest] > demand[neediest] * capacity[g]) {
+                    neediest = g;
+                }
+            }
+            capacity[neediest] += instance.getRoomCapacity(room);
+            rooms.get(neediest).add(data.getRooms().get(room));
+        }
+        return rooms;
+    }
+
+    private ScheduleData subproblem(List<Integer> exams, List<Room> rooms) {
+        List<Exam> subExams = new ArrayList<>(exams.size());
+        Set<String> studentIds = new LinkedHashSet<>();
+        for (int exam : exams) {
+            Exam original = data.getExams().get(exam);
+            subExams.add(original);
+            studentIds.addAll(original.getStudents());
+        }
+        List<Student> students = new ArrayList<>(studentIds.size());
+        for (String id : studentIds) {
+            students.add(new Student(id));
+        }
+        return new ScheduleData(subExams, students, rooms, data.getTimeslots());
+    }
+
+    /**
+     * Ghép lịch của các bài toán con (theo thứ tự, lớn trước). Môn dùng phòng đã có
+     * người trong ca, hoặc trùng ca với một môn xung đột của bài toán con khác đã ghép,
+     * được xếp lại tham lam; môn mà bài toán con không xếp được cũng vậy. Xung đột
+     * bên trong một bài toán con được giữ nguyên như lời giải của nó.
+     */
+    private CompactSchedule merge(List<List<Integer>> groups, ScheduleOutput[] results) {
+        int numExams = instance.getNumExams();
+        int[] group = new int[numExams];
+        for (int g = 0; g < groups.size(); g++) {
+            for (int exam : groups.get(g)) {
+                group[exam] = g;
+            }
+        }
+        int[] offsets = instance.getConflictGraph().getOffsets();
+        int[] neighbors = instance.getConflictGraph().getNeighbors();
+        CompactSchedule merged = new CompactSchedule(numExams);
+        GreedyPlacement placement = new GreedyPlacement(instance);
+        int[] firstRow = new int[numExams];
+        int[] rowCount = new int[numExams];
+        for (ScheduleOutput result : results) {
+            CompactSchedule part = CompactSchedule.fromAssignments(result.getSchedule(), instance);
+            // Các dòng của một môn nằm liền nhau trong lịch của con kiến
+            Arrays.fill(rowCount, 0);
+            for (int row = 0; row < part.size(); row++) {
+                int exam = part.getExam(row);
+                if (rowCount[exam]++ == 0) {
+                    firstRow[exam] = row;
+                }
+            }
+            for (int row = 0; row < part.size(); row++) {
+                int exam = part.getExam(row);
+                if (row != firstRow[exam]) {
+                    continue;
+                }
+                int timeslot = part.getTimeslot(row);
+                boolean clash = placement.isPlaced(exam);
+                for (int n = offsets[exam]; n < offsets[exam + 1] && !clash; n++) {
+                    clash = group[neighbors[n]] != group[exam]
+                            && placement.getTimeslot(neighbors[n]) == timeslot;
+                }
+                for (int r = row; r < row + rowCount[exam] && !clash; r++) {
+                    clash = part.getExam(r) != exam || part.getTimeslot(r) != timeslot
+                            || placement.isRoomUsed(timeslot, part.getRoom(r));
+                }
+                if (clash) {
+                    continue;
+                }
+                int first = merged.size();
+                for (int r = row; r < row + rowCount[exam]; r++) {
+                    merged.add(exam, timeslot, part.getRoom(r), part.getStudentCount(r));
+                }
+                placement.markPlaced(merged, first, merged.size());
+            }
+        }
+        repairedExams = 0;
+        unplacedExams = 0;
+        for (int exam = 0; exam < numExams; exam++) {
+            if (!placement.isPlaced(exam)) {
+                if (placement.place(exam, merged) >= 0) {
+                    repairedExams++;
+                } else {
+                    // Không ca nào còn đủ chỗ: môn bị bỏ trống và chịu phạt không được xếp
+                    unplacedExams++;
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return Số thành phần sau khi cắt cạnh trong lần solve() gần nhất
+     */
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * @return Số môn của từng bài toán con, giảm dần
+     */
+    public int[] getSubproblemExams() {
+        return subproblemExams.clone();
+    }
+
+    /**
+     * @return true nếu mỗi bài toán con có tập phòng riêng
+     */
+    public boolean isRoomsPartitioned() {
+        return roomsPartitioned;
+    }
+
+    /**
+     * @return Số môn được xếp lại ở bước sửa sau khi ghép
+     */
+    public int getRepairedExams() {
+        return repairedExams;
+    }
+
+    /**
+     * @return Số môn bước sửa không xếp lại được (không ca nào còn đủ chỗ) trong lần
+     *         solve() gần nhất; các môn này không có trong lịch trả về
+     */
+    public int getUnplacedExams() {
+        return unplacedExams;
+    }
+
+    /**
+     * @return Tổng số lịch được đánh giá trên mọi bài toán con
+     */
+    public long getEvaluations() {
+        long total = 0;
+        AntColonyOptimization[] solved = colonies;
+        if (solved != null) {
+            for (AntColonyOptimization colony : solved) {
+                total += colony.getEvaluations();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,106 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.RoomAvailability;
+import com.examschedule.utils.ExamSplitter;
+import com.examschedule.utils.SplitPlanner;
+import java.util.Arrays;
+
+/**
+ * Lịch đang dựng dở cùng trạng thái phòng và ca của từng môn, để xếp tham lam
+ * các môn còn thiếu. Dùng cho khởi động ấm (môn mới hoặc mất phòng) và bước sửa
+ * sau khi ghép lịch của {@link DecomposedSolver}.
+ */
+final class GreedyPlacement {
+    private final CompiledInstance instance;
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    // Phòng đã được dùng trong từng ca
+    private final RoomAvailability rooms;
+    // Ca của từng môn đã xếp, -1 nếu chưa
+    private final int[] examSlot;
+    private final SplitPlanner splitPlanner;
+
+    GreedyPlacement(CompiledInstance instance) {
+        this.instance = instance;
+        this.offsets = instance.getConflictGraph().getOffsets();
+        this.neighbors = instance.getConflictGraph().getNeighbors();
+        this.rooms = new RoomAvailability(instance);
+        this.examSlot = new int[instance.getNumExams()];
+        this.splitPlanner = new SplitPlanner(instance);
+        Arrays.fill(examSlot, -1);
+    }
+
+    boolean isRoomUsed(int timeslot, int room) {
+        return !rooms.isFree(timeslot, room);
+    }
+
+    /**
+     * @return true nếu một môn đã xếp trong ca có sinh viên chung với exam
+     */
+    boolean hasConflict(int exam, int timeslot) {
+        for (int n = offsets[exam]; n < offsets[exam + 1]; n++) {
+            if (examSlot[neighbors[n]] == timeslot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isPlaced(int exam) {
+        return examSlot[exam] >= 0;
+    }
+
+    /**
+     * @return Ca của môn đã xếp, hoặc -1
+     */
+    int getTimeslot(int exam) {
+        return examSlot[exam];
+    }
+
+    /**
+     * Ghi nhận các dòng [from, to) của schedule (cùng một môn, cùng một ca) là đã xếp.
+     */
+    void markPlaced(CompactSchedule schedule, int from, int to) {
+        for (int row = from; row < to; row++) {
+            rooms.markUsed(schedule.getTimeslot(row), schedule.getRoom(row));
+            examSlot[schedule.getExam(row)] = schedule.getTimeslot(row);
+        }
+    }
+
+    /**
+     * Xếp môn vào ca sớm nhất không có môn xung đột và còn đủ phòng trống (một phòng
+     * vừa nhất, hoặc tập phòng thừa ít chỗ nhất của {@link SplitPlanner}). Nếu không
+     * ca nào tránh được xung đột, chọn ca sớm nhất còn đủ phòng.
+     * @return Ca đã xếp, hoặc -1 nếu không ca nào còn đủ chỗ cho mọi sinh viên
+     */
+    int place(int exam, CompactSchedule schedule) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int t = 0; t < instance.getNumTimeslots(); t++) {
+                if ((pass > 0 || !hasConflict(exam, t)) && placeInTimeslot(exam, t, schedule)) {
+                    return t;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean placeInTimeslot(int exam, int timeslot, CompactSchedule schedule) {
+        int size = instance.getExamSize(exam);
+        if (rooms.getFreeCount(timeslot) == 0 || rooms.getFreeCapacity(timeslot) < size) {
+            return false;
+        }
+        int first = schedule.size();
+        int fitting = rooms.smallestFreeRoomAtLeast(timeslot, size);
+        if (fitting >= 0) {
+            schedule.add(exam, timeslot, fitting, size);
+        } else {
+            ExamSplitter.splitExamIntoRooms(instance, exam, timeslot, rooms,
+                    splitPlanner, schedule);
+        }
+        markPlaced(schedule, first, schedule.size());
+        return true;
+    }
+}
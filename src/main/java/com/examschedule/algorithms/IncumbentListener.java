@@ -0,0 +1,18 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.ScheduleOutput;
+
+/**
+ * Nhận lời giải tốt nhất mới mỗi khi bộ giải tìm được lời giải tốt hơn.
+ * Được gọi trên luồng đang chạy solve(), giữa hai vòng lặp, nên cần xử lý nhanh.
+ */
+@FunctionalInterface
+public interface IncumbentListener {
+
+    /**
+     * @param incumbent Lời giải tốt nhất hiện tại (bản sao, có thể giữ lại)
+     * @param iteration Vòng lặp (tính từ 1) tìm ra lời giải
+     * @param elapsedMillis Thời gian đã chạy kể từ khi gọi solve()
+     */
+    void onIncumbent(ScheduleOutput incumbent, int iteration, long elapsedMillis);
+}
@@ -0,0 +1,354 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mô hình đảo: numIslands đàn kiến {@link AntColonyOptimization} độc lập, mỗi đàn
+ * chạy trên một luồng riêng với ma trận pheromone và siêu tham số riêng.
+ *
+ * Cứ sau migrationInterval vòng lặp, các đảo dừng tại một rào chắn và trao đổi
+ * theo vòng tròn: đảo i nhận lời giải tốt nhất của đảo i - 1 (chỉ giữ lại nếu tốt
+ * hơn lời giải của mình) và, nếu bật, trộn một phần pheromone của đảo đó.
+ * Mỗi đảo có hạt giống riêng suy ra từ seed nên kết quả tái lập được.
+ */
+public class IslandModel {
+
+    private final ScheduleData data;
+    private final CompiledInstance instance;
+    private final int numIslands;
+    private final int antsPerIsland;
+    private final int maxIterations;
+    private final long seed;
+    private final AcoParameters[] parameters;
+
+    private int migrationInterval = 10;
+    private double pheromoneBlend;
+    private long timeLimitMillis;
+    private int maxStagnantIterations;
+    private int antsToImprove;
+    private int localSearchBudget;
+    private double targetFitness = Double.NEGATIVE_INFINITY;
+    private IncumbentListener incumbentListener;
+
+    // Trạng thái của lần solve() gần nhất
+    private AntColonyOptimization[] colonies;
+    private volatile boolean cancelled;
+    private long startNanos;
+    private double bestFitness;
+    private CompactSchedule bestSchedule;
+    private long timeToTargetMillis;
+    private final LongAdder migrations = new LongAdder();
+    private final LongAdder acceptedMigrants = new LongAdder();
+
+    public IslandModel(ScheduleData data, int numIslands, int antsPerIsland, int maxIterations,
+            long seed) {
+        if (numIslands < 1) {
+            throw new IllegalArgumentException("numIslands must be >= 1: " + numIslands);
+        }
+        this.data = data;
+        this.instance = data.getCompiled();
+        this.numIslands = numIslands;
+        this.antsPerIsland = antsPerIsland;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+        this.parameters = new AcoParameters[numIslands];
+        for (int i = 0; i < numIslands; i++) {
+            parameters[i] = new AcoParameters();
+        }
+    }
+
+    /**
+     * Đặt siêu tham số cho một đảo (mặc định mọi đảo dùng new AcoParameters()).
+     */
+    public void setParameters(int island, AcoParameters params) {
+        parameters[island] = params;
+    }
+
+    public AcoParameters getParameters(int island) {
+        return parameters[island];
+    }
+
+    /**
+     * Xen kẽ cấu hình: đảo chẵn dùng Ant System mặc định, đảo lẻ dùng
+     * {@link AcoParameters#maxMin()}.
+     */
+    public void useMixedParameters() {
+        for (int i = 0; i < numIslands; i++) {
+            parameters[i] = i % 2 == 0 ? new AcoParameters() : AcoParameters.maxMin();
+        }
+    }
+
+    /**
+     * @param migrationInterval Số vòng lặp giữa hai lần trao đổi, 0 để các đảo chạy hoàn toàn độc lập
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 0) {
+            throw new IllegalArgumentException("migrationInterval must be >= 0: " + migrationInterval);
+        }
+        this.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * @param pheromoneBlend Tỉ lệ pheromone lấy từ đảo láng giềng mỗi lần trao đổi,
+     *        trong [0, 1]; 0 (mặc định) chỉ trao đổi lời giải
+     */
+    public void setPheromoneBlend(double pheromoneBlend) {
+        if (pheromoneBlend < 0 || pheromoneBlend > 1) {
+            throw new IllegalArgumentException("pheromoneBlend must be in [0, 1]: " + pheromoneBlend);
+        }
+        this.pheromoneBlend = pheromoneBlend;
+    }
+
+    /**
+     * @see AntColonyOptimization#setTimeLimit(long)
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("timeLimitMillis must be >= 0: " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * @see AntColonyOptimization#setMaxStagnantIterations(int)
+     */
+    public void setMaxStagnantIterations(int maxStagnantIterations) {
+        this.maxStagnantIterations = maxStagnantIterations;
+    }
+
+    /**
+     * Bật tìm kiếm cục bộ trên mỗi đảo (mỗi đảo một {@link LocalSearchImprover}).
+     * @param localSearchBudget Ngân sách đánh giá của mỗi lần cải thiện, 0 = tắt
+     */
+    public void setLocalSearch(int antsToImprove, int localSearchBudget) {
+        this.antsToImprove = antsToImprove;
+        this.localSearchBudget = localSearchBudget;
+    }
+
+    /**
+     * Dừng mọi đảo ngay khi một đảo đạt fitness &lt;= targetFitness.
+     */
+    public void setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    /**
+     * Nhận lời giải tốt nhất mới của cả mô hình (mọi đảo); được gọi trên luồng
+     * của đảo tìm ra lời giải.
+     */
+    public void setIncumbentListener(IncumbentListener incumbentListener) {
+        this.incumbentListener = incumbentListener;
+    }
+
+    /**
+     * Yêu cầu mọi đảo dừng; an toàn khi gọi từ luồng khác. Nếu gọi trước solve(),
+     * lần solve() kế tiếp kết thúc ngay; cờ huỷ (kể cả khi đạt mục tiêu) được xoá
+     * khi solve() trả về.
+     */
+    public void cancel() {
+        cancelled = true;
+        AntColonyOptimization[] running = colonies;
+        if (running != null) {
+            for (AntColonyOptimization colony : running) {
+                colony.cancel();
+            }
+        }
+    }
+
+    /**
+     * Chạy mọi đảo đến khi tất cả dừng.
+     * @return Lời giải tốt nhất trong các đảo
+     */
+    public ScheduleOutput solve() {
+        System.out.println("[Islands] Starting " + numIslands + " colonies x " + antsPerIsland
+                + " ants, " + maxIterations + " iterations, migration every " + migrationInterval
+                + " iterations" + (pheromoneBlend > 0 ? ", pheromone blend " + pheromoneBlend : ""));
+
+        SplittableRandom master = new SplittableRandom(seed);
+        AntColonyOptimization[] created = new AntColonyOptimization[numIslands];
+        for (int i = 0; i < numIslands; i++) {
+            created[i] = createColony(i, master.split().nextLong());
+        }
+        colonies = created;
+        bestFitness = Double.MAX_VALUE;
+        bestSchedule = new CompactSchedule();
+        timeToTargetMillis = -1;
+        migrations.reset();
+        acceptedMigrants.reset();
+        startNanos = System.nanoTime();
+        if (cancelled) {
+            cancel();
+        }
+
+        Exchange exchange = new Exchange();
+        ExecutorService executor = Executors.newFixedThreadPool(numIslands);
+        try {
+            List<Future<?>> futures = new ArrayList<>(numIslands);
+            for (int i = 0; i < numIslands; i++) {
+                int island = i;
+                futures.add(executor.submit(() -> runIsland(island, exchange)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    cancel();
+                    throw new IllegalStateException("Island failed", e.getCause());
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Island model interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            cancelled = false;
+        }
+
+        System.out.println("[Islands] Completed: best fitness " + bestFitness + ", "
+                + migrations.sum() + " migrations (" + acceptedMigrants.sum() + " accepted)");
+        return new ScheduleOutput(bestSchedule.toAssignments(instance), bestFitness);
+    }
+
+    private AntColonyOptimization createColony(int island, long islandSeed) {
+        AntColonyOptimization colony = new AntColonyOptimization(data, antsPerIsland,
+                maxIterations, islandSeed, parameters[island]);
+        colony.setTimeLimit(timeLimitMillis);
+        colony.setMaxStagnantIterations(maxStagnantIterations);
+        if (antsToImprove > 0 && localSearchBudget > 0) {
+            colony.setImprover(new LocalSearchImprover(instance, localSearchBudget), antsToImprove);
+        }
+        colony.setIncumbentListener((incumbent, iteration, elapsedMillis) ->
+                onIslandIncumbent(colony, incumbent));
+        return colony;
+    }
+
+    private void runIsland(int island, Exchange exchange) {
+        AntColonyOptimization colony = colonies[island];
+        try {
+            if (migrationInterval > 0 && numIslands > 1) {
+                colony.setEpochHook(migrationInterval, iteration -> exchange.migrate(island, colony));
+            }
+            colony.solve();
+        } finally {
+            // Đảo đã dừng không còn tham gia rào chắn, các đảo khác không phải chờ nó
+            exchange.phaser.arriveAndDeregister();
+        }
+    }
+
+    private synchronized void onIslandIncumbent(AntColonyOptimization colony, ScheduleOutput incumbent) {
+        if (incumbent.getFitness() >= bestFitness) {
+            return;
+        }
+        bestFitness = incumbent.getFitness();
+        bestSchedule.copyFrom(colony.getBestCompact());
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        if (incumbentListener != null) {
+            incumbentListener.onIncumbent(incumbent, colony.getIterationsCompleted(), elapsedMillis);
+        }
+        if (bestFitness <= targetFitness && timeToTargetMillis < 0) {
+            timeToTargetMillis = elapsedMillis;
+            cancel();
+        }
+    }
+
+    /**
+     * @return Fitness tốt nhất của từng đảo trong lần solve() gần nhất
+     */
+    public double[] getIslandBestFitness() {
+        double[] result = new double[numIslands];
+        for (int i = 0; i < numIslands; i++) {
+            result[i] = colonies == null ? Double.MAX_VALUE : colonies[i].getBestFitness();
+        }
+        return result;
+    }
+
+    /**
+     * @return Tổng số lần trao đổi (mỗi đảo mỗi epoch tính một lần)
+     */
+    public long getMigrations() {
+        return migrations.sum();
+    }
+
+    /**
+     * @return Số lần lời giải di cư tốt hơn lời giải của đảo nhận và được giữ lại
+     */
+    public long getAcceptedMigrants() {
+        return acceptedMigrants.sum();
+    }
+
+    /**
+     * @return Thời gian (ms) đến khi đạt targetFitness, hoặc -1 nếu chưa đạt
+     */
+    public long getTimeToTargetMillis() {
+        return timeToTargetMillis;
+    }
+
+    /**
+     * @return Tổng số lịch được đánh giá trên mọi đảo
+     */
+    public long getEvaluations() {
+        long total = 0;
+        if (colonies != null) {
+            for (AntColonyOptimization colony : colonies) {
+                total += colony.getEvaluations();
+            }
+        }
+        return total;
+    }
+
+    public int getNumIslands() {
+        return numIslands;
+    }
+
+    /**
+     * Vùng trao đổi dùng chung của một lần solve(). Mỗi lần trao đổi gồm hai pha
+     * ngăn bởi rào chắn: mọi đảo ghi bản sao lời giải (và pheromone) của mình,
+     * rồi mọi đảo đọc bản sao của láng giềng. Rào chắn thứ hai đảm bảo không đảo
+     * nào ghi đè bản sao trong khi láng giềng còn đang đọc.
+     */
+    private final class Exchange {
+        final Phaser phaser = new Phaser(numIslands);
+        final CompactSchedule[] published = new CompactSchedule[numIslands];
+        final double[] publishedFitness = new double[numIslands];
+        final double[][] publishedPheromone = new double[numIslands][];
+
+        Exchange() {
+            for (int i = 0; i < numIslands; i++) {
+                published[i] = new CompactSchedule();
+                publishedFitness[i] = Double.MAX_VALUE;
+            }
+        }
+
+        void migrate(int island, AntColonyOptimization colony) {
+            published[island].copyFrom(colony.getBestCompact());
+            publishedFitness[island] = colony.getBestFitness();
+            if (pheromoneBlend > 0) {
+                publishedPheromone[island] = colony.snapshotPheromone(publishedPheromone[island]);
+            }
+            phaser.arriveAndAwaitAdvance();
+
+            int from = (island + numIslands - 1) % numIslands;
+            if (colony.acceptMigrant(published[from], publishedFitness[from])) {
+                acceptedMigrants.increment();
+            }
+            if (pheromoneBlend > 0 && publishedPheromone[from] != null) {
+                colony.blendPheromone(publishedPheromone[from], pheromoneBlend);
+            }
+            migrations.increment();
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.examschedule.algorithms;
+
+/**
+ * Số đo của một vòng lặp ACO, gửi tới {@link SolverMetricsListener}.
+ * Thời gian xây dựng, chọn ô, chia phòng và đánh giá fitness là tổng thời gian
+ * của mọi luồng (nên có thể lớn hơn thời gian thực của vòng khi chạy song song);
+ * các giai đoạn còn lại là thời gian thực trên luồng gọi solve().
+ */
+public class IterationMetrics {
+    private final int iteration;
+    private final long elapsedNanos;
+    private final long iterationNanos;
+    private final long antPhaseNanos;
+    private final long constructionNanos;
+    private final long selectionNanos;
+    private final long splittingNanos;
+    private final long fitnessNanos;
+    private final long improvementNanos;
+    private final long pheromoneNanos;
+    private final int antsBuilt;
+    private final long evaluations;
+    private final long fallbackSelections;
+    private final long splitFailures;
+    private final double bestFitness;
+    private final double iterationBestFitness;
+    private final double meanFitness;
+    private final double pheromoneEntropy;
+
+    IterationMetrics(int iteration, long elapsedNanos, long iterationNanos, long antPhaseNanos,
+            long constructionNanos, long selectionNanos, long splittingNanos, long fitnessNanos,
+            long improvementNanos, long pheromoneNanos, int antsBuilt, long evaluations,
+            long fallbackSelections, long splitFailures, double bestFitness, double iterationBestFitness,
+            double meanFitness, double pheromoneEntropy) {
+        this.iteration = iteration;
+        this.elapsedNanos = elapsedNanos;
+        this.iterationNanos = iterationNanos;
+        this.antPhaseNanos = antPhaseNanos;
+        this.constructionNanos = constructionNanos;
+        this.selectionNanos = selectionNanos;
+        this.splittingNanos = splittingNanos;
+        this.fitnessNanos = fitnessNanos;
+        this.improvementNanos = improvementNanos;
+        this.pheromoneNanos = pheromoneNanos;
+        this.antsBuilt = antsBuilt;
+        this.evaluations = evaluations;
+        this.fallbackSelections = fallbackSelections;
+        this.splitFailures = splitFailures;
+        this.bestFitness = bestFitness;
+        this.iterationBestFitness = iterationBestFitness;
+        this.meanFitness = meanFitness;
+        this.pheromoneEntropy = pheromoneEntropy;
+    }
+
+    /**
+     * @return Vòng lặp, tính từ 1
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * @return Thời gian kể từ khi gọi solve() tới cuối vòng này
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Thời gian thực của cả vòng lặp
+     */
+    public long getIterationNanos() {
+        return iterationNanos;
+    }
+
+    /**
+     * @return Thời gian thực của giai đoạn xây dựng và đánh giá các con kiến
+     */
+    public long getAntPhaseNanos() {
+        return antPhaseNanos;
+    }
+
+    /**
+     * @return Tổng thời gian xây dựng lịch của các con kiến (gồm chọn ô và chia phòng)
+     */
+    public long getConstructionNanos() {
+        return constructionNanos;
+    }
+
+    /**
+     * @return Tổng thời gian chọn (ca, phòng) bằng roulette
+     */
+    public long getSelectionNanos() {
+        return selectionNanos;
+    }
+
+    /**
+     * @return Tổng thời gian chia các môn lớn ra nhiều phòng
+     */
+    public long getSplittingNanos() {
+        return splittingNanos;
+    }
+
+    /**
+     * @return Tổng thời gian đánh giá fitness các lịch vừa xây dựng
+     */
+    public long getFitnessNanos() {
+        return fitnessNanos;
+    }
+
+    /**
+     * @return Thời gian thực của bước cải thiện cục bộ (0 nếu tắt)
+     */
+    public long getImprovementNanos() {
+        return improvementNanos;
+    }
+
+    /**
+     * @return Thời gian thực của bước cập nhật pheromone (0 nếu vòng bị cắt ngang)
+     */
+    public long getPheromoneNanos() {
+        return pheromoneNanos;
+    }
+
+    /**
+     * @return Số con kiến đã xây dựng xong trong vòng
+     */
+    public int getAntsBuilt() {
+        return antsBuilt;
+    }
+
+    /**
+     * @return Số lần đánh giá fitness đầy đủ trong vòng
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return Số lần chọn ô mà môn không còn ứng viên hợp lệ nên phải lấy ô trống đầu tiên
+     */
+    public long getFallbackSelections() {
+        return fallbackSelections;
+    }
+
+    /**
+     * @return Số lần một môn phải chia phòng nhưng không ca nào còn đủ chỗ, nên bị
+     *         để trống trong lịch của con kiến
+     */
+    public long getSplitFailures() {
+        return splitFailures;
+    }
+
+    public double getAntsPerSecond() {
+        return perSecond(antsBuilt);
+    }
+
+    public double getEvaluationsPerSecond() {
+        return perSecond(evaluations);
+    }
+
+    /**
+     * @return Fitness tốt nhất từ đầu lần solve() tới cuối vòng này
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * @return Fitness tốt nhất trong các con kiến của vòng, Double.MAX_VALUE nếu chưa có con nào
+     */
+    public double getIterationBestFitness() {
+        return iterationBestFitness;
+    }
+
+    /**
+     * @return Fitness trung bình của các con kiến đã xong, NaN nếu chưa có con nào
+     */
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    /**
+     * Entropy Shannon của phân bố pheromone trên các ứng viên của từng môn, chia
+     * cho log(số ứng viên) rồi lấy trung bình theo môn: 1 là phân bố đều (đang
+     * khám phá), gần 0 là pheromone đã dồn vào một ô (đã hội tụ).
+     */
+    public double getPheromoneEntropy() {
+        return pheromoneEntropy;
+    }
+
+    private double perSecond(long count) {
+        return iterationNanos > 0 ? count * 1e9 / iterationNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("iteration %d: best %s, mean %.1f, %.0f ants/s, entropy %.3f "
+                        + "(construct %d ms, select %d ms, split %d ms, fitness %d ms, "
+                        + "improve %d ms, pheromone %d ms)",
+                iteration, bestFitness, meanFitness, getAntsPerSecond(), pheromoneEntropy,
+                constructionNanos / 1_000_000, selectionNanos / 1_000_000,
+                splittingNanos / 1_000_000, fitnessNanos / 1_000_000,
+                improvementNanos / 1_000_000, pheromoneNanos / 1_000_000);
+    }
+}
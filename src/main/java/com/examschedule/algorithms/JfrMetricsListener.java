@@ -0,0 +1,94 @@
+package com.examschedule.algorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ghi mỗi vòng lặp thành một sự kiện JFR "com.examschedule.AcoIteration".
+ * Sự kiện chỉ được ghi khi có bản ghi JFR đang chạy, ví dụ
+ * {@code java -XX:StartFlightRecording=filename=aco.jfr ...}; nếu không thì
+ * listener gần như không tốn gì.
+ */
+public class JfrMetricsListener implements SolverMetricsListener {
+
+    @Override
+    public void onIteration(IterationMetrics metrics) {
+        IterationEvent event = new IterationEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.iteration = metrics.getIteration();
+        event.iterationTime = metrics.getIterationNanos();
+        event.constructionTime = metrics.getConstructionNanos();
+        event.selectionTime = metrics.getSelectionNanos();
+        event.splittingTime = metrics.getSplittingNanos();
+        event.fitnessTime = metrics.getFitnessNanos();
+        event.improvementTime = metrics.getImprovementNanos();
+        event.pheromoneTime = metrics.getPheromoneNanos();
+        event.antsPerSecond = metrics.getAntsPerSecond();
+        event.evaluationsPerSecond = metrics.getEvaluationsPerSecond();
+        event.bestFitness = metrics.getBestFitness();
+        event.meanFitness = metrics.getMeanFitness();
+        event.pheromoneEntropy = metrics.getPheromoneEntropy();
+        event.commit();
+    }
+
+    @Name("com.examschedule.AcoIteration")
+    @Label("ACO Iteration")
+    @Category({"Exam Scheduling", "ACO"})
+    @Description("Phase timings and fitness of one ant colony iteration")
+    @StackTrace(false)
+    static class IterationEvent extends Event {
+        @Label("Iteration")
+        int iteration;
+
+        @Label("Iteration Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long iterationTime;
+
+        @Label("Construction Time")
+        @Description("Summed over worker threads")
+        @Timespan(Timespan.NANOSECONDS)
+        long constructionTime;
+
+        @Label("Selection Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long selectionTime;
+
+        @Label("Splitting Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long splittingTime;
+
+        @Label("Fitness Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long fitnessTime;
+
+        @Label("Improvement Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long improvementTime;
+
+        @Label("Pheromone Update Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long pheromoneTime;
+
+        @Label("Ants per Second")
+        double antsPerSecond;
+
+        @Label("Evaluations per Second")
+        double evaluationsPerSecond;
+
+        @Label("Best Fitness")
+        double bestFitness;
+
+        @Label("Mean Fitness")
+        double meanFitness;
+
+        @Label("Pheromone Entropy")
+        double pheromoneEntropy;
+    }
+}
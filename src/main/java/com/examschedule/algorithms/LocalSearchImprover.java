@@ -0,0 +1,392 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ConflictGraph;
+import com.examschedule.utils.IncrementalFitness;
+import com.examschedule.utils.SplitPlanner;
+import com.examschedule.utils.WorkspacePool;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tìm kiếm cục bộ kiểu first-improvement trên lịch thi do con kiến xây dựng,
+ * đánh giá bằng {@link IncrementalFitness}. Các lân cận:
+ * <ul>
+ *   <li>Chuyển một môn sang ca khác.</li>
+ *   <li>Đổi ca của hai môn.</li>
+ *   <li>Chuỗi Kempe: đổi ca cho toàn bộ thành phần liên thông (trên đồ thị
+ *       xung đột) của hai ca chứa một môn đang bị trùng lịch.</li>
+ *   <li>Xếp lại phòng trong cùng ca.</li>
+ * </ul>
+ * Mỗi lần môn thi được đặt vào một ca, phòng được chọn lại giống bước xây dựng:
+ * phòng trống nhỏ nhất đủ chứa cả lớp, nếu không có thì chia môn vào tập phòng
+ * còn trống thừa ít chỗ nhất ({@link SplitPlanner}).
+ * Số lần đánh giá mỗi lịch bị giới hạn bởi maxEvaluations.
+ */
+public class LocalSearchImprover implements ScheduleImprover {
+    private static final double EPSILON = 1e-9;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final CompiledInstance instance;
+    private final ConflictGraph conflictGraph;
+    private final int maxEvaluations;
+
+    // Bộ đệm dùng lại giữa các lịch thi, mỗi lần improve mượn một bộ
+    private final WorkspacePool<Workspace> workspaces;
+
+    /**
+     * @param maxEvaluations Số lần đánh giá nước đi tối đa cho mỗi lịch thi
+     */
+    public LocalSearchImprover(CompiledInstance instance, int maxEvaluations) {
+        if (maxEvaluations < 1) {
+            throw new IllegalArgumentException("maxEvaluations must be >= 1: " + maxEvaluations);
+        }
+        this.instance = instance;
+        this.conflictGraph = instance.getConflictGraph();
+        this.maxEvaluations = maxEvaluations;
+        this.workspaces = new WorkspacePool<>(() -> new Workspace(instance));
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    @Override
+    public double improve(CompactSchedule schedule, double fitness, Random random) {
+        Workspace w = workspaces.acquire();
+        try {
+            return improve(schedule, fitness, random, w);
+        } finally {
+            workspaces.release(w);
+        }
+    }
+
+    private double improve(CompactSchedule schedule, double fitness, Random random, Workspace w) {
+        IncrementalFitness state = w.state;
+        state.load(schedule);
+        w.evaluations = 0;
+
+        // Thứ tự duyệt luôn bắt đầu từ 0..n-1 để kết quả không phụ thuộc luồng đã chạy trước
+        int[] order = w.examOrder;
+        for (int e = 0; e < order.length; e++) {
+            order[e] = e;
+        }
+        boolean improved = true;
+        while (improved && w.evaluations < maxEvaluations) {
+            improved = false;
+            shuffle(order, random);
+            for (int exam : order) {
+                if (w.evaluations >= maxEvaluations) {
+                    break;
+                }
+                if (tryMove(exam, w) || tryRoomReassignment(exam, w)
+                        || tryKempeChain(exam, w, random) || trySwap(exam, w, random)) {
+                    improved = true;
+                }
+            }
+        }
+
+        double result = state.getFitness();
+        if (result < fitness) {
+            state.writeTo(schedule);
+            return result;
+        }
+        return fitness;
+    }
+
+    /**
+     * Chuyển môn sang ca tốt nhất trong các ca khác (kể cả khi môn chưa được xếp).
+     */
+    private boolean tryMove(int exam, Workspace w) {
+        IncrementalFitness state = w.state;
+        int current = state.getExamTimeslot(exam);
+        double bestDelta = -EPSILON;
+        int bestSlot = -1;
+        int[] bestRooms = null;
+        int[] bestCounts = null;
+
+        for (int t = 0; t < instance.getNumTimeslots(); t++) {
+            if (t == current) {
+                continue;
+            }
+            int rows = planRooms(exam, t, w);
+            if (rows == 0) {
+                continue;
+            }
+            int[] rooms = Arrays.copyOf(w.planRooms, rows);
+            int[] counts = Arrays.copyOf(w.planCounts, rows);
+            double delta = state.deltaMove(exam, t, rooms, counts);
+            w.evaluations++;
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                bestSlot = t;
+                bestRooms = rooms;
+                bestCounts = counts;
+            }
+        }
+
+        if (bestSlot < 0) {
+            return false;
+        }
+        state.applyMove(exam, bestSlot, bestRooms, bestCounts);
+        return true;
+    }
+
+    /**
+     * Xếp lại phòng cho môn trong ca hiện tại (ví dụ gộp các phần đã chia
+     * vào một phòng vừa được giải phóng).
+     */
+    private boolean tryRoomReassignment(int exam, Workspace w) {
+        IncrementalFitness state = w.state;
+        int current = state.getExamTimeslot(exam);
+        if (current < 0) {
+            return false;
+        }
+        int rows = planRooms(exam, current, w);
+        if (rows == 0 || samePlan(state.getExamRooms(exam), state.getExamCounts(exam), rows, w)) {
+            return false;
+        }
+        int[] rooms = Arrays.copyOf(w.planRooms, rows);
+        int[] counts = Arrays.copyOf(w.planCounts, rows);
+        double delta = state.deltaMove(exam, current, rooms, counts);
+        w.evaluations++;
+        if (delta < -EPSILON) {
+            state.applyMove(exam, current, rooms, counts);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Với môn đang trùng lịch với một môn cùng ca, thử đổi chuỗi Kempe giữa
+     * ca hiện tại và từng ca khác (bắt đầu từ một ca ngẫu nhiên).
+     */
+    private boolean tryKempeChain(int exam, Workspace w, Random random) {
+        IncrementalFitness state = w.state;
+        int current = state.getExamTimeslot(exam);
+        if (current < 0 || !hasConflictInSlot(exam, current, state)) {
+            return false;
+        }
+        int numTimeslots = instance.getNumTimeslots();
+        int start = random.nextInt(numTimeslots);
+        for (int i = 0; i < numTimeslots && w.evaluations < maxEvaluations; i++) {
+            int other = (start + i) % numTimeslots;
+            if (other == current) {
+                continue;
+            }
+            int size = buildKempeChain(exam, current, other, w);
+            if (tryExchange(size, current, other, w)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Đổi ca của môn với một môn ngẫu nhiên ở ca khác.
+     */
+    private boolean trySwap(int exam, Workspace w, Random random) {
+        IncrementalFitness state = w.state;
+        int current = state.getExamTimeslot(exam);
+        int partner = random.nextInt(instance.getNumExams());
+        int other = state.getExamTimeslot(partner);
+        if (current < 0 || other < 0 || other == current) {
+            return false;
+        }
+        w.chain[0] = exam;
+        w.chain[1] = partner;
+        return tryExchange(2, current, other, w);
+    }
+
+    /**
+     * Áp dụng thử việc đổi ca: các môn trong chain đang ở ca a chuyển sang ca b
+     * và ngược lại, phòng được chọn lại. Giữ kết quả nếu fitness giảm,
+     * nếu không khôi phục nguyên trạng.
+     */
+    private boolean tryExchange(int size, int a, int b, Workspace w) {
+        IncrementalFitness state = w.state;
+        int[] chain = w.chain;
+        double before = state.getFitness();
+        w.evaluations += size;
+
+        for (int i = 0; i < size; i++) {
+            int exam = chain[i];
+            w.savedSlots[i] = state.getExamTimeslot(exam);
+            w.savedRooms[i] = state.getExamRooms(exam);
+            w.savedCounts[i] = state.getExamCounts(exam);
+            state.applyMove(exam, -1, NO_ROWS, NO_ROWS);
+        }
+
+        boolean placed = true;
+        for (int i = 0; i < size && placed; i++) {
+            int exam = chain[i];
+            int target = w.savedSlots[i] == a ? b : a;
+            int rows = planRooms(exam, target, w);
+            if (rows == 0) {
+                placed = false;
+            } else {
+                state.applyMove(exam, target, Arrays.copyOf(w.planRooms, rows),
+                        Arrays.copyOf(w.planCounts, rows));
+            }
+        }
+
+        if (placed && state.getFitness() < before - EPSILON) {
+            return true;
+        }
+
+        for (int i = 0; i < size; i++) {
+            state.applyMove(chain[i], -1, NO_ROWS, NO_ROWS);
+        }
+        for (int i = 0; i < size; i++) {
+            state.applyMove(chain[i], w.savedSlots[i], w.savedRooms[i], w.savedCounts[i]);
+        }
+        return false;
+    }
+
+    /**
+     * Duyệt theo chiều rộng trên đồ thị xung đột, chỉ qua các môn đang ở ca a hoặc b.
+     * @return Số môn trong chuỗi, ghi vào w.chain
+     */
+    private int buildKempeChain(int exam, int a, int b, Workspace w) {
+        IncrementalFitness state = w.state;
+        int[] offsets = conflictGraph.getOffsets();
+        int[] neighbors = conflictGraph.getNeighbors();
+        int stamp = w.nextStamp();
+
+        int size = 0;
+        w.chain[size++] = exam;
+        w.mark[exam] = stamp;
+        for (int head = 0; head < size; head++) {
+            int e = w.chain[head];
+            for (int k = offsets[e]; k < offsets[e + 1]; k++) {
+                int f = neighbors[k];
+                int slot = state.getExamTimeslot(f);
+                if (w.mark[f] != stamp && (slot == a || slot == b)) {
+                    w.mark[f] = stamp;
+                    w.chain[size++] = f;
+                }
+            }
+        }
+        return size;
+    }
+
+    private boolean hasConflictInSlot(int exam, int timeslot, IncrementalFitness state) {
+        int[] offsets = conflictGraph.getOffsets();
+        int[] neighbors = conflictGraph.getNeighbors();
+        for (int k = offsets[exam]; k < offsets[exam + 1]; k++) {
+            if (state.getExamTimeslot(neighbors[k]) == timeslot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chọn phòng cho môn trong ca timeslot, coi các phòng môn đang dùng ở chính
+     * ca đó là trống: phòng trống nhỏ nhất đủ chứa cả lớp, nếu không thì chia
+     * môn qua {@link SplitPlanner} trên các phòng trống theo sức chứa giảm dần.
+     * @return Số phòng đã ghi vào w.planRooms / w.planCounts (0 nếu ca không còn
+     *         đủ chỗ cho mọi sinh viên)
+     */
+    private int planRooms(int exam, int timeslot, Workspace w) {
+        IncrementalFitness state = w.state;
+        int[] ownRooms = state.getExamTimeslot(exam) == timeslot
+                ? state.getExamRooms(exam) : NO_ROWS;
+
+        int numAvailable = 0;
+        for (int room : instance.getRoomsByCapacityDesc()) {
+            int use = state.getRoomUse(timeslot, room);
+            for (int own : ownRooms) {
+                if (own == room) {
+                    use--;
+                }
+            }
+            if (use == 0) {
+                w.availableRooms[numAvailable++] = room;
+            }
+        }
+        if (numAvailable == 0) {
+            return 0;
+        }
+
+        int examSize = instance.getExamSize(exam);
+        for (int i = numAvailable - 1; i >= 0; i--) {
+            int room = w.availableRooms[i];
+            if (examSize <= instance.getRoomCapacity(room)) {
+                w.planRooms[0] = room;
+                w.planCounts[0] = examSize;
+                return 1;
+            }
+        }
+
+        int rows = w.splitPlanner.plan(examSize, w.availableRooms, numAvailable,
+                w.planRooms, w.planCounts);
+        return Math.max(rows, 0);
+    }
+
+    private static boolean samePlan(int[] rooms, int[] counts, int rows, Workspace w) {
+        if (rooms.length != rows) {
+            return false;
+        }
+        for (int i = 0; i < rows; i++) {
+            if (rooms[i] != w.planRooms[i] || counts[i] != w.planCounts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = values[i - 1];
+            values[i - 1] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Trạng thái và bộ đệm của một lần improve, dùng lại cho mọi lịch thi.
+     */
+    private static final class Workspace {
+        final IncrementalFitness state;
+        final SplitPlanner splitPlanner;
+        final int[] examOrder;
+        final int[] availableRooms;
+        final int[] planRooms;
+        final int[] planCounts;
+
+        // Chuỗi môn đang xét và phân công cũ để khôi phục
+        final int[] chain;
+        final int[] savedSlots;
+        final int[][] savedRooms;
+        final int[][] savedCounts;
+
+        final int[] mark;
+        int stamp;
+        int evaluations;
+
+        Workspace(CompiledInstance instance) {
+            state = new IncrementalFitness(instance);
+            examOrder = new int[instance.getNumExams()];
+            availableRooms = new int[instance.getNumRooms()];
+            planRooms = new int[instance.getNumRooms()];
+            planCounts = new int[instance.getNumRooms()];
+            splitPlanner = new SplitPlanner(instance);
+            chain = new int[Math.max(2, instance.getNumExams())];
+            savedSlots = new int[chain.length];
+            savedRooms = new int[chain.length][];
+            savedCounts = new int[chain.length][];
+            mark = new int[instance.getNumExams()];
+        }
+
+        int nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompiledInstance;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Kho lưu ma trận pheromone τ[exam][timeslot][room] trong một vùng nhớ phẳng liên tục.
+ *
+ * Hai cách bố trí:
+ * <ul>
+ *   <li>{@link Layout#DENSE}: mọi ô (môn, ca, phòng), chỉ số = (e * T + t) * R + r.</li>
+ *   <li>{@link Layout#SPARSE}: chỉ các cặp (môn, phòng) đủ sức chứa, mỗi cặp giữ
+ *       T ô liên tiếp. Ô không hợp lệ luôn đọc ra 0 và bỏ qua mọi lần bồi đắp,
+ *       vì bước chọn phòng không bao giờ dùng đến chúng.</li>
+ * </ul>
+ * Giá trị có thể lưu bằng double hoặc float, trên heap hoặc ngoài heap
+ * (direct ByteBuffer) để bộ gom rác không phải quét các ma trận rất lớn.
+ */
+public final class PheromoneStore {
+
+    public enum Layout { DENSE, SPARSE }
+
+    public enum Precision { DOUBLE, FLOAT }
+
+    private final Layout layout;
+    private final Precision precision;
+    private final boolean offHeap;
+    private final int numTimeslots;
+    private final int numRooms;
+
+    // Bố trí thưa: pairIndex[e * R + r] là thứ tự của cặp (e, r) hợp lệ, hoặc -1
+    private final int[] pairIndex;
+    private final long cells;
+    private final Storage storage;
+
+    private PheromoneStore(CompiledInstance instance, Layout layout,
+            Precision precision, boolean offHeap) {
+        this.layout = layout;
+        this.precision = precision;
+        this.offHeap = offHeap;
+        this.numTimeslots = instance.getNumTimeslots();
+        this.numRooms = instance.getNumRooms();
+
+        if (layout == Layout.SPARSE) {
+            pairIndex = new int[instance.getNumExams() * numRooms];
+            int pairs = 0;
+            for (int e = 0; e < instance.getNumExams(); e++) {
+                for (int r = 0; r < numRooms; r++) {
+                    boolean feasible = instance.getExamSize(e) <= instance.getRoomCapacity(r);
+                    pairIndex[e * numRooms + r] = feasible ? pairs++ : -1;
+                }
+            }
+            cells = (long) pairs * numTimeslots;
+        } else {
+            pairIndex = null;
+            cells = (long) instance.getNumExams() * numTimeslots * numRooms;
+        }
+
+        if (offHeap) {
+            storage = new OffHeapStorage(cells, precision);
+        } else if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Pheromone matrix too large for an on-heap array ("
+                    + cells + " cells); use the sparse layout or off-heap storage");
+        } else if (precision == Precision.FLOAT) {
+            storage = new FloatArrayStorage((int) cells);
+        } else {
+            storage = new DoubleArrayStorage((int) cells);
+        }
+    }
+
+    public static PheromoneStore create(CompiledInstance instance, Layout layout,
+            Precision precision, boolean offHeap) {
+        return new PheromoneStore(instance, layout, precision, offHeap);
+    }
+
+    /**
+     * Chỉ số phẳng của ô (môn, ca, phòng), hoặc -1 nếu ô không được lưu.
+     */
+    private long index(int exam, int timeslot, int room) {
+        if (pairIndex == null) {
+            return ((long) exam * numTimeslots + timeslot) * numRooms + room;
+        }
+        int pair = pairIndex[exam * numRooms + room];
+        return pair < 0 ? -1 : (long) pair * numTimeslots + timeslot;
+    }
+
+    public double get(int exam, int timeslot, int room) {
+        long idx = index(exam, timeslot, room);
+        return idx < 0 ? 0.0 : storage.get(idx);
+    }
+
+    public void set(int exam, int timeslot, int room, double value) {
+        long idx = index(exam, timeslot, room);
+        if (idx >= 0) {
+            storage.set(idx, value);
+        }
+    }
+
+    public void add(int exam, int timeslot, int room, double amount) {
+        long idx = index(exam, timeslot, room);
+        if (idx >= 0) {
+            storage.set(idx, storage.get(idx) + amount);
+        }
+    }
+
+    /**
+     * Nhân mọi ô với factor (bay hơi pheromone).
+     */
+    public void scale(double factor) {
+        if (factor == 0.0) {
+            storage.fill(0.0);
+        } else if (factor != 1.0) {
+            storage.scale(factor);
+        }
+    }
+
+    public void fill(double value) {
+        storage.fill(value);
+    }
+
+    /**
+     * Chặn mọi ô trong đoạn [min, max] (MAX-MIN Ant System).
+     */
+    public void clamp(double min, double max) {
+        storage.clamp(min, max);
+    }
+
+    /**
+     * Số ô thực sự được lưu.
+     */
+    public long getCellCount() {
+        return cells;
+    }
+
+    /**
+     * Dung lượng bộ nhớ xấp xỉ (byte) của dữ liệu pheromone và bảng chỉ số.
+     */
+    public long getMemoryBytes() {
+        long bytes = cells * (precision == Precision.FLOAT ? Float.BYTES : Double.BYTES);
+        if (pairIndex != null) {
+            bytes += (long) pairIndex.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    @Override
+    public String toString() {
+        return "PheromoneStore{" + layout + "/" + precision + (offHeap ? "/off-heap" : "/heap")
+                + ", cells=" + cells + ", bytes=" + getMemoryBytes() + '}';
+    }
+
+    /**
+     * Vùng nhớ phẳng chứa giá trị pheromone.
+     */
+    private interface Storage {
+        double get(long idx);
+
+        void set(long idx, double value);
+
+        void scale(double factor);
+
+        void fill(double value);
+
+        void clamp(double min, double max);
+    }
+
+    private static final class DoubleArrayStorage implements Storage {
+        private final double[] values;
+
+        DoubleArrayStorage(int size) {
+            values = new double[size];
+        }
+
+        public double get(long idx) {
+            return values[(int) idx];
+        }
+
+        public void set(long idx, double value) {
+            values[(int) idx] = value;
+        }
+
+        public void scale(double factor) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= factor;
+            }
+        }
+
+        public void fill(double value) {
+            Arrays.fill(values, value);
+        }
+
+        public void clamp(double min, double max) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.min(max, Math.max(min, values[i]));
+            }
+        }
+    }
+
+    private static final class FloatArrayStorage implements Storage {
+        private final float[] values;
+
+        FloatArrayStorage(int size) {
+            values = new float[size];
+        }
+
+        public double get(long idx) {
+            return values[(int) idx];
+        }
+
+        public void set(long idx, double value) {
+            values[(int) idx] = (float) value;
+        }
+
+        public void scale(double factor) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= factor;
+            }
+        }
+
+        public void fill(double value) {
+            Arrays.fill(values, (float) value);
+        }
+
+        public void clamp(double min, double max) {
+            float lo = (float) min;
+            float hi = (float) max;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.min(hi, Math.max(lo, values[i]));
+            }
+        }
+    }
+
+    /**
+     * Lưu ngoài heap bằng các direct ByteBuffer, chia khối để vượt giới hạn 2 GB
+     * của một buffer.
+     */
+    private static final class OffHeapStorage implements Storage {
+        private static final int CHUNK_SHIFT = 26;
+        private static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_CELLS - 1;
+
+        private final ByteBuffer[] chunks;
+        private final long cells;
+        private final boolean useFloat;
+        private final int width;
+
+        OffHeapStorage(long cells, Precision precision) {
+            this.cells = cells;
+            this.useFloat = precision == Precision.FLOAT;
+            this.width = useFloat ? Float.BYTES : Double.BYTES;
+            int numChunks = (int) ((cells + CHUNK_CELLS - 1) >>> CHUNK_SHIFT);
+            chunks = new ByteBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                long chunkCells = Math.min(CHUNK_CELLS, cells - ((long) c << CHUNK_SHIFT));
+                chunks[c] = ByteBuffer.allocateDirect((int) chunkCells * width)
+                        .order(ByteOrder.nativeOrder());
+            }
+        }
+
+        public double get(long idx) {
+            ByteBuffer chunk = chunks[(int) (idx >>> CHUNK_SHIFT)];
+            int offset = ((int) idx & CHUNK_MASK) * width;
+            return useFloat ? chunk.getFloat(offset) : chunk.getDouble(offset);
+        }
+
+        public void set(long idx, double value) {
+            ByteBuffer chunk = chunks[(int) (idx >>> CHUNK_SHIFT)];
+            int offset = ((int) idx & CHUNK_MASK) * width;
+            if (useFloat) {
+                chunk.putFloat(offset, (float) value);
+            } else {
+                chunk.putDouble(offset, value);
+            }
+        }
+
+        public void scale(double factor) {
+            for (long i = 0; i < cells; i++) {
+                set(i, get(i) * factor);
+            }
+        }
+
+        public void fill(double value) {
+            for (long i = 0; i < cells; i++) {
+                set(i, value);
+            }
+        }
+
+        public void clamp(double min, double max) {
+            for (long i = 0; i < cells; i++) {
+                set(i, Math.min(max, Math.max(min, get(i))));
+            }
+        }
+    }
+}
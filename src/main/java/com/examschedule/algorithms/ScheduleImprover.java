@@ -0,0 +1,20 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.CompactSchedule;
+import java.util.Random;
+
+/**
+ * Bước cải thiện lời giải sau khi con kiến xây dựng xong lịch thi.
+ * Cài đặt phải an toàn khi được gọi đồng thời trên các lịch khác nhau.
+ */
+public interface ScheduleImprover {
+
+    /**
+     * Cải thiện lịch thi tại chỗ.
+     * @param schedule Lịch thi cần cải thiện, bị ghi đè bằng kết quả
+     * @param fitness Fitness hiện tại của schedule
+     * @param random Nguồn ngẫu nhiên riêng của lần gọi
+     * @return Fitness của schedule sau khi cải thiện (không lớn hơn fitness)
+     */
+    double improve(CompactSchedule schedule, double fitness, Random random);
+}
@@ -0,0 +1,12 @@
+package com.examschedule.algorithms;
+
+/**
+ * Nhận số đo của từng vòng lặp ACO. Khi chưa đăng ký listener nào, bộ giải
+ * không đo thời gian từng giai đoạn và không tính entropy pheromone.
+ * Được gọi trên luồng đang chạy solve(), cuối mỗi vòng lặp, nên cần xử lý nhanh.
+ */
+@FunctionalInterface
+public interface SolverMetricsListener {
+
+    void onIteration(IterationMetrics metrics);
+}
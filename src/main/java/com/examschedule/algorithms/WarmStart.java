@@ -0,0 +1,239 @@
+package com.examschedule.algorithms;
+
+import com.examschedule.models.Assignment;
+import com.examschedule.utils.ScheduleFormatException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Trạng thái của một lần giải đã xong, dùng để khởi động ấm lần giải sau trên dữ
+ * liệu đã thay đổi (xem {@link AntColonyOptimization#warmStart(WarmStart, double)}).
+ * Mọi thứ được lưu theo ID môn / ca / phòng thay vì chỉ số, nên vẫn ánh xạ được
+ * khi môn, phòng hay ca được thêm, bớt hoặc đổi thứ tự.
+ *
+ * Bố cục file (big-endian, DataOutputStream):
+ * <pre>
+ *   magic "EXAMWARM", version
+ *   bảng chuỗi examIds, timeslots, roomIds     (số phần tử rồi từng chuỗi UTF)
+ *   fitness, số dòng lịch, mỗi dòng: exam, timeslot, room (chỉ số vào bảng chuỗi), số sinh viên
+ *   số ô pheromone, mỗi ô: exam, timeslot, room, τ (float)
+ * </pre>
+ */
+public class WarmStart {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = "EXAMWARM".getBytes(StandardCharsets.US_ASCII);
+
+    final String[] examIds;
+    final String[] timeslots;
+    final String[] roomIds;
+
+    final double fitness;
+    final int[] rowExam;
+    final int[] rowTimeslot;
+    final int[] rowRoom;
+    final int[] rowStudents;
+
+    final int[] cellExam;
+    final int[] cellTimeslot;
+    final int[] cellRoom;
+    final float[] cellPheromone;
+
+    WarmStart(String[] examIds, String[] timeslots, String[] roomIds, double fitness,
+            int[] rowExam, int[] rowTimeslot, int[] rowRoom, int[] rowStudents,
+            int[] cellExam, int[] cellTimeslot, int[] cellRoom, float[] cellPheromone) {
+        this.examIds = examIds;
+        this.timeslots = timeslots;
+        this.roomIds = roomIds;
+        this.fitness = fitness;
+        this.rowExam = rowExam;
+        this.rowTimeslot = rowTimeslot;
+        this.rowRoom = rowRoom;
+        this.rowStudents = rowStudents;
+        this.cellExam = cellExam;
+        this.cellTimeslot = cellTimeslot;
+        this.cellRoom = cellRoom;
+        this.cellPheromone = cellPheromone;
+    }
+
+    /**
+     * @return Fitness của lịch đã lưu, tính trên dữ liệu cũ
+     */
+    public double getFitness() {
+        return fitness;
+    }
+
+    /**
+     * @return Lịch tốt nhất đã lưu
+     */
+    public List<Assignment> getSchedule() {
+        List<Assignment> schedule = new ArrayList<>(rowExam.length);
+        for (int i = 0; i < rowExam.length; i++) {
+            schedule.add(new Assignment(examIds[rowExam[i]], timeslots[rowTimeslot[i]],
+                    roomIds[rowRoom[i]], rowStudents[i]));
+        }
+        return schedule;
+    }
+
+    public int getPheromoneCellCount() {
+        return cellPheromone.length;
+    }
+
+    /**
+     * Đếm số môn có mặt trong cả hai lịch nhưng bị đổi ca hoặc đổi tập phòng.
+     * Môn mới (không có trong lịch đã lưu) không được tính.
+     */
+    public int countChangedExams(List<Assignment> schedule) {
+        Map<String, List<String>> previous = placements(getSchedule());
+        Map<String, List<String>> current = placements(schedule);
+        int changed = 0;
+        for (Map.Entry<String, List<String>> entry : current.entrySet()) {
+            List<String> before = previous.get(entry.getKey());
+            if (before != null && !before.equals(entry.getValue())) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Vị trí của từng môn dưới dạng danh sách "ca/phòng" đã sắp xếp.
+     */
+    private static Map<String, List<String>> placements(List<Assignment> schedule) {
+        Map<String, List<String>> byExam = new HashMap<>();
+        for (Assignment assignment : schedule) {
+            byExam.computeIfAbsent(assignment.getExamId(), k -> new ArrayList<>())
+                    .add(assignment.getTimeslot() + "/" + assignment.getRoom());
+        }
+        for (List<String> cells : byExam.values()) {
+            cells.sort(null);
+        }
+        return byExam;
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            writeStrings(out, examIds);
+            writeStrings(out, timeslots);
+            writeStrings(out, roomIds);
+            out.writeDouble(fitness);
+            out.writeInt(rowExam.length);
+            for (int i = 0; i < rowExam.length; i++) {
+                out.writeInt(rowExam[i]);
+                out.writeInt(rowTimeslot[i]);
+                out.writeInt(rowRoom[i]);
+                out.writeInt(rowStudents[i]);
+            }
+            out.writeInt(cellPheromone.length);
+            for (int i = 0; i < cellPheromone.length; i++) {
+                out.writeInt(cellExam[i]);
+                out.writeInt(cellTimeslot[i]);
+                out.writeInt(cellRoom[i]);
+                out.writeFloat(cellPheromone[i]);
+            }
+        }
+    }
+
+    /**
+     * @throws ScheduleFormatException nếu file không phải trạng thái khởi động ấm,
+     *                                 khác phiên bản hoặc bị cắt cụt / hỏng
+     */
+    public static WarmStart read(Path path) throws IOException {
+        String source = path.toString();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new ScheduleFormatException(source, "not a warm-start file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new ScheduleFormatException(source, "warm-start version " + version
+                        + " is not supported (expected " + VERSION + "); solve again to recreate it");
+            }
+            String[] examIds = readStrings(in, source);
+            String[] timeslots = readStrings(in, source);
+            String[] roomIds = readStrings(in, source);
+            double fitness = in.readDouble();
+
+            int rows = readCount(in, source);
+            int[] rowExam = new int[rows];
+            int[] rowTimeslot = new int[rows];
+            int[] rowRoom = new int[rows];
+            int[] rowStudents = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                rowExam[i] = readIndex(in, examIds.length, source);
+                rowTimeslot[i] = readIndex(in, timeslots.length, source);
+                rowRoom[i] = readIndex(in, roomIds.length, source);
+                rowStudents[i] = in.readInt();
+            }
+
+            int cells = readCount(in, source);
+            int[] cellExam = new int[cells];
+            int[] cellTimeslot = new int[cells];
+            int[] cellRoom = new int[cells];
+            float[] cellPheromone = new float[cells];
+            for (int i = 0; i < cells; i++) {
+                cellExam[i] = readIndex(in, examIds.length, source);
+                cellTimeslot[i] = readIndex(in, timeslots.length, source);
+                cellRoom[i] = readIndex(in, roomIds.length, source);
+                cellPheromone[i] = in.readFloat();
+            }
+            return new WarmStart(examIds, timeslots, roomIds, fitness, rowExam, rowTimeslot,
+                    rowRoom, rowStudents, cellExam, cellTimeslot, cellRoom, cellPheromone);
+        } catch (EOFException e) {
+            throw new ScheduleFormatException(source, "warm-start file is truncated");
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(Objects.requireNonNull(value));
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in, String source) throws IOException {
+        String[] values = new String[readCount(in, source)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    private static int readCount(DataInputStream in, String source) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new ScheduleFormatException(source, "negative count " + count);
+        }
+        return count;
+    }
+
+    private static int readIndex(DataInputStream in, int size, String source) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= size) {
+            throw new ScheduleFormatException(source, "index " + index + " out of range [0, " + size + ")");
+        }
+        return index;
+    }
+}
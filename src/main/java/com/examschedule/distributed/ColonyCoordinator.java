@@ -0,0 +1,495 @@
+package com.examschedule.distributed;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.utils.DataLoader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Điều phối các đàn kiến chạy trong những tiến trình {@link ColonyWorker} riêng,
+ * kết nối qua TCP.
+ *
+ * Coordinator chờ đủ số worker, gửi cho mỗi worker nội dung file dữ liệu, hạt
+ * giống riêng và cấu hình, rồi phục vụ mỗi kết nối trên một luồng. Việc trao đổi
+ * là bất đồng bộ: mỗi khi một worker gửi EPOCH, coordinator cập nhật lời giải tốt
+ * nhất toàn cục và pheromone của worker đó, rồi trả ngay lời giải tốt nhất (nếu
+ * tốt hơn của worker) và pheromone đồng thuận (trung bình của các worker khác còn
+ * sống). Không có rào chắn nên một worker chậm hay bị dừng không làm các worker
+ * khác phải chờ; worker mất kết nối được đánh dấu thất bại và lần chạy tiếp tục
+ * với lời giải tốt nhất đã nhận được. Worker gửi PROGRESS mỗi readTimeout / 4 nên
+ * một chu kỳ trao đổi dài hơn readTimeout không làm worker bị coi là đã chết.
+ */
+public class ColonyCoordinator {
+
+    private final Path input;
+    private final int expectedWorkers;
+    private final int antsPerWorker;
+    private final int maxIterations;
+    private final long seed;
+
+    private int epochInterval = 10;
+    private double pheromoneBlend;
+    private long timeLimitMillis;
+    private int antsToImprove;
+    private int localSearchBudget;
+    private boolean mixedParameters;
+    private double targetFitness = Double.NEGATIVE_INFINITY;
+    private long acceptTimeoutMillis = 30_000;
+    // Thời gian tối đa chờ một thông điệp từ worker trước khi coi là đã chết (0 = chờ mãi)
+    private long readTimeoutMillis = 60_000;
+
+    private ServerSocket server;
+    private ScheduleData data;
+    private byte[] content;
+
+    // Kết quả toàn cục, bảo vệ bởi khoá của đối tượng
+    private final CompactSchedule bestSchedule = new CompactSchedule();
+    private double bestFitness = Double.MAX_VALUE;
+    private volatile boolean stopRequested;
+    private final List<Session> sessions = new ArrayList<>();
+    private long wallMillis;
+
+    public ColonyCoordinator(Path input, int expectedWorkers, int antsPerWorker, int maxIterations,
+            long seed) {
+        if (expectedWorkers < 1) {
+            throw new IllegalArgumentException("expectedWorkers must be >= 1: " + expectedWorkers);
+        }
+        this.input = input;
+        this.expectedWorkers = expectedWorkers;
+        this.antsPerWorker = antsPerWorker;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    /**
+     * Nạp dữ liệu và mở cổng lắng nghe; worker có thể kết nối ngay sau khi hàm trả về.
+     * @return Địa chỉ thực sự (cổng 0 được hệ điều hành chọn)
+     */
+    public InetSocketAddress bind(InetSocketAddress address) throws IOException {
+        content = Files.readAllBytes(input);
+        data = DataLoader.read(input);
+        data.getCompiled().getConflictGraph();
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(address, expectedWorkers);
+        return (InetSocketAddress) server.getLocalSocketAddress();
+    }
+
+    /**
+     * Chờ đủ worker (hoặc hết acceptTimeout, khi đó chạy với số worker đã có)
+     * và điều phối đến khi mọi worker kết thúc hoặc thất bại.
+     * @return Lời giải tốt nhất nhận được
+     */
+    public ScheduleOutput run() throws IOException {
+        if (server == null) {
+            throw new IllegalStateException("bind() must be called first");
+        }
+        long startNanos = System.nanoTime();
+        SplittableRandom master = new SplittableRandom(seed);
+        long acceptDeadline = startNanos + acceptTimeoutMillis * 1_000_000L;
+        try {
+            while (sessions.size() < expectedWorkers) {
+                long remaining = (acceptDeadline - System.nanoTime()) / 1_000_000L;
+                if (remaining <= 0) {
+                    break;
+                }
+                server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remaining));
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    break;
+                }
+                Session session = new Session(sessions.size(), socket, master.split().nextLong());
+                if (session.handshake()) {
+                    sessions.add(session);
+                    System.out.println("[Coordinator] Worker " + session.id + " connected from "
+                            + socket.getRemoteSocketAddress());
+                }
+            }
+        } finally {
+            server.close();
+        }
+        if (sessions.isEmpty()) {
+            throw new IOException("No worker connected within " + acceptTimeoutMillis + " ms");
+        }
+
+        long solveStart = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(sessions.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Session session : sessions) {
+                futures.add(executor.submit(session::serve));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Coordinator interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        wallMillis = (System.nanoTime() - solveStart) / 1_000_000L;
+
+        System.out.println("[Coordinator] " + sessions.size() + " workers (" + getFailedWorkers()
+                + " failed), " + getEvaluations() + " evaluations in " + wallMillis + " ms, best fitness "
+                + bestFitness);
+        synchronized (this) {
+            return new ScheduleOutput(bestSchedule.toAssignments(data.getCompiled()), bestFitness);
+        }
+    }
+
+    /**
+     * Yêu cầu mọi worker dừng ở lần trao đổi kế tiếp.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    private synchronized void offer(CompactSchedule schedule, double fitness) {
+        if (fitness < bestFitness) {
+            bestFitness = fitness;
+            bestSchedule.copyFrom(schedule);
+            if (bestFitness <= targetFitness) {
+                stopRequested = true;
+            }
+        }
+    }
+
+    /**
+     * Trung bình pheromone của các worker khác còn sống vào sum, mỗi worker chuẩn
+     * hoá theo trung bình của chính nó để thang τ khác nhau có trọng số như nhau.
+     * @return false nếu chưa có worker nào khác gửi pheromone (sum không dùng được)
+     */
+    private boolean consensusFor(Session self, double[] sum) {
+        Arrays.fill(sum, 0);
+        int contributors = 0;
+        synchronized (sessions) {
+            for (Session other : sessions) {
+                float[] values = other.pheromone;
+                if (other == self || other.failed || values == null || values.length != sum.length
+                        || other.pheromoneScale <= 0) {
+                    continue;
+                }
+                double scale = other.pheromoneScale;
+                for (int k = 0; k < sum.length; k++) {
+                    sum[k] += values[k] * scale;
+                }
+                contributors++;
+            }
+        }
+        if (contributors == 0) {
+            return false;
+        }
+        for (int k = 0; k < sum.length; k++) {
+            sum[k] /= contributors;
+        }
+        return true;
+    }
+
+    /**
+     * Một kết nối tới worker, phục vụ trên một luồng riêng.
+     */
+    private final class Session {
+        final int id;
+        final Socket socket;
+        final long workerSeed;
+        DataInputStream in;
+        WireFormat.CountingInputStream counter;
+        DataOutputStream out;
+        WireFormat.CountingOutputStream outCounter;
+
+        // Pheromone mới nhất của worker cho các phiên khác cùng hệ số chuẩn hoá
+        // (số ứng viên / tổng τ); chỉ đọc và thay dưới khoá sessions
+        volatile float[] pheromone;
+        double pheromoneScale;
+        // Bộ đệm nhận kế tiếp: bản pheromone trước đó, không còn phiên nào đọc sau khi
+        // bị thay dưới khoá; hai bộ đệm luân phiên nên không cấp phát mỗi lần trao đổi
+        float[] spare;
+        // Pheromone đồng thuận gửi cho worker, tái sử dụng
+        double[] consensus;
+        final CompactSchedule received = new CompactSchedule();
+        double workerBest = Double.MAX_VALUE;
+        volatile long evaluations;
+        int iterations;
+        volatile boolean failed;
+        boolean done;
+
+        Session(int id, Socket socket, long workerSeed) {
+            this.id = id;
+            this.socket = socket;
+            this.workerSeed = workerSeed;
+        }
+
+        boolean handshake() {
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout((int) readTimeoutMillis);
+                counter = new WireFormat.CountingInputStream(socket.getInputStream());
+                in = new DataInputStream(new BufferedInputStream(counter));
+                outCounter = new WireFormat.CountingOutputStream(socket.getOutputStream());
+                out = new DataOutputStream(new BufferedOutputStream(outCounter));
+                WireFormat.expect(in.readByte(), WireFormat.HELLO);
+                if (in.readInt() != WireFormat.MAGIC || in.readInt() != WireFormat.VERSION) {
+                    throw new IOException("Incompatible worker protocol");
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("[Coordinator] Rejected connection from "
+                        + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+                closeQuietly();
+                return false;
+            }
+        }
+
+        void serve() {
+            try {
+                sendJob();
+                while (!done) {
+                    byte type = in.readByte();
+                    if (type == WireFormat.EPOCH) {
+                        iterations = WireFormat.readVarintInt(in);
+                        evaluations = WireFormat.readVarint(in);
+                        readBest();
+                        publish(WireFormat.readPheromone(in, spare));
+                        reply();
+                    } else if (type == WireFormat.PROGRESS) {
+                        evaluations = WireFormat.readVarint(in);
+                    } else if (type == WireFormat.DONE) {
+                        iterations = WireFormat.readVarintInt(in);
+                        evaluations = WireFormat.readVarint(in);
+                        readBest();
+                        done = true;
+                    } else {
+                        throw new IOException("Unexpected message type " + type);
+                    }
+                }
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("[Coordinator] Worker " + id + " lost after " + iterations
+                        + " iterations: " + e.getMessage());
+            } finally {
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Đưa pheromone vừa nhận cho các phiên khác; bản cũ thành bộ đệm nhận kế tiếp.
+         */
+        private void publish(float[] received) {
+            if (received == null) {
+                return;
+            }
+            double total = 0;
+            for (float value : received) {
+                total += value;
+            }
+            double scale = total > 0 ? received.length / total : 0;
+            synchronized (sessions) {
+                spare = pheromone;
+                pheromone = received;
+                pheromoneScale = scale;
+            }
+        }
+
+        private void sendJob() throws IOException {
+            AcoParameters params = mixedParameters && id % 2 == 1
+                    ? AcoParameters.maxMin() : new AcoParameters();
+            out.writeByte(WireFormat.JOB);
+            WireFormat.writeVarint(out, id);
+            out.writeLong(workerSeed);
+            WireFormat.writeVarint(out, antsPerWorker);
+            WireFormat.writeVarint(out, maxIterations);
+            WireFormat.writeVarint(out, epochInterval);
+            WireFormat.writeVarint(out, readTimeoutMillis > 0 ? Math.max(1, readTimeoutMillis / 4) : 0);
+            out.writeDouble(pheromoneBlend);
+            WireFormat.writeVarint(out, timeLimitMillis);
+            WireFormat.writeVarint(out, antsToImprove);
+            WireFormat.writeVarint(out, localSearchBudget);
+            WireFormat.writeParameters(out, params);
+            WireFormat.writeVarint(out, content.length);
+            out.write(content);
+            out.flush();
+        }
+
+        private void readBest() throws IOException {
+            double fitness = WireFormat.readSchedule(in, received);
+            if (!Double.isNaN(fitness)) {
+                workerBest = Math.min(workerBest, fitness);
+                offer(received, fitness);
+            }
+        }
+
+        private void reply() throws IOException {
+            if (stopRequested) {
+                out.writeByte(WireFormat.STOP);
+                out.flush();
+                return;
+            }
+            out.writeByte(WireFormat.MIGRANT);
+            synchronized (ColonyCoordinator.this) {
+                if (bestFitness < workerBest) {
+                    WireFormat.writeSchedule(out, bestSchedule, bestFitness);
+                    workerBest = bestFitness;
+                } else {
+                    WireFormat.writeSchedule(out, null, 0);
+                }
+            }
+            float[] own = pheromone;
+            boolean blended = false;
+            if (pheromoneBlend > 0 && own != null) {
+                if (consensus == null || consensus.length != own.length) {
+                    consensus = new double[own.length];
+                }
+                blended = consensusFor(this, consensus);
+            }
+            WireFormat.writePheromone(out, blended ? consensus : null);
+            out.flush();
+        }
+
+        private void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Kết nối đã hỏng, không còn gì để làm
+            }
+        }
+    }
+
+    /**
+     * @param epochInterval Số vòng lặp giữa hai lần trao đổi; 0 tắt trao đổi và chỉ
+     *        được phép khi không giới hạn thời gian chờ (setReadTimeout(0))
+     */
+    public void setEpochInterval(int epochInterval) {
+        if (epochInterval < 0) {
+            throw new IllegalArgumentException("epochInterval must be >= 0: " + epochInterval);
+        }
+        if (epochInterval == 0 && readTimeoutMillis > 0) {
+            throw new IllegalArgumentException("epochInterval 0 requires readTimeout 0, but readTimeout is "
+                    + readTimeoutMillis + " ms");
+        }
+        this.epochInterval = epochInterval;
+    }
+
+    /**
+     * @param pheromoneBlend Tỉ lệ pheromone đồng thuận trộn vào mỗi worker sau mỗi lần
+     *        trao đổi, trong [0, 1]; 0 (mặc định) chỉ trao đổi lời giải
+     */
+    public void setPheromoneBlend(double pheromoneBlend) {
+        if (pheromoneBlend < 0 || pheromoneBlend > 1) {
+            throw new IllegalArgumentException("pheromoneBlend must be in [0, 1]: " + pheromoneBlend);
+        }
+        this.pheromoneBlend = pheromoneBlend;
+    }
+
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("timeLimitMillis must be >= 0: " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public void setLocalSearch(int antsToImprove, int localSearchBudget) {
+        this.antsToImprove = antsToImprove;
+        this.localSearchBudget = localSearchBudget;
+    }
+
+    /**
+     * Worker lẻ dùng {@link AcoParameters#maxMin()}, worker chẵn dùng cấu hình mặc định.
+     */
+    public void setMixedParameters(boolean mixedParameters) {
+        this.mixedParameters = mixedParameters;
+    }
+
+    /**
+     * Yêu cầu mọi worker dừng khi lời giải tốt nhất đạt fitness &lt;= targetFitness.
+     */
+    public void setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    public void setAcceptTimeout(long acceptTimeoutMillis) {
+        this.acceptTimeoutMillis = acceptTimeoutMillis;
+    }
+
+    /**
+     * @param readTimeoutMillis Thời gian tối đa không nhận được thông điệp nào (EPOCH
+     *        hay PROGRESS) trước khi coi worker là đã chết; 0 = chờ mãi
+     */
+    public void setReadTimeout(long readTimeoutMillis) {
+        if (readTimeoutMillis < 0 || readTimeoutMillis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("readTimeoutMillis must be in [0, " + Integer.MAX_VALUE + "]: "
+                    + readTimeoutMillis);
+        }
+        if (readTimeoutMillis > 0 && epochInterval == 0) {
+            throw new IllegalArgumentException("readTimeout must be 0 when epochInterval is 0");
+        }
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public int getConnectedWorkers() {
+        return sessions.size();
+    }
+
+    public int getFailedWorkers() {
+        return (int) sessions.stream().filter(session -> session.failed).count();
+    }
+
+    /**
+     * @return Tổng số lịch được đánh giá theo báo cáo mới nhất của mỗi worker
+     *         (worker bị mất tính đến lần trao đổi cuối cùng)
+     */
+    public long getEvaluations() {
+        return sessions.stream().mapToLong(session -> session.evaluations).sum();
+    }
+
+    /**
+     * @return Thời gian từ khi gửi job tới khi mọi worker kết thúc
+     */
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    /**
+     * @return Tổng số byte coordinator nhận từ các worker
+     */
+    public long getBytesReceived() {
+        return sessions.stream().mapToLong(session -> session.counter.getCount()).sum();
+    }
+
+    /**
+     * @return Tổng số byte coordinator gửi tới các worker (kể cả nội dung file dữ liệu)
+     */
+    public long getBytesSent() {
+        return sessions.stream().mapToLong(session -> session.outCounter.getCount()).sum();
+    }
+
+    public synchronized double getBestFitness() {
+        return bestFitness;
+    }
+}
@@ -0,0 +1,216 @@
+package com.examschedule.distributed;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiến trình worker: kết nối tới {@link ColonyCoordinator}, nhận bài toán và cấu
+ * hình, chạy một {@link AntColonyOptimization} và cứ sau mỗi chu kỳ trao đổi lại
+ * gửi lời giải tốt nhất cùng thay đổi pheromone, nhận lại lời giải tốt nhất toàn
+ * cục và pheromone đồng thuận của các worker khác.
+ *
+ * Trong lúc giải, một luồng riêng gửi PROGRESS theo chu kỳ coordinator yêu cầu
+ * để coordinator phân biệt worker đang chạy một chu kỳ dài với worker đã chết.
+ * Nếu mất kết nối tới coordinator, worker dừng bộ giải và kết thúc.
+ */
+public class ColonyWorker {
+    private final InetSocketAddress coordinator;
+
+    // Trạng thái của lần chạy hiện tại, chỉ dùng trên luồng chạy bộ giải; mọi lần
+    // ghi vào out (kể cả PROGRESS từ luồng nhịp) giữ khoá của out
+    private DataInputStream in;
+    private DataOutputStream out;
+    private AntColonyOptimization colony;
+    private double blend;
+    private double lastSentFitness = Double.MAX_VALUE;
+    private boolean finished;
+    // Bộ đệm pheromone tái sử dụng qua mọi lần trao đổi
+    private double[] pheromone;
+    private float[] consensus;
+    private double[] consensusValues;
+    private final CompactSchedule migrant = new CompactSchedule();
+
+    public ColonyWorker(InetSocketAddress coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Chạy một job từ đầu đến cuối.
+     */
+    public void run() throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(coordinator, 10_000);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            out.writeByte(WireFormat.HELLO);
+            out.writeInt(WireFormat.MAGIC);
+            out.writeInt(WireFormat.VERSION);
+            out.flush();
+
+            WireFormat.expect(in.readByte(), WireFormat.JOB);
+            int workerId = WireFormat.readVarintInt(in);
+            long seed = in.readLong();
+            int numAnts = WireFormat.readVarintInt(in);
+            int maxIterations = WireFormat.readVarintInt(in);
+            int epochInterval = WireFormat.readVarintInt(in);
+            long progressMillis = WireFormat.readVarint(in);
+            blend = in.readDouble();
+            long timeLimitMillis = WireFormat.readVarint(in);
+            int antsToImprove = WireFormat.readVarintInt(in);
+            int localSearchBudget = WireFormat.readVarintInt(in);
+            AcoParameters params = WireFormat.readParameters(in);
+            ScheduleData data = readInstance(in);
+            System.out.println("[Worker " + workerId + "] " + data.getCompiled() + ", " + numAnts
+                    + " ants, " + maxIterations + " iterations, seed " + seed);
+
+            colony = new AntColonyOptimization(data, numAnts, maxIterations, seed, params);
+            colony.setTimeLimit(timeLimitMillis);
+            if (antsToImprove > 0 && localSearchBudget > 0) {
+                colony.setImprover(new LocalSearchImprover(data.getCompiled(), localSearchBudget),
+                        antsToImprove);
+            }
+            if (epochInterval > 0) {
+                colony.setEpochHook(epochInterval, this::exchange);
+            }
+            ScheduledExecutorService heartbeat = null;
+            if (progressMillis > 0) {
+                heartbeat = Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "worker-progress");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                heartbeat.scheduleAtFixedRate(this::sendProgress, progressMillis, progressMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+            try {
+                colony.solve();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                if (heartbeat != null) {
+                    heartbeat.shutdownNow();
+                }
+            }
+
+            synchronized (out) {
+                // PROGRESS đang chờ khoá sẽ thấy finished và không ghi sau DONE
+                finished = true;
+                out.writeByte(WireFormat.DONE);
+                WireFormat.writeVarint(out, colony.getIterationsCompleted());
+                WireFormat.writeVarint(out, colony.getEvaluations());
+                writeBestIfImproved();
+                out.flush();
+            }
+            System.out.println("[Worker " + workerId + "] Done: " + colony.getIterationsCompleted()
+                    + " iterations, best fitness " + colony.getBestFitness());
+        }
+    }
+
+    /**
+     * Nội dung file dữ liệu được ghi ra file tạm rồi nạp bằng {@link DataLoader#read(Path)},
+     * nên worker nhận được cả JSON lẫn snapshot nhị phân.
+     */
+    private static ScheduleData readInstance(DataInputStream in) throws IOException {
+        byte[] content = WireFormat.readBytes(in, WireFormat.readVarintInt(in));
+        Path file = Files.createTempFile("aco-worker-", ".instance");
+        try {
+            Files.write(file, content);
+            return DataLoader.read(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Nhịp từ luồng riêng: số lần đánh giá hiện tại. Lỗi ghi nghĩa là mất kết nối,
+     * nên dừng bộ giải như khi trao đổi thất bại.
+     */
+    private void sendProgress() {
+        try {
+            synchronized (out) {
+                if (finished) {
+                    return;
+                }
+                out.writeByte(WireFormat.PROGRESS);
+                WireFormat.writeVarint(out, colony.getEvaluations());
+                out.flush();
+            }
+        } catch (IOException e) {
+            colony.cancel();
+        }
+    }
+
+    /**
+     * Trao đổi với coordinator giữa hai vòng lặp (trên luồng solve()).
+     */
+    private void exchange(int iteration) {
+        try {
+            if (blend > 0) {
+                pheromone = colony.snapshotPheromone(pheromone);
+            }
+            synchronized (out) {
+                out.writeByte(WireFormat.EPOCH);
+                WireFormat.writeVarint(out, iteration);
+                WireFormat.writeVarint(out, colony.getEvaluations());
+                writeBestIfImproved();
+                WireFormat.writePheromone(out, blend > 0 ? pheromone : null);
+                out.flush();
+            }
+
+            byte type = in.readByte();
+            if (type == WireFormat.STOP) {
+                colony.cancel();
+                return;
+            }
+            WireFormat.expect(type, WireFormat.MIGRANT);
+            double migrantFitness = WireFormat.readSchedule(in, migrant);
+            if (!Double.isNaN(migrantFitness) && colony.acceptMigrant(migrant, migrantFitness)) {
+                // Lời giải nhận được đến từ coordinator, không cần gửi lại
+                lastSentFitness = migrantFitness;
+            }
+            float[] received = WireFormat.readPheromone(in, consensus);
+            if (received != null && blend > 0) {
+                consensus = received;
+                if (consensusValues == null || consensusValues.length != consensus.length) {
+                    consensusValues = new double[consensus.length];
+                }
+                for (int k = 0; k < consensus.length; k++) {
+                    consensusValues[k] = consensus[k];
+                }
+                colony.blendPheromone(consensusValues, blend);
+            }
+        } catch (IOException e) {
+            colony.cancel();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBestIfImproved() throws IOException {
+        double best = colony.getBestFitness();
+        if (best < lastSentFitness) {
+            WireFormat.writeSchedule(out, colony.getBestCompact(), best);
+            lastSentFitness = best;
+        } else {
+            WireFormat.writeSchedule(out, null, 0);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.examschedule.distributed;
+
+import com.examschedule.algorithms.AcoParameters;
+import com.examschedule.models.CompactSchedule;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Mã hoá nhị phân của giao thức giữa {@link ColonyCoordinator} và {@link ColonyWorker}.
+ *
+ * Mỗi thông điệp là một byte loại rồi phần thân. Số nguyên không âm được ghi
+ * bằng varint (7 bit mỗi byte, như LEB128) nên các chỉ số môn / ca / phòng nhỏ
+ * chỉ tốn 1-2 byte. Lịch thi là số dòng rồi từng dòng (môn, ca, phòng, số sinh
+ * viên). Pheromone được gửi đầy đủ: bay hơi làm mọi τ thay đổi sau mỗi vòng
+ * nên gửi riêng phần thay đổi không tiết kiệm được gì. Mỗi τ được lượng tử hoá
+ * theo log thành 2 byte (sai số tương đối cỡ 1e-4 với khoảng τ thường gặp).
+ * <pre>
+ *   HELLO    worker -&gt; coord   magic, version
+ *   JOB      coord -&gt; worker   id, seed, số kiến, số vòng, chu kỳ trao đổi, chu kỳ PROGRESS,
+ *                             tỉ lệ trộn, giới hạn thời gian, AcoParameters, nội dung file dữ liệu
+ *   EPOCH    worker -&gt; coord   vòng lặp, số lần đánh giá, [lịch tốt nhất nếu đã cải thiện],
+ *                             [pheromone]
+ *   PROGRESS worker -&gt; coord   số lần đánh giá; gửi định kỳ từ luồng riêng để coordinator
+ *                             biết worker còn sống khi một chu kỳ trao đổi kéo dài
+ *   MIGRANT  coord -&gt; worker   [lịch tốt nhất toàn cục nếu tốt hơn của worker],
+ *                             [pheromone đồng thuận]
+ *   STOP     coord -&gt; worker   dừng ngay (đã đạt mục tiêu hoặc bị huỷ)
+ *   DONE     worker -&gt; coord   số vòng, số lần đánh giá, [lịch tốt nhất nếu đã cải thiện]
+ * </pre>
+ */
+final class WireFormat {
+    static final int MAGIC = 0x41434F44; // "ACOD"
+    static final int VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte JOB = 2;
+    static final byte EPOCH = 3;
+    static final byte MIGRANT = 4;
+    static final byte STOP = 5;
+    static final byte DONE = 6;
+    static final byte PROGRESS = 7;
+
+    // Mã 0 dành cho τ <= 0; mã 1..LOG_LEVELS trải đều log τ từ nhỏ nhất tới lớn nhất
+    private static final int LOG_LEVELS = 0xFFFF;
+
+    private WireFormat() {
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("varint must be >= 0: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int readVarintInt(DataInputStream in) throws IOException {
+        long value = readVarint(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Ghi fitness và lịch thi, hoặc chỉ một byte 0 nếu schedule là null.
+     */
+    static void writeSchedule(DataOutputStream out, CompactSchedule schedule, double fitness)
+            throws IOException {
+        if (schedule == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeDouble(fitness);
+        writeVarint(out, schedule.size());
+        for (int row = 0; row < schedule.size(); row++) {
+            writeVarint(out, schedule.getExam(row));
+            writeVarint(out, schedule.getTimeslot(row));
+            writeVarint(out, schedule.getRoom(row));
+            writeVarint(out, schedule.getStudentCount(row));
+        }
+    }
+
+    /**
+     * Đọc lịch thi vào target.
+     * @return Fitness của lịch, hoặc NaN nếu thông điệp không kèm lịch (target giữ nguyên)
+     */
+    static double readSchedule(DataInputStream in, CompactSchedule target) throws IOException {
+        if (!in.readBoolean()) {
+            return Double.NaN;
+        }
+        double fitness = in.readDouble();
+        int rows = readVarintInt(in);
+        target.clear();
+        for (int row = 0; row < rows; row++) {
+            target.add(readVarintInt(in), readVarintInt(in), readVarintInt(in), readVarintInt(in));
+        }
+        return fitness;
+    }
+
+    /**
+     * Ghi τ của mọi ứng viên, mỗi giá trị 2 byte: log τ được lượng tử hoá đều giữa
+     * log của τ dương nhỏ nhất và lớn nhất (hai giá trị này ghi ở đầu).
+     * Ghi một byte 0 nếu values là null.
+     */
+    static void writePheromone(DataOutputStream out, double[] values) throws IOException {
+        if (values == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        writeVarint(out, values.length);
+        double minLog = Double.POSITIVE_INFINITY;
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            if (value > 0) {
+                double log = Math.log(value);
+                minLog = Math.min(minLog, log);
+                maxLog = Math.max(maxLog, log);
+            }
+        }
+        if (minLog > maxLog) {
+            minLog = 0;
+            maxLog = 0;
+        }
+        double step = (maxLog - minLog) / (LOG_LEVELS - 1);
+        out.writeDouble(minLog);
+        out.writeDouble(step);
+        for (double value : values) {
+            int code = 0;
+            if (value > 0) {
+                code = 1 + (step > 0 ? (int) Math.round((Math.log(value) - minLog) / step) : 0);
+            }
+            out.writeShort(code);
+        }
+    }
+
+    /**
+     * Đọc τ của mọi ứng viên vào target (cấp phát lại nếu độ dài khác).
+     * @return Mảng chứa τ, hoặc null nếu thông điệp không kèm pheromone
+     */
+    static float[] readPheromone(DataInputStream in, float[] target) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int length = readVarintInt(in);
+        float[] values = target != null && target.length == length ? target : new float[length];
+        double minLog = in.readDouble();
+        double step = in.readDouble();
+        for (int k = 0; k < length; k++) {
+            int code = in.readUnsignedShort();
+            values[k] = code == 0 ? 0f : (float) Math.exp(minLog + (code - 1) * step);
+        }
+        return values;
+    }
+
+    static void writeParameters(DataOutputStream out, AcoParameters params) throws IOException {
+        out.writeDouble(params.getAlpha());
+        out.writeDouble(params.getBeta());
+        out.writeDouble(params.getEvaporation());
+        out.writeDouble(params.getPheromoneDeposit());
+        out.writeDouble(params.getInitialPheromone());
+        out.writeByte(params.getPheromoneUpdate().ordinal());
+        out.writeByte(params.getDepositSource().ordinal());
+        out.writeDouble(params.getTauMin());
+        out.writeDouble(params.getTauMax());
+        writeVarint(out, params.getStagnationLimit());
+    }
+
+    static AcoParameters readParameters(DataInputStream in) throws IOException {
+        AcoParameters params = new AcoParameters();
+        params.setAlpha(in.readDouble());
+        params.setBeta(in.readDouble());
+        params.setEvaporation(in.readDouble());
+        params.setPheromoneDeposit(in.readDouble());
+        params.setInitialPheromone(in.readDouble());
+        params.setPheromoneUpdate(AcoParameters.PheromoneUpdate.values()[in.readUnsignedByte()]);
+        params.setDepositSource(AcoParameters.DepositSource.values()[in.readUnsignedByte()]);
+        params.setTauBounds(in.readDouble(), in.readDouble());
+        params.setStagnationLimit(readVarintInt(in));
+        return params;
+    }
+
+    static void expect(byte actual, byte expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected message type " + actual + " (expected " + expected + ")");
+        }
+    }
+
+    /**
+     * Đếm số byte đã đọc, để báo cáo lưu lượng của giao thức.
+     */
+    static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Đếm số byte đã ghi bằng long: DataOutputStream.size() là int và dừng ở
+     * Integer.MAX_VALUE trong những lần chạy dài.
+     */
+    static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Đọc đúng length byte (cho nội dung file dữ liệu trong JOB).
+     */
+    static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        try {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            throw new IOException("Connection closed while reading " + length + " bytes", e);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,116 @@
+package com.examschedule.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lịch thi dạng chỉ số nguyên: mỗi dòng i là một phân công
+ * (môn thi, ca thi, phòng, số sinh viên), tương đương một {@link Assignment}.
+ * Các mảng được tái sử dụng giữa các lần {@link #clear()} để tránh cấp phát.
+ */
+public class CompactSchedule {
+    private int size;
+    private int[] exams;
+    private int[] timeslots;
+    private int[] rooms;
+    private int[] counts;
+
+    public CompactSchedule() {
+        this(16);
+    }
+
+    public CompactSchedule(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.exams = new int[capacity];
+        this.timeslots = new int[capacity];
+        this.rooms = new int[capacity];
+        this.counts = new int[capacity];
+    }
+
+    public void add(int exam, int timeslot, int room, int studentCount) {
+        if (size == exams.length) {
+            int capacity = size * 2;
+            exams = Arrays.copyOf(exams, capacity);
+            timeslots = Arrays.copyOf(timeslots, capacity);
+            rooms = Arrays.copyOf(rooms, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        exams[size] = exam;
+        timeslots[size] = timeslot;
+        rooms[size] = room;
+        counts[size] = studentCount;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getExam(int row) {
+        return exams[row];
+    }
+
+    public int getTimeslot(int row) {
+        return timeslots[row];
+    }
+
+    public int getRoom(int row) {
+        return rooms[row];
+    }
+
+    public int getStudentCount(int row) {
+        return counts[row];
+    }
+
+    /**
+     * Ghi đè nội dung lịch này bằng một bản sao của lịch khác.
+     */
+    public void copyFrom(CompactSchedule other) {
+        clear();
+        for (int i = 0; i < other.size; i++) {
+            add(other.exams[i], other.timeslots[i], other.rooms[i], other.counts[i]);
+        }
+    }
+
+    public CompactSchedule copy() {
+        CompactSchedule copy = new CompactSchedule(size);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Chuyển về danh sách {@link Assignment} với ID dạng chuỗi (chỉ dùng khi xuất kết quả).
+     */
+    public List<Assignment> toAssignments(CompiledInstance instance) {
+        List<Assignment> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Assignment(instance.getExamId(exams[i]),
+                    instance.getTimeslot(timeslots[i]),
+                    instance.getRoomId(rooms[i]), counts[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Chuyển danh sách {@link Assignment} sang dạng chỉ số.
+     * Các phân công tham chiếu tới môn thi, ca thi hoặc phòng không tồn tại bị bỏ qua.
+     */
+    public static CompactSchedule fromAssignments(List<Assignment> assignments,
+            CompiledInstance instance) {
+        CompactSchedule schedule = new CompactSchedule(assignments.size());
+        for (Assignment assignment : assignments) {
+            int exam = instance.indexOfExam(assignment.getExamId());
+            int timeslot = instance.indexOfTimeslot(assignment.getTimeslot());
+            int room = instance.indexOfRoom(assignment.getRoom());
+            if (exam >= 0 && timeslot >= 0 && room >= 0) {
+                schedule.add(exam, timeslot, room, assignment.getStudentCount());
+            }
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,264 @@
+package com.examschedule.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dạng "biên dịch" của {@link ScheduleData}: môn thi, phòng, ca thi và sinh viên
+ * được đánh số liên tiếp 0..n-1 để các vòng lặp nóng chỉ làm việc với số nguyên.
+ * Danh sách sinh viên của từng môn được lưu theo kiểu CSR: sinh viên của môn e
+ * nằm trong {@code studentMembers[studentOffsets[e] .. studentOffsets[e + 1])}.
+ * Chuỗi ID chỉ được dùng lại khi xuất kết quả.
+ */
+public class CompiledInstance {
+    private final String[] examIds;
+    private final String[] roomIds;
+    private final String[] timeslots;
+    private final String[] studentIds;
+
+    // Sĩ số của môn thi (bằng Exam.getStudentCount())
+    private final int[] examSizes;
+    private final int[] roomCapacities;
+
+    // CSR môn thi -> sinh viên (đã loại trùng trong từng môn)
+    private final int[] studentOffsets;
+    private final int[] studentMembers;
+
+    // Chỉ số phòng sắp theo sức chứa giảm dần (ổn định theo chỉ số phòng)
+    private final int[] roomsByCapacityDesc;
+
+    private final Map<String, Integer> examIndex;
+    private final Map<String, Integer> roomIndex;
+    private final Map<String, Integer> timeslotIndex;
+    // Chỉ mục sinh viên lớn và hiếm khi dùng nên được tạo khi cần lần đầu
+    private Map<String, Integer> studentIndex;
+
+    // Đồ thị xung đột giữa các môn, được xây dựng khi cần lần đầu
+    private ConflictGraph conflictGraph;
+
+    public CompiledInstance(String[] examIds, String[] roomIds, String[] timeslots,
+            String[] studentIds, int[] examSizes, int[] roomCapacities,
+            int[] studentOffsets, int[] studentMembers) {
+        this(examIds, roomIds, timeslots, studentIds, examSizes, roomCapacities,
+                studentOffsets, studentMembers, null);
+    }
+
+    /**
+     * @param conflictGraph Đồ thị xung đột đã tính sẵn (ví dụ đọc từ snapshot),
+     *                      hoặc null để xây dựng khi cần
+     */
+    public CompiledInstance(String[] examIds, String[] roomIds, String[] timeslots,
+            String[] studentIds, int[] examSizes, int[] roomCapacities,
+            int[] studentOffsets, int[] studentMembers, ConflictGraph conflictGraph) {
+        this.examIds = examIds;
+        this.roomIds = roomIds;
+        this.timeslots = timeslots;
+        this.studentIds = studentIds;
+        this.examSizes = examSizes;
+        this.roomCapacities = roomCapacities;
+        this.studentOffsets = studentOffsets;
+        this.studentMembers = studentMembers;
+        this.examIndex = indexOf(examIds);
+        this.roomIndex = indexOf(roomIds);
+        this.timeslotIndex = indexOf(timeslots);
+        this.roomsByCapacityDesc = sortRoomsByCapacityDesc(roomCapacities);
+        this.conflictGraph = conflictGraph;
+    }
+
+    /**
+     * Biên dịch dữ liệu đã nạp thành mô hình chỉ số nguyên.
+     * Sinh viên xuất hiện trong môn thi nhưng không có trong danh sách
+     * sinh viên vẫn được cấp chỉ số.
+     */
+    public static CompiledInstance compile(ScheduleData data) {
+        List<Exam> exams = data.getExams();
+        List<Room> rooms = data.getRooms();
+
+        String[] examIds = new String[exams.size()];
+        int[] examSizes = new int[exams.size()];
+        for (int e = 0; e < exams.size(); e++) {
+            examIds[e] = exams.get(e).getId();
+            examSizes[e] = exams.get(e).getStudentCount();
+        }
+
+        String[] roomIds = new String[rooms.size()];
+        int[] roomCapacities = new int[rooms.size()];
+        for (int r = 0; r < rooms.size(); r++) {
+            roomIds[r] = rooms.get(r).getId();
+            roomCapacities[r] = rooms.get(r).getCapacity();
+        }
+
+        String[] timeslots = data.getTimeslots().toArray(new String[0]);
+
+        Map<String, Integer> students = new HashMap<>();
+        for (Student student : data.getStudents()) {
+            students.putIfAbsent(student.getId(), students.size());
+        }
+
+        int totalMembers = 0;
+        for (Exam exam : exams) {
+            totalMembers += exam.getStudentCount();
+        }
+
+        int[] offsets = new int[exams.size() + 1];
+        int[] members = new int[totalMembers];
+        int pos = 0;
+        for (int e = 0; e < exams.size(); e++) {
+            int start = pos;
+            for (String studentId : exams.get(e).getStudents()) {
+                Integer idx = students.get(studentId);
+                if (idx == null) {
+                    idx = students.size();
+                    students.put(studentId, idx);
+                }
+                members[pos++] = idx;
+            }
+            // Loại trùng sinh viên trong cùng một môn
+            Arrays.sort(members, start, pos);
+            int unique = start;
+            for (int i = start; i < pos; i++) {
+                if (i == start || members[i] != members[i - 1]) {
+                    members[unique++] = members[i];
+                }
+            }
+            pos = unique;
+            offsets[e + 1] = pos;
+        }
+
+        String[] studentIds = new String[students.size()];
+        for (Map.Entry<String, Integer> entry : students.entrySet()) {
+            studentIds[entry.getValue()] = entry.getKey();
+        }
+
+        return new CompiledInstance(examIds, roomIds, timeslots, studentIds,
+                examSizes, roomCapacities, offsets, Arrays.copyOf(members, pos));
+    }
+
+    private static Map<String, Integer> indexOf(String[] ids) {
+        Map<String, Integer> index = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            index.putIfAbsent(ids[i], i);
+        }
+        return index;
+    }
+
+    private static int[] sortRoomsByCapacityDesc(int[] capacities) {
+        Integer[] order = new Integer[capacities.length];
+        for (int r = 0; r < order.length; r++) {
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(capacities[b], capacities[a]));
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    public int getNumExams() {
+        return examIds.length;
+    }
+
+    public int getNumRooms() {
+        return roomIds.length;
+    }
+
+    public int getNumTimeslots() {
+        return timeslots.length;
+    }
+
+    public int getNumStudents() {
+        return studentIds.length;
+    }
+
+    public String getExamId(int exam) {
+        return examIds[exam];
+    }
+
+    public String getRoomId(int room) {
+        return roomIds[room];
+    }
+
+    public String getTimeslot(int timeslot) {
+        return timeslots[timeslot];
+    }
+
+    public String getStudentId(int student) {
+        return studentIds[student];
+    }
+
+    public int getExamSize(int exam) {
+        return examSizes[exam];
+    }
+
+    public int getRoomCapacity(int room) {
+        return roomCapacities[room];
+    }
+
+    public int[] getExamSizes() {
+        return examSizes;
+    }
+
+    public int[] getRoomCapacities() {
+        return roomCapacities;
+    }
+
+    /**
+     * Mảng offset CSR, độ dài numExams + 1.
+     */
+    public int[] getStudentOffsets() {
+        return studentOffsets;
+    }
+
+    /**
+     * Mảng chỉ số sinh viên CSR, dùng cùng {@link #getStudentOffsets()}.
+     */
+    public int[] getStudentMembers() {
+        return studentMembers;
+    }
+
+    public int[] getRoomsByCapacityDesc() {
+        return roomsByCapacityDesc;
+    }
+
+    /**
+     * Trả về đồ thị xung đột môn thi - môn thi, chỉ xây dựng một lần.
+     */
+    public synchronized ConflictGraph getConflictGraph() {
+        if (conflictGraph == null) {
+            conflictGraph = ConflictGraph.build(this);
+        }
+        return conflictGraph;
+    }
+
+    /**
+     * @return chỉ số môn thi, hoặc -1 nếu không tồn tại
+     */
+    public int indexOfExam(String examId) {
+        return examIndex.getOrDefault(examId, -1);
+    }
+
+    public int indexOfRoom(String roomId) {
+        return roomIndex.getOrDefault(roomId, -1);
+    }
+
+    public int indexOfTimeslot(String timeslot) {
+        return timeslotIndex.getOrDefault(timeslot, -1);
+    }
+
+    public synchronized int indexOfStudent(String studentId) {
+        if (studentIndex == null) {
+            studentIndex = indexOf(studentIds);
+        }
+        return studentIndex.getOrDefault(studentId, -1);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledInstance{" + "exams=" + examIds.length + ", rooms=" + roomIds.length
+                + ", timeslots=" + timeslots.length + ", students=" + studentIds.length
+                + ", enrollments=" + studentMembers.length + '}';
+    }
+}
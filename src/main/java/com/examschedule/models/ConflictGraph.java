@@ -0,0 +1,162 @@
+package com.examschedule.models;
+
+import java.util.Arrays;
+
+/**
+ * Đồ thị xung đột có trọng số giữa các môn thi: hai môn kề nhau khi có chung
+ * ít nhất một sinh viên, trọng số là số sinh viên chung.
+ * Danh sách kề được lưu theo kiểu CSR và sắp theo chỉ số môn tăng dần.
+ */
+public class ConflictGraph {
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final int[] weights;
+
+    public ConflictGraph(int[] offsets, int[] neighbors, int[] weights) {
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weights = weights;
+    }
+
+    /**
+     * Xây dựng đồ thị xung đột từ quan hệ môn thi - sinh viên của mô hình biên dịch.
+     */
+    public static ConflictGraph build(CompiledInstance instance) {
+        int numExams = instance.getNumExams();
+        int numStudents = instance.getNumStudents();
+        int[] examOffsets = instance.getStudentOffsets();
+        int[] examMembers = instance.getStudentMembers();
+
+        // CSR ngược: sinh viên -> các môn thi
+        int[] studentOffsets = new int[numStudents + 1];
+        for (int member : examMembers) {
+            studentOffsets[member + 1]++;
+        }
+        for (int s = 0; s < numStudents; s++) {
+            studentOffsets[s + 1] += studentOffsets[s];
+        }
+        int[] studentExams = new int[examMembers.length];
+        int[] cursor = Arrays.copyOf(studentOffsets, numStudents);
+        for (int e = 0; e < numExams; e++) {
+            for (int m = examOffsets[e]; m < examOffsets[e + 1]; m++) {
+                studentExams[cursor[examMembers[m]]++] = e;
+            }
+        }
+
+        int[] offsets = new int[numExams + 1];
+        int[] neighbors = new int[16];
+        int[] weights = new int[16];
+        int[] shared = new int[numExams];
+        int[] touched = new int[numExams];
+        int size = 0;
+
+        for (int e = 0; e < numExams; e++) {
+            int numTouched = 0;
+            for (int m = examOffsets[e]; m < examOffsets[e + 1]; m++) {
+                int student = examMembers[m];
+                for (int k = studentOffsets[student]; k < studentOffsets[student + 1]; k++) {
+                    int other = studentExams[k];
+                    if (other != e && shared[other]++ == 0) {
+                        touched[numTouched++] = other;
+                    }
+                }
+            }
+            Arrays.sort(touched, 0, numTouched);
+            if (size + numTouched > neighbors.length) {
+                int capacity = Math.max(size + numTouched, neighbors.length * 2);
+                neighbors = Arrays.copyOf(neighbors, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            for (int i = 0; i < numTouched; i++) {
+                int other = touched[i];
+                neighbors[size] = other;
+                weights[size] = shared[other];
+                size++;
+                shared[other] = 0;
+            }
+            offsets[e + 1] = size;
+        }
+
+        return new ConflictGraph(offsets, Arrays.copyOf(neighbors, size),
+                Arrays.copyOf(weights, size));
+    }
+
+    public int getNumExams() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Số cạnh (mỗi cặp môn được đếm một lần).
+     */
+    public int getNumEdges() {
+        return neighbors.length / 2;
+    }
+
+    public int getDegree(int exam) {
+        return offsets[exam + 1] - offsets[exam];
+    }
+
+    /**
+     * Mảng offset CSR, độ dài numExams + 1.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getNeighbors() {
+        return neighbors;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return Số sinh viên chung của hai môn (0 nếu không xung đột)
+     */
+    public int getWeight(int exam, int other) {
+        int idx = Arrays.binarySearch(neighbors, offsets[exam], offsets[exam + 1], other);
+        return idx >= 0 ? weights[idx] : 0;
+    }
+
+    /**
+     * Gán nhãn thành phần liên thông cho từng môn, bỏ qua các cạnh có trọng số
+     * ≤ cutWeight (cutWeight = 0 cho thành phần liên thông chính xác; lớn hơn để
+     * tách các cụm chỉ liên kết yếu qua vài sinh viên). Nhãn đánh số 0, 1, ... theo
+     * môn có chỉ số nhỏ nhất của mỗi thành phần. Duyệt theo chiều rộng, O(V + E).
+     * @return labels[exam]; số thành phần là max(labels) + 1
+     */
+    public int[] componentLabels(int cutWeight) {
+        int numExams = getNumExams();
+        int[] labels = new int[numExams];
+        Arrays.fill(labels, -1);
+        int[] queue = new int[numExams];
+        int next = 0;
+        for (int start = 0; start < numExams; start++) {
+            if (labels[start] >= 0) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            labels[start] = next;
+            while (head < tail) {
+                int exam = queue[head++];
+                for (int k = offsets[exam]; k < offsets[exam + 1]; k++) {
+                    int other = neighbors[k];
+                    if (weights[k] > cutWeight && labels[other] < 0) {
+                        labels[other] = next;
+                        queue[tail++] = other;
+                    }
+                }
+            }
+            next++;
+        }
+        return labels;
+    }
+
+    @Override
+    public String toString() {
+        return "ConflictGraph{" + "exams=" + getNumExams() + ", edges=" + getNumEdges() + '}';
+    }
+}
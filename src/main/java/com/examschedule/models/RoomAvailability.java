@@ -0,0 +1,230 @@
+package com.examschedule.models;
+
+import java.util.Arrays;
+
+/**
+ * Chỉ mục phòng trống theo từng ca: mỗi ca một bitset trên các phòng đã sắp theo
+ * sức chứa giảm dần (bit ở hạng k là phòng {@code getRoomsByCapacityDesc()[k]},
+ * bật khi phòng còn trống), cùng số phòng và tổng sức chứa còn trống của ca.
+ * Các phòng đủ chứa n sinh viên là một tiền tố của thứ tự này, nên "phòng trống
+ * nhỏ nhất có sức chứa ≥ n" là một lần tìm kiếm nhị phân và một lần tìm bit cao
+ * nhất trên R / 64 word. Mọi mảng được cấp phát một lần; {@link #reset()} đưa
+ * về trạng thái mọi phòng trống mà không cấp phát, để dùng lại cho từng con kiến.
+ * Bên cạnh bitset, một mảng theo ô (timeslot * numRooms + room) trả lời "phòng có
+ * trống không" chỉ với một lần đọc, cho vòng duyệt ứng viên khi chọn roulette.
+ * Không an toàn khi dùng từ nhiều luồng.
+ */
+public final class RoomAvailability {
+    private final int numTimeslots;
+    private final int numRooms;
+    private final int words;
+
+    // roomAtRank[k]: phòng có hạng k; rankOfRoom[r]: hạng của phòng r
+    private final int[] roomAtRank;
+    private final int[] rankOfRoom;
+    // capacityAtRank[k]: sức chứa của phòng hạng k (không tăng theo k)
+    private final int[] capacityAtRank;
+
+    // free[t * words + w]: bit (k & 63) của word k >>> 6 bật khi phòng hạng k còn trống trong ca t
+    private final long[] free;
+    private final long[] allFree;
+    // used[t * numRooms + r]: phòng r đã được dùng trong ca t (bản sao của free theo ô)
+    private final boolean[] used;
+    private final int[] freeCount;
+    private final long[] freeCapacity;
+    private final long totalCapacity;
+
+    public RoomAvailability(CompiledInstance instance) {
+        this.numTimeslots = instance.getNumTimeslots();
+        this.numRooms = instance.getNumRooms();
+        this.words = (numRooms + 63) >>> 6;
+        this.roomAtRank = instance.getRoomsByCapacityDesc();
+        this.rankOfRoom = new int[numRooms];
+        this.capacityAtRank = new int[numRooms];
+        long capacity = 0;
+        for (int k = 0; k < numRooms; k++) {
+            rankOfRoom[roomAtRank[k]] = k;
+            capacityAtRank[k] = instance.getRoomCapacity(roomAtRank[k]);
+            capacity += capacityAtRank[k];
+        }
+        this.totalCapacity = capacity;
+
+        this.free = new long[numTimeslots * words];
+        this.allFree = new long[free.length];
+        for (int t = 0; t < numTimeslots; t++) {
+            for (int k = 0; k < numRooms; k++) {
+                allFree[t * words + (k >>> 6)] |= 1L << k;
+            }
+        }
+        this.used = new boolean[numTimeslots * numRooms];
+        this.freeCount = new int[numTimeslots];
+        this.freeCapacity = new long[numTimeslots];
+        reset();
+    }
+
+    /**
+     * Đánh dấu mọi phòng của mọi ca là trống.
+     */
+    public void reset() {
+        System.arraycopy(allFree, 0, free, 0, free.length);
+        Arrays.fill(used, false);
+        for (int t = 0; t < numTimeslots; t++) {
+            freeCount[t] = numRooms;
+            freeCapacity[t] = totalCapacity;
+        }
+    }
+
+    public boolean isFree(int timeslot, int room) {
+        return !used[timeslot * numRooms + room];
+    }
+
+    /**
+     * @param cell timeslot * numRooms + room
+     */
+    public boolean isFreeCell(int cell) {
+        return !used[cell];
+    }
+
+    /**
+     * Đánh dấu phòng đã dùng trong ca; không làm gì nếu phòng đã bận.
+     */
+    public void markUsed(int timeslot, int room) {
+        int rank = rankOfRoom[room];
+        int idx = timeslot * words + (rank >>> 6);
+        long bit = 1L << rank;
+        if ((free[idx] & bit) != 0) {
+            free[idx] &= ~bit;
+            used[timeslot * numRooms + room] = true;
+            freeCount[timeslot]--;
+            freeCapacity[timeslot] -= capacityAtRank[rank];
+        }
+    }
+
+    /**
+     * Trả phòng về trạng thái trống; không làm gì nếu phòng đang trống.
+     */
+    public void markFree(int timeslot, int room) {
+        int rank = rankOfRoom[room];
+        int idx = timeslot * words + (rank >>> 6);
+        long bit = 1L << rank;
+        if ((free[idx] & bit) == 0) {
+            free[idx] |= bit;
+            used[timeslot * numRooms + room] = false;
+            freeCount[timeslot]++;
+            freeCapacity[timeslot] += capacityAtRank[rank];
+        }
+    }
+
+    public int getFreeCount(int timeslot) {
+        return freeCount[timeslot];
+    }
+
+    public long getFreeCapacity(int timeslot) {
+        return freeCapacity[timeslot];
+    }
+
+    /**
+     * @return Ca sớm nhất còn ít nhất một phòng trống, hoặc -1
+     */
+    public int firstTimeslotWithFreeRoom() {
+        for (int t = 0; t < numTimeslots; t++) {
+            if (freeCount[t] > 0) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Ca sớm nhất có tổng sức chứa còn trống ≥ students, hoặc -1
+     */
+    public int firstTimeslotWithFreeCapacity(long students) {
+        for (int t = 0; t < numTimeslots; t++) {
+            if (freeCount[t] > 0 && freeCapacity[t] >= students) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Phòng trống nhỏ nhất có sức chứa ≥ students (hoà thì phòng đứng sau trong
+     * thứ tự sức chứa giảm dần). O(log R + R / 64).
+     * @return Chỉ số phòng, hoặc -1 nếu không có
+     */
+    public int smallestFreeRoomAtLeast(int timeslot, int students) {
+        // fitting: số phòng có sức chứa ≥ students, tức các hạng [0, fitting)
+        int low = 0;
+        int high = numRooms;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (capacityAtRank[mid] >= students) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int fitting = low;
+        if (fitting == 0) {
+            return -1;
+        }
+        int base = timeslot * words;
+        int w = (fitting - 1) >>> 6;
+        // Giữ các bit có hạng < fitting trong word cuối
+        long bits = free[base + w] & (-1L >>> (63 - ((fitting - 1) & 63)));
+        while (bits == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            bits = free[base + w];
+        }
+        return roomAtRank[(w << 6) + 63 - Long.numberOfLeadingZeros(bits)];
+    }
+
+    /**
+     * Ghi tối đa limit phòng trống lớn nhất của ca vào out, theo sức chứa giảm dần.
+     * @return Số phòng đã ghi
+     */
+    public int largestFreeRooms(int timeslot, int limit, int[] out) {
+        int count = 0;
+        int base = timeslot * words;
+        for (int w = 0; w < words && count < limit; w++) {
+            long bits = free[base + w];
+            while (bits != 0 && count < limit) {
+                out[count++] = roomAtRank[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ghi mọi phòng trống của ca vào out, theo sức chứa giảm dần.
+     * @return Số phòng đã ghi
+     */
+    public int collectFreeRooms(int timeslot, int[] out) {
+        return largestFreeRooms(timeslot, numRooms, out);
+    }
+
+    /**
+     * Phòng trống lớn nhất của ca: bit thấp nhất của bitset. O(R / 64).
+     * @return Chỉ số phòng, hoặc -1 nếu ca không còn phòng trống
+     */
+    public int largestFreeRoom(int timeslot) {
+        int base = timeslot * words;
+        for (int w = 0; w < words; w++) {
+            if (free[base + w] != 0) {
+                return roomAtRank[(w << 6) + Long.numberOfTrailingZeros(free[base + w])];
+            }
+        }
+        return -1;
+    }
+
+    public int getNumTimeslots() {
+        return numTimeslots;
+    }
+
+    public int getNumRooms() {
+        return numRooms;
+    }
+}
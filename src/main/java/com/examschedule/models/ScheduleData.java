@@ -1,6 +1,8 @@
 package com.examschedule.models;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Chứa toàn bộ dữ liệu cho lịch thi
@@ -11,6 +13,11 @@ public class ScheduleData {
     private List<Room> rooms;
     private List<String> timeslots;
 
+    // Chỉ mục tra cứu theo ID và mô hình biên dịch, được tạo khi cần lần đầu
+    private Map<String, Exam> examsById;
+    private Map<String, Room> roomsById;
+    private CompiledInstance compiled;
+
     public ScheduleData(List<Exam> exams, List<Student> students, List<Room> rooms, List<String> timeslots) {
         this.exams = exams;
         this.students = students;
@@ -18,6 +25,15 @@ public class ScheduleData {
         this.timeslots = timeslots;
     }
 
+    /**
+     * @param compiled Mô hình biên dịch đã có sẵn, phải khớp với các danh sách
+     */
+    public ScheduleData(List<Exam> exams, List<Student> students, List<Room> rooms, List<String> timeslots,
+            CompiledInstance compiled) {
+        this(exams, students, rooms, timeslots);
+        this.compiled = compiled;
+    }
+
     public List<Exam> getExams() {
         return exams;
     }
@@ -34,12 +50,34 @@ public class ScheduleData {
         return timeslots;
     }
 
-    public Exam getExamById(String id) {
-        return exams.stream().filter(e -> e.getId().equals(id)).findFirst().orElse(null);
+    public synchronized Exam getExamById(String id) {
+        if (examsById == null) {
+            examsById = new HashMap<>();
+            for (Exam exam : exams) {
+                examsById.putIfAbsent(exam.getId(), exam);
+            }
+        }
+        return examsById.get(id);
+    }
+
+    public synchronized Room getRoomById(String id) {
+        if (roomsById == null) {
+            roomsById = new HashMap<>();
+            for (Room room : rooms) {
+                roomsById.putIfAbsent(room.getId(), room);
+            }
+        }
+        return roomsById.get(id);
     }
 
-    public Room getRoomById(String id) {
-        return rooms.stream().filter(r -> r.getId().equals(id)).findFirst().orElse(null);
+    /**
+     * Trả về mô hình chỉ số nguyên của dữ liệu, chỉ biên dịch một lần.
+     */
+    public synchronized CompiledInstance getCompiled() {
+        if (compiled == null) {
+            compiled = CompiledInstance.compile(this);
+        }
+        return compiled;
     }
 
     @Override
@@ -0,0 +1,603 @@
+package com.examschedule.runner;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.MetricsTraceWriter;
+import com.examschedule.utils.ScheduleWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Giải nhiều bộ dữ liệu trong cùng một JVM: các bộ được giải đồng thời trên
+ * một nhóm luồng có giới hạn, và mọi con kiến của mọi bộ dùng chung một
+ * ForkJoinPool nên tổng số luồng tính toán không vượt quá số lõi đã đặt.
+ * Mỗi bộ có số kiến / vòng lặp / thời gian / hạt giống riêng.
+ */
+public class BatchRunner {
+    private static final Set<String> FLAGS = new HashSet<>(Arrays.asList("--csv", "--verbose"));
+
+    /**
+     * Một bộ dữ liệu cần giải cùng cấu hình riêng của nó.
+     */
+    public static class Job {
+        private final Path input;
+        private int numAnts = 30;
+        private int maxIterations = 30;
+        private long timeLimitMillis;
+        private long seed = 1;
+
+        public Job(Path input) {
+            this.input = input;
+        }
+
+        public Path getInput() {
+            return input;
+        }
+
+        public int getNumAnts() {
+            return numAnts;
+        }
+
+        public void setNumAnts(int numAnts) {
+            this.numAnts = numAnts;
+        }
+
+        public int getMaxIterations() {
+            return maxIterations;
+        }
+
+        public void setMaxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+        }
+
+        public long getTimeLimitMillis() {
+            return timeLimitMillis;
+        }
+
+        /**
+         * @param timeLimitMillis Giới hạn thời gian của solve(), 0 = không giới hạn
+         */
+        public void setTimeLimitMillis(long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Kết quả của một bộ; error khác null nếu bộ đó thất bại.
+     */
+    public static class Result {
+        private final Job job;
+        private Path output;
+        private int numExams;
+        private double fitness = Double.NaN;
+        private int iterationsCompleted;
+        private AntColonyOptimization.StopReason stopReason;
+        private long evaluations;
+        private long loadMillis;
+        private long solveMillis;
+        private long wallMillis;
+        private String error;
+
+        Result(Job job) {
+            this.job = job;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+
+        public int getNumExams() {
+            return numExams;
+        }
+
+        public double getFitness() {
+            return fitness;
+        }
+
+        public int getIterationsCompleted() {
+            return iterationsCompleted;
+        }
+
+        public AntColonyOptimization.StopReason getStopReason() {
+            return stopReason;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        /**
+         * Thời gian của riêng solve(), không gồm nạp dữ liệu và ghi kết quả.
+         */
+        public long getSolveMillis() {
+            return solveMillis;
+        }
+
+        /**
+         * Thời gian từ lúc bắt đầu nạp dữ liệu tới khi ghi xong kết quả.
+         */
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        /**
+         * Số lần đánh giá mỗi giây của solve(); nạp dữ liệu và ghi file không được tính.
+         */
+        public double getEvaluationsPerSecond() {
+            return solveMillis > 0 ? evaluations * 1000.0 / solveMillis : 0;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path outputDir = Paths.get("test_outputs");
+    private boolean writeCsv;
+    private int antsToImprove = 5;
+    private int localSearchBudget = 5000;
+    private boolean verbose;
+    // Thư mục ghi trace số đo từng vòng lặp của mỗi bộ (null = không ghi)
+    private Path traceDir;
+    private PrintStream console = System.out;
+
+    /**
+     * Giải mọi bộ; kết quả theo đúng thứ tự của jobs. Lỗi của một bộ không làm
+     * dừng các bộ khác.
+     */
+    public List<Result> run(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Log của bộ giải từ nhiều bộ chạy đồng thời đan xen vào nhau: mặc định bỏ qua
+        PrintStream originalOut = System.out;
+        console = originalOut;
+        if (!verbose) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, jobs.size()));
+        ForkJoinPool antPool = new ForkJoinPool(threads);
+        try {
+            List<String> names = outputNames(jobs);
+            List<Future<Result>> futures = new ArrayList<>(jobs.size());
+            for (int i = 0; i < jobs.size(); i++) {
+                Job job = jobs.get(i);
+                String name = names.get(i);
+                futures.add(executor.submit(() -> solve(job, name, antPool)));
+            }
+            List<Result> results = new ArrayList<>(jobs.size());
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Batch interrupted", e);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            antPool.shutdown();
+            System.setOut(originalOut);
+        }
+    }
+
+    /**
+     * @param name Tên file kết quả (không có đuôi), riêng cho bộ này trong lô
+     */
+    private Result solve(Job job, String name, ForkJoinPool antPool) {
+        Result result = new Result(job);
+        long start = System.nanoTime();
+        try {
+            ScheduleData data = DataLoader.read(job.getInput());
+            result.numExams = data.getExams().size();
+            result.loadMillis = (System.nanoTime() - start) / 1_000_000;
+
+            AntColonyOptimization aco = new AntColonyOptimization(data, job.getNumAnts(),
+                    job.getMaxIterations(), job.getSeed());
+            aco.setPool(antPool);
+            aco.setTimeLimit(job.getTimeLimitMillis());
+            if (localSearchBudget > 0 && antsToImprove > 0) {
+                aco.setImprover(new LocalSearchImprover(data.getCompiled(), localSearchBudget),
+                        antsToImprove);
+            }
+            if (verbose) {
+                aco.setProgressInterval(10);
+            }
+            ScheduleOutput output;
+            long solveStart;
+            if (traceDir == null) {
+                solveStart = System.nanoTime();
+                output = aco.solve();
+            } else {
+                try (MetricsTraceWriter trace = new MetricsTraceWriter(traceDir.resolve(name + ".trace.csv"))) {
+                    aco.addMetricsListener(trace);
+                    solveStart = System.nanoTime();
+                    output = aco.solve();
+                }
+            }
+            result.solveMillis = (System.nanoTime() - solveStart) / 1_000_000;
+            result.fitness = output.getFitness();
+            result.iterationsCompleted = aco.getIterationsCompleted();
+            result.stopReason = aco.getStopReason();
+            result.evaluations = aco.getEvaluations();
+
+            result.output = outputDir.resolve(name + ".json");
+            ScheduleWriter.writeJSON(output.getSchedule(), output.getFitness(), result.output);
+            if (writeCsv) {
+                ScheduleWriter.writeCSV(output.getSchedule(), data, ScheduleWriter.CsvOrder.BY_TIMESLOT,
+                        outputDir.resolve(name + ".csv"));
+            }
+        } catch (Exception e) {
+            result.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        result.wallMillis = (System.nanoTime() - start) / 1_000_000;
+        synchronized (console) {
+            if (result.isSuccess()) {
+                console.println("[Batch] " + job.getInput() + " done in " + result.wallMillis
+                        + " ms (solve " + result.solveMillis + " ms), fitness " + result.fitness);
+            } else {
+                console.println("[Batch] " + job.getInput() + " failed: " + result.error);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tên file kết quả của từng bộ, không trùng nhau trong lô: thường là
+     * {@link #outputName(Path)}; nếu hai file cùng tên ở hai thư mục (a/x.json và
+     * b/x.json) thì thêm thư mục cha vào trước (a_x_output, b_x_output), và nếu
+     * vẫn trùng (cùng một file xuất hiện nhiều lần) thì thêm số thứ tự _2, _3...
+     */
+    static List<String> outputNames(List<Job> jobs) {
+        Map<String, Long> counts = jobs.stream()
+                .collect(Collectors.groupingBy(job -> outputName(job.getInput()), Collectors.counting()));
+        Map<String, Integer> seen = new HashMap<>();
+        List<String> names = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            Path input = job.getInput();
+            String name = outputName(input);
+            if (counts.get(name) > 1) {
+                Path parent = input.toAbsolutePath().normalize().getParent();
+                Path relative = Paths.get("").toAbsolutePath().relativize(parent);
+                String prefix = relative.toString().replaceAll("[\\\\/:.]+", "_").replaceAll("^_+|_+$", "");
+                if (!prefix.isEmpty()) {
+                    name = prefix + "_" + name;
+                }
+            }
+            int occurrence = seen.merge(name, 1, Integer::sum);
+            names.add(occurrence == 1 ? name : name + "_" + occurrence);
+        }
+        return names;
+    }
+
+    /**
+     * input_test1.json -> output_test1; tên khác -> &lt;tên&gt;_output.
+     */
+    static String outputName(Path input) {
+        String stem = input.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        return stem.startsWith("input_") ? "output_" + stem.substring("input_".length()) : stem + "_output";
+    }
+
+    /**
+     * In bảng tổng kết: fitness, thời gian và số lần đánh giá mỗi giây của từng bộ.
+     * @param batchMillis Thời gian chạy của cả lô
+     */
+    public static void printSummary(List<Result> results, long batchMillis, PrintStream out) {
+        int nameWidth = 24;
+        for (Result result : results) {
+            nameWidth = Math.max(nameWidth, result.getJob().getInput().toString().length());
+        }
+        String header = "%-" + nameWidth + "s %7s %11s %6s %-14s %14s %9s %9s %10s%n";
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%n" + header, "Instance", "Exams", "Ants x Iter", "Iters",
+                "Stop", "Fitness", "Solve ms", "Wall ms", "Evals/s"));
+        long totalEvaluations = 0;
+        int failed = 0;
+        for (Result result : results) {
+            Job job = result.getJob();
+            String name = job.getInput().toString();
+            if (!result.isSuccess()) {
+                failed++;
+                table.append(String.format("%-" + nameWidth + "s FAILED %s%n", name, result.getError()));
+                continue;
+            }
+            totalEvaluations += result.getEvaluations();
+            table.append(String.format("%-" + nameWidth + "s %7d %11s %6d %-14s %14.1f %9d %9d %10.0f%n",
+                    name, result.getNumExams(), job.getNumAnts() + " x " + job.getMaxIterations(),
+                    result.getIterationsCompleted(), result.getStopReason(), result.getFitness(),
+                    result.getSolveMillis(), result.getWallMillis(), result.getEvaluationsPerSecond()));
+        }
+        table.append(String.format("%d instances (%d failed) in %d ms, %.0f evaluations/s overall%n",
+                results.size(), failed, batchMillis,
+                batchMillis > 0 ? totalEvaluations * 1000.0 / batchMillis : 0));
+        out.print(table);
+    }
+
+    /**
+     * Dòng lệnh: batch [tuỳ chọn] &lt;file hoặc glob&gt;... [--list jobs.txt]
+     * <pre>
+     *   --ants N --iterations N --time-limit MS --seed N   cấu hình mặc định của mỗi bộ
+     *   --workers N      số bộ giải đồng thời (mặc định số lõi)
+     *   --threads N      số luồng xây dựng lời giải dùng chung (mặc định số lõi)
+     *   --local-search B --improve K   tìm kiếm cục bộ (B = 0 để tắt)
+     *   --out DIR        thư mục kết quả (mặc định test_outputs)
+     *   --csv            ghi thêm file CSV
+     *   --verbose        giữ log của bộ giải
+     *   --trace DIR      ghi số đo từng vòng lặp của mỗi bộ ra DIR/&lt;tên&gt;.trace.csv
+     *   --list FILE      mỗi dòng: &lt;file hoặc glob&gt; [ants=N] [iterations=N] [time=MS] [seed=N]
+     * </pre>
+     * Glob nên đặt trong dấu nháy để shell không tự mở rộng, ví dụ "test_inputs/*.json".
+     * @return Số bộ thất bại
+     */
+    public static int runFromArgs(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                patterns.add(args[i]);
+            } else if (FLAGS.contains(args[i])) {
+                options.put(args[i], "");
+            } else if (i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+        }
+
+        Job defaults = new Job(null);
+        defaults.setNumAnts(Integer.parseInt(options.getOrDefault("--ants", "30")));
+        defaults.setMaxIterations(Integer.parseInt(options.getOrDefault("--iterations", "30")));
+        defaults.setTimeLimitMillis(Long.parseLong(options.getOrDefault("--time-limit", "0")));
+        defaults.setSeed(Long.parseLong(options.getOrDefault("--seed", "1")));
+
+        List<Job> jobs = new ArrayList<>();
+        for (String pattern : patterns) {
+            for (Path input : expand(pattern)) {
+                jobs.add(copyOf(defaults, input));
+            }
+        }
+        if (options.containsKey("--list")) {
+            jobs.addAll(readJobList(Paths.get(options.get("--list")), defaults));
+        }
+        if (jobs.isEmpty()) {
+            throw new IllegalArgumentException("No input files (usage: batch [options] <file|glob>... [--list jobs.txt])");
+        }
+
+        BatchRunner runner = new BatchRunner();
+        int cpus = Runtime.getRuntime().availableProcessors();
+        runner.setWorkers(Integer.parseInt(options.getOrDefault("--workers", String.valueOf(cpus))));
+        runner.setThreads(Integer.parseInt(options.getOrDefault("--threads", String.valueOf(cpus))));
+        runner.setOutputDir(Paths.get(options.getOrDefault("--out", "test_outputs")));
+        runner.setWriteCsv(options.containsKey("--csv"));
+        runner.setLocalSearch(Integer.parseInt(options.getOrDefault("--improve", "5")),
+                Integer.parseInt(options.getOrDefault("--local-search", "5000")));
+        runner.setVerbose(options.containsKey("--verbose"));
+        if (options.containsKey("--trace")) {
+            runner.setTraceDir(Paths.get(options.get("--trace")));
+        }
+
+        System.out.println("[Batch] Solving " + jobs.size() + " instances with " + Math.min(runner.workers, jobs.size())
+                + " workers and " + runner.threads + " ant threads");
+        long start = System.nanoTime();
+        List<Result> results = runner.run(jobs);
+        long batchMillis = (System.nanoTime() - start) / 1_000_000;
+        printSummary(results, batchMillis, System.out);
+        return (int) results.stream().filter(result -> !result.isSuccess()).count();
+    }
+
+    private static List<Job> readJobList(Path listFile, Job defaults) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        List<String> lines = Files.readAllLines(listFile, StandardCharsets.UTF_8);
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            for (Path input : expand(fields[0])) {
+                Job job = copyOf(defaults, input);
+                for (int f = 1; f < fields.length; f++) {
+                    String[] pair = fields[f].split("=", 2);
+                    if (pair.length != 2) {
+                        throw new IllegalArgumentException(listFile + ":" + (n + 1) + ": expected key=value but found " + fields[f]);
+                    }
+                    switch (pair[0]) {
+                        case "ants":
+                            job.setNumAnts(Integer.parseInt(pair[1]));
+                            break;
+                        case "iterations":
+                            job.setMaxIterations(Integer.parseInt(pair[1]));
+                            break;
+                        case "time":
+                            job.setTimeLimitMillis(Long.parseLong(pair[1]));
+                            break;
+                        case "seed":
+                            job.setSeed(Long.parseLong(pair[1]));
+                            break;
+                        default:
+                            throw new IllegalArgumentException(listFile + ":" + (n + 1) + ": unknown setting " + pair[0]);
+                    }
+                }
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    private static Job copyOf(Job defaults, Path input) {
+        Job job = new Job(input);
+        job.setNumAnts(defaults.getNumAnts());
+        job.setMaxIterations(defaults.getMaxIterations());
+        job.setTimeLimitMillis(defaults.getTimeLimitMillis());
+        job.setSeed(defaults.getSeed());
+        return job;
+    }
+
+    /**
+     * Mở rộng một glob (*, ?, [..], {..}, **) thành danh sách file đã sắp xếp;
+     * đường dẫn không có ký tự glob được trả về nguyên vẹn.
+     */
+    static List<Path> expand(String pattern) throws IOException {
+        String normalized = pattern.replace('\\', '/');
+        String[] parts = normalized.split("/");
+        int firstGlob = 0;
+        while (firstGlob < parts.length && !isGlob(parts[firstGlob])) {
+            firstGlob++;
+        }
+        if (firstGlob == parts.length) {
+            List<Path> single = new ArrayList<>();
+            single.add(Paths.get(pattern));
+            return single;
+        }
+
+        String base = String.join("/", Arrays.copyOfRange(parts, 0, firstGlob));
+        String rest = String.join("/", Arrays.copyOfRange(parts, firstGlob, parts.length));
+        Path baseDir = Paths.get(base.isEmpty() ? "." : base);
+        if (!Files.isDirectory(baseDir)) {
+            return new ArrayList<>();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + rest);
+        int depth = rest.contains("**") ? Integer.MAX_VALUE : parts.length - firstGlob;
+        try (Stream<Path> files = Files.walk(baseDir, depth)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(baseDir.relativize(file)))
+                    .map(file -> base.isEmpty() ? baseDir.relativize(file) : file)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isGlob(String part) {
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @param workers Số bộ dữ liệu được giải đồng thời
+     */
+    public void setWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be >= 1: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads Số luồng của ForkJoinPool xây dựng lời giải dùng chung cho mọi bộ
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(Path outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public boolean isWriteCsv() {
+        return writeCsv;
+    }
+
+    public void setWriteCsv(boolean writeCsv) {
+        this.writeCsv = writeCsv;
+    }
+
+    /**
+     * @param antsToImprove Số con kiến tốt nhất được cải thiện mỗi vòng
+     * @param localSearchBudget Ngân sách đánh giá của mỗi lần cải thiện, 0 = tắt
+     */
+    public void setLocalSearch(int antsToImprove, int localSearchBudget) {
+        this.antsToImprove = antsToImprove;
+        this.localSearchBudget = localSearchBudget;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * @param verbose true để giữ log của bộ giải (bị đan xen giữa các bộ)
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public Path getTraceDir() {
+        return traceDir;
+    }
+
+    /**
+     * @param traceDir Thư mục ghi trace CSV số đo từng vòng lặp, null để tắt
+     */
+    public void setTraceDir(Path traceDir) {
+        this.traceDir = traceDir;
+    }
+}
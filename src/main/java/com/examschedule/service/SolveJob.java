@@ -0,0 +1,188 @@
+package com.examschedule.service;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.models.ScheduleOutput;
+import org.json.JSONObject;
+
+/**
+ * Một yêu cầu giải trong {@link SolverService}. Trạng thái được cập nhật từ luồng
+ * giải và đọc từ luồng HTTP nên các trường thay đổi đều là volatile.
+ */
+public class SolveJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    private final String id;
+    private final String instanceHash;
+    private final int numAnts;
+    private final int maxIterations;
+    private final long timeLimitMillis;
+    private final long seed;
+    private final long submittedNanos = System.nanoTime();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile AntColonyOptimization solver;
+    private volatile boolean cancelRequested;
+    private volatile double bestFitness = Double.NaN;
+    private volatile int bestIteration;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    // Số vòng đã chạy khi job kết thúc (tham chiếu tới bộ giải được bỏ sau đó)
+    private volatile int completedIterations;
+    private volatile ScheduleOutput result;
+    private volatile AntColonyOptimization.StopReason stopReason;
+    private volatile String error;
+
+    SolveJob(String id, String instanceHash, int numAnts, int maxIterations,
+            long timeLimitMillis, long seed) {
+        this.id = id;
+        this.instanceHash = instanceHash;
+        this.numAnts = numAnts;
+        this.maxIterations = maxIterations;
+        this.timeLimitMillis = timeLimitMillis;
+        this.seed = seed;
+    }
+
+    /**
+     * Huỷ job: job đang chờ sẽ không được chạy, job đang chạy dừng sau vòng lặp
+     * hiện tại và vẫn giữ lời giải tốt nhất đã có.
+     * @return false nếu job đã kết thúc
+     */
+    synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        AntColonyOptimization running = solver;
+        if (running != null) {
+            running.cancel();
+        } else if (status == Status.QUEUED) {
+            status = Status.CANCELLED;
+            finishedNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    /**
+     * Gắn bộ giải khi job bắt đầu chạy.
+     * @return false nếu job đã bị huỷ trước khi kịp chạy
+     */
+    synchronized boolean start(AntColonyOptimization solver) {
+        if (cancelRequested) {
+            return false;
+        }
+        this.solver = solver;
+        startedNanos = System.nanoTime();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    void onIncumbent(double fitness, int iteration) {
+        bestFitness = fitness;
+        bestIteration = iteration;
+    }
+
+    void finish(ScheduleOutput output, AntColonyOptimization.StopReason reason, int iterations) {
+        completedIterations = iterations;
+        result = output;
+        stopReason = reason;
+        bestFitness = output.getFitness();
+        finishedNanos = System.nanoTime();
+        status = reason == AntColonyOptimization.StopReason.CANCELLED ? Status.CANCELLED : Status.DONE;
+        solver = null;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedNanos = System.nanoTime();
+        status = Status.FAILED;
+        solver = null;
+    }
+
+    public boolean isFinished() {
+        Status current = status;
+        return current == Status.DONE || current == Status.FAILED || current == Status.CANCELLED;
+    }
+
+    /**
+     * Trạng thái hiện tại dưới dạng JSON cho API.
+     */
+    JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("status", status.name());
+        json.put("instance", instanceHash);
+        json.put("ants", numAnts);
+        json.put("iterations", maxIterations);
+        json.put("timeLimitMillis", timeLimitMillis);
+        json.put("seed", seed);
+        AntColonyOptimization running = solver;
+        json.put("iterationsCompleted", running != null ? running.getIterationsCompleted() : completedIterations);
+        if (!Double.isNaN(bestFitness) && bestFitness != Double.MAX_VALUE) {
+            json.put("bestFitness", bestFitness);
+            json.put("bestIteration", bestIteration);
+        }
+        long now = System.nanoTime();
+        long started = startedNanos;
+        long finished = finishedNanos;
+        long dequeued = started != 0 ? started : finished != 0 ? finished : now;
+        json.put("queuedMillis", (dequeued - submittedNanos) / 1_000_000);
+        if (started != 0) {
+            json.put("elapsedMillis", ((finished != 0 ? finished : now) - started) / 1_000_000);
+        }
+        if (stopReason != null) {
+            json.put("stopReason", stopReason.name());
+        }
+        if (error != null) {
+            json.put("error", error);
+        }
+        return json;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getInstanceHash() {
+        return instanceHash;
+    }
+
+    public int getNumAnts() {
+        return numAnts;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * @return Lời giải cuối cùng, hoặc null nếu job chưa xong
+     */
+    public ScheduleOutput getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    long getFinishedNanos() {
+        return finishedNanos;
+    }
+}
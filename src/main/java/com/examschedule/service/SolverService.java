@@ -0,0 +1,423 @@
+package com.examschedule.service;
+
+import com.examschedule.algorithms.AntColonyOptimization;
+import com.examschedule.algorithms.LocalSearchImprover;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.ScheduleOutput;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.ScheduleFormatException;
+import com.examschedule.utils.ScheduleWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONObject;
+
+/**
+ * Dịch vụ giải chạy lâu dài trên HTTP cục bộ (com.sun.net.httpserver), giữ JVM
+ * và JIT luôn "nóng" giữa các yêu cầu.
+ * <pre>
+ *   POST   /jobs?ants=30&amp;iterations=30&amp;timeLimit=MS&amp;seed=N   body: ScheduleData JSON -&gt; 202 + trạng thái job
+ *   GET    /jobs/{id}            trạng thái, số vòng đã chạy và fitness tốt nhất hiện tại
+ *   DELETE /jobs/{id}            huỷ (job đang chạy giữ lời giải tốt nhất đã có)
+ *   GET    /jobs/{id}/schedule   lịch thi cuối cùng (409 nếu job chưa xong)
+ *   GET    /health               số job theo trạng thái và kích thước cache
+ * </pre>
+ * Job được xếp hàng trên một nhóm luồng có giới hạn (hàng đợi đầy -&gt; 503) và
+ * mọi con kiến dùng chung một ForkJoinPool. Dữ liệu đã nạp (kèm mô hình biên
+ * dịch và đồ thị xung đột) được cache theo SHA-256 của nội dung yêu cầu nên
+ * gửi lại cùng một bộ dữ liệu không phải phân tích và biên dịch lại.
+ */
+public class SolverService {
+    // Giới hạn kích thước body để một yêu cầu không chiếm hết heap
+    private static final long MAX_BODY_BYTES = 256L * 1024 * 1024;
+
+    private final int workers;
+    private final int threads;
+    private final int queueCapacity;
+    private final int cacheSize;
+    private final int maxRetainedJobs;
+
+    private HttpServer server;
+    private ThreadPoolExecutor jobExecutor;
+    private ExecutorService httpExecutor;
+    private ForkJoinPool antPool;
+
+    private final Map<String, SolveJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    // LRU theo thứ tự truy cập, khoá bằng chính đối tượng map
+    private final LinkedHashMap<String, ScheduleData> instanceCache;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    private int antsToImprove = 5;
+    private int localSearchBudget = 5000;
+
+    /**
+     * @param workers Số job được giải đồng thời
+     * @param threads Số luồng xây dựng lời giải dùng chung cho mọi job
+     * @param queueCapacity Số job tối đa được chờ
+     * @param cacheSize Số bộ dữ liệu đã biên dịch được giữ trong cache
+     */
+    public SolverService(int workers, int threads, int queueCapacity, int cacheSize) {
+        if (workers < 1 || threads < 1 || queueCapacity < 1 || cacheSize < 1) {
+            throw new IllegalArgumentException("workers, threads, queue and cache must be >= 1");
+        }
+        this.workers = workers;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.cacheSize = cacheSize;
+        this.maxRetainedJobs = Math.max(1000, queueCapacity * 2);
+        this.instanceCache = new LinkedHashMap<String, ScheduleData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScheduleData> eldest) {
+                return size() > SolverService.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Mở cổng HTTP và bắt đầu nhận job.
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        jobExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        antPool = new ForkJoinPool(threads);
+        httpExecutor = Executors.newFixedThreadPool(4);
+        // Tắt Nagle: header và thân phản hồi nhỏ được ghi riêng, gặp delayed ACK sẽ trễ ~40 ms mỗi yêu cầu
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(address, 128);
+        server.createContext("/jobs", this::handleJobs);
+        server.createContext("/health", this::handleHealth);
+        server.setExecutor(httpExecutor);
+        server.start();
+        System.out.println("[Service] Listening on http://" + address.getHostString() + ":"
+                + server.getAddress().getPort() + " (" + workers + " workers, " + threads
+                + " ant threads, queue " + queueCapacity + ", cache " + cacheSize + ")");
+    }
+
+    /**
+     * Dừng nhận yêu cầu, huỷ các job còn lại và giải phóng các nhóm luồng.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        for (SolveJob job : jobs.values()) {
+            job.cancel();
+        }
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+        if (antPool != null) {
+            antPool.shutdownNow();
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Cổng thực tế (hữu ích khi mở với cổng 0).
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            String[] parts = path.split("/");
+            // "/jobs" -> ["", "jobs"]; "/jobs/7" -> ["", "jobs", "7"]
+            if (parts.length < 2 || !parts[1].equals("jobs")) {
+                sendError(exchange, 404, "no such resource: " + path);
+                return;
+            }
+            if (parts.length == 2) {
+                if (method.equals("POST")) {
+                    submit(exchange);
+                } else {
+                    sendError(exchange, 405, "use POST /jobs to submit a job");
+                }
+                return;
+            }
+            SolveJob job = parts.length <= 4 ? jobs.get(parts[2]) : null;
+            if (job == null) {
+                sendError(exchange, 404, "no such job: " + path);
+                return;
+            }
+            if (parts.length == 3 && method.equals("GET")) {
+                sendJSON(exchange, 200, job.toJSON());
+            } else if (parts.length == 3 && method.equals("DELETE")) {
+                job.cancel();
+                sendJSON(exchange, 200, job.toJSON());
+            } else if (parts.length == 4 && parts[3].equals("schedule") && method.equals("GET")) {
+                sendSchedule(exchange, job);
+            } else {
+                sendError(exchange, 405, method + " " + path + " is not supported");
+            }
+        } catch (RuntimeException | Error e) {
+            // Cả Error (OutOfMemoryError, StackOverflowError...) cũng trả 500 để client không chờ mãi
+            sendError(exchange, 500, e.toString());
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        int numAnts;
+        int maxIterations;
+        long timeLimit;
+        long seed;
+        try {
+            numAnts = Integer.parseInt(query.getOrDefault("ants", "30"));
+            maxIterations = Integer.parseInt(query.getOrDefault("iterations", "30"));
+            timeLimit = Long.parseLong(query.getOrDefault("timeLimit", "0"));
+            seed = Long.parseLong(query.getOrDefault("seed", "1"));
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "invalid query parameter: " + e.getMessage());
+            return;
+        }
+        if (numAnts < 1 || maxIterations < 1 || timeLimit < 0) {
+            sendError(exchange, 400, "ants and iterations must be >= 1, timeLimit >= 0");
+            return;
+        }
+
+        byte[] body = readBody(exchange.getRequestBody());
+        if (body == null) {
+            sendError(exchange, 413, "request body larger than " + MAX_BODY_BYTES + " bytes");
+            return;
+        }
+        String hash = sha256(body);
+        ScheduleData data;
+        boolean cached;
+        try {
+            synchronized (instanceCache) {
+                data = instanceCache.get(hash);
+            }
+            cached = data != null;
+            if (cached) {
+                cacheHits.incrementAndGet();
+            } else {
+                cacheMisses.incrementAndGet();
+                data = DataLoader.readJSON(Channels.newChannel(new ByteArrayInputStream(body)), "request");
+                // Biên dịch và dựng đồ thị xung đột một lần cho mọi job dùng bộ dữ liệu này
+                data.getCompiled().getConflictGraph();
+                synchronized (instanceCache) {
+                    instanceCache.put(hash, data);
+                }
+            }
+        } catch (ScheduleFormatException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+
+        SolveJob job = new SolveJob(String.valueOf(nextJobId.getAndIncrement()), hash,
+                numAnts, maxIterations, timeLimit, seed);
+        jobs.put(job.getId(), job);
+        ScheduleData jobData = data;
+        try {
+            jobExecutor.execute(() -> run(job, jobData));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            sendError(exchange, 503, "job queue is full (" + queueCapacity + " jobs waiting)");
+            return;
+        }
+        evictFinishedJobs();
+
+        JSONObject response = job.toJSON();
+        response.put("cached", cached);
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+        sendJSON(exchange, 202, response);
+    }
+
+    private void run(SolveJob job, ScheduleData data) {
+        if (job.isFinished()) {
+            // Bị huỷ khi còn trong hàng đợi
+            return;
+        }
+        try {
+            AntColonyOptimization aco = new AntColonyOptimization(data, job.getNumAnts(),
+                    job.getMaxIterations(), job.getSeed());
+            aco.setPool(antPool);
+            aco.setTimeLimit(job.getTimeLimitMillis());
+            if (antsToImprove > 0 && localSearchBudget > 0) {
+                aco.setImprover(new LocalSearchImprover(data.getCompiled(), localSearchBudget), antsToImprove);
+            }
+            aco.setIncumbentListener((incumbent, iteration, elapsedMillis) ->
+                    job.onIncumbent(incumbent.getFitness(), iteration));
+            if (!job.start(aco)) {
+                return;
+            }
+            ScheduleOutput output = aco.solve();
+            job.finish(output, aco.getStopReason(), aco.getIterationsCompleted());
+        } catch (Throwable e) {
+            // Job phải sang FAILED kể cả khi gặp Error: nếu kẹt ở RUNNING nó không bao giờ
+            // bị evictFinishedJobs bỏ đi và vẫn giữ tham chiếu tới bộ giải cùng dữ liệu
+            job.fail(e.toString());
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    private void sendSchedule(HttpExchange exchange, SolveJob job) throws IOException {
+        ScheduleOutput result = job.getResult();
+        if (result == null) {
+            sendError(exchange, 409, "job " + job.getId() + " is " + job.getStatus()
+                    + (job.getError() != null ? ": " + job.getError() : ""));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // Độ dài chưa biết trước: dùng chunked encoding và ghi theo luồng
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                StandardCharsets.UTF_8), 1 << 16);
+        ScheduleWriter.writeJSON(result.getSchedule(), result.getFitness(), out);
+        out.flush();
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            Map<SolveJob.Status, Integer> counts = new HashMap<>();
+            for (SolveJob job : jobs.values()) {
+                counts.merge(job.getStatus(), 1, Integer::sum);
+            }
+            JSONObject json = new JSONObject();
+            json.put("status", "ok");
+            JSONObject jobCounts = new JSONObject();
+            for (SolveJob.Status status : SolveJob.Status.values()) {
+                jobCounts.put(status.name(), counts.getOrDefault(status, 0));
+            }
+            json.put("jobs", jobCounts);
+            synchronized (instanceCache) {
+                json.put("cachedInstances", instanceCache.size());
+            }
+            json.put("cacheHits", cacheHits.get());
+            json.put("cacheMisses", cacheMisses.get());
+            sendJSON(exchange, 200, json);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Giữ tối đa maxRetainedJobs job; bỏ các job đã kết thúc sớm nhất.
+     */
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - maxRetainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        SolveJob[] finished = jobs.values().stream().filter(SolveJob::isFinished)
+                .sorted((a, b) -> Long.compare(a.getFinishedNanos(), b.getFinishedNanos()))
+                .toArray(SolveJob[]::new);
+        for (int i = 0; i < Math.min(excess, finished.length); i++) {
+            jobs.remove(finished[i].getId());
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        int size = 0;
+        int read;
+        while ((read = in.read(buffer, size, buffer.length - size)) >= 0) {
+            size += read;
+            if (size == buffer.length) {
+                if (buffer.length >= MAX_BODY_BYTES) {
+                    return null;
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_BODY_BYTES, buffer.length * 2L));
+            }
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void sendJSON(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("error", message);
+        sendJSON(exchange, status, json);
+    }
+
+    /**
+     * @param antsToImprove Số con kiến tốt nhất được cải thiện mỗi vòng
+     * @param localSearchBudget Ngân sách đánh giá của mỗi lần cải thiện, 0 = tắt
+     */
+    public void setLocalSearch(int antsToImprove, int localSearchBudget) {
+        this.antsToImprove = antsToImprove;
+        this.localSearchBudget = localSearchBudget;
+    }
+}
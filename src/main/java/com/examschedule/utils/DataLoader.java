@@ -1,9 +1,16 @@
 package com.examschedule.utils;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -14,7 +21,298 @@ import com.examschedule.models.ScheduleData;
 import com.examschedule.models.Student;
 
 public class DataLoader {
+
+    /**
+     * Nạp dữ liệu từ file JSON hoặc snapshot nhị phân ({@link ScheduleSnapshot}),
+     * nhận dạng theo nội dung file chứ không theo phần mở rộng.
+     * @return Dữ liệu đã nạp, hoặc null nếu không đọc được (lỗi đã được in ra)
+     */
+    public static ScheduleData load(String filePath) {
+        try {
+            if (ScheduleSnapshot.isSnapshot(Paths.get(filePath))) {
+                return loadFromSnapshot(filePath);
+            }
+        } catch (IOException e) {
+            System.err.println("[DataLoader] Error reading " + filePath + ": " + e.getMessage());
+            return null;
+        }
+        return loadFromJSON(filePath);
+    }
+
+    /**
+     * Đọc file JSON hoặc snapshot (nhận dạng theo nội dung) mà không in log.
+     * @throws ScheduleFormatException nếu file sai định dạng
+     */
+    public static ScheduleData read(Path path) throws IOException {
+        return ScheduleSnapshot.isSnapshot(path) ? ScheduleSnapshot.read(path) : readJSON(path);
+    }
+
+    /**
+     * Nạp snapshot nhị phân qua memory-map; mô hình biên dịch và đồ thị xung đột
+     * có sẵn ngay, không phải tính lại.
+     * @return Dữ liệu đã nạp, hoặc null nếu không đọc được (lỗi đã được in ra)
+     */
+    public static ScheduleData loadFromSnapshot(String filePath) {
+        try {
+            ScheduleData data = ScheduleSnapshot.read(Paths.get(filePath));
+            System.out.println("[DataLoader] Loaded snapshot with " + data.getExams().size() + " exams, "
+                    + data.getStudents().size() + " students, " + data.getRooms().size()
+                    + " rooms, " + data.getTimeslots().size() + " timeslots");
+            System.out.println("[DataLoader] Successfully loaded schedule data");
+            return data;
+        } catch (ScheduleFormatException e) {
+            System.err.println("[DataLoader] Invalid input: " + e.getMessage());
+            return null;
+        } catch (Exception e) {
+            System.err.println("[DataLoader] Error loading snapshot: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Nạp dữ liệu bằng bộ đọc luồng {@link #readJSON(Path)}.
+     * @return Dữ liệu đã nạp, hoặc null nếu không đọc được (lỗi đã được in ra)
+     */
     public static ScheduleData loadFromJSON(String filePath) {
+        try {
+            ScheduleData data = readJSON(Paths.get(filePath));
+            System.out.println("[DataLoader] Loaded " + data.getExams().size() + " exams, "
+                    + data.getStudents().size() + " students, " + data.getRooms().size()
+                    + " rooms, " + data.getTimeslots().size() + " timeslots");
+            System.out.println("[DataLoader] Successfully loaded schedule data");
+            return data;
+        } catch (ScheduleFormatException e) {
+            System.err.println("[DataLoader] Invalid input: " + e.getMessage());
+            return null;
+        } catch (Exception e) {
+            System.err.println("[DataLoader] Error loading JSON: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Đọc file dữ liệu theo luồng qua FileChannel: phân tích từng token và dựng
+     * trực tiếp các đối tượng mô hình, không đọc cả file vào String và không
+     * dựng cây JSON. Mã sinh viên được dùng chung một đối tượng String cho mọi
+     * lần xuất hiện. Các trường không biết được bỏ qua.
+     * @throws ScheduleFormatException nếu file sai cú pháp, thiếu trường hoặc sai kiểu
+     */
+    public static ScheduleData readJSON(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readJSON(channel, path.toString());
+        }
+    }
+
+    /**
+     * Như {@link #readJSON(Path)} nhưng đọc từ một kênh bất kỳ.
+     * @param source Tên nguồn dùng trong thông báo lỗi
+     */
+    public static ScheduleData readJSON(ReadableByteChannel channel, String source)
+            throws IOException {
+        JsonReader reader = new JsonReader(channel, source);
+        Map<String, String> interned = new HashMap<>();
+        List<Exam> exams = null;
+        List<Student> students = null;
+        List<Room> rooms = null;
+        List<String> timeslots = null;
+
+        if (reader.peek() != '{') {
+            throw reader.error("the document must be an object but found " + reader.describeNext());
+        }
+        reader.expect('{');
+        if (!reader.consumeIf('}')) {
+            do {
+                String name = reader.readString();
+                reader.expect(':');
+                switch (name) {
+                    case "exams":
+                        exams = readExams(reader, interned);
+                        break;
+                    case "students":
+                        students = readStudents(reader, interned);
+                        break;
+                    case "rooms":
+                        rooms = readRooms(reader);
+                        break;
+                    case "timeslots":
+                        timeslots = readTimeslots(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            } while (reader.consumeIf(','));
+            reader.expect('}');
+        }
+        reader.expectEnd();
+
+        requireField(reader, exams, "exams");
+        requireField(reader, students, "students");
+        requireField(reader, rooms, "rooms");
+        requireField(reader, timeslots, "timeslots");
+        return new ScheduleData(exams, students, rooms, timeslots);
+    }
+
+    private static List<Exam> readExams(JsonReader reader, Map<String, String> interned)
+            throws IOException {
+        List<Exam> exams = new ArrayList<>();
+        beginArray(reader, "\"exams\"");
+        if (!reader.consumeIf(']')) {
+            do {
+                String context = "exams[" + exams.size() + "]";
+                beginObject(reader, context);
+                String id = null;
+                List<String> students = null;
+                if (!reader.consumeIf('}')) {
+                    do {
+                        String name = reader.readString();
+                        reader.expect(':');
+                        if (name.equals("id")) {
+                            id = readStringValue(reader, context + ".id");
+                        } else if (name.equals("students")) {
+                            students = new ArrayList<>();
+                            beginArray(reader, context + ".students");
+                            if (!reader.consumeIf(']')) {
+                                do {
+                                    String studentId = readStringValue(reader,
+                                            context + ".students[" + students.size() + "]");
+                                    students.add(intern(interned, studentId));
+                                } while (reader.consumeIf(','));
+                                reader.expect(']');
+                            }
+                        } else {
+                            reader.skipValue();
+                        }
+                    } while (reader.consumeIf(','));
+                    reader.expect('}');
+                }
+                requireField(reader, id, context + ".id");
+                requireField(reader, students, context + ".students");
+                exams.add(new Exam(id, students));
+            } while (reader.consumeIf(','));
+            reader.expect(']');
+        }
+        return exams;
+    }
+
+    private static List<Student> readStudents(JsonReader reader, Map<String, String> interned)
+            throws IOException {
+        List<Student> students = new ArrayList<>();
+        beginArray(reader, "\"students\"");
+        if (!reader.consumeIf(']')) {
+            do {
+                String context = "students[" + students.size() + "]";
+                beginObject(reader, context);
+                String id = null;
+                if (!reader.consumeIf('}')) {
+                    do {
+                        String name = reader.readString();
+                        reader.expect(':');
+                        if (name.equals("id")) {
+                            id = intern(interned, readStringValue(reader, context + ".id"));
+                        } else {
+                            reader.skipValue();
+                        }
+                    } while (reader.consumeIf(','));
+                    reader.expect('}');
+                }
+                requireField(reader, id, context + ".id");
+                students.add(new Student(id));
+            } while (reader.consumeIf(','));
+            reader.expect(']');
+        }
+        return students;
+    }
+
+    private static List<Room> readRooms(JsonReader reader) throws IOException {
+        List<Room> rooms = new ArrayList<>();
+        beginArray(reader, "\"rooms\"");
+        if (!reader.consumeIf(']')) {
+            do {
+                String context = "rooms[" + rooms.size() + "]";
+                beginObject(reader, context);
+                String id = null;
+                Integer capacity = null;
+                if (!reader.consumeIf('}')) {
+                    do {
+                        String name = reader.readString();
+                        reader.expect(':');
+                        if (name.equals("id")) {
+                            id = readStringValue(reader, context + ".id");
+                        } else if (name.equals("capacity")) {
+                            int next = reader.peek();
+                            if (next != '-' && (next < '0' || next > '9')) {
+                                throw reader.error(context + ".capacity must be a number but found "
+                                        + reader.describeNext());
+                            }
+                            capacity = reader.readInt();
+                        } else {
+                            reader.skipValue();
+                        }
+                    } while (reader.consumeIf(','));
+                    reader.expect('}');
+                }
+                requireField(reader, id, context + ".id");
+                requireField(reader, capacity, context + ".capacity");
+                rooms.add(new Room(id, capacity));
+            } while (reader.consumeIf(','));
+            reader.expect(']');
+        }
+        return rooms;
+    }
+
+    private static List<String> readTimeslots(JsonReader reader) throws IOException {
+        List<String> timeslots = new ArrayList<>();
+        beginArray(reader, "\"timeslots\"");
+        if (!reader.consumeIf(']')) {
+            do {
+                timeslots.add(readStringValue(reader, "timeslots[" + timeslots.size() + "]"));
+            } while (reader.consumeIf(','));
+            reader.expect(']');
+        }
+        return timeslots;
+    }
+
+    private static void beginArray(JsonReader reader, String context) throws IOException {
+        if (reader.peek() != '[') {
+            throw reader.error(context + " must be an array but found " + reader.describeNext());
+        }
+        reader.expect('[');
+    }
+
+    private static void beginObject(JsonReader reader, String context) throws IOException {
+        if (reader.peek() != '{') {
+            throw reader.error(context + " must be an object but found " + reader.describeNext());
+        }
+        reader.expect('{');
+    }
+
+    private static String readStringValue(JsonReader reader, String context) throws IOException {
+        if (reader.peek() != '"') {
+            throw reader.error(context + " must be a string but found " + reader.describeNext());
+        }
+        return reader.readString();
+    }
+
+    private static void requireField(JsonReader reader, Object value, String field)
+            throws ScheduleFormatException {
+        if (value == null) {
+            throw reader.error("missing required field " + field);
+        }
+    }
+
+    private static String intern(Map<String, String> interned, String value) {
+        String existing = interned.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Bộ nạp cũ dựa trên cây org.json: đọc cả file vào String rồi dựng DOM.
+     * Giữ lại để đối chiếu kết quả và hiệu năng với {@link #loadFromJSON(String)}.
+     * @return Dữ liệu đã nạp, hoặc null nếu không đọc được
+     */
+    public static ScheduleData loadFromJSONTree(String filePath) {
         try {
             String content = new String(Files.readAllBytes(Paths.get(filePath)));
             JSONObject jsonObject = new JSONObject(content);
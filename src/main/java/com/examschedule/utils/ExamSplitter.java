@@ -5,44 +5,82 @@ import java.util.*;
 
 public class ExamSplitter {
 
+    /**
+     * Chia môn vào các phòng trong availableRooms theo cách tham lam của
+     * {@link SplitPlanner}: lấy phòng lớn nhất cho đến khi một phòng còn lại đủ chỗ
+     * cho phần còn thiếu, rồi lấy phòng nhỏ nhất như vậy; sinh viên được chia đều,
+     * mỗi phòng tối đa sức chứa. Mọi sinh viên đều có chỗ: nếu tổng sức chứa không
+     * đủ, trả về danh sách rỗng.
+     * @return Các dòng phân công, hoặc danh sách rỗng nếu các phòng không đủ chỗ
+     */
     public static List<Assignment> splitExamIntoRooms(Exam exam, String timeslot, 
                                                       List<Room> availableRooms) {
         List<Assignment> assignments = new ArrayList<>();
         int totalStudents = exam.getStudentCount();
+        if (totalStudents <= 0 || getTotalCapacity(availableRooms) < totalStudents) {
+            return assignments;
+        }
         
         List<Room> sortedRooms = new ArrayList<>(availableRooms);
         sortedRooms.sort((r1, r2) -> Integer.compare(r2.getCapacity(), r1.getCapacity()));
         
-        if (totalStudents <= sortedRooms.get(0).getCapacity()) {
-            assignments.add(new Assignment(exam.getId(), timeslot, sortedRooms.get(0).getId(), totalStudents));
-            return assignments;
+        List<Room> usedRooms = new ArrayList<>();
+        int remaining = totalStudents;
+        int next = 0;
+        while (remaining > 0) {
+            int fits = -1;
+            for (int i = next; i < sortedRooms.size() && sortedRooms.get(i).getCapacity() >= remaining; i++) {
+                fits = i;
+            }
+            if (fits >= 0) {
+                usedRooms.add(sortedRooms.get(fits));
+                break;
+            }
+            usedRooms.add(sortedRooms.get(next));
+            remaining -= sortedRooms.get(next).getCapacity();
+            next++;
         }
         
-        int minRoomsNeeded = (totalStudents + sortedRooms.get(0).getCapacity() - 1) / sortedRooms.get(0).getCapacity();
-        
-        List<Room> usedRooms = sortedRooms.subList(0, Math.min(minRoomsNeeded, sortedRooms.size()));
-        
-        int numRoomsUsed = usedRooms.size();
-        int baseStudentsPerRoom = totalStudents / numRoomsUsed;
-        int extraStudents = totalStudents % numRoomsUsed;
-        
+        // Phòng nhỏ trước: mỗi phòng nhận phần đều của số còn lại, tối đa sức chứa
+        int[] counts = new int[usedRooms.size()];
+        remaining = totalStudents;
+        for (int i = usedRooms.size() - 1; i >= 0; i--) {
+            counts[i] = Math.min(usedRooms.get(i).getCapacity(), (remaining + i) / (i + 1));
+            remaining -= counts[i];
+        }
         for (int i = 0; i < usedRooms.size(); i++) {
-            Room room = usedRooms.get(i);
-            
-            int studentsInThisRoom = baseStudentsPerRoom + (i < extraStudents ? 1 : 0);
-            
-            if (studentsInThisRoom > room.getCapacity()) {
-                studentsInThisRoom = room.getCapacity();
-            }
-            
-            if (studentsInThisRoom > 0) {
-                assignments.add(new Assignment(exam.getId(), timeslot, room.getId(), studentsInThisRoom));
-            }
+            assignments.add(new Assignment(exam.getId(), timeslot, usedRooms.get(i).getId(), counts[i]));
         }
         
         return assignments;
     }
 
+    /**
+     * Chia môn vào tập phòng trống của ca thừa ít chỗ nhất ({@link SplitPlanner}),
+     * lấy từ chỉ mục phòng trống, rồi đánh dấu các phòng đã dùng. Mọi sinh viên đều
+     * có chỗ: nếu tổng sức chứa còn trống của ca không đủ, không thêm dòng nào và
+     * trả về -1.
+     * @return Số dòng phân công đã thêm vào out, hoặc -1 nếu ca không đủ chỗ
+     */
+    public static int splitExamIntoRooms(CompiledInstance instance, int exam, int timeslot,
+                                         RoomAvailability rooms, SplitPlanner planner,
+                                         CompactSchedule out) {
+        int totalStudents = instance.getExamSize(exam);
+        if (rooms.getFreeCapacity(timeslot) < totalStudents) {
+            return -1;
+        }
+        int[] available = planner.getRoomBuffer();
+        int numAvailable = rooms.collectFreeRooms(timeslot, available);
+        int[] planRooms = planner.getPlanRooms();
+        int[] planCounts = planner.getPlanCounts();
+        int count = planner.plan(totalStudents, available, numAvailable, planRooms, planCounts);
+        for (int i = 0; i < count; i++) {
+            out.add(exam, timeslot, planRooms[i], planCounts[i]);
+            rooms.markUsed(timeslot, planRooms[i]);
+        }
+        return count;
+    }
+
     public static int getTotalCapacity(List<Room> rooms) {
         return rooms.stream().mapToInt(Room::getCapacity).sum();
     }
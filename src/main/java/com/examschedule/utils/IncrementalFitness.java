@@ -0,0 +1,375 @@
+package com.examschedule.utils;
+
+import com.examschedule.models.*;
+import java.util.Arrays;
+
+/**
+ * Bộ đánh giá fitness có trạng thái, dùng cho các bước cải thiện cục bộ.
+ * Giữ bộ đếm theo ca, theo (ca, phòng) và theo (sinh viên, ca) để trả lời
+ * "fitness thay đổi bao nhiêu nếu môn E chuyển sang ca T / phòng R" và áp dụng
+ * nước đi trong thời gian tỉ lệ với sĩ số của môn (cộng O(số ca) cho phạt
+ * hiệu quả ca thi), thay vì tính lại toàn bộ lịch như {@link ScheduleFitness}.
+ *
+ * Mỗi môn thi nằm trong đúng một ca (có thể chia nhiều phòng), giống các
+ * lịch do ACO xây dựng. Giá trị fitness luôn bằng kết quả của
+ * {@link ScheduleFitness#calculateFitness(CompactSchedule)} trên cùng lịch.
+ * Không an toàn khi dùng đồng thời từ nhiều luồng.
+ */
+public class IncrementalFitness {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final CompiledInstance instance;
+    private final int numTimeslots;
+    private final int numRooms;
+
+    // Phân công hiện tại của từng môn: ca (-1 nếu chưa xếp), các phòng và sĩ số
+    private final int[] examSlot;
+    private final int[][] examRooms;
+    private final int[][] examCounts;
+
+    // studentSlotCount[s * numTimeslots + t]: số môn sinh viên s thi trong ca t
+    private final int[] studentSlotCount;
+    // roomUse[t * numRooms + r]: số dòng phân công dùng phòng r trong ca t
+    private final int[] roomUse;
+    // slotRows[t]: số dòng phân công trong ca t
+    private final int[] slotRows;
+
+    private long capacityExcess;
+    private long studentConflicts;
+    private long roomConflicts;
+    private int unassigned;
+    private int slotsUsed;
+    private long efficiencyPenalty;
+
+    public IncrementalFitness(CompiledInstance instance) {
+        this.instance = instance;
+        this.numTimeslots = instance.getNumTimeslots();
+        this.numRooms = instance.getNumRooms();
+        int numExams = instance.getNumExams();
+        this.examSlot = new int[numExams];
+        this.examRooms = new int[numExams][];
+        this.examCounts = new int[numExams][];
+        this.studentSlotCount = new int[instance.getNumStudents() * numTimeslots];
+        this.roomUse = new int[numTimeslots * numRooms];
+        this.slotRows = new int[numTimeslots];
+        reset();
+    }
+
+    /**
+     * Xoá toàn bộ phân công: mọi môn đều chưa được xếp lịch.
+     */
+    public void reset() {
+        Arrays.fill(examSlot, -1);
+        Arrays.fill(examRooms, NO_ROWS);
+        Arrays.fill(examCounts, NO_ROWS);
+        Arrays.fill(studentSlotCount, 0);
+        Arrays.fill(roomUse, 0);
+        Arrays.fill(slotRows, 0);
+        capacityExcess = 0;
+        studentConflicts = 0;
+        roomConflicts = 0;
+        unassigned = instance.getNumExams();
+        slotsUsed = 0;
+        efficiencyPenalty = 0;
+    }
+
+    /**
+     * Nạp trạng thái từ một lịch thi dạng chỉ số.
+     * @throws IllegalArgumentException nếu một môn xuất hiện ở nhiều ca khác nhau
+     */
+    public void load(CompactSchedule schedule) {
+        reset();
+        int[] rowsPerExam = new int[instance.getNumExams()];
+        for (int i = 0; i < schedule.size(); i++) {
+            int exam = schedule.getExam(i);
+            if (rowsPerExam[exam] > 0 && examSlot[exam] != schedule.getTimeslot(i)) {
+                throw new IllegalArgumentException("Exam " + instance.getExamId(exam)
+                        + " is assigned to more than one timeslot");
+            }
+            examSlot[exam] = schedule.getTimeslot(i);
+            rowsPerExam[exam]++;
+        }
+        Arrays.fill(examSlot, -1);
+
+        int[][] rooms = new int[instance.getNumExams()][];
+        int[][] counts = new int[instance.getNumExams()][];
+        int[] slots = new int[instance.getNumExams()];
+        for (int e = 0; e < rooms.length; e++) {
+            rooms[e] = new int[rowsPerExam[e]];
+            counts[e] = new int[rowsPerExam[e]];
+            rowsPerExam[e] = 0;
+        }
+        for (int i = 0; i < schedule.size(); i++) {
+            int exam = schedule.getExam(i);
+            slots[exam] = schedule.getTimeslot(i);
+            rooms[exam][rowsPerExam[exam]] = schedule.getRoom(i);
+            counts[exam][rowsPerExam[exam]++] = schedule.getStudentCount(i);
+        }
+        for (int e = 0; e < rooms.length; e++) {
+            if (rooms[e].length > 0) {
+                place(e, slots[e], rooms[e], counts[e]);
+            }
+        }
+        efficiencyPenalty = timeslotEfficiencyPenalty(slotRows, numRooms);
+    }
+
+    /**
+     * Ghi trạng thái hiện tại ra lịch thi dạng chỉ số (theo thứ tự môn thi).
+     */
+    public void writeTo(CompactSchedule out) {
+        out.clear();
+        for (int e = 0; e < examSlot.length; e++) {
+            for (int k = 0; k < examRooms[e].length; k++) {
+                out.add(e, examSlot[e], examRooms[e][k], examCounts[e][k]);
+            }
+        }
+    }
+
+    /**
+     * @return Giá trị fitness hiện tại (càng nhỏ càng tốt)
+     */
+    public double getFitness() {
+        return Math.max(0, rawFitness());
+    }
+
+    private double rawFitness() {
+        return (double) ScheduleFitness.CAPACITY_VIOLATION_PENALTY * capacityExcess
+                + (double) ScheduleFitness.STUDENT_CONFLICT_PENALTY * studentConflicts
+                + (double) ScheduleFitness.UNASSIGNED_EXAM_PENALTY * unassigned
+                + (double) ScheduleFitness.ROOM_CONFLICT_PENALTY * roomConflicts
+                - slotsUsed * 10.0
+                + efficiencyPenalty;
+    }
+
+    /**
+     * Thay đổi fitness nếu chuyển môn thi sang một phòng duy nhất (cả lớp).
+     */
+    public double deltaMove(int exam, int timeslot, int room) {
+        return deltaMove(exam, timeslot, new int[]{room},
+                new int[]{instance.getExamSize(exam)});
+    }
+
+    /**
+     * Thay đổi fitness nếu môn thi được xếp lại vào ca timeslot với các phòng
+     * và sĩ số cho trước (timeslot = -1 nghĩa là bỏ xếp lịch). Không thay đổi trạng thái.
+     */
+    public double deltaMove(int exam, int timeslot, int[] rooms, int[] counts) {
+        if (timeslot < 0) {
+            rooms = NO_ROWS;
+            counts = NO_ROWS;
+        }
+        int oldSlot = examSlot[exam];
+        int[] oldRooms = examRooms[exam];
+        int[] oldCounts = examCounts[exam];
+        double before = getFitness();
+
+        long dStudent = 0;
+        if (oldSlot != timeslot) {
+            int[] offsets = instance.getStudentOffsets();
+            int[] members = instance.getStudentMembers();
+            for (int m = offsets[exam]; m < offsets[exam + 1]; m++) {
+                int base = members[m] * numTimeslots;
+                if (oldSlot >= 0 && studentSlotCount[base + oldSlot] >= 2) {
+                    dStudent--;
+                }
+                if (timeslot >= 0 && studentSlotCount[base + timeslot] >= 1) {
+                    dStudent++;
+                }
+            }
+        }
+
+        long dCapacity = excess(rooms, counts) - excess(oldRooms, oldCounts);
+
+        // Phần phòng và ca: sửa tạm các bộ đếm nhỏ rồi khôi phục
+        long dRoom = 0;
+        for (int room : oldRooms) {
+            int cell = oldSlot * numRooms + room;
+            if (roomUse[cell]-- >= 2) {
+                dRoom--;
+            }
+        }
+        for (int room : rooms) {
+            int cell = timeslot * numRooms + room;
+            if (roomUse[cell]++ >= 1) {
+                dRoom++;
+            }
+        }
+        int oldUsed = slotsUsed;
+        int newUsed = adjustSlotRows(oldSlot, -oldRooms.length, slotsUsed);
+        newUsed = adjustSlotRows(timeslot, rooms.length, newUsed);
+        long newEfficiency = timeslotEfficiencyPenalty(slotRows, numRooms);
+        adjustSlotRows(timeslot, -rooms.length, 0);
+        adjustSlotRows(oldSlot, oldRooms.length, 0);
+        for (int room : rooms) {
+            roomUse[timeslot * numRooms + room]--;
+        }
+        for (int room : oldRooms) {
+            roomUse[oldSlot * numRooms + room]++;
+        }
+
+        int dUnassigned = (oldRooms.length == 0 ? -1 : 0) + (rooms.length == 0 ? 1 : 0);
+
+        double after = rawFitness()
+                + (double) ScheduleFitness.CAPACITY_VIOLATION_PENALTY * dCapacity
+                + (double) ScheduleFitness.STUDENT_CONFLICT_PENALTY * dStudent
+                + (double) ScheduleFitness.UNASSIGNED_EXAM_PENALTY * dUnassigned
+                + (double) ScheduleFitness.ROOM_CONFLICT_PENALTY * dRoom
+                - (newUsed - oldUsed) * 10.0
+                + (newEfficiency - efficiencyPenalty);
+        return Math.max(0, after) - before;
+    }
+
+    /**
+     * Chuyển môn thi sang một phòng duy nhất (cả lớp).
+     */
+    public void applyMove(int exam, int timeslot, int room) {
+        applyMove(exam, timeslot, new int[]{room}, new int[]{instance.getExamSize(exam)});
+    }
+
+    /**
+     * Xếp lại môn thi vào ca timeslot với các phòng và sĩ số cho trước
+     * (timeslot = -1 hoặc mảng rỗng nghĩa là bỏ xếp lịch).
+     */
+    public void applyMove(int exam, int timeslot, int[] rooms, int[] counts) {
+        if (examRooms[exam].length > 0) {
+            remove(exam);
+        }
+        if (timeslot >= 0 && rooms.length > 0) {
+            place(exam, timeslot, rooms.clone(), counts.clone());
+        }
+        efficiencyPenalty = timeslotEfficiencyPenalty(slotRows, numRooms);
+    }
+
+    private void place(int exam, int timeslot, int[] rooms, int[] counts) {
+        int[] offsets = instance.getStudentOffsets();
+        int[] members = instance.getStudentMembers();
+        for (int m = offsets[exam]; m < offsets[exam + 1]; m++) {
+            if (studentSlotCount[members[m] * numTimeslots + timeslot]++ >= 1) {
+                studentConflicts++;
+            }
+        }
+        for (int room : rooms) {
+            if (roomUse[timeslot * numRooms + room]++ >= 1) {
+                roomConflicts++;
+            }
+        }
+        capacityExcess += excess(rooms, counts);
+        slotsUsed = adjustSlotRows(timeslot, rooms.length, slotsUsed);
+        unassigned--;
+        examSlot[exam] = timeslot;
+        examRooms[exam] = rooms;
+        examCounts[exam] = counts;
+    }
+
+    private void remove(int exam) {
+        int timeslot = examSlot[exam];
+        int[] rooms = examRooms[exam];
+        int[] offsets = instance.getStudentOffsets();
+        int[] members = instance.getStudentMembers();
+        for (int m = offsets[exam]; m < offsets[exam + 1]; m++) {
+            if (--studentSlotCount[members[m] * numTimeslots + timeslot] >= 1) {
+                studentConflicts--;
+            }
+        }
+        for (int room : rooms) {
+            if (--roomUse[timeslot * numRooms + room] >= 1) {
+                roomConflicts--;
+            }
+        }
+        capacityExcess -= excess(rooms, examCounts[exam]);
+        slotsUsed = adjustSlotRows(timeslot, -rooms.length, slotsUsed);
+        unassigned++;
+        examSlot[exam] = -1;
+        examRooms[exam] = NO_ROWS;
+        examCounts[exam] = NO_ROWS;
+    }
+
+    /**
+     * Cộng delta dòng vào ca timeslot và trả về số ca đang dùng sau khi cập nhật.
+     */
+    private int adjustSlotRows(int timeslot, int delta, int used) {
+        if (timeslot < 0 || delta == 0) {
+            return used;
+        }
+        int before = slotRows[timeslot];
+        slotRows[timeslot] += delta;
+        if (before == 0 && slotRows[timeslot] > 0) {
+            used++;
+        } else if (before > 0 && slotRows[timeslot] == 0) {
+            used--;
+        }
+        return used;
+    }
+
+    private long excess(int[] rooms, int[] counts) {
+        long total = 0;
+        for (int k = 0; k < rooms.length; k++) {
+            int capacity = instance.getRoomCapacity(rooms[k]);
+            if (counts[k] > capacity) {
+                total += counts[k] - capacity;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Phạt hiệu quả ca thi tính bằng tổng hậu tố trong O(số ca):
+     * với mỗi ca i chưa đầy, cộng 200 * sum_{j>i} count[j] * (j - i)
+     * = 200 * (sum_{j>i} j * count[j] - i * sum_{j>i} count[j]).
+     */
+    static long timeslotEfficiencyPenalty(int[] slotCounts, int numRooms) {
+        long penalty = 0;
+        long laterCount = 0;
+        long laterWeighted = 0;
+        for (int i = slotCounts.length - 1; i >= 0; i--) {
+            if (slotCounts[i] < numRooms) {
+                penalty += 200 * (laterWeighted - i * laterCount);
+            }
+            laterCount += slotCounts[i];
+            laterWeighted += (long) i * slotCounts[i];
+        }
+        return penalty;
+    }
+
+    public int getExamTimeslot(int exam) {
+        return examSlot[exam];
+    }
+
+    public int[] getExamRooms(int exam) {
+        return examRooms[exam];
+    }
+
+    public int[] getExamCounts(int exam) {
+        return examCounts[exam];
+    }
+
+    /**
+     * @return Số dòng phân công đang dùng phòng room trong ca timeslot
+     */
+    public int getRoomUse(int timeslot, int room) {
+        return roomUse[timeslot * numRooms + room];
+    }
+
+    /**
+     * @return Số môn sinh viên student đang thi trong ca timeslot
+     */
+    public int getStudentLoad(int student, int timeslot) {
+        return studentSlotCount[student * numTimeslots + timeslot];
+    }
+
+    public long getStudentConflicts() {
+        return studentConflicts;
+    }
+
+    public long getRoomConflicts() {
+        return roomConflicts;
+    }
+
+    public int getUnassignedCount() {
+        return unassigned;
+    }
+
+    public CompiledInstance getInstance() {
+        return instance;
+    }
+}
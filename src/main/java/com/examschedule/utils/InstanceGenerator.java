@@ -0,0 +1,431 @@
+package com.examschedule.utils;
+
+import com.examschedule.models.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sinh bộ dữ liệu lập lịch thi tổng hợp, có hạt giống để tái lập, theo đúng
+ * định dạng JSON mà {@link DataLoader} đọc.
+ *
+ * Mô hình sinh:
+ * <ul>
+ *   <li>Mỗi môn thuộc một khoa (e % departments), độ phổ biến theo luật Zipf
+ *       1 / rank^zipfExponent với thứ hạng được xáo trộn.</li>
+ *   <li>Mỗi sinh viên thuộc một khoa và đăng ký examsPerStudent ± 1 môn. Mỗi môn
+ *       được rút từ khoa của sinh viên, hoặc từ toàn trường với xác suất
+ *       crossDepartmentRate. Tham số này điều khiển mật độ xung đột: càng lớn
+ *       thì đồ thị xung đột càng dày.</li>
+ *   <li>Sĩ số một môn không vượt quá maxExamSize; môn không có ai đăng ký
+ *       được gán một sinh viên ngẫu nhiên.</li>
+ *   <li>Phòng được chia theo tỉ lệ roomShares của từng mức roomCapacities.</li>
+ * </ul>
+ */
+public class InstanceGenerator {
+    private static final String[] DAYS =
+            {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+    private static final String[] TIMES = {"08:00", "10:00", "14:00", "16:00"};
+
+    /**
+     * Các bộ dữ liệu chuẩn để đo khả năng mở rộng, theo số sinh viên.
+     */
+    public enum Tier {
+        TIER_1K(1_000, 100, 20, 12),
+        TIER_10K(10_000, 1_000, 60, 24),
+        TIER_100K(100_000, 5_000, 150, 48);
+
+        private final int students;
+        private final int exams;
+        private final int rooms;
+        private final int timeslots;
+
+        Tier(int students, int exams, int rooms, int timeslots) {
+            this.students = students;
+            this.exams = exams;
+            this.rooms = rooms;
+            this.timeslots = timeslots;
+        }
+
+        public int getStudents() {
+            return students;
+        }
+
+        /**
+         * Tên ngắn dùng cho tên file, ví dụ "1k".
+         */
+        public String getLabel() {
+            return (students / 1000) + "k";
+        }
+    }
+
+    private long seed = 1;
+    private int numExams = 100;
+    private int numStudents = 1_000;
+    private double examsPerStudent = 5;
+    private double zipfExponent = 0.8;
+    private int departments = 5;
+    private double crossDepartmentRate = 0.2;
+    private int numRooms = 20;
+    private int[] roomCapacities = {30, 40, 60, 100};
+    private double[] roomShares = {0.3, 0.3, 0.25, 0.15};
+    private int numTimeslots = 12;
+    // 0 = mặc định 4 lần sức chứa phòng lớn nhất
+    private int maxExamSize = 0;
+
+    /**
+     * Cấu hình chuẩn của một tier; các tham số còn lại giữ mặc định.
+     */
+    public static InstanceGenerator forTier(Tier tier, long seed) {
+        InstanceGenerator generator = new InstanceGenerator();
+        generator.setSeed(seed);
+        generator.setNumStudents(tier.students);
+        generator.setNumExams(tier.exams);
+        generator.setNumRooms(tier.rooms);
+        generator.setNumTimeslots(tier.timeslots);
+        generator.setDepartments(Math.max(5, tier.exams / 50));
+        if (tier == Tier.TIER_100K) {
+            generator.setExamsPerStudent(4);
+            generator.setRoomCapacities(new int[]{30, 60, 120, 250});
+        }
+        return generator;
+    }
+
+    /**
+     * Sinh một bộ dữ liệu; cùng cấu hình và hạt giống luôn cho cùng kết quả.
+     */
+    public ScheduleData generate() {
+        validate();
+        Random random = new Random(seed);
+
+        // Trọng số Zipf theo thứ hạng đã xáo trộn để sĩ số không tương quan với mã môn
+        int[] rank = new int[numExams];
+        for (int e = 0; e < numExams; e++) {
+            rank[e] = e;
+        }
+        shuffle(rank, random);
+        double[] weight = new double[numExams];
+        for (int e = 0; e < numExams; e++) {
+            weight[e] = 1.0 / Math.pow(rank[e] + 1, zipfExponent);
+        }
+
+        // Bảng tích luỹ toàn trường và của từng khoa (môn e thuộc khoa e % departments)
+        double[] globalCumulative = cumulative(weight, null);
+        int[][] departmentExams = new int[departments][];
+        double[][] departmentCumulative = new double[departments][];
+        for (int d = 0; d < departments; d++) {
+            int count = (numExams - d + departments - 1) / departments;
+            departmentExams[d] = new int[count];
+            for (int i = 0; i < count; i++) {
+                departmentExams[d][i] = d + i * departments;
+            }
+            departmentCumulative[d] = cumulative(weight, departmentExams[d]);
+        }
+
+        int sizeLimit = maxExamSize > 0
+                ? maxExamSize : 4 * Arrays.stream(roomCapacities).max().getAsInt();
+        List<List<String>> enrolled = new ArrayList<>(numExams);
+        for (int e = 0; e < numExams; e++) {
+            enrolled.add(new ArrayList<>());
+        }
+
+        List<Student> students = new ArrayList<>(numStudents);
+        int[] chosen = new int[numExams];
+        for (int s = 0; s < numStudents; s++) {
+            String studentId = "S" + (s + 1);
+            students.add(new Student(studentId));
+            int department = random.nextInt(departments);
+
+            int base = (int) Math.floor(examsPerStudent);
+            int wanted = base + (random.nextDouble() < examsPerStudent - base ? 1 : 0)
+                    + random.nextInt(3) - 1;
+            wanted = Math.max(1, Math.min(wanted, numExams));
+
+            int count = 0;
+            for (int attempt = 0; attempt < wanted * 20 && count < wanted; attempt++) {
+                int exam;
+                if (random.nextDouble() < crossDepartmentRate) {
+                    exam = sample(globalCumulative, null, random);
+                } else {
+                    exam = sample(departmentCumulative[department],
+                            departmentExams[department], random);
+                }
+                if (enrolled.get(exam).size() >= sizeLimit || contains(chosen, count, exam)) {
+                    continue;
+                }
+                chosen[count++] = exam;
+                enrolled.get(exam).add(studentId);
+            }
+        }
+
+        List<Exam> exams = new ArrayList<>(numExams);
+        for (int e = 0; e < numExams; e++) {
+            List<String> examStudents = enrolled.get(e);
+            if (examStudents.isEmpty()) {
+                examStudents.add(students.get(random.nextInt(numStudents)).getId());
+            }
+            exams.add(new Exam("E" + (e + 1), examStudents));
+        }
+
+        return new ScheduleData(exams, students, generateRooms(), generateTimeslots());
+    }
+
+    private List<Room> generateRooms() {
+        List<Room> rooms = new ArrayList<>(numRooms);
+        double totalShare = Arrays.stream(roomShares).sum();
+        int assigned = 0;
+        for (int level = 0; level < roomCapacities.length; level++) {
+            int count = level == roomCapacities.length - 1
+                    ? numRooms - assigned
+                    : (int) Math.round(numRooms * roomShares[level] / totalShare);
+            count = Math.max(0, Math.min(count, numRooms - assigned));
+            for (int i = 0; i < count; i++) {
+                rooms.add(new Room("R" + (assigned + 1), roomCapacities[level]));
+                assigned++;
+            }
+        }
+        return rooms;
+    }
+
+    private List<String> generateTimeslots() {
+        List<String> timeslots = new ArrayList<>(numTimeslots);
+        int slotsPerWeek = DAYS.length * TIMES.length;
+        for (int t = 0; t < numTimeslots; t++) {
+            String name = DAYS[(t / TIMES.length) % DAYS.length] + "_" + TIMES[t % TIMES.length];
+            timeslots.add(numTimeslots > slotsPerWeek ? "W" + (t / slotsPerWeek + 1) + "_" + name : name);
+        }
+        return timeslots;
+    }
+
+    private void validate() {
+        if (numExams < 1 || numStudents < 1 || numRooms < 1 || numTimeslots < 1 || departments < 1) {
+            throw new IllegalArgumentException("exams, students, rooms, timeslots and departments must be >= 1");
+        }
+        if (roomCapacities.length == 0 || roomCapacities.length != roomShares.length) {
+            throw new IllegalArgumentException("roomCapacities and roomShares must have the same non-zero length");
+        }
+        if (crossDepartmentRate < 0 || crossDepartmentRate > 1) {
+            throw new IllegalArgumentException("crossDepartmentRate must be in [0, 1]: " + crossDepartmentRate);
+        }
+        if (examsPerStudent <= 0) {
+            throw new IllegalArgumentException("examsPerStudent must be > 0: " + examsPerStudent);
+        }
+    }
+
+    /**
+     * Tổng tích luỹ của weight trên các môn trong subset (null = mọi môn).
+     */
+    private static double[] cumulative(double[] weight, int[] subset) {
+        int size = subset == null ? weight.length : subset.length;
+        double[] result = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += weight[subset == null ? i : subset[i]];
+            result[i] = total;
+        }
+        return result;
+    }
+
+    private static int sample(double[] cumulative, int[] subset, Random random) {
+        double spin = random.nextDouble() * cumulative[cumulative.length - 1];
+        int idx = Arrays.binarySearch(cumulative, spin);
+        idx = idx >= 0 ? idx : Math.min(-idx - 1, cumulative.length - 1);
+        return subset == null ? idx : subset[idx];
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = values[i - 1];
+            values[i - 1] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Mật độ đồ thị xung đột: tỉ lệ cặp môn có chung ít nhất một sinh viên.
+     */
+    public static double conflictDensity(ScheduleData data) {
+        CompiledInstance instance = data.getCompiled();
+        long exams = instance.getNumExams();
+        if (exams < 2) {
+            return 0;
+        }
+        return instance.getConflictGraph().getNumEdges() / (exams * (exams - 1) / 2.0);
+    }
+
+    /**
+     * Ghi bộ dữ liệu ra file JSON theo định dạng của {@link DataLoader}, ghi tuần tự
+     * từng phần tử để không phải dựng cây JSON trong bộ nhớ.
+     */
+    public static void writeJSON(ScheduleData data, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("{\n  \"exams\": [");
+            List<Exam> exams = data.getExams();
+            for (int e = 0; e < exams.size(); e++) {
+                out.write(e == 0 ? "\n    " : ",\n    ");
+                out.write("{\"id\": ");
+                ScheduleWriter.writeString(out, exams.get(e).getId());
+                out.write(", \"students\": [");
+                List<String> examStudents = exams.get(e).getStudents();
+                for (int i = 0; i < examStudents.size(); i++) {
+                    if (i > 0) {
+                        out.write(", ");
+                    }
+                    ScheduleWriter.writeString(out, examStudents.get(i));
+                }
+                out.write("]}");
+            }
+            out.write("\n  ],\n  \"students\": [");
+            List<Student> students = data.getStudents();
+            for (int s = 0; s < students.size(); s++) {
+                out.write(s == 0 ? "\n    " : ",\n    ");
+                out.write("{\"id\": ");
+                ScheduleWriter.writeString(out, students.get(s).getId());
+                out.write("}");
+            }
+            out.write("\n  ],\n  \"rooms\": [");
+            List<Room> rooms = data.getRooms();
+            for (int r = 0; r < rooms.size(); r++) {
+                out.write(r == 0 ? "\n    " : ",\n    ");
+                out.write("{\"id\": ");
+                ScheduleWriter.writeString(out, rooms.get(r).getId());
+                out.write(", \"capacity\": " + rooms.get(r).getCapacity() + "}");
+            }
+            out.write("\n  ],\n  \"timeslots\": [");
+            List<String> timeslots = data.getTimeslots();
+            for (int t = 0; t < timeslots.size(); t++) {
+                out.write(t == 0 ? "\n    " : ",\n    ");
+                ScheduleWriter.writeString(out, timeslots.get(t));
+            }
+            out.write("\n  ]\n}\n");
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getNumExams() {
+        return numExams;
+    }
+
+    public void setNumExams(int numExams) {
+        this.numExams = numExams;
+    }
+
+    public int getNumStudents() {
+        return numStudents;
+    }
+
+    public void setNumStudents(int numStudents) {
+        this.numStudents = numStudents;
+    }
+
+    public double getExamsPerStudent() {
+        return examsPerStudent;
+    }
+
+    public void setExamsPerStudent(double examsPerStudent) {
+        this.examsPerStudent = examsPerStudent;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    /**
+     * @param zipfExponent 0 = mọi môn phổ biến như nhau; càng lớn sĩ số càng lệch
+     */
+    public void setZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public int getDepartments() {
+        return departments;
+    }
+
+    public void setDepartments(int departments) {
+        this.departments = departments;
+    }
+
+    public double getCrossDepartmentRate() {
+        return crossDepartmentRate;
+    }
+
+    public void setCrossDepartmentRate(double crossDepartmentRate) {
+        this.crossDepartmentRate = crossDepartmentRate;
+    }
+
+    public int getNumRooms() {
+        return numRooms;
+    }
+
+    public void setNumRooms(int numRooms) {
+        this.numRooms = numRooms;
+    }
+
+    public int[] getRoomCapacities() {
+        return roomCapacities;
+    }
+
+    public void setRoomCapacities(int[] roomCapacities) {
+        this.roomCapacities = roomCapacities;
+    }
+
+    public double[] getRoomShares() {
+        return roomShares;
+    }
+
+    public void setRoomShares(double[] roomShares) {
+        this.roomShares = roomShares;
+    }
+
+    public int getNumTimeslots() {
+        return numTimeslots;
+    }
+
+    public void setNumTimeslots(int numTimeslots) {
+        this.numTimeslots = numTimeslots;
+    }
+
+    public int getMaxExamSize() {
+        return maxExamSize;
+    }
+
+    public void setMaxExamSize(int maxExamSize) {
+        this.maxExamSize = maxExamSize;
+    }
+
+    @Override
+    public String toString() {
+        return "InstanceGenerator{" + "seed=" + seed + ", exams=" + numExams + ", students=" + numStudents
+                + ", examsPerStudent=" + examsPerStudent + ", zipf=" + zipfExponent
+                + ", departments=" + departments + ", crossDepartmentRate=" + crossDepartmentRate
+                + ", rooms=" + numRooms + " " + Arrays.toString(roomCapacities) + "x"
+                + Arrays.toString(roomShares) + ", timeslots=" + numTimeslots + '}';
+    }
+}
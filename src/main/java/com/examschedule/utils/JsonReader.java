@@ -0,0 +1,381 @@
+package com.examschedule.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bộ đọc JSON dạng kéo (pull) đọc tuần tự từ một kênh NIO qua bộ đệm cố định,
+ * không dựng cây JSON. Bên gọi điều khiển cấu trúc bằng
+ * {@link #expect(char)} / {@link #consumeIf(char)} và đọc giá trị bằng
+ * {@link #readString()}, {@link #readInt()} hoặc bỏ qua bằng {@link #skipValue()}.
+ * Mọi lỗi cú pháp đều mang vị trí dòng:cột trong file.
+ */
+final class JsonReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final String source;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int pos;
+    private int limit;
+    // Vị trí trong file của bytes[0]
+    private long base;
+    private boolean eof;
+
+    // Xuống dòng chỉ có thể nằm trong khoảng trắng (chuỗi JSON không chứa ký tự
+    // điều khiển), nên chỉ cần đếm dòng khi bỏ qua khoảng trắng
+    private int line = 1;
+    private long lineStart;
+
+    // Byte UTF-8 của chuỗi đang đọc
+    private byte[] scratch = new byte[64];
+
+    JsonReader(ReadableByteChannel channel, String source) {
+        this.channel = channel;
+        this.source = source;
+    }
+
+    /**
+     * @return Ký tự kế tiếp (sau khoảng trắng) mà chưa tiêu thụ, hoặc -1 nếu hết file
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            int b = bytes[pos] & 0xFF;
+            if (b == '\n') {
+                pos++;
+                line++;
+                lineStart = base + pos;
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                pos++;
+            } else {
+                return b;
+            }
+        }
+    }
+
+    void expect(char c) throws IOException {
+        int next = peek();
+        if (next != c) {
+            throw error("expected '" + c + "' but found " + describe(next));
+        }
+        readByte();
+    }
+
+    boolean consumeIf(char c) throws IOException {
+        if (peek() == c) {
+            readByte();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Kiểm tra không còn gì ngoài khoảng trắng sau giá trị gốc.
+     */
+    void expectEnd() throws IOException {
+        int next = peek();
+        if (next != -1) {
+            throw error("unexpected " + describe(next) + " after the end of the document");
+        }
+    }
+
+    String readString() throws IOException {
+        int next = peek();
+        if (next != '"') {
+            throw error("expected a string but found " + describe(next));
+        }
+        readByte();
+
+        // Đường nhanh: chuỗi không có ký tự thoát và nằm gọn trong bộ đệm
+        int ascii = 0;
+        for (int i = pos; i < limit; i++) {
+            int b = bytes[i];
+            if (b == '"') {
+                String value = new String(bytes, pos, i - pos,
+                        ascii == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+                pos = i + 1;
+                return value;
+            }
+            if (b == '\\' || (b >= 0 && b < 0x20)) {
+                break;
+            }
+            ascii |= b & 0x80;
+        }
+        return readStringSlow();
+    }
+
+    private String readStringSlow() throws IOException {
+        int length = 0;
+        boolean ascii = true;
+        while (true) {
+            int b = readByte();
+            if (b == '"') {
+                break;
+            }
+            if (b == -1) {
+                throw error("unterminated string");
+            }
+            if (b < 0x20) {
+                throw error("control character in string");
+            }
+            if (b == '\\') {
+                int codePoint = readEscape();
+                if (codePoint >= 0x80) {
+                    ascii = false;
+                }
+                length = appendUtf8(length, codePoint);
+                continue;
+            }
+            if (b >= 0x80) {
+                ascii = false;
+            }
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = (byte) b;
+        }
+        return new String(scratch, 0, length,
+                ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Đọc một số nguyên; chấp nhận dạng thập phân có phần lẻ bằng 0 (ví dụ 50.0).
+     */
+    int readInt() throws IOException {
+        int startLine = line;
+        int startColumn = column();
+        String token = readNumberToken();
+        try {
+            if (token.indexOf('.') < 0 && token.indexOf('e') < 0 && token.indexOf('E') < 0) {
+                return Integer.parseInt(token);
+            }
+            double value = Double.parseDouble(token);
+            if (value == Math.rint(value) && Math.abs(value) <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+        } catch (NumberFormatException e) {
+            // Báo lỗi bên dưới
+        }
+        throw new ScheduleFormatException(source, startLine, startColumn,
+                "expected an integer but found " + token);
+    }
+
+    /**
+     * Bỏ qua một giá trị JSON bất kỳ (dùng cho các trường không biết).
+     */
+    void skipValue() throws IOException {
+        int next = peek();
+        switch (next) {
+            case '"':
+                readString();
+                break;
+            case '{':
+                readByte();
+                if (!consumeIf('}')) {
+                    do {
+                        readString();
+                        expect(':');
+                        skipValue();
+                    } while (consumeIf(','));
+                    expect('}');
+                }
+                break;
+            case '[':
+                readByte();
+                if (!consumeIf(']')) {
+                    do {
+                        skipValue();
+                    } while (consumeIf(','));
+                    expect(']');
+                }
+                break;
+            case 't':
+                readLiteral("true");
+                break;
+            case 'f':
+                readLiteral("false");
+                break;
+            case 'n':
+                readLiteral("null");
+                break;
+            default:
+                if (next == '-' || (next >= '0' && next <= '9')) {
+                    readNumberToken();
+                } else {
+                    throw error("expected a value but found " + describe(next));
+                }
+        }
+    }
+
+    /**
+     * Mô tả loại giá trị kế tiếp để báo lỗi ("a string", "an object"...).
+     */
+    String describeNext() throws IOException {
+        return describe(peek());
+    }
+
+    ScheduleFormatException error(String message) {
+        return new ScheduleFormatException(source, line, column(), message);
+    }
+
+    /**
+     * Cột hiện tại (tính theo byte, bắt đầu từ 1).
+     */
+    private int column() {
+        return (int) Math.min(Integer.MAX_VALUE, base + pos - lineStart + 1);
+    }
+
+    private String readNumberToken() throws IOException {
+        int next = peek();
+        if (next != '-' && (next < '0' || next > '9')) {
+            throw error("expected a number but found " + describe(next));
+        }
+        StringBuilder token = new StringBuilder();
+        while (true) {
+            int b = peekByte();
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                token.append((char) readByte());
+            } else {
+                return token.toString();
+            }
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (readByte() != literal.charAt(i)) {
+                throw error("invalid literal, expected " + literal);
+            }
+        }
+    }
+
+    private int readEscape() throws IOException {
+        int c = readByte();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int unit = readHex4();
+                if (Character.isHighSurrogate((char) unit) && peekByte() == '\\') {
+                    readByte();
+                    if (readByte() != 'u') {
+                        throw error("expected a low surrogate escape");
+                    }
+                    int low = readHex4();
+                    return Character.toCodePoint((char) unit, (char) low);
+                }
+                return unit;
+            default:
+                throw error("invalid escape sequence \\" + (c < 0 ? "" : String.valueOf((char) c)));
+        }
+    }
+
+    private int readHex4() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(readByte(), 16);
+            if (digit < 0) {
+                throw error("invalid \\u escape");
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    private int appendUtf8(int length, int codePoint) {
+        if (length + 4 > scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2 + 4);
+        }
+        if (codePoint < 0x80) {
+            scratch[length++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            scratch[length++] = (byte) (0xC0 | (codePoint >> 6));
+            scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            scratch[length++] = (byte) (0xE0 | (codePoint >> 12));
+            scratch[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            scratch[length++] = (byte) (0xF0 | (codePoint >> 18));
+            scratch[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            scratch[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return length;
+    }
+
+    private int peekByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return bytes[pos] & 0xFF;
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return bytes[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        base += limit;
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        pos = 0;
+        limit = Math.max(read, 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    private static String describe(int c) {
+        switch (c) {
+            case -1:
+                return "end of file";
+            case '"':
+                return "a string";
+            case '{':
+                return "an object";
+            case '[':
+                return "an array";
+            case 't':
+            case 'f':
+                return "a boolean";
+            case 'n':
+                return "null";
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return "a number";
+                }
+                return "'" + (char) c + "'";
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.examschedule.utils;
+
+import com.examschedule.algorithms.IterationMetrics;
+import com.examschedule.algorithms.SolverMetricsListener;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Ghi số đo từng vòng lặp ra file trace: CSV nếu tên file kết thúc bằng ".csv",
+ * ngược lại JSON Lines (mỗi dòng một đối tượng). Thời gian tính bằng mili giây.
+ * Dòng được ghi vào bộ đệm nên chỉ có I/O khi bộ đệm đầy hoặc khi {@link #close()}.
+ */
+public class MetricsTraceWriter implements SolverMetricsListener, Closeable {
+    private static final String[] COLUMNS = {
+        "iteration", "elapsedMs", "iterationMs", "antPhaseMs", "constructionMs", "selectionMs",
+        "splittingMs", "fitnessMs", "improvementMs", "pheromoneMs", "ants", "evaluations",
+        "antsPerSec", "evaluationsPerSec", "fallbackSelections", "splitFailures", "bestFitness",
+        "iterationBestFitness", "meanFitness", "pheromoneEntropy"
+    };
+
+    private final Writer out;
+    private final boolean csv;
+
+    public MetricsTraceWriter(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        this.csv = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        if (csv) {
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void onIteration(IterationMetrics m) {
+        Object[] values = {
+            m.getIteration(), millis(m.getElapsedNanos()), millis(m.getIterationNanos()),
+            millis(m.getAntPhaseNanos()), millis(m.getConstructionNanos()),
+            millis(m.getSelectionNanos()), millis(m.getSplittingNanos()),
+            millis(m.getFitnessNanos()), millis(m.getImprovementNanos()),
+            millis(m.getPheromoneNanos()), m.getAntsBuilt(), m.getEvaluations(),
+            number(m.getAntsPerSecond()), number(m.getEvaluationsPerSecond()),
+            m.getFallbackSelections(), m.getSplitFailures(), number(m.getBestFitness()),
+            number(m.getIterationBestFitness()), number(m.getMeanFitness()),
+            number(m.getPheromoneEntropy())
+        };
+        StringBuilder line = new StringBuilder(256);
+        line.append(csv ? "" : "{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (!csv) {
+                line.append('"').append(COLUMNS[i]).append("\":");
+            }
+            line.append(values[i]);
+        }
+        line.append(csv ? "\n" : "}\n");
+        try {
+            out.write(line.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * NaN và Double.MAX_VALUE (chưa có lời giải) được ghi thành ô trống / null.
+     */
+    private String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || value == Double.MAX_VALUE) {
+            return csv ? "" : "null";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
@@ -0,0 +1,19 @@
+package com.examschedule.utils;
+
+import java.util.List;
+
+/**
+ * Nhận thông tin các phòng bị nhiều môn dùng trong cùng một ca khi
+ * {@link ScheduleFitness} đánh giá một lịch. Có thể được gọi đồng thời từ
+ * nhiều luồng đánh giá.
+ */
+@FunctionalInterface
+public interface RoomConflictListener {
+
+    /**
+     * @param timeslot Ca thi
+     * @param room Phòng bị trùng
+     * @param examIds Các môn cùng dùng phòng trong ca
+     */
+    void onRoomConflict(String timeslot, String room, List<String> examIds);
+}
@@ -2,6 +2,7 @@ package com.examschedule.utils;
 
 import com.examschedule.models.*;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Đánh giá độ phù hợp (fitness) của một lịch thi.
@@ -9,55 +10,118 @@ import java.util.*;
  */
 public class ScheduleFitness {
     private ScheduleData data;
-    private List<Assignment> assignments;
 
     // Trọng số phạt
-    private static final int CAPACITY_VIOLATION_PENALTY = 1000;
-    private static final int STUDENT_CONFLICT_PENALTY = 500;
-    private static final int UNASSIGNED_EXAM_PENALTY = 100;
-    private static final int ROOM_CONFLICT_PENALTY = 2000;
+    static final int CAPACITY_VIOLATION_PENALTY = 1000;
+    static final int STUDENT_CONFLICT_PENALTY = 500;
+    static final int UNASSIGNED_EXAM_PENALTY = 100;
+    static final int ROOM_CONFLICT_PENALTY = 2000;
+
+    private final CompiledInstance instance;
+    private final ConflictGraph conflictGraph;
+
+    // Bộ đệm tạm dùng lại giữa các lần đánh giá, mỗi lần đánh giá mượn một bộ
+    private final WorkspacePool<Workspace> workspaces;
+
+    // Số lần gọi calculateFitness (cộng từ nhiều luồng)
+    private final LongAdder evaluations = new LongAdder();
+    // Nhận chi tiết xung đột phòng (null = chỉ tính điểm phạt, không ghi gì)
+    private volatile RoomConflictListener roomConflictListener;
 
     public ScheduleFitness(ScheduleData data) {
         this.data = data;
+        this.instance = data.getCompiled();
+        this.conflictGraph = instance.getConflictGraph();
+        this.workspaces = new WorkspacePool<>(() -> new Workspace(instance));
     }
 
     /**
      * Tính toán điểm fitness cho một lịch thi cho trước.
+     * Không giữ trạng thái giữa các lần gọi nên có thể dùng đồng thời
+     * từ nhiều luồng.
      * @param assignments Danh sách các phân công môn thi
      * @return Giá trị fitness (càng nhỏ càng tốt)
      */
     public double calculateFitness(List<Assignment> assignments) {
-        this.assignments = assignments;
-        double fitness = 0;
+        return calculateFitness(CompactSchedule.fromAssignments(assignments, instance));
+    }
+
+    /**
+     * Tính toán điểm fitness cho một lịch thi dạng chỉ số.
+     * @param schedule Lịch thi dạng chỉ số
+     * @return Giá trị fitness (càng nhỏ càng tốt)
+     */
+    public double calculateFitness(CompactSchedule schedule) {
+        evaluations.increment();
+        Workspace w = workspaces.acquire();
+        try {
+            w.reserveStamps();
+            w.groupByTimeslot(schedule);
+            double fitness = 0;
+
+            // Phạt vi phạm sức chứa phòng
+            fitness += checkCapacityViolations(schedule);
 
-        // Phạt vi phạm sức chứa phòng
-        fitness += checkCapacityViolations();
+            // Phạt xung đột sinh viên (một sinh viên thi nhiều môn cùng ca)
+            fitness += checkStudentConflicts(schedule, w);
 
-        // Phạt xung đột sinh viên (một sinh viên thi nhiều môn cùng ca)
-        fitness += checkStudentConflicts();
+            // Phạt các môn chưa được xếp lịch
+            fitness += checkUnassignedExams(schedule, w);
 
-        // Phạt các môn chưa được xếp lịch
-        fitness += checkUnassignedExams();
+            // Phạt xung đột phòng thi
+            fitness += checkRoomConflicts(schedule, w);
+
+            fitness -= getTimeslotsUsed(w.slotCounts) * 10;
+            fitness += calculateTimeslotEfficiencyPenalty(w.slotCounts);
+
+            return Math.max(0, fitness);
+        } finally {
+            workspaces.release(w);
+        }
+    }
 
-        // Phạt xung đột phòng thi
-        fitness += checkRoomConflicts();
+    /**
+     * Chỉ phần phạt xung đột sinh viên của calculateFitness, để kiểm thử so khớp
+     * với cách đếm theo chuỗi "sinh viên_ca" ban đầu.
+     */
+    double studentConflictPenalty(CompactSchedule schedule) {
+        Workspace w = workspaces.acquire();
+        try {
+            w.reserveStamps();
+            w.groupByTimeslot(schedule);
+            return checkStudentConflicts(schedule, w);
+        } finally {
+            workspaces.release(w);
+        }
+    }
 
-        fitness -= getTimeslotsUsed(assignments) * 10;
-        fitness += calculateTimeslotEfficiencyPenalty(assignments);
+    /**
+     * @return Số lịch đã được đánh giá bằng calculateFitness kể từ khi tạo đối tượng
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
 
-        return Math.max(0, fitness);
+    /**
+     * Đăng ký nhận chi tiết các xung đột phòng tìm thấy khi đánh giá.
+     * Mặc định không có listener: việc đánh giá không in gì ra console.
+     * @param roomConflictListener Listener, hoặc null để tắt
+     */
+    public void setRoomConflictListener(RoomConflictListener roomConflictListener) {
+        this.roomConflictListener = roomConflictListener;
     }
 
     /**
      * Kiểm tra vi phạm sức chứa phòng thi.
      */
-    private double checkCapacityViolations() {
+    private double checkCapacityViolations(CompactSchedule schedule) {
         double penalty = 0;
-        for (Assignment assignment : assignments) {
-            Room room = data.getRoomById(assignment.getRoom());
-            if (room != null && assignment.getStudentCount() > room.getCapacity()) {
+        int[] capacities = instance.getRoomCapacities();
+        for (int i = 0; i < schedule.size(); i++) {
+            int capacity = capacities[schedule.getRoom(i)];
+            if (schedule.getStudentCount(i) > capacity) {
                 penalty += CAPACITY_VIOLATION_PENALTY *
-                        (assignment.getStudentCount() - room.getCapacity());
+                        (schedule.getStudentCount(i) - capacity);
             }
         }
         return penalty;
@@ -65,56 +129,126 @@ public class ScheduleFitness {
 
     /**
      * Kiểm tra xung đột lịch thi của sinh viên.
+     * Với mỗi ca, một sinh viên thi k môn khác nhau bị tính k - 1 xung đột.
+     * Chỉ so sánh các môn cùng ca qua đồ thị xung đột; nếu không có sinh viên
+     * nào thi từ ba môn trở lên trong ca thì tổng trọng số cạnh chính là số
+     * xung đột, ngược lại đếm chính xác theo sinh viên trên các môn liên quan.
      */
-    private double checkStudentConflicts() {
-        double penalty = 0;
-        Map<String, Set<String>> studentTimeslots = new HashMap<>();
+    private double checkStudentConflicts(CompactSchedule schedule, Workspace w) {
+        int[] offsets = conflictGraph.getOffsets();
+        int[] neighbors = conflictGraph.getNeighbors();
+        int[] weights = conflictGraph.getWeights();
+        long conflicts = 0;
 
-        for (Assignment assignment : assignments) {
-            Exam exam = data.getExamById(assignment.getExamId());
-            String timeslot = assignment.getTimeslot();
-            if (exam != null) {
-                for (String studentId : exam.getStudents()) {
-                    String key = studentId + "_" + timeslot;
-                    studentTimeslots
-                            .computeIfAbsent(key, k -> new HashSet<>())
-                            .add(exam.getId());
+        for (int t = 0; t < w.slotCounts.length; t++) {
+            if (w.slotCounts[t] < 2) {
+                continue;
+            }
+
+            // Các môn khác nhau trong ca (môn chia nhiều phòng chỉ tính một lần)
+            int slotStamp = w.nextStamp();
+            int numExams = 0;
+            for (int k = w.slotStart[t]; k < w.slotStart[t + 1]; k++) {
+                int exam = schedule.getExam(w.rowOrder[k]);
+                if (w.examMark[exam] != slotStamp) {
+                    w.examMark[exam] = slotStamp;
+                    w.slotExams[numExams++] = exam;
+                }
+            }
+            if (numExams < 2) {
+                continue;
+            }
+
+            long pairWeight = 0;
+            int numConflicting = 0;
+            boolean multiOverlap = false;
+            for (int i = 0; i < numExams; i++) {
+                int exam = w.slotExams[i];
+                int inSlot = 0;
+                for (int k = offsets[exam]; k < offsets[exam + 1]; k++) {
+                    int other = neighbors[k];
+                    if (w.examMark[other] == slotStamp) {
+                        inSlot++;
+                        if (other > exam) {
+                            pairWeight += weights[k];
+                        }
+                    }
+                }
+                if (inSlot > 0) {
+                    w.conflictingExams[numConflicting++] = exam;
+                    multiOverlap |= inSlot > 1;
                 }
             }
+
+            if (!multiOverlap) {
+                conflicts += pairWeight;
+            } else {
+                conflicts += countStudentOverlaps(w, numConflicting);
+            }
         }
+        return (double) STUDENT_CONFLICT_PENALTY * conflicts;
+    }
 
-        for (Set<String> examsInSlot : studentTimeslots.values()) {
-            if (examsInSlot.size() > 1) {
-                penalty += STUDENT_CONFLICT_PENALTY *
-                        (examsInSlot.size() - 1);
+    /**
+     * Đếm chính xác số xung đột theo sinh viên trên các môn có cạnh trong cùng ca.
+     */
+    private long countStudentOverlaps(Workspace w, int numExams) {
+        int[] offsets = instance.getStudentOffsets();
+        int[] members = instance.getStudentMembers();
+        int stamp = w.nextStamp();
+        long conflicts = 0;
+        for (int i = 0; i < numExams; i++) {
+            int exam = w.conflictingExams[i];
+            for (int m = offsets[exam]; m < offsets[exam + 1]; m++) {
+                int student = members[m];
+                if (w.studentMark[student] == stamp) {
+                    conflicts++;
+                } else {
+                    w.studentMark[student] = stamp;
+                }
             }
         }
-        return penalty;
+        return conflicts;
     }
 
     /**
      * Kiểm tra xung đột phòng thi
      * (một phòng được sử dụng nhiều lần trong cùng một ca thi).
      */
-    private double checkRoomConflicts() {
+    private double checkRoomConflicts(CompactSchedule schedule, Workspace w) {
         double penalty = 0;
-        Map<String, List<String>> roomTimeslotUsage = new HashMap<>();
+        int numRooms = instance.getNumRooms();
+        int stamp = w.nextStamp();
+        RoomConflictListener listener = roomConflictListener;
+        List<Integer> conflictCells = null;
 
-        for (Assignment assignment : assignments) {
-            String key = assignment.getTimeslot() + "_" + assignment.getRoom();
-            roomTimeslotUsage
-                    .computeIfAbsent(key, k -> new ArrayList<>())
-                    .add(assignment.getExamId());
+        for (int i = 0; i < schedule.size(); i++) {
+            int cell = schedule.getTimeslot(i) * numRooms + schedule.getRoom(i);
+            if (w.cellMark[cell] != stamp) {
+                w.cellMark[cell] = stamp;
+                w.cellCount[cell] = 1;
+            } else {
+                // Phạt nặng khi xảy ra xung đột phòng
+                penalty += ROOM_CONFLICT_PENALTY;
+                if (++w.cellCount[cell] == 2 && listener != null) {
+                    if (conflictCells == null) {
+                        conflictCells = new ArrayList<>();
+                    }
+                    conflictCells.add(cell);
+                }
+            }
         }
 
-        for (Map.Entry<String, List<String>> entry : roomTimeslotUsage.entrySet()) {
-            if (entry.getValue().size() > 1) {
-                // Phạt nặng khi xảy ra xung đột phòng
-                penalty += ROOM_CONFLICT_PENALTY *
-                        (entry.getValue().size() - 1);
-                System.out.println("[WARNING] Room conflict detected: " +
-                        entry.getKey() + " used by exams: " +
-                        entry.getValue());
+        if (conflictCells != null) {
+            for (int cell : conflictCells) {
+                List<String> exams = new ArrayList<>();
+                for (int i = 0; i < schedule.size(); i++) {
+                    if (schedule.getTimeslot(i) * numRooms + schedule.getRoom(i) == cell) {
+                        exams.add(instance.getExamId(schedule.getExam(i)));
+                    }
+                }
+                listener.onRoomConflict(instance.getTimeslot(cell / numRooms),
+                        instance.getRoomId(cell % numRooms), exams);
             }
         }
         return penalty;
@@ -123,30 +257,30 @@ public class ScheduleFitness {
     /**
      * Kiểm tra các môn thi chưa được xếp lịch.
      */
-    private double checkUnassignedExams() {
-        Set<String> assignedExams = new HashSet<>();
-        for (Assignment assignment : assignments) {
-            assignedExams.add(assignment.getExamId());
-        }
-
-        double penalty = 0;
-        for (Exam exam : data.getExams()) {
-            if (!assignedExams.contains(exam.getId())) {
-                penalty += UNASSIGNED_EXAM_PENALTY;
+    private double checkUnassignedExams(CompactSchedule schedule, Workspace w) {
+        int stamp = w.nextStamp();
+        int assigned = 0;
+        for (int i = 0; i < schedule.size(); i++) {
+            int exam = schedule.getExam(i);
+            if (w.examMark[exam] != stamp) {
+                w.examMark[exam] = stamp;
+                assigned++;
             }
         }
-        return penalty;
+        return (double) UNASSIGNED_EXAM_PENALTY * (instance.getNumExams() - assigned);
     }
 
     /**
-     * Lấy số lượng ca thi đã được sử dụng.
+     * Lấy số lượng ca thi đã sử dụng từ số phân công theo từng ca.
      */
-    private int getTimeslotsUsed() {
-        Set<String> usedTimeslots = new HashSet<>();
-        for (Assignment assignment : assignments) {
-            usedTimeslots.add(assignment.getTimeslot());
+    private int getTimeslotsUsed(int[] slotCounts) {
+        int used = 0;
+        for (int count : slotCounts) {
+            if (count > 0) {
+                used++;
+            }
         }
-        return usedTimeslots.size();
+        return used;
     }
 
     /**
@@ -163,41 +297,11 @@ public class ScheduleFitness {
     /**
      * Tính mức phạt cho việc sử dụng ca thi không hiệu quả.
      * Phạt khi sử dụng ca thi muộn trong khi các ca sớm vẫn còn phòng trống.
+     * @param slotCounts Số lượng phân công theo từng ca thi
      */
-    private double calculateTimeslotEfficiencyPenalty(List<Assignment> assignments) {
-        double penalty = 0;
-        int numTimeslots = data.getTimeslots().size();
-        int numRooms = data.getRooms().size();
-        
-        // Đếm số lượng phân công theo từng ca thi
-        Map<String, Integer> timeslotCounts = new HashMap<>();
-        for (Assignment assignment : assignments) {
-            timeslotCounts.merge(
-                    assignment.getTimeslot(), 1, Integer::sum);
-        }
-        
-        // Kiểm tra việc sử dụng ca muộn khi ca sớm chưa đầy
-        List<String> timeslots = data.getTimeslots();
-        for (int i = 0; i < timeslots.size(); i++) {
-            String currentTimeslot = timeslots.get(i);
-            int currentCount =
-                    timeslotCounts.getOrDefault(currentTimeslot, 0);
-            
-            // Nếu ca hiện tại chưa đầy nhưng ca sau đã được dùng thì phạt nặng
-            if (currentCount < numRooms) {
-                for (int j = i + 1; j < timeslots.size(); j++) {
-                    String laterTimeslot = timeslots.get(j);
-                    int laterCount =
-                            timeslotCounts.getOrDefault(laterTimeslot, 0);
-                    if (laterCount > 0) {
-                        // Phạt nặng việc bỏ qua ca sớm để dùng ca muộn
-                        penalty += 200 * laterCount * (j - i);
-                    }
-                }
-            }
-        }
-        
-        return penalty;
+    private double calculateTimeslotEfficiencyPenalty(int[] slotCounts) {
+        return IncrementalFitness.timeslotEfficiencyPenalty(slotCounts,
+                instance.getNumRooms());
     }
 
     /**
@@ -238,4 +342,76 @@ public class ScheduleFitness {
         System.out.println("Room Conflicts: " + conflictCount);
         System.out.println("========================================\n");
     }
+
+    /**
+     * Bộ đệm tạm của một lần đánh giá. Các mảng đánh dấu dùng "tem" tăng dần
+     * nên không cần xoá giữa các lần đánh giá.
+     */
+    private static final class Workspace {
+        final int[] examMark;
+        final int[] studentMark;
+        final int[] cellMark;
+        final int[] cellCount;
+        final int[] slotCounts;
+        final int[] slotStart;
+        final int[] slotExams;
+        final int[] conflictingExams;
+        int[] rowOrder = new int[64];
+        int stamp;
+
+        Workspace(CompiledInstance instance) {
+            int numTimeslots = instance.getNumTimeslots();
+            examMark = new int[instance.getNumExams()];
+            studentMark = new int[instance.getNumStudents()];
+            cellMark = new int[numTimeslots * instance.getNumRooms()];
+            cellCount = new int[cellMark.length];
+            slotCounts = new int[numTimeslots];
+            slotStart = new int[numTimeslots + 1];
+            slotExams = new int[instance.getNumExams()];
+            conflictingExams = new int[instance.getNumExams()];
+        }
+
+        /**
+         * Đảm bảo đủ giá trị tem cho một lần đánh giá trước khi bị tràn số.
+         */
+        void reserveStamps() {
+            if (stamp > Integer.MAX_VALUE - 2 * slotCounts.length - 8) {
+                Arrays.fill(examMark, 0);
+                Arrays.fill(studentMark, 0);
+                Arrays.fill(cellMark, 0);
+                stamp = 0;
+            }
+        }
+
+        int nextStamp() {
+            return ++stamp;
+        }
+
+        /**
+         * Sắp xếp đếm các dòng phân công theo ca thi vào rowOrder.
+         */
+        void groupByTimeslot(CompactSchedule schedule) {
+            int rows = schedule.size();
+            if (rowOrder.length < rows) {
+                rowOrder = new int[Math.max(rows, rowOrder.length * 2)];
+            }
+            Arrays.fill(slotCounts, 0);
+            for (int i = 0; i < rows; i++) {
+                slotCounts[schedule.getTimeslot(i)]++;
+            }
+            slotStart[0] = 0;
+            for (int t = 0; t < slotCounts.length; t++) {
+                slotStart[t + 1] = slotStart[t] + slotCounts[t];
+            }
+            // Dùng slotCounts làm con trỏ ghi rồi khôi phục lại
+            for (int i = 0; i < rows; i++) {
+                int t = schedule.getTimeslot(i);
+                rowOrder[slotStart[t + 1] - slotCounts[t]] = i;
+                slotCounts[t]--;
+            }
+            for (int t = 0; t < slotCounts.length; t++) {
+                slotCounts[t] = slotStart[t + 1] - slotStart[t];
+            }
+        }
+    }
 }
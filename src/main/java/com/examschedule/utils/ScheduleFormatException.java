@@ -0,0 +1,43 @@
+package com.examschedule.utils;
+
+import java.io.IOException;
+
+/**
+ * File dữ liệu lịch thi không đúng định dạng: lỗi cú pháp JSON, thiếu trường
+ * bắt buộc hoặc sai kiểu giá trị. Thông báo có dạng "file:dòng:cột: mô tả".
+ * Với file nhị phân (snapshot) không có vị trí dòng:cột, thông báo có dạng
+ * "file: mô tả" và line = column = 0.
+ */
+public class ScheduleFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String source;
+    private final int line;
+    private final int column;
+
+    public ScheduleFormatException(String source, int line, int column, String message) {
+        super(source + ":" + line + ":" + column + ": " + message);
+        this.source = source;
+        this.line = line;
+        this.column = column;
+    }
+
+    public ScheduleFormatException(String source, String message) {
+        super(source + ": " + message);
+        this.source = source;
+        this.line = 0;
+        this.column = 0;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -2,76 +2,100 @@ package com.examschedule.utils;
 
 import com.examschedule.models.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class SchedulePrinter {
+    // Số dòng tối đa của bảng khi không chỉ định
+    public static final int DEFAULT_MAX_ROWS = 50;
 
     public static void printScheduleTable(List<Assignment> schedule, ScheduleData data) {
+        printScheduleTable(schedule, data, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * In bảng lịch thi (theo ca thi rồi môn thi) và phần thống kê. Bảng chỉ có tối
+     * đa maxRows dòng đầu để lịch lớn không làm tràn console; lịch đầy đủ nằm
+     * trong file kết quả ({@link ScheduleWriter}). Toàn bộ được dựng trong bộ
+     * đệm rồi in một lần.
+     * @param maxRows Số dòng tối đa của bảng, 0 = chỉ in thống kê
+     */
+    public static void printScheduleTable(List<Assignment> schedule, ScheduleData data, int maxRows) {
         if (schedule == null || schedule.isEmpty()) {
             System.out.println("No schedule available.");
             return;
         }
 
-        System.out.println("\n╔════════════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                        LỊCH THI                                        ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════════════╝\n");
-
         int examWidth = 20;
         int studentCountWidth = 18;
         int timeslotWidth = 18;
         int roomWidth = 15;
+        String rowFormat = "│ %-" + (examWidth-2) + "s │ %-" + (studentCountWidth-2) + "s │ %-"
+                + (timeslotWidth-2) + "s │ %-" + (roomWidth-2) + "s │\n";
 
-        printLine(examWidth, studentCountWidth, timeslotWidth, roomWidth);
-        System.out.printf("│ %-" + (examWidth-2) + "s │ %-" + (studentCountWidth-2) + "s │ %-"
-                + (timeslotWidth-2) + "s │ %-" + (roomWidth-2) + "s │\n",
-                "Môn Thi", "Số Sinh Viên", "Thời Gian", "Phòng");
-        printLine(examWidth, studentCountWidth, timeslotWidth, roomWidth);
+        CompiledInstance instance = data.getCompiled();
+        int[] timeslots = ScheduleWriter.timeslotKeys(schedule, instance);
+        int[] rooms = ScheduleWriter.roomKeys(schedule, instance);
+        int[] exams = ScheduleWriter.examKeys(schedule, instance);
 
-        List<Assignment> sortedSchedule = schedule.stream()
-                .sorted(Comparator.comparing(Assignment::getTimeslot)
-                        .thenComparing(Assignment::getExamId))
-                .collect(Collectors.toList());
+        StringBuilder out = new StringBuilder();
+        Formatter formatter = new Formatter(out);
+        if (maxRows > 0) {
+            out.append("\n╔════════════════════════════════════════════════════════════════════════╗\n");
+            out.append("║                        LỊCH THI                                        ║\n");
+            out.append("╚════════════════════════════════════════════════════════════════════════╝\n\n");
 
-        int totalStudents = 0;
-        Set<String> uniqueTimeslots = new HashSet<>();
-        Set<String> uniqueRooms = new HashSet<>();
-        Map<String, Integer> examTotalStudents = new HashMap<>();
+            appendLine(out, examWidth, studentCountWidth, timeslotWidth, roomWidth);
+            formatter.format(rowFormat, "Môn Thi", "Số Sinh Viên", "Thời Gian", "Phòng");
+            appendLine(out, examWidth, studentCountWidth, timeslotWidth, roomWidth);
 
-        for (Assignment assignment : sortedSchedule) {
-            String examId = assignment.getExamId();
-            int numStudents = assignment.getStudentCount();
-            String timeslot = assignment.getTimeslot();
-            String room = assignment.getRoom();
-
-            totalStudents += numStudents;
-            uniqueTimeslots.add(timeslot);
-            uniqueRooms.add(room);
-            examTotalStudents.merge(examId, numStudents, Integer::sum);
+            int[] order = ScheduleWriter.sortedOrder(rooms, exams, timeslots);
+            int shown = Math.min(maxRows, order.length);
+            for (int i = 0; i < shown; i++) {
+                Assignment assignment = schedule.get(order[i]);
+                formatter.format(rowFormat, assignment.getExamId(), assignment.getStudentCount(),
+                        assignment.getTimeslot(), assignment.getRoom());
+            }
+            appendLine(out, examWidth, studentCountWidth, timeslotWidth, roomWidth);
+            if (shown < order.length) {
+                out.append("  ... ").append(order.length - shown)
+                        .append(" dòng nữa (xem file kết quả)\n");
+            }
+        }
 
-            System.out.printf("│ %-" + (examWidth-2) + "s │ %-" + (studentCountWidth-2) + "d │ %-"
-                    + (timeslotWidth-2) + "s │ %-" + (roomWidth-2) + "s │\n",
-                    examId, numStudents, timeslot, room);
+        int totalStudents = 0;
+        boolean[] usedTimeslots = new boolean[instance.getNumTimeslots() + 1];
+        boolean[] usedRooms = new boolean[instance.getNumRooms() + 1];
+        int uniqueTimeslots = 0;
+        int uniqueRooms = 0;
+        for (int i = 0; i < schedule.size(); i++) {
+            totalStudents += schedule.get(i).getStudentCount();
+            if (!usedTimeslots[timeslots[i]]) {
+                usedTimeslots[timeslots[i]] = true;
+                uniqueTimeslots++;
+            }
+            if (!usedRooms[rooms[i]]) {
+                usedRooms[rooms[i]] = true;
+                uniqueRooms++;
+            }
         }
 
-        printLine(examWidth, studentCountWidth, timeslotWidth, roomWidth);
-        
-        System.out.println("\n📊 THỐNG KÊ:");
-        System.out.println("  • Tổng số môn thi: " + sortedSchedule.size());
-        System.out.println("  • Tổng số sinh viên: " + totalStudents);
-        System.out.println("  • Số thời gian biểu: " + uniqueTimeslots.size());
-        System.out.println("  • Số phòng thi: " + uniqueRooms.size());
-        System.out.println();
+        out.append("\n📊 THỐNG KÊ:\n");
+        out.append("  • Tổng số môn thi: ").append(schedule.size()).append('\n');
+        out.append("  • Tổng số sinh viên: ").append(totalStudents).append('\n');
+        out.append("  • Số thời gian biểu: ").append(uniqueTimeslots).append('\n');
+        out.append("  • Số phòng thi: ").append(uniqueRooms).append('\n');
+        out.append('\n');
+        System.out.print(out);
     }
 
-    private static void printLine(int examWidth, int studentCountWidth, int timeslotWidth, int roomWidth) {
-        System.out.print("╟");
-        System.out.print("─".repeat(examWidth+2));
-        System.out.print("┼");
-        System.out.print("─".repeat(studentCountWidth+3));
-        System.out.print("┼");
-        System.out.print("─".repeat(timeslotWidth+3));
-        System.out.print("┼");
-        System.out.print("─".repeat(roomWidth+3));
-        System.out.println("╢");
+    private static void appendLine(StringBuilder out, int examWidth, int studentCountWidth, int timeslotWidth, int roomWidth) {
+        out.append("╟");
+        out.append("─".repeat(examWidth+2));
+        out.append("┼");
+        out.append("─".repeat(studentCountWidth+3));
+        out.append("┼");
+        out.append("─".repeat(timeslotWidth+3));
+        out.append("┼");
+        out.append("─".repeat(roomWidth+3));
+        out.append("╢\n");
     }
-}
\ No newline at end of file
+}
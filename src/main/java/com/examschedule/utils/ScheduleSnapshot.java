@@ -0,0 +1,413 @@
+package com.examschedule.utils;
+
+import com.examschedule.models.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Snapshot nhị phân của một bộ dữ liệu đã nạp, kèm các cấu trúc đã tính sẵn
+ * (CSR môn thi - sinh viên và đồ thị xung đột) để chạy lại cùng dữ liệu mà
+ * không phải phân tích JSON và dựng chỉ mục lần nữa.
+ *
+ * File được đọc qua memory-map. Bố cục (số nguyên 32 bit little-endian):
+ * <pre>
+ *   header (64 byte): magic "EXAMSNAP", version, numExams, numRooms, numTimeslots,
+ *                     numStudents, numListedStudents, numRawMembers, numMembers,
+ *                     numGraphEntries, phần còn lại = 0
+ *   bảng chuỗi: examIds, roomIds, timeslots, studentIds
+ *               (mỗi bảng: offset byte [n + 1], byte UTF-8, đệm tới bội số của 4)
+ *   roomCapacities [numRooms]
+ *   listedStudents [numListedStudents]        chỉ số sinh viên theo thứ tự "students" gốc
+ *   rawOffsets [numExams + 1], rawMembers      danh sách sinh viên gốc của từng môn
+ *   offsets [numExams + 1], members            CSR đã loại trùng của CompiledInstance
+ *   graphOffsets [numExams + 1], neighbors, weights   ConflictGraph
+ * </pre>
+ * Đồ thị xung đột được lưu dạng danh sách kề CSR thay cho ma trận đầy đủ
+ * (ma trận n x n quá lớn với hàng chục nghìn môn).
+ */
+public class ScheduleSnapshot {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = "EXAMSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 64;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private ScheduleSnapshot() {
+    }
+
+    /**
+     * Ghi snapshot của data; mô hình biên dịch và đồ thị xung đột được tạo nếu chưa có.
+     */
+    public static void write(ScheduleData data, Path path) throws IOException {
+        CompiledInstance instance = data.getCompiled();
+        ConflictGraph graph = instance.getConflictGraph();
+        int numExams = instance.getNumExams();
+
+        List<Student> listed = data.getStudents();
+        int[] listedStudents = new int[listed.size()];
+        for (int i = 0; i < listedStudents.length; i++) {
+            listedStudents[i] = instance.indexOfStudent(listed.get(i).getId());
+        }
+
+        int[] rawOffsets = new int[numExams + 1];
+        for (int e = 0; e < numExams; e++) {
+            rawOffsets[e + 1] = rawOffsets[e] + instance.getExamSize(e);
+        }
+        int[] rawMembers = new int[rawOffsets[numExams]];
+        int pos = 0;
+        for (Exam exam : data.getExams()) {
+            for (String studentId : exam.getStudents()) {
+                rawMembers[pos++] = instance.indexOfStudent(studentId);
+            }
+        }
+
+        String[] examIds = new String[numExams];
+        for (int e = 0; e < numExams; e++) {
+            examIds[e] = instance.getExamId(e);
+        }
+        String[] roomIds = new String[instance.getNumRooms()];
+        for (int r = 0; r < roomIds.length; r++) {
+            roomIds[r] = instance.getRoomId(r);
+        }
+        String[] timeslots = new String[instance.getNumTimeslots()];
+        for (int t = 0; t < timeslots.length; t++) {
+            timeslots[t] = instance.getTimeslot(t);
+        }
+        String[] studentIds = new String[instance.getNumStudents()];
+        for (int s = 0; s < studentIds.length; s++) {
+            studentIds[s] = instance.getStudentId(s);
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putBytes(MAGIC, 0, MAGIC.length);
+            out.putInt(VERSION);
+            out.putInt(numExams);
+            out.putInt(roomIds.length);
+            out.putInt(timeslots.length);
+            out.putInt(studentIds.length);
+            out.putInt(listedStudents.length);
+            out.putInt(rawMembers.length);
+            out.putInt(instance.getStudentMembers().length);
+            out.putInt(graph.getNeighbors().length);
+            while (out.size() < HEADER_SIZE) {
+                out.putInt(0);
+            }
+
+            out.putStrings(examIds);
+            out.putStrings(roomIds);
+            out.putStrings(timeslots);
+            out.putStrings(studentIds);
+            out.putInts(instance.getRoomCapacities());
+            out.putInts(listedStudents);
+            out.putInts(rawOffsets);
+            out.putInts(rawMembers);
+            out.putInts(instance.getStudentOffsets());
+            out.putInts(instance.getStudentMembers());
+            out.putInts(graph.getOffsets());
+            out.putInts(graph.getNeighbors());
+            out.putInts(graph.getWeights());
+            out.flush();
+        }
+    }
+
+    /**
+     * Đọc snapshot qua memory-map. Danh sách sinh viên của từng {@link Exam} là
+     * khung nhìn chỉ đọc trên vùng nhớ đã map, không được sao chép ra List riêng.
+     * @throws ScheduleFormatException nếu file không phải snapshot, khác phiên bản
+     *                                 hoặc bị cắt cụt / hỏng
+     */
+    public static ScheduleData read(Path path) throws IOException {
+        String source = path.toString();
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ScheduleFormatException(source, "snapshot larger than 2 GB is not supported");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            if (!hasMagic(in)) {
+                throw new ScheduleFormatException(source, "not a schedule snapshot");
+            }
+            in.position(MAGIC.length);
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new ScheduleFormatException(source, "unsupported snapshot version " + version
+                        + " (expected " + VERSION + "), convert the JSON input again");
+            }
+            int numExams = count(in, source, "exams");
+            int numRooms = count(in, source, "rooms");
+            int numTimeslots = count(in, source, "timeslots");
+            int numStudents = count(in, source, "students");
+            int numListed = count(in, source, "listed students");
+            int numRawMembers = count(in, source, "raw members");
+            int numMembers = count(in, source, "members");
+            int numGraphEntries = count(in, source, "graph entries");
+            in.position(HEADER_SIZE);
+
+            String[] examIds = getStrings(in, numExams, source);
+            String[] roomIds = getStrings(in, numRooms, source);
+            String[] timeslots = getStrings(in, numTimeslots, source);
+            String[] studentIds = getStrings(in, numStudents, source);
+
+            int[] roomCapacities = getInts(in, numRooms);
+            int[] listedStudents = getInts(in, numListed);
+            checkIndices(listedStudents, numStudents, "listed students", source);
+            int[] rawOffsets = getInts(in, numExams + 1);
+            checkOffsets(rawOffsets, numRawMembers, "raw offsets", source);
+            // Danh sách gốc giữ nguyên trên vùng nhớ đã map
+            IntBuffer rawMembers = in.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            rawMembers.limit(numRawMembers);
+            in.position(in.position() + 4 * numRawMembers);
+            int[] offsets = getInts(in, numExams + 1);
+            checkOffsets(offsets, numMembers, "offsets", source);
+            int[] members = getInts(in, numMembers);
+            checkIndices(members, numStudents, "members", source);
+            int[] graphOffsets = getInts(in, numExams + 1);
+            checkOffsets(graphOffsets, numGraphEntries, "graph offsets", source);
+            int[] neighbors = getInts(in, numGraphEntries);
+            checkIndices(neighbors, numExams, "graph neighbors", source);
+            int[] weights = getInts(in, numGraphEntries);
+            if (in.hasRemaining()) {
+                throw new ScheduleFormatException(source, in.remaining() + " unexpected bytes after the last section");
+            }
+            for (int i = 0; i < numRawMembers; i++) {
+                if (rawMembers.get(i) < 0 || rawMembers.get(i) >= numStudents) {
+                    throw new ScheduleFormatException(source, "raw members contains an out-of-range index");
+                }
+            }
+
+            int[] examSizes = new int[numExams];
+            List<Exam> exams = new ArrayList<>(numExams);
+            for (int e = 0; e < numExams; e++) {
+                examSizes[e] = rawOffsets[e + 1] - rawOffsets[e];
+                exams.add(new Exam(examIds[e],
+                        new StudentIdList(rawMembers, rawOffsets[e], examSizes[e], studentIds)));
+            }
+            List<Student> students = new ArrayList<>(numListed);
+            for (int student : listedStudents) {
+                students.add(new Student(studentIds[student]));
+            }
+            List<Room> rooms = new ArrayList<>(numRooms);
+            for (int r = 0; r < numRooms; r++) {
+                rooms.add(new Room(roomIds[r], roomCapacities[r]));
+            }
+
+            ConflictGraph graph = new ConflictGraph(graphOffsets, neighbors, weights);
+            CompiledInstance instance = new CompiledInstance(examIds, roomIds, timeslots, studentIds,
+                    examSizes, roomCapacities, offsets, members, graph);
+            return new ScheduleData(exams, students, rooms, new ArrayList<>(Arrays.asList(timeslots)),
+                    instance);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new ScheduleFormatException(source, "truncated or corrupt snapshot");
+        }
+    }
+
+    /**
+     * @return true nếu file bắt đầu bằng magic của snapshot
+     */
+    public static boolean isSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // đọc tiếp tới khi đủ magic hoặc hết file
+            }
+            head.flip();
+            return hasMagic(head);
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer) {
+        if (buffer.limit() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int count(ByteBuffer in, String source, String name) throws ScheduleFormatException {
+        int value = in.getInt();
+        // Mỗi phần tử chiếm ít nhất 4 byte trong file dưới 2 GB
+        if (value < 0 || value >= Integer.MAX_VALUE / 4) {
+            throw new ScheduleFormatException(source, "invalid " + name + " count " + value);
+        }
+        return value;
+    }
+
+    private static int[] getInts(ByteBuffer in, int count) {
+        // Kiểm tra trước khi cấp phát để số đếm hỏng không gây OutOfMemoryError
+        if (4L * count > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * count);
+        return values;
+    }
+
+    private static String[] getStrings(ByteBuffer in, int count, String source)
+            throws ScheduleFormatException {
+        int[] offsets = getInts(in, count + 1);
+        int length = offsets[count];
+        checkOffsets(offsets, length, "string offsets", source);
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        in.position(in.position() + padding(length));
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static void checkOffsets(int[] offsets, int length, String name, String source)
+            throws ScheduleFormatException {
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != length) {
+            throw new ScheduleFormatException(source, name + " do not cover the section");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new ScheduleFormatException(source, name + " are not increasing at " + i);
+            }
+        }
+    }
+
+    private static void checkIndices(int[] values, int bound, String name, String source)
+            throws ScheduleFormatException {
+        for (int value : values) {
+            if (value < 0 || value >= bound) {
+                throw new ScheduleFormatException(source, name + " contains out-of-range index " + value);
+            }
+        }
+    }
+
+    private static int padding(int length) {
+        return (4 - (length & 3)) & 3;
+    }
+
+    /**
+     * Danh sách mã sinh viên của một môn, đọc trực tiếp từ vùng nhớ đã map.
+     */
+    private static final class StudentIdList extends AbstractList<String> implements RandomAccess {
+        private final IntBuffer members;
+        private final int from;
+        private final int size;
+        private final String[] studentIds;
+
+        StudentIdList(IntBuffer members, int from, int size, String[] studentIds) {
+            this.members = members;
+            this.from = from;
+            this.size = size;
+            this.studentIds = studentIds;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return studentIds[members.get(from + index)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Ghi tuần tự qua bộ đệm cố định.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer =
+                ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long size() {
+            return written + buffer.position();
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putInts(int[] values) throws IOException {
+            for (int value : values) {
+                putInt(value);
+            }
+        }
+
+        void putBytes(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void putStrings(String[] values) throws IOException {
+            byte[][] encoded = new byte[values.length][];
+            int length = 0;
+            for (int i = 0; i < values.length; i++) {
+                encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                putInt(length);
+                length += encoded[i].length;
+            }
+            putInt(length);
+            for (byte[] bytes : encoded) {
+                putBytes(bytes, 0, bytes.length);
+            }
+            for (int i = padding(length); i > 0; i--) {
+                putBytes(new byte[1], 0, 1);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.examschedule.utils;
+
+import com.examschedule.models.Assignment;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ScheduleData;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Ghi lịch thi ra file theo luồng: từng phân công được ghi thẳng vào bộ đệm
+ * của kênh file, không dựng cây JSON hay chuỗi kết quả trong bộ nhớ.
+ * Việc sắp xếp dùng khoá số nguyên (chỉ số ca thi, phòng, môn trong
+ * {@link CompiledInstance}) thay cho so sánh chuỗi.
+ */
+public class ScheduleWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Thứ tự dòng trong file CSV.
+     */
+    public enum CsvOrder {
+        // Theo ca thi, rồi phòng, rồi môn
+        BY_TIMESLOT,
+        // Theo phòng, rồi ca thi, rồi môn
+        BY_ROOM
+    }
+
+    private ScheduleWriter() {
+    }
+
+    /**
+     * Ghi kết quả ra file JSON (cùng định dạng schedule_output.json), giữ thứ tự
+     * phân công như trong danh sách.
+     */
+    public static void writeJSON(List<Assignment> schedule, double fitness, Path path) throws IOException {
+        try (Writer out = open(path)) {
+            writeJSON(schedule, fitness, out);
+        }
+    }
+
+    /**
+     * Như {@link #writeJSON(List, double, Path)} nhưng ghi vào một Writer có sẵn
+     * (không đóng writer; bên gọi tự lo bộ đệm).
+     */
+    public static void writeJSON(List<Assignment> schedule, double fitness, Writer out) throws IOException {
+        out.write("{\n  \"schedule\": [");
+        for (int i = 0; i < schedule.size(); i++) {
+            Assignment assignment = schedule.get(i);
+            out.write(i == 0 ? "\n    {\n      \"exam\": " : ",\n    {\n      \"exam\": ");
+            writeString(out, assignment.getExamId());
+            out.write(",\n      \"room\": ");
+            writeString(out, assignment.getRoom());
+            out.write(",\n      \"timeslot\": ");
+            writeString(out, assignment.getTimeslot());
+            out.write(",\n      \"students\": ");
+            out.write(Integer.toString(assignment.getStudentCount()));
+            out.write("\n    }");
+        }
+        out.write(schedule.isEmpty() ? "],\n  \"fitness\": " : "\n  ],\n  \"fitness\": ");
+        out.write(formatNumber(fitness));
+        out.write("\n}\n");
+    }
+
+    /**
+     * Ghi kết quả ra file CSV với các cột timeslot,room,exam,students.
+     */
+    public static void writeCSV(List<Assignment> schedule, ScheduleData data, CsvOrder order, Path path)
+            throws IOException {
+        CompiledInstance instance = data.getCompiled();
+        int[] timeslots = timeslotKeys(schedule, instance);
+        int[] rooms = roomKeys(schedule, instance);
+        int[] exams = examKeys(schedule, instance);
+        int[] rows = order == CsvOrder.BY_ROOM
+                ? sortedOrder(exams, timeslots, rooms)
+                : sortedOrder(exams, rooms, timeslots);
+
+        try (Writer out = open(path)) {
+            out.write("timeslot,room,exam,students\n");
+            for (int row : rows) {
+                Assignment assignment = schedule.get(row);
+                writeCsvField(out, assignment.getTimeslot());
+                out.write(',');
+                writeCsvField(out, assignment.getRoom());
+                out.write(',');
+                writeCsvField(out, assignment.getExamId());
+                out.write(',');
+                out.write(Integer.toString(assignment.getStudentCount()));
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Thứ tự các phân công sau khi sắp xếp ổn định theo các khoá; khoá cuối cùng
+     * là khoá chính. Mỗi khoá nằm trong [0, max] nên dùng sắp xếp đếm (radix LSD),
+     * độ phức tạp tuyến tính và không tạo đối tượng so sánh.
+     */
+    static int[] sortedOrder(int[]... keys) {
+        int size = keys.length == 0 ? 0 : keys[0].length;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] next = new int[size];
+        for (int[] key : keys) {
+            int max = 0;
+            for (int value : key) {
+                max = Math.max(max, value);
+            }
+            int[] start = new int[max + 2];
+            for (int value : key) {
+                start[value + 1]++;
+            }
+            for (int v = 0; v <= max; v++) {
+                start[v + 1] += start[v];
+            }
+            for (int row : order) {
+                next[start[key[row]]++] = row;
+            }
+            int[] tmp = order;
+            order = next;
+            next = tmp;
+        }
+        return order;
+    }
+
+    /**
+     * Chỉ số ca thi của từng phân công; ca không có trong dữ liệu xếp sau cùng.
+     */
+    static int[] timeslotKeys(List<Assignment> schedule, CompiledInstance instance) {
+        int[] keys = new int[schedule.size()];
+        for (int i = 0; i < keys.length; i++) {
+            int timeslot = instance.indexOfTimeslot(schedule.get(i).getTimeslot());
+            keys[i] = timeslot >= 0 ? timeslot : instance.getNumTimeslots();
+        }
+        return keys;
+    }
+
+    static int[] roomKeys(List<Assignment> schedule, CompiledInstance instance) {
+        int[] keys = new int[schedule.size()];
+        for (int i = 0; i < keys.length; i++) {
+            int room = instance.indexOfRoom(schedule.get(i).getRoom());
+            keys[i] = room >= 0 ? room : instance.getNumRooms();
+        }
+        return keys;
+    }
+
+    static int[] examKeys(List<Assignment> schedule, CompiledInstance instance) {
+        int[] keys = new int[schedule.size()];
+        for (int i = 0; i < keys.length; i++) {
+            int exam = instance.indexOfExam(schedule.get(i).getExamId());
+            keys[i] = exam >= 0 ? exam : instance.getNumExams();
+        }
+        return keys;
+    }
+
+    private static Writer open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Số nguyên được ghi không có phần ".0", giống org.json.
+     */
+    private static String formatNumber(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "null";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,268 @@
+package com.examschedule.utils;
+
+import com.examschedule.models.CompiledInstance;
+import java.util.Arrays;
+
+/**
+ * Chọn tập phòng trống để chia một môn thi: tập có tổng sức chứa ≥ số sinh viên
+ * và thừa ít chỗ nhất (hoà thì ưu tiên phòng lớn), để các môn sau trong cùng ca còn
+ * nhiều chỗ nhất. Mọi sinh viên đều có chỗ; nếu tổng sức chứa các phòng trống
+ * không đủ, {@link #plan} trả về -1 thay vì xếp thiếu.
+ *
+ * Bài toán là phủ tập con với tổng nhỏ nhất (knapsack 0/1). Khi số phòng × tổng
+ * cần xét ≤ {@link #DP_CELL_LIMIT}, quy hoạch động trên tổng sức chứa cho lời giải
+ * tối ưu: chỉ cần xét tổng < n + sức chứa lớn nhất, vì lấy phòng lớn dần đến khi đủ
+ * luôn dừng dưới mức đó. Lớn hơn thì dùng tham lam: lấy phòng lớn nhất cho đến khi
+ * một phòng vừa đủ phần còn lại, rồi lấy phòng nhỏ nhất như vậy.
+ *
+ * Khi bài toán có tối đa 64 phòng, kết quả được nhớ theo (số sinh viên, mặt nạ
+ * phòng trống) trong một bảng ánh xạ trực tiếp, không cấp phát khi tra.
+ * Mỗi luồng dùng một đối tượng riêng.
+ */
+public final class SplitPlanner {
+    /** Số bit tối đa của bảng quy hoạch động (số phòng × (tổng cần xét + 1)). */
+    public static final int DP_CELL_LIMIT = 1 << 24;
+
+    private static final int CACHE_SIZE = 1 << 12;
+
+    private final CompiledInstance instance;
+    // Hạng của phòng theo sức chứa giảm dần, làm bit trong mặt nạ của bộ nhớ đệm
+    private final int[] rankOfRoom;
+    private final int[] roomAtRank;
+    private final boolean cacheable;
+
+    // Bộ nhớ đệm ánh xạ trực tiếp: (số sinh viên, mặt nạ phòng trống) -> mặt nạ phòng chọn
+    private final int[] cacheStudents;
+    private final long[] cacheFree;
+    private final long[] cacheChosen;
+    private long cacheHits;
+    private long cacheMisses;
+
+    // Bộ đệm tạm; ba mảng đầu cho bên gọi liệt kê phòng trống và nhận kết quả
+    private final int[] roomBuffer;
+    private final int[] planRooms;
+    private final int[] planCounts;
+    private final int[] capacities;
+    private final boolean[] chosen;
+    // (số phòng + 1) hàng bitset các tổng sức chứa đạt được, mỗi hàng (bound + 1) bit
+    private long[] reachable;
+
+    public SplitPlanner(CompiledInstance instance) {
+        this.instance = instance;
+        int numRooms = instance.getNumRooms();
+        this.roomAtRank = instance.getRoomsByCapacityDesc();
+        this.rankOfRoom = new int[numRooms];
+        for (int k = 0; k < numRooms; k++) {
+            rankOfRoom[roomAtRank[k]] = k;
+        }
+        this.cacheable = numRooms <= 64;
+        this.cacheStudents = new int[cacheable ? CACHE_SIZE : 0];
+        this.cacheFree = new long[cacheStudents.length];
+        this.cacheChosen = new long[cacheStudents.length];
+        Arrays.fill(cacheStudents, -1);
+        this.roomBuffer = new int[numRooms];
+        this.planRooms = new int[numRooms];
+        this.planCounts = new int[numRooms];
+        this.capacities = new int[numRooms];
+        this.chosen = new boolean[numRooms];
+        this.reachable = new long[0];
+    }
+
+    /**
+     * Chọn phòng và chia sinh viên cho một môn.
+     * @param rooms Các phòng trống, theo sức chứa giảm dần
+     * @param numAvailable Số phần tử hợp lệ trong rooms
+     * @param outRooms Nhận các phòng được chọn, theo sức chứa giảm dần
+     * @param outCounts Nhận số sinh viên của từng phòng (tổng đúng bằng students)
+     * @return Số phòng được chọn (0 nếu students ≤ 0), hoặc -1 nếu tổng sức chứa không đủ
+     */
+    public int plan(int students, int[] rooms, int numAvailable, int[] outRooms, int[] outCounts) {
+        if (students <= 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < numAvailable; i++) {
+            capacities[i] = instance.getRoomCapacity(rooms[i]);
+            total += capacities[i];
+        }
+        if (total < students) {
+            return -1;
+        }
+
+        int slot = -1;
+        long freeMask = 0;
+        if (cacheable) {
+            for (int i = 0; i < numAvailable; i++) {
+                freeMask |= 1L << rankOfRoom[rooms[i]];
+            }
+            slot = cacheSlot(students, freeMask);
+            if (cacheStudents[slot] == students && cacheFree[slot] == freeMask) {
+                cacheHits++;
+                return distribute(students, cacheChosen[slot], outRooms, outCounts);
+            }
+            cacheMisses++;
+        }
+
+        Arrays.fill(chosen, 0, numAvailable, false);
+        int bound = (int) Math.min(total, (long) students + capacities[0] - 1);
+        if ((long) numAvailable * (bound + 1) <= DP_CELL_LIMIT) {
+            chooseExact(students, numAvailable, bound);
+        } else {
+            chooseGreedy(students, numAvailable);
+        }
+
+        int count = 0;
+        long chosenMask = 0;
+        for (int i = 0; i < numAvailable; i++) {
+            if (chosen[i]) {
+                outRooms[count++] = rooms[i];
+                if (cacheable) {
+                    chosenMask |= 1L << rankOfRoom[rooms[i]];
+                }
+            }
+        }
+        if (cacheable) {
+            cacheStudents[slot] = students;
+            cacheFree[slot] = freeMask;
+            cacheChosen[slot] = chosenMask;
+        }
+        fillCounts(students, outRooms, count, outCounts);
+        return count;
+    }
+
+    /**
+     * Quy hoạch động tổng tập con trên bitset: hàng i của reachable là các tổng
+     * ≤ bound đạt được bằng các phòng 0..i-1, hàng i+1 = hàng i | (hàng i << c_i),
+     * mỗi phòng tốn (bound + 1) / 64 phép toán trên word. Chọn tổng s ≥ students nhỏ
+     * nhất đạt được, rồi lần ngược từ phòng nhỏ nhất: bỏ phòng i nếu s vẫn đạt được
+     * không cần nó, nên khi hoà ưu tiên các phòng lớn (ít phòng hơn).
+     */
+    private void chooseExact(int students, int numAvailable, int bound) {
+        int words = (bound >>> 6) + 1;
+        if (reachable.length < (numAvailable + 1) * words) {
+            reachable = new long[(numAvailable + 1) * words];
+        }
+        Arrays.fill(reachable, 0, words, 0L);
+        reachable[0] = 1L;
+        // Các bit sau bound trong word cuối bị xoá để không tạo tổng ngoài bảng
+        long lastMask = -1L >>> (63 - (bound & 63));
+        for (int i = 0; i < numAvailable; i++) {
+            int from = i * words;
+            int to = from + words;
+            int wordShift = capacities[i] >>> 6;
+            int bitShift = capacities[i] & 63;
+            for (int w = 0; w < words; w++) {
+                long shifted = 0;
+                int source = w - wordShift;
+                if (source >= 0) {
+                    shifted = reachable[from + source] << bitShift;
+                    if (bitShift != 0 && source > 0) {
+                        shifted |= reachable[from + source - 1] >>> (64 - bitShift);
+                    }
+                }
+                reachable[to + w] = reachable[from + w] | shifted;
+            }
+            reachable[to + words - 1] &= lastMask;
+        }
+
+        int last = numAvailable * words;
+        int sum = students;
+        while ((reachable[last + (sum >>> 6)] & (1L << sum)) == 0) {
+            sum++;
+        }
+        for (int i = numAvailable - 1; i >= 0 && sum > 0; i--) {
+            if ((reachable[i * words + (sum >>> 6)] & (1L << sum)) == 0) {
+                chosen[i] = true;
+                sum -= capacities[i];
+            }
+        }
+    }
+
+    /**
+     * Tham lam: lấy phòng lớn nhất cho đến khi còn một phòng chưa chọn đủ chỗ cho
+     * phần còn lại, rồi lấy phòng nhỏ nhất trong số đó.
+     */
+    private void chooseGreedy(int students, int numAvailable) {
+        int remaining = students;
+        int next = 0;
+        while (remaining > 0) {
+            // capacities giảm dần: tìm phòng cuối cùng trong [next, numAvailable) còn đủ chỗ
+            int low = next;
+            int high = numAvailable;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (capacities[mid] >= remaining) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > next) {
+                chosen[low - 1] = true;
+                return;
+            }
+            chosen[next] = true;
+            remaining -= capacities[next];
+            next++;
+        }
+    }
+
+    private int distribute(int students, long chosenMask, int[] outRooms, int[] outCounts) {
+        int count = 0;
+        for (long bits = chosenMask; bits != 0; bits &= bits - 1) {
+            outRooms[count++] = roomAtRank[Long.numberOfTrailingZeros(bits)];
+        }
+        fillCounts(students, outRooms, count, outCounts);
+        return count;
+    }
+
+    /**
+     * Chia đều sinh viên, phòng nhỏ trước: mỗi phòng nhận phần đều của số còn lại,
+     * tối đa sức chứa. Vì tổng sức chứa ≥ students nên không ai bị thiếu chỗ.
+     */
+    private void fillCounts(int students, int[] rooms, int count, int[] outCounts) {
+        int remaining = students;
+        for (int i = count - 1; i >= 0; i--) {
+            int share = Math.min(instance.getRoomCapacity(rooms[i]), (remaining + i) / (i + 1));
+            outCounts[i] = share;
+            remaining -= share;
+        }
+    }
+
+    private static int cacheSlot(int students, long freeMask) {
+        long hash = (freeMask ^ ((long) students << 32 | students)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 52);
+    }
+
+    /**
+     * @return Mảng tạm getNumRooms() phần tử để liệt kê phòng trống trước khi gọi {@link #plan}
+     */
+    public int[] getRoomBuffer() {
+        return roomBuffer;
+    }
+
+    /**
+     * @return Mảng tạm getNumRooms() phần tử để nhận các phòng được chọn
+     */
+    public int[] getPlanRooms() {
+        return planRooms;
+    }
+
+    /**
+     * @return Mảng tạm getNumRooms() phần tử để nhận số sinh viên từng phòng
+     */
+    public int[] getPlanCounts() {
+        return planCounts;
+    }
+
+    /**
+     * @return Số lần {@link #plan} dùng kết quả trong bộ nhớ đệm
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+}
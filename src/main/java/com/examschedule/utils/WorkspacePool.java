@@ -0,0 +1,67 @@
+package com.examschedule.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Bộ đệm tạm dùng lại giữa các lần gọi, thuộc về một đối tượng (bộ giải, hàm
+ * fitness...) thay vì ThreadLocal: luồng của một pool dùng chung sống lâu hơn
+ * đối tượng nên ThreadLocal giữ bộ đệm của mọi đối tượng luồng đó từng chạy.
+ *
+ * Các bộ đệm rảnh nằm trong một mảng ô nhỏ. Mỗi luồng mượn và trả bắt đầu từ ô
+ * theo ID luồng, nên thường chỉ tốn hai thao tác nguyên tử và không cấp phát; khi
+ * ô đó trống (hoặc đã đầy lúc trả) thì thử các ô kế tiếp. Nếu mọi ô đều trống, bộ
+ * đệm mới được tạo; nếu mọi ô đều đầy khi trả, bộ đệm thừa bị bỏ. Số bộ đệm được
+ * giữ không vượt quá số ô.
+ */
+public final class WorkspacePool<T> {
+    private final Supplier<T> factory;
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    public WorkspacePool(Supplier<T> factory) {
+        this.factory = factory;
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Mượn một bộ đệm; trả lại bằng {@link #release(Object)} khi xong.
+     */
+    public T acquire() {
+        int start = slot();
+        for (int i = 0; i <= mask; i++) {
+            int k = (start + i) & mask;
+            if (slots.get(k) != null) {
+                T workspace = slots.getAndSet(k, null);
+                if (workspace != null) {
+                    return workspace;
+                }
+            }
+        }
+        return factory.get();
+    }
+
+    public void release(T workspace) {
+        int start = slot();
+        for (int i = 0; i <= mask; i++) {
+            if (slots.compareAndSet((start + i) & mask, null, workspace)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Bỏ mọi bộ đệm rảnh (bộ đệm đang được mượn vẫn có thể được trả lại sau).
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int slot() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+}
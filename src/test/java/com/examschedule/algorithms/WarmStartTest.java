@@ -0,0 +1,80 @@
+package com.examschedule.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.examschedule.models.Assignment;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.utils.DataLoader;
+import com.examschedule.utils.ScheduleFormatException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link WarmStart}: trạng thái đọc lại từ file phải giống hệt trạng thái đã
+ * ghi; file sai magic hoặc bị cắt cụt bị từ chối.
+ */
+class WarmStartTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveAndLoadRoundTrip() throws IOException {
+        ScheduleData data = DataLoader.read(Paths.get("test_inputs/input_test3.json"));
+        AntColonyOptimization aco = new AntColonyOptimization(data, 5, 5, 42, AcoParameters.maxMin());
+        aco.solve();
+        WarmStart saved = aco.toWarmStart();
+        Path path = dir.resolve("state.warm");
+        saved.write(path);
+
+        WarmStart loaded = WarmStart.read(path);
+
+        assertArrayEquals(saved.examIds, loaded.examIds);
+        assertArrayEquals(saved.timeslots, loaded.timeslots);
+        assertArrayEquals(saved.roomIds, loaded.roomIds);
+        assertEquals(saved.fitness, loaded.fitness);
+        assertArrayEquals(saved.rowExam, loaded.rowExam);
+        assertArrayEquals(saved.rowTimeslot, loaded.rowTimeslot);
+        assertArrayEquals(saved.rowRoom, loaded.rowRoom);
+        assertArrayEquals(saved.rowStudents, loaded.rowStudents);
+        assertArrayEquals(saved.cellExam, loaded.cellExam);
+        assertArrayEquals(saved.cellTimeslot, loaded.cellTimeslot);
+        assertArrayEquals(saved.cellRoom, loaded.cellRoom);
+        assertArrayEquals(saved.cellPheromone, loaded.cellPheromone);
+
+        assertEquals(aco.getBestFitness(), loaded.getFitness());
+        assertEquals(toStrings(aco.getBestSchedule()), toStrings(loaded.getSchedule()));
+        assertEquals(0, loaded.countChangedExams(aco.getBestSchedule()));
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = dir.resolve("foreign.warm");
+        Files.write(foreign, "EXAMSNAP and more bytes".getBytes());
+        assertThrows(ScheduleFormatException.class, () -> WarmStart.read(foreign));
+
+        ScheduleData data = DataLoader.read(Paths.get("test_inputs/input_test1.json"));
+        AntColonyOptimization aco = new AntColonyOptimization(data, 2, 1, 7);
+        aco.solve();
+        Path truncated = dir.resolve("truncated.warm");
+        aco.toWarmStart().write(truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(ScheduleFormatException.class, () -> WarmStart.read(truncated));
+    }
+
+    private static List<String> toStrings(List<Assignment> schedule) {
+        return schedule.stream()
+                .map(a -> a.getExamId() + "/" + a.getTimeslot() + "/" + a.getRoom() + "/" + a.getStudentCount())
+                .collect(Collectors.toList());
+    }
+}
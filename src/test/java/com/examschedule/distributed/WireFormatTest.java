@@ -0,0 +1,134 @@
+package com.examschedule.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examschedule.models.CompactSchedule;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link WireFormat}: varint, lịch thi và pheromone đọc lại đúng như đã ghi
+ * (pheromone trong sai số lượng tử hoá), với đúng số byte.
+ */
+class WireFormatTest {
+
+    @Test
+    void varintRoundTrip() throws IOException {
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Long.MAX_VALUE};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 5, 9};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            WireFormat.writeVarint(new DataOutputStream(bytes), values[i]);
+            assertEquals(lengths[i], bytes.size(), "length of " + values[i]);
+            assertEquals(values[i], WireFormat.readVarint(input(bytes)));
+        }
+    }
+
+    @Test
+    void varintRejectsInvalidValues() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> WireFormat.writeVarint(new DataOutputStream(new ByteArrayOutputStream()), -1));
+
+        ByteArrayOutputStream tooLarge = new ByteArrayOutputStream();
+        WireFormat.writeVarint(new DataOutputStream(tooLarge), Integer.MAX_VALUE + 1L);
+        assertThrows(IOException.class, () -> WireFormat.readVarintInt(input(tooLarge)));
+
+        // Mười byte đều còn bit nối tiếp
+        byte[] malformed = new byte[10];
+        Arrays.fill(malformed, (byte) 0x80);
+        assertThrows(IOException.class,
+                () -> WireFormat.readVarint(new DataInputStream(new ByteArrayInputStream(malformed))));
+    }
+
+    @Test
+    void scheduleRoundTrip() throws IOException {
+        CompactSchedule schedule = new CompactSchedule();
+        schedule.add(0, 0, 0, 30);
+        schedule.add(1, 4, 2, 200);
+        schedule.add(1, 4, 3, 150);
+        schedule.add(300, 17, 129, 1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireFormat.writeSchedule(new DataOutputStream(bytes), schedule, 1234.5);
+        CompactSchedule target = new CompactSchedule();
+        target.add(9, 9, 9, 9);
+        assertEquals(1234.5, WireFormat.readSchedule(input(bytes), target));
+
+        assertEquals(schedule.size(), target.size());
+        for (int row = 0; row < schedule.size(); row++) {
+            assertEquals(schedule.getExam(row), target.getExam(row));
+            assertEquals(schedule.getTimeslot(row), target.getTimeslot(row));
+            assertEquals(schedule.getRoom(row), target.getRoom(row));
+            assertEquals(schedule.getStudentCount(row), target.getStudentCount(row));
+        }
+    }
+
+    @Test
+    void missingScheduleLeavesTargetUnchanged() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireFormat.writeSchedule(new DataOutputStream(bytes), null, 0);
+        assertEquals(1, bytes.size());
+
+        CompactSchedule target = new CompactSchedule();
+        target.add(5, 1, 2, 40);
+        assertTrue(Double.isNaN(WireFormat.readSchedule(input(bytes), target)));
+        assertEquals(1, target.size());
+        assertEquals(5, target.getExam(0));
+    }
+
+    @Test
+    void pheromoneRoundTripWithinQuantizationError() throws IOException {
+        Random random = new Random(7);
+        double[] values = new double[5000];
+        for (int k = 0; k < values.length; k++) {
+            // τ từ 1e-3 tới 10, kèm một số ô bằng 0
+            values[k] = k % 50 == 0 ? 0 : Math.pow(10, -3 + 4 * random.nextDouble());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireFormat.writePheromone(new DataOutputStream(bytes), values);
+        // Cờ, độ dài varint, minLog và bước, rồi 2 byte mỗi τ
+        assertEquals(1 + 2 + 16 + 2 * values.length, bytes.size());
+
+        float[] target = new float[values.length];
+        float[] decoded = WireFormat.readPheromone(input(bytes), target);
+        assertSame(target, decoded);
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] == 0) {
+                assertEquals(0f, decoded[k]);
+            } else {
+                assertEquals(values[k], decoded[k], values[k] * 1e-4, "tau " + k);
+            }
+        }
+    }
+
+    @Test
+    void constantAndMissingPheromone() throws IOException {
+        double[] values = new double[100];
+        Arrays.fill(values, 0.25);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireFormat.writePheromone(new DataOutputStream(bytes), values);
+        float[] decoded = WireFormat.readPheromone(input(bytes), null);
+        for (float value : decoded) {
+            assertEquals(0.25f, value, 1e-6f);
+        }
+
+        ByteArrayOutputStream none = new ByteArrayOutputStream();
+        WireFormat.writePheromone(new DataOutputStream(none), null);
+        assertNull(WireFormat.readPheromone(input(none), new float[4]));
+    }
+
+    private static DataInputStream input(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.examschedule.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ScheduleData;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * {@link IncrementalFitness}: sau mỗi bước di chuyển ngẫu nhiên, fitness cũ
+ * cộng deltaMove phải bằng fitness sau applyMove và bằng ScheduleFitness tính
+ * lại toàn bộ; phạt hiệu quả ca O(số ca) phải bằng vòng lặp O(số ca²) ban đầu.
+ */
+class IncrementalFitnessParityTest {
+
+    private static final int RANDOM_MOVES = 2000;
+    private static final int RANDOM_SLOT_COUNTS = 500;
+    private static final double EPSILON = 1e-6;
+
+    static Stream<String> inputs() {
+        return IntStream.rangeClosed(1, 10).mapToObj(i -> "test_inputs/input_test" + i + ".json");
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void deltaMatchesAppliedMoveAndFullRecompute(String input) throws IOException {
+        ScheduleData data = DataLoader.read(Paths.get(input));
+        CompiledInstance instance = data.getCompiled();
+        ScheduleFitness fitness = new ScheduleFitness(data);
+        Random random = new Random(input.hashCode());
+
+        IncrementalFitness incremental = new IncrementalFitness(instance);
+        CompactSchedule schedule = randomSchedule(instance, random);
+        incremental.load(schedule);
+        assertEquals(fitness.calculateFitness(schedule), incremental.getFitness(), EPSILON, input + ", load");
+
+        CompactSchedule current = new CompactSchedule();
+        for (int m = 0; m < RANDOM_MOVES; m++) {
+            int exam = random.nextInt(instance.getNumExams());
+            int timeslot = random.nextInt(instance.getNumTimeslots());
+            double before = incremental.getFitness();
+            double delta;
+            int roll = random.nextInt(4);
+            if (roll == 0) {
+                // Bỏ xếp môn
+                delta = incremental.deltaMove(exam, -1, new int[0], new int[0]);
+                incremental.applyMove(exam, -1, new int[0], new int[0]);
+            } else if (roll == 1 && instance.getExamSize(exam) > 1 && instance.getNumRooms() > 1) {
+                // Chia môn vào hai phòng khác nhau
+                int first = random.nextInt(instance.getNumRooms());
+                int second = (first + 1 + random.nextInt(instance.getNumRooms() - 1)) % instance.getNumRooms();
+                int size = instance.getExamSize(exam);
+                int[] rooms = {first, second};
+                int[] counts = {size / 2, size - size / 2};
+                delta = incremental.deltaMove(exam, timeslot, rooms, counts);
+                incremental.applyMove(exam, timeslot, rooms, counts);
+            } else {
+                int room = random.nextInt(instance.getNumRooms());
+                delta = incremental.deltaMove(exam, timeslot, room);
+                incremental.applyMove(exam, timeslot, room);
+            }
+
+            incremental.writeTo(current);
+            double recomputed = fitness.calculateFitness(current);
+            assertEquals(before + delta, incremental.getFitness(), EPSILON, input + ", move " + m + " applied");
+            assertEquals(recomputed, incremental.getFitness(), EPSILON, input + ", move " + m + " recomputed");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void efficiencyPenaltyMatchesQuadraticLoop(String input) throws IOException {
+        CompiledInstance instance = DataLoader.read(Paths.get(input)).getCompiled();
+        int numRooms = instance.getNumRooms();
+        Random random = new Random(input.hashCode());
+
+        for (int s = 0; s < RANDOM_SLOT_COUNTS; s++) {
+            int[] slotCounts = new int[instance.getNumTimeslots()];
+            for (int i = 0; i < slotCounts.length; i++) {
+                // Cả ca trống, ca chưa đầy, ca đầy và ca quá tải
+                slotCounts[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(2 * numRooms + 1);
+            }
+            assertEquals(legacyTimeslotEfficiencyPenalty(slotCounts, numRooms),
+                    IncrementalFitness.timeslotEfficiencyPenalty(slotCounts, numRooms), input + ", counts " + s);
+        }
+    }
+
+    /**
+     * Mỗi môn có 3/4 khả năng được xếp vào ca và phòng ngẫu nhiên.
+     */
+    private static CompactSchedule randomSchedule(CompiledInstance instance, Random random) {
+        CompactSchedule schedule = new CompactSchedule();
+        for (int exam = 0; exam < instance.getNumExams(); exam++) {
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            schedule.add(exam, random.nextInt(instance.getNumTimeslots()), random.nextInt(instance.getNumRooms()),
+                    instance.getExamSize(exam));
+        }
+        return schedule;
+    }
+
+    /**
+     * checkTimeslotEfficiency trước khi có tổng hậu tố: với mỗi ca i chưa đầy,
+     * mỗi ca j > i có dùng bị phạt 200 * count[j] * (j - i).
+     */
+    private static long legacyTimeslotEfficiencyPenalty(int[] slotCounts, int numRooms) {
+        long penalty = 0;
+        for (int i = 0; i < slotCounts.length; i++) {
+            if (slotCounts[i] < numRooms) {
+                for (int j = i + 1; j < slotCounts.length; j++) {
+                    if (slotCounts[j] > 0) {
+                        penalty += 200L * slotCounts[j] * (j - i);
+                    }
+                }
+            }
+        }
+        return penalty;
+    }
+}
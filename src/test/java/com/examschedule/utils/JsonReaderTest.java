@@ -0,0 +1,35 @@
+package com.examschedule.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lỗi cú pháp từ {@link JsonReader} phải chỉ đúng dòng:cột của ký tự sai.
+ */
+class JsonReaderTest {
+
+    @Test
+    void malformedInputReportsLineAndColumn() {
+        // Thiếu dấu phẩy trước "students" ở dòng 3, cột 17
+        String json = "{\n"
+                + "  \"exams\": [\n"
+                + "    {\"id\": \"E1\" \"students\": [\"S1\"]}\n"
+                + "  ]\n"
+                + "}\n";
+
+        ScheduleFormatException e = assertThrows(ScheduleFormatException.class,
+                () -> DataLoader.readJSON(Channels.newChannel(
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))), "broken.json"));
+
+        assertEquals("broken.json", e.getSource());
+        assertEquals(3, e.getLine());
+        assertEquals(17, e.getColumn());
+        assertTrue(e.getMessage().startsWith("broken.json:3:17: "), e.getMessage());
+    }
+}
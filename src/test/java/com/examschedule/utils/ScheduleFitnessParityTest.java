@@ -0,0 +1,103 @@
+package com.examschedule.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.examschedule.models.Assignment;
+import com.examschedule.models.CompactSchedule;
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.Exam;
+import com.examschedule.models.ScheduleData;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Phạt xung đột sinh viên tính qua đồ thị xung đột phải bằng cách đếm ban đầu
+ * theo khoá chuỗi "sinh viên_ca" trên mọi bộ test và trên các lịch ngẫu nhiên.
+ */
+class ScheduleFitnessParityTest {
+
+    private static final int RANDOM_SCHEDULES = 200;
+
+    static Stream<String> inputs() {
+        return IntStream.rangeClosed(1, 10).mapToObj(i -> "test_inputs/input_test" + i + ".json");
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void conflictGraphPenaltyMatchesLegacy(String input) throws IOException {
+        ScheduleData data = DataLoader.read(Paths.get(input));
+        CompiledInstance instance = data.getCompiled();
+        ScheduleFitness fitness = new ScheduleFitness(data);
+        Random random = new Random(input.hashCode());
+
+        for (int s = 0; s < RANDOM_SCHEDULES; s++) {
+            // Số ca nhỏ dần để có cả ca thưa lẫn ca có sinh viên thi từ ba môn trở lên
+            int slots = 1 + random.nextInt(instance.getNumTimeslots());
+            CompactSchedule schedule = randomSchedule(instance, slots, random);
+            assertEquals(legacyStudentConflictPenalty(data, schedule.toAssignments(instance)),
+                    fitness.studentConflictPenalty(schedule), input + ", schedule " + s);
+        }
+    }
+
+    /**
+     * Môn được xếp vào ca và phòng ngẫu nhiên; một phần môn bị chia thành hai dòng
+     * cùng ca, một phần không được xếp.
+     */
+    private static CompactSchedule randomSchedule(CompiledInstance instance, int slots, Random random) {
+        CompactSchedule schedule = new CompactSchedule();
+        for (int exam = 0; exam < instance.getNumExams(); exam++) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                continue;
+            }
+            int timeslot = random.nextInt(slots);
+            int size = instance.getExamSize(exam);
+            if (roll == 1 && size > 1) {
+                schedule.add(exam, timeslot, random.nextInt(instance.getNumRooms()), size / 2);
+                schedule.add(exam, timeslot, random.nextInt(instance.getNumRooms()), size - size / 2);
+            } else {
+                schedule.add(exam, timeslot, random.nextInt(instance.getNumRooms()), size);
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * checkStudentConflicts trước khi có đồ thị xung đột: gom môn theo khoá
+     * "sinh viên_ca", mỗi khoá có k môn khác nhau bị tính k - 1 xung đột.
+     */
+    private static double legacyStudentConflictPenalty(ScheduleData data, List<Assignment> assignments) {
+        double penalty = 0;
+        Map<String, Set<String>> studentTimeslots = new HashMap<>();
+
+        for (Assignment assignment : assignments) {
+            Exam exam = data.getExamById(assignment.getExamId());
+            String timeslot = assignment.getTimeslot();
+            if (exam != null) {
+                for (String studentId : exam.getStudents()) {
+                    String key = studentId + "_" + timeslot;
+                    studentTimeslots
+                            .computeIfAbsent(key, k -> new HashSet<>())
+                            .add(exam.getId());
+                }
+            }
+        }
+
+        for (Set<String> examsInSlot : studentTimeslots.values()) {
+            if (examsInSlot.size() > 1) {
+                penalty += ScheduleFitness.STUDENT_CONFLICT_PENALTY * (examsInSlot.size() - 1);
+            }
+        }
+        return penalty;
+    }
+}
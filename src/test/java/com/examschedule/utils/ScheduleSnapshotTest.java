@@ -0,0 +1,88 @@
+package com.examschedule.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.ConflictGraph;
+import com.examschedule.models.Exam;
+import com.examschedule.models.Room;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.Student;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * {@link ScheduleSnapshot}: đọc lại snapshot vừa ghi phải cho đúng dữ liệu, mô
+ * hình biên dịch và đồ thị xung đột như khi đọc JSON; file cắt cụt bị từ chối.
+ */
+class ScheduleSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    static Stream<String> inputs() {
+        return IntStream.rangeClosed(1, 10).mapToObj(i -> "test_inputs/input_test" + i + ".json");
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void roundTripMatchesJson(String input) throws IOException {
+        ScheduleData json = DataLoader.readJSON(Paths.get(input));
+        Path path = dir.resolve("input.snap");
+        ScheduleSnapshot.write(json, path);
+
+        assertTrue(ScheduleSnapshot.isSnapshot(path));
+        ScheduleData snapshot = ScheduleSnapshot.read(path);
+
+        assertEquals(json.getExams().size(), snapshot.getExams().size());
+        for (int i = 0; i < json.getExams().size(); i++) {
+            Exam expected = json.getExams().get(i);
+            Exam actual = snapshot.getExams().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getStudents(), actual.getStudents(), expected.getId());
+        }
+        assertEquals(json.getStudents().stream().map(Student::getId).collect(Collectors.toList()),
+                snapshot.getStudents().stream().map(Student::getId).collect(Collectors.toList()));
+        assertEquals(json.getRooms().stream().map(Room::getId).collect(Collectors.toList()),
+                snapshot.getRooms().stream().map(Room::getId).collect(Collectors.toList()));
+        assertEquals(json.getRooms().stream().map(Room::getCapacity).collect(Collectors.toList()),
+                snapshot.getRooms().stream().map(Room::getCapacity).collect(Collectors.toList()));
+        assertEquals(json.getTimeslots(), snapshot.getTimeslots());
+
+        CompiledInstance expected = json.getCompiled();
+        CompiledInstance actual = snapshot.getCompiled();
+        assertArrayEquals(expected.getExamSizes(), actual.getExamSizes());
+        assertArrayEquals(expected.getRoomCapacities(), actual.getRoomCapacities());
+        assertArrayEquals(expected.getStudentOffsets(), actual.getStudentOffsets());
+        assertArrayEquals(expected.getStudentMembers(), actual.getStudentMembers());
+
+        ConflictGraph expectedGraph = expected.getConflictGraph();
+        ConflictGraph actualGraph = actual.getConflictGraph();
+        assertArrayEquals(expectedGraph.getOffsets(), actualGraph.getOffsets());
+        assertArrayEquals(expectedGraph.getNeighbors(), actualGraph.getNeighbors());
+        assertArrayEquals(expectedGraph.getWeights(), actualGraph.getWeights());
+    }
+
+    @Test
+    void rejectsTruncatedSnapshot() throws IOException {
+        Path path = dir.resolve("input.snap");
+        ScheduleSnapshot.write(DataLoader.readJSON(Paths.get("test_inputs/input_test1.json")), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThrows(ScheduleFormatException.class, () -> ScheduleSnapshot.read(path));
+    }
+}
@@ -0,0 +1,164 @@
+package com.examschedule.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examschedule.models.CompiledInstance;
+import com.examschedule.models.Exam;
+import com.examschedule.models.Room;
+import com.examschedule.models.ScheduleData;
+import com.examschedule.models.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link SplitPlanner}: tập phòng thừa ít chỗ nhất, mọi sinh viên đều có chỗ,
+ * -1 khi không đủ chỗ, tham lam khi vượt {@link SplitPlanner#DP_CELL_LIMIT} và
+ * kết quả lấy lại từ bộ nhớ đệm.
+ */
+class SplitPlannerTest {
+
+    private static final int[] CAPACITIES = {45, 40, 25, 12, 9};
+
+    @Test
+    void choosesMinimumWasteSubset() {
+        CompiledInstance instance = instance(CAPACITIES);
+        SplitPlanner planner = new SplitPlanner(instance);
+        int[] rooms = new int[CAPACITIES.length];
+        int[] counts = new int[CAPACITIES.length];
+
+        // Tham lam lấy 45 + 9 = 54; tối ưu là 40 + 12 = 52
+        int count = planAllFree(instance, planner, 50, rooms, counts);
+
+        assertEquals(2, count);
+        assertArrayEquals(new int[] {40, 12}, capacitiesOf(instance, rooms, count));
+        assertSeated(instance, 50, rooms, counts, count);
+    }
+
+    @Test
+    void seatsEveryoneWithMinimumWaste() {
+        CompiledInstance instance = instance(CAPACITIES);
+        SplitPlanner planner = new SplitPlanner(instance);
+        int[] rooms = new int[CAPACITIES.length];
+        int[] counts = new int[CAPACITIES.length];
+        int total = Arrays.stream(CAPACITIES).sum();
+
+        for (int students = 1; students <= total; students++) {
+            int count = planAllFree(instance, planner, students, rooms, counts);
+            assertTrue(count > 0, students + " students");
+            assertSeated(instance, students, rooms, counts, count);
+            assertEquals(minimumCover(students), Arrays.stream(capacitiesOf(instance, rooms, count)).sum(),
+                    students + " students");
+        }
+    }
+
+    @Test
+    void reportsInsufficientCapacity() {
+        CompiledInstance instance = instance(CAPACITIES);
+        SplitPlanner planner = new SplitPlanner(instance);
+        int total = Arrays.stream(CAPACITIES).sum();
+
+        assertEquals(-1, planAllFree(instance, planner, total + 1, new int[CAPACITIES.length],
+                new int[CAPACITIES.length]));
+        // Chỉ hai phòng nhỏ nhất còn trống
+        int[] roomsByCapacity = instance.getRoomsByCapacityDesc();
+        int[] free = {roomsByCapacity[3], roomsByCapacity[4]};
+        assertEquals(-1, planner.plan(22, free, free.length, new int[2], new int[2]));
+    }
+
+    @Test
+    void fallsBackToGreedyAboveDpLimit() {
+        int[] capacities = {10_000_000, 8_000_000, 6_000_000, 3_000_000};
+        CompiledInstance instance = instance(capacities);
+        SplitPlanner planner = new SplitPlanner(instance);
+        int[] rooms = new int[capacities.length];
+        int[] counts = new int[capacities.length];
+        int students = 14_000_000;
+        assertTrue((long) capacities.length * (students + capacities[0]) > SplitPlanner.DP_CELL_LIMIT);
+
+        // Tối ưu là 8M + 6M; tham lam lấy 10M rồi phòng nhỏ nhất đủ cho 4M còn lại
+        int count = planAllFree(instance, planner, students, rooms, counts);
+
+        assertArrayEquals(new int[] {10_000_000, 6_000_000}, capacitiesOf(instance, rooms, count));
+        assertSeated(instance, students, rooms, counts, count);
+    }
+
+    @Test
+    void cacheHitReturnsSamePlan() {
+        CompiledInstance instance = instance(CAPACITIES);
+        SplitPlanner planner = new SplitPlanner(instance);
+        int[] rooms = new int[CAPACITIES.length];
+        int[] counts = new int[CAPACITIES.length];
+        int count = planAllFree(instance, planner, 70, rooms, counts);
+        assertEquals(0, planner.getCacheHits());
+
+        int[] cachedRooms = new int[CAPACITIES.length];
+        int[] cachedCounts = new int[CAPACITIES.length];
+        int cachedCount = planAllFree(instance, planner, 70, cachedRooms, cachedCounts);
+
+        assertEquals(1, planner.getCacheHits());
+        assertEquals(1, planner.getCacheMisses());
+        assertEquals(count, cachedCount);
+        assertArrayEquals(Arrays.copyOf(rooms, count), Arrays.copyOf(cachedRooms, cachedCount));
+        assertArrayEquals(Arrays.copyOf(counts, count), Arrays.copyOf(cachedCounts, cachedCount));
+    }
+
+    /**
+     * Một môn, một ca và các phòng R0, R1... với sức chứa đã cho.
+     */
+    private static CompiledInstance instance(int[] capacities) {
+        List<Room> rooms = new ArrayList<>();
+        for (int r = 0; r < capacities.length; r++) {
+            rooms.add(new Room("R" + r, capacities[r]));
+        }
+        List<Exam> exams = List.of(new Exam("E0", List.of("S0")));
+        return new ScheduleData(exams, List.of(new Student("S0")), rooms, List.of("T0")).getCompiled();
+    }
+
+    private static int planAllFree(CompiledInstance instance, SplitPlanner planner, int students,
+            int[] rooms, int[] counts) {
+        int[] free = instance.getRoomsByCapacityDesc();
+        return planner.plan(students, free, free.length, rooms, counts);
+    }
+
+    private static int[] capacitiesOf(CompiledInstance instance, int[] rooms, int count) {
+        int[] capacities = new int[count];
+        for (int i = 0; i < count; i++) {
+            capacities[i] = instance.getRoomCapacity(rooms[i]);
+        }
+        return capacities;
+    }
+
+    private static void assertSeated(CompiledInstance instance, int students, int[] rooms, int[] counts,
+            int count) {
+        int seated = 0;
+        for (int i = 0; i < count; i++) {
+            assertTrue(counts[i] > 0 && counts[i] <= instance.getRoomCapacity(rooms[i]),
+                    counts[i] + " students in a room of " + instance.getRoomCapacity(rooms[i]));
+            seated += counts[i];
+        }
+        assertEquals(students, seated);
+    }
+
+    /**
+     * Tổng sức chứa nhỏ nhất ≥ students trên mọi tập con của CAPACITIES.
+     */
+    private static int minimumCover(int students) {
+        int best = Integer.MAX_VALUE;
+        for (int mask = 1; mask < 1 << CAPACITIES.length; mask++) {
+            int sum = 0;
+            for (int r = 0; r < CAPACITIES.length; r++) {
+                if ((mask & 1 << r) != 0) {
+                    sum += CAPACITIES[r];
+                }
+            }
+            if (sum >= students) {
+                best = Math.min(best, sum);
+            }
+        }
+        return best;
+    }
+}